@@ -0,0 +1,104 @@
+package com.example.ticketero.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JSON de JMH (-rf json) y falla si algún benchmark empeoró
+ * Un benchmark empeora cuando su score cambia en la dirección mala más que el umbral porcentual
+ * y además la diferencia supera la suma de los márgenes de error de ambas corridas (ruido).
+ * En modo thrpt un score menor es peor; en avgt, sample y ss un score mayor es peor.
+ * Uso: ComparadorResultados base.json actual.json [umbral%]
+ * Código de salida 1 si hay regresiones, 2 si los argumentos no son válidos
+ */
+public final class ComparadorResultados {
+
+    private static final double UMBRAL_POR_DEFECTO = 10.0;
+
+    private ComparadorResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ComparadorResultados <base.json> <actual.json> [umbral%]");
+            System.exit(2);
+        }
+        File base = new File(args[0]);
+        if (!base.isFile()) {
+            System.err.println("No existe el resultado base: " + base + " (indicar otro con -Djmh.base=...)");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : UMBRAL_POR_DEFECTO;
+
+        int regresiones = comparar(leer(base), leer(new File(args[1])), umbral);
+        if (regresiones > 0) {
+            System.out.printf("%d benchmark(s) empeoraron más de %.1f%%%n", regresiones, umbral);
+            System.exit(1);
+        }
+        System.out.printf("Sin regresiones sobre %.1f%%%n", umbral);
+    }
+
+    static int comparar(Map<String, Resultado> base, Map<String, Resultado> actual, double umbral) {
+        int regresiones = 0;
+        System.out.printf("%-80s %14s %14s %-8s %9s  %s%n", "Benchmark", "Base", "Actual", "Unidad", "Cambio", "");
+        for (Map.Entry<String, Resultado> entrada : actual.entrySet()) {
+            Resultado anterior = base.get(entrada.getKey());
+            Resultado nuevo = entrada.getValue();
+            if (anterior == null) {
+                System.out.printf("%-80s %14s %14.3f %-8s %9s  nuevo%n", entrada.getKey(), "-", nuevo.score(), nuevo.unidad(), "");
+                continue;
+            }
+
+            double cambio = (nuevo.score() - anterior.score()) / anterior.score() * 100;
+            double empeora = nuevo.mayorEsMejor() ? -cambio : cambio;
+            double ruido = anterior.error() + nuevo.error();
+            boolean regresion = empeora > umbral && Math.abs(nuevo.score() - anterior.score()) > ruido;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %-8s %+8.1f%%  %s%n", entrada.getKey(), anterior.score(), nuevo.score(),
+                nuevo.unidad(), cambio, regresion ? "REGRESIÓN" : "");
+        }
+        base.keySet().stream()
+            .filter(clave -> !actual.containsKey(clave))
+            .forEach(clave -> System.out.printf("%-80s %14.3f %14s %-8s %9s  sin resultado%n", clave, base.get(clave).score(), "-", base.get(clave).unidad(), ""));
+        return regresiones;
+    }
+
+    static Map<String, Resultado> leer(File archivo) throws IOException {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        for (JsonNode corrida : new ObjectMapper().readTree(archivo)) {
+            JsonNode metrica = corrida.path("primaryMetric");
+            resultados.put(clave(corrida), new Resultado(
+                metrica.path("score").asDouble(),
+                metrica.path("scoreError").asDouble(0),
+                metrica.path("scoreUnit").asText(),
+                "thrpt".equals(corrida.path("mode").asText())));
+        }
+        return resultados;
+    }
+
+    /**
+     * Nombre corto del benchmark, modo y parámetros, p. ej. TicketServiceBenchmark.crearTicket [sample]
+     */
+    private static String clave(JsonNode corrida) {
+        String nombre = corrida.path("benchmark").asText();
+        StringBuilder clave = new StringBuilder(nombre.substring(nombre.lastIndexOf('.', nombre.lastIndexOf('.') - 1) + 1))
+            .append(" [").append(corrida.path("mode").asText()).append(']');
+        corrida.path("params").fields()
+            .forEachRemaining(param -> clave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+        return clave.toString();
+    }
+
+    record Resultado(double score, double error, String unidad, boolean mayorEsMejor) {
+        Resultado {
+            // Con una sola iteración JMH informa el error como NaN
+            error = Double.isNaN(error) ? 0 : error;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.TicketeroApplication;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplicación completa para los benchmarks de servicios, una por fork de JMH
+ * Por defecto PostgreSQL (y RabbitMQ si el benchmark lo necesita) corren en contenedores.
+ * Con BENCHMARK_DATABASE_URL se usa una base existente; su schema se limpia al iniciar cada trial,
+ * por lo que debe ser exclusiva para benchmarks: su nombre debe terminar en _jmh o, para otra base
+ * desechable, se debe confirmar con BENCHMARK_DATABASE_CLEAN=true.
+ * Los schedulers quedan con intervalos largos y el log SQL apagado para que no compitan con lo medido
+ */
+final class EntornoBenchmark implements AutoCloseable {
+
+    private static final long UNA_HORA_MS = 3_600_000;
+
+    private final List<GenericContainer<?>> contenedores = new ArrayList<>();
+    private final ConfigurableApplicationContext contexto;
+
+    EntornoBenchmark(boolean conBroker) {
+        Map<String, Object> propiedades = new LinkedHashMap<>();
+        propiedades.put("outbox.process-interval", UNA_HORA_MS);
+        propiedades.put("outbox.listen.enabled", false);
+        propiedades.put("ticket.archivo.intervalo-ms", UNA_HORA_MS);
+        propiedades.put("notificaciones.proximo-turno.revision-ms", UNA_HORA_MS);
+        propiedades.put("recovery.check-interval", UNA_HORA_MS);
+        propiedades.put("estimacion.asesores.intervalo-ms", UNA_HORA_MS);
+        propiedades.put("logging.level.com.example.ticketero", "WARN");
+        propiedades.put("logging.level.org.hibernate.SQL", "WARN");
+        propiedades.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        propiedades.putAll(baseDeDatos());
+        if (conBroker) {
+            propiedades.putAll(broker());
+        }
+
+        String[] argumentos = propiedades.entrySet().stream()
+            .map(propiedad -> "--" + propiedad.getKey() + "=" + propiedad.getValue())
+            .toArray(String[]::new);
+        this.contexto = new SpringApplicationBuilder(TicketeroApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(argumentos);
+    }
+
+    <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    JdbcTemplate jdbc() {
+        return contexto.getBean(JdbcTemplate.class);
+    }
+
+    @Override
+    public void close() {
+        contexto.close();
+        contenedores.forEach(GenericContainer::stop);
+    }
+
+    private Map<String, Object> baseDeDatos() {
+        String url = System.getenv("BENCHMARK_DATABASE_URL");
+        String usuario;
+        String clave;
+        if (url != null && !url.isBlank()) {
+            usuario = System.getenv().getOrDefault("BENCHMARK_DATABASE_USERNAME", "dev");
+            clave = System.getenv().getOrDefault("BENCHMARK_DATABASE_PASSWORD", "dev123");
+            // Cada trial parte de un schema vacío, igual que con un contenedor nuevo
+            verificarBaseDesechable(url);
+            Flyway.configure().dataSource(url, usuario, clave).cleanDisabled(false).load().clean();
+        } else {
+            PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                .withDatabaseName("ticketero_jmh")
+                .withUsername("test")
+                .withPassword("test");
+            iniciar(postgres);
+            url = postgres.getJdbcUrl();
+            usuario = postgres.getUsername();
+            clave = postgres.getPassword();
+        }
+        return Map.of(
+            "spring.datasource.url", url,
+            "spring.datasource.username", usuario,
+            "spring.datasource.password", clave);
+    }
+
+    /**
+     * Impide limpiar una base que no fue declarada desechable (p. ej. la de desarrollo apuntada por error)
+     * @throws IllegalStateException si el nombre no termina en _jmh y falta BENCHMARK_DATABASE_CLEAN=true
+     */
+    private static void verificarBaseDesechable(String url) {
+        String nombre = url.replaceFirst("[?;].*$", "");
+        nombre = nombre.substring(nombre.lastIndexOf('/') + 1);
+        boolean confirmada = Boolean.parseBoolean(System.getenv("BENCHMARK_DATABASE_CLEAN"));
+        if (!nombre.endsWith("_jmh") && !confirmada) {
+            throw new IllegalStateException("La base '" + nombre + "' de BENCHMARK_DATABASE_URL se limpia en cada trial: "
+                + "use una base terminada en _jmh o confirme con BENCHMARK_DATABASE_CLEAN=true");
+        }
+    }
+
+    private Map<String, Object> broker() {
+        String host = System.getenv("BENCHMARK_RABBITMQ_HOST");
+        if (host != null && !host.isBlank()) {
+            return Map.of(
+                "spring.rabbitmq.host", host,
+                "spring.rabbitmq.port", System.getenv().getOrDefault("BENCHMARK_RABBITMQ_PORT", "5672"),
+                "spring.rabbitmq.username", System.getenv().getOrDefault("BENCHMARK_RABBITMQ_USERNAME", "dev"),
+                "spring.rabbitmq.password", System.getenv().getOrDefault("BENCHMARK_RABBITMQ_PASSWORD", "dev123"));
+        }
+        RabbitMQContainer rabbitmq = new RabbitMQContainer("rabbitmq:3.13-management-alpine");
+        iniciar(rabbitmq);
+        return Map.of(
+            "spring.rabbitmq.host", rabbitmq.getHost(),
+            "spring.rabbitmq.port", rabbitmq.getAmqpPort(),
+            "spring.rabbitmq.username", rabbitmq.getAdminUsername(),
+            "spring.rabbitmq.password", rabbitmq.getAdminPassword());
+    }
+
+    private void iniciar(GenericContainer<?> contenedor) {
+        contenedor.start();
+        contenedores.add(contenedor);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.model.dto.TicketQueueMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por mensaje de armar el cuerpo AMQP de un registro del Outbox
+ * reserializar: payload TEXT → TicketQueueMessage → conversor JSON (camino anterior)
+ * crudo: payload BYTEA publicado tal cual como Message (camino actual)
+ * Con -prof gc se compara además gc.alloc.rate.norm (bytes asignados por mensaje)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutboxPayloadBenchmark {
+
+    private static final String PAYLOAD = "{\"ticketId\":12345,\"numero\":\"C123\",\"queueType\":\"CAJA\"," +
+        "\"telefono\":\"+56912345678\",\"branchOffice\":\"Sucursal Centro\",\"positionInQueue\":7," +
+        "\"estimatedWaitMinutes\":35}";
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonMessageConverter converter;
+    private String payloadTexto;
+    private byte[] payloadBytes;
+
+    @Setup
+    public void preparar() {
+        objectMapper = new ObjectMapper();
+        converter = new Jackson2JsonMessageConverter(objectMapper);
+        payloadTexto = PAYLOAD;
+        payloadBytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Message reserializar() throws Exception {
+        TicketQueueMessage mensaje = objectMapper.readValue(payloadTexto, TicketQueueMessage.class);
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setMessageId("12345");
+        return converter.toMessage(mensaje, propiedades);
+    }
+
+    @Benchmark
+    public Message crudo() {
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        propiedades.setMessageId("12345");
+        return new Message(payloadBytes, propiedades);
+    }
+}
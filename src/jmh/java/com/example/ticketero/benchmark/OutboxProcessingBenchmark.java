@@ -0,0 +1,94 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.service.OutboxPublisherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por mensaje de drenar el Outbox hacia RabbitMQ: reclamo del lote con SKIP LOCKED,
+ * publicación, espera de los confirms del broker y marcado SENT
+ * Cada invocación siembra un backlog de MENSAJES filas fuera de la medición y lo drena con processOutbox
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutboxProcessingBenchmark {
+
+    private static final int MENSAJES = 1_000;
+    private static final String EXCHANGE = "ticketero-exchange";
+    private static final String COLA = "outbox-jmh";
+    private static final String ROUTING_KEY = "ticket.created";
+
+    private EntornoBenchmark entorno;
+    private OutboxPublisherService outboxPublisherService;
+    private AmqpAdmin amqpAdmin;
+    private long siguienteId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        entorno = new EntornoBenchmark(true);
+        outboxPublisherService = entorno.bean(OutboxPublisherService.class);
+        amqpAdmin = entorno.bean(AmqpAdmin.class);
+        TopicExchange exchange = new TopicExchange(EXCHANGE);
+        Queue cola = new Queue(COLA, false);
+        amqpAdmin.declareExchange(exchange);
+        amqpAdmin.declareQueue(cola);
+        amqpAdmin.declareBinding(BindingBuilder.bind(cola).to(exchange).with(ROUTING_KEY));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entorno.close();
+    }
+
+    /**
+     * Nivel Invocation es aceptable aquí: cada drenado de MENSAJES filas toma cientos de milisegundos
+     */
+    @Setup(Level.Invocation)
+    public void sembrarBacklog() {
+        amqpAdmin.purgeQueue(COLA, false);
+        entorno.jdbc().execute("DELETE FROM outbox_message WHERE status = 'SENT'");
+
+        List<Object[]> filas = new ArrayList<>(MENSAJES);
+        for (int i = 0; i < MENSAJES; i++) {
+            long id = ++siguienteId;
+            String payload = String.format(
+                "{\"ticketId\":%d,\"numero\":\"C%04d\",\"queueType\":\"CAJA\",\"telefono\":\"+56912345678\"," +
+                "\"branchOffice\":\"Sucursal Centro\",\"positionInQueue\":%d,\"estimatedWaitMinutes\":5}", id, id % 10_000, i + 1);
+            filas.add(new Object[]{"TICKET", id, "TICKET_CREATED", payload.getBytes(StandardCharsets.UTF_8), ROUTING_KEY});
+        }
+        entorno.jdbc().batchUpdate(
+            "INSERT INTO outbox_message (aggregate_type, aggregate_id, event_type, payload, routing_key) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            filas);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MENSAJES)
+    public void processOutbox() {
+        outboxPublisherService.processOutbox();
+    }
+}
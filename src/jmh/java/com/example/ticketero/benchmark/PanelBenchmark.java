@@ -0,0 +1,102 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.QueueStatusResponse;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.service.DashboardService;
+import com.example.ticketero.service.QueuePositionIndex;
+import com.example.ticketero.service.QueueService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de las lecturas que alimentan las pantallas, sin la caché de snapshots
+ * La tabla ticket se siembra como en una jornada en curso: los tickets de hoy y los finalizados
+ * de ayer que el archivador todavía no mueve al historial
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PanelBenchmark {
+
+    private static final int TICKETS_AYER = 5_000;
+    private static final int TICKETS_HOY = 5_000;
+
+    private EntornoBenchmark entorno;
+    private QueueService queueService;
+    private DashboardService dashboardService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        entorno = new EntornoBenchmark(false);
+        queueService = entorno.bean(QueueService.class);
+        dashboardService = entorno.bean(DashboardService.class);
+        sembrarJornada();
+        entorno.bean(QueuePositionIndex.class).reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entorno.close();
+    }
+
+    @Benchmark
+    public List<QueueStatusResponse> obtenerEstadoColas() {
+        return queueService.obtenerEstadoColas();
+    }
+
+    @Benchmark
+    public DashboardResponse obtenerDashboard() {
+        return dashboardService.obtenerDashboard();
+    }
+
+    private void sembrarJornada() {
+        QueueType[] colas = QueueType.values();
+        TicketStatus[] finales = {TicketStatus.COMPLETADO, TicketStatus.CANCELADO, TicketStatus.NO_ATENDIDO};
+        LocalDateTime inicioDelDia = LocalDateTime.now().with(LocalTime.MIN);
+        List<Object[]> filas = new ArrayList<>(TICKETS_AYER + TICKETS_HOY);
+
+        for (int i = 0; i < TICKETS_AYER + TICKETS_HOY; i++) {
+            boolean hoy = i >= TICKETS_AYER;
+            QueueType cola = colas[i % colas.length];
+            TicketStatus estado = hoy && i % 5 == 0 ? TicketStatus.EN_ESPERA
+                : hoy && i % 7 == 0 ? TicketStatus.ATENDIENDO
+                : finales[i % finales.length];
+            LocalDateTime creado = hoy
+                ? inicioDelDia.plusSeconds(i - TICKETS_AYER)
+                : inicioDelDia.minusDays(1).plusSeconds(i * 5L);
+            filas.add(new Object[]{
+                UUID.randomUUID(), cola.getPrefix() + String.valueOf(i), "JMH" + i, "Sucursal Centro",
+                cola.name(), estado.name(), 1, cola.getAvgTimeMinutes(), Timestamp.valueOf(creado), Timestamp.valueOf(creado)
+            });
+        }
+
+        entorno.jdbc().batchUpdate(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            filas);
+        entorno.jdbc().execute("ANALYZE ticket");
+    }
+}
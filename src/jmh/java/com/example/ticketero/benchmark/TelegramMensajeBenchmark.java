@@ -0,0 +1,53 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.service.TelegramService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de armar el texto de cada plantilla de Telegram (String.format sobre el mensaje HTML)
+ * No usa la red ni el contexto de Spring: el servicio se construye sin cliente HTTP
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TelegramMensajeBenchmark {
+
+    @Param({"totem_ticket_creado", "totem_proximo_turno", "totem_es_tu_turno"})
+    private String plantilla;
+
+    private TelegramService telegramService;
+    private String numeroTicket;
+    private Integer posicion;
+    private Integer tiempoEstimado;
+    private Integer modulo;
+
+    @Setup
+    public void preparar() {
+        telegramService = new TelegramService(null, null, new SimpleMeterRegistry());
+        numeroTicket = "C123";
+        posicion = 7;
+        tiempoEstimado = 35;
+        modulo = 3;
+    }
+
+    @Benchmark
+    public String obtenerTextoMensaje() {
+        return telegramService.obtenerTextoMensaje(plantilla, numeroTicket, posicion, tiempoEstimado, "María González", modulo);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ticketero.benchmark;
+
+import com.example.ticketero.model.dto.TicketBatchResponse;
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.dto.TicketResponse;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.TicketService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencia de los caminos de escritura de TicketService contra PostgreSQL real
+ * crearTicket: validación, reserva de número, insert con Outbox y registro en el índice de filas
+ * crearTicketsLote: lote de LOTE tickets con una reserva de números por cola e inserts en batch
+ * llamarTicket: UPDATE condicional del ticket, retiro de la fila y eventos del llamado
+ * llamarSiguiente: elección del primero de las colas y toma con UPDATE condicional
+ * Modo SampleTime: el JSON incluye p50/p99 además del promedio
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketServiceBenchmark {
+
+    private static final QueueType[] COLAS = QueueType.values();
+    private static final int LOTE = 50;
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private EntornoBenchmark entorno;
+    private TicketService ticketService;
+    private Long advisorId;
+    private Long advisorSiguienteId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        entorno = new EntornoBenchmark(false);
+        ticketService = entorno.bean(TicketService.class);
+        advisorId = entorno.jdbc().queryForObject("SELECT MIN(id) FROM advisor", Long.class);
+        advisorSiguienteId = entorno.jdbc().queryForObject("SELECT MAX(id) FROM advisor", Long.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entorno.close();
+    }
+
+    /**
+     * Ticket recién creado para cada llamado; crearlo queda fuera de la medición
+     * Nivel Invocation es aceptable aquí: cada operación medida toma del orden de milisegundos
+     */
+    @State(Scope.Thread)
+    public static class TicketEnEspera {
+
+        private Long ticketId;
+
+        @Setup(Level.Invocation)
+        public void crear(TicketServiceBenchmark benchmark) {
+            ticketId = benchmark.crearTicket().id();
+        }
+    }
+
+    /**
+     * Ticket en espera para llamarSiguiente; el ticket tomado se finaliza fuera de la medición
+     * para que el asesor quede libre en la invocación siguiente
+     */
+    @State(Scope.Thread)
+    public static class SiguienteEnEspera {
+
+        private Long ticketTomadoId;
+
+        @Setup(Level.Invocation)
+        public void crear(TicketServiceBenchmark benchmark) {
+            benchmark.crearTicket();
+        }
+
+        @TearDown(Level.Invocation)
+        public void finalizar(TicketServiceBenchmark benchmark) {
+            if (ticketTomadoId != null) {
+                benchmark.ticketService.finalizarTicket(ticketTomadoId);
+                ticketTomadoId = null;
+            }
+        }
+    }
+
+    @Benchmark
+    public TicketResponse crearTicket() {
+        long n = secuencia.incrementAndGet();
+        // Sin teléfono: la creación no encola mensajes de Telegram
+        return ticketService.crearTicket(new TicketCreateRequest(
+            "JMH-" + n, null, "Sucursal Centro", COLAS[(int) (n % COLAS.length)]));
+    }
+
+    @Benchmark
+    public TicketBatchResponse crearTicketsLote() {
+        List<TicketCreateRequest> requests = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            long n = secuencia.incrementAndGet();
+            requests.add(new TicketCreateRequest("JMH-" + n, null, "Sucursal Centro", COLAS[(int) (n % COLAS.length)]));
+        }
+        return ticketService.crearTicketsLote(requests);
+    }
+
+    @Benchmark
+    public void llamarTicket(TicketEnEspera ticket) {
+        ticketService.llamarTicket(ticket.ticketId, advisorId);
+    }
+
+    @Benchmark
+    public void llamarSiguiente(SiguienteEnEspera siguiente) {
+        siguiente.ticketTomadoId = ticketService.llamarSiguiente(advisorSiguienteId)
+            .map(TicketResponse::id)
+            .orElse(null);
+    }
+}
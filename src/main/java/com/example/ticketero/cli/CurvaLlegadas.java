@@ -0,0 +1,95 @@
+package com.example.ticketero.cli;
+
+import com.example.ticketero.model.enums.QueueType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Llegadas de clientes durante una jornada de sucursal (09:00 a 14:00)
+ * Cada cola tiene su participación en el total del día y su propia curva horaria:
+ * caja concentra el horario de almuerzo, empresas llega temprano y gerencia se reparte en la mañana.
+ * Dentro de cada hora las llegadas son un proceso de Poisson con la tasa de esa hora
+ */
+public class CurvaLlegadas {
+
+    public static final int HORA_APERTURA = 9;
+    public static final int HORAS_JORNADA = 5;
+
+    private static final Map<QueueType, Double> PARTICIPACION = new EnumMap<>(Map.of(
+        QueueType.CAJA, 0.55,
+        QueueType.PERSONAL_BANKER, 0.25,
+        QueueType.EMPRESAS, 0.12,
+        QueueType.GERENCIA, 0.08));
+
+    // Peso de cada hora de la jornada (09, 10, 11, 12, 13); cada curva suma 1
+    private static final Map<QueueType, double[]> PESO_POR_HORA = new EnumMap<>(Map.of(
+        QueueType.CAJA, new double[]{0.14, 0.18, 0.18, 0.26, 0.24},
+        QueueType.PERSONAL_BANKER, new double[]{0.18, 0.24, 0.22, 0.18, 0.18},
+        QueueType.EMPRESAS, new double[]{0.30, 0.28, 0.20, 0.12, 0.10},
+        QueueType.GERENCIA, new double[]{0.20, 0.30, 0.25, 0.15, 0.10}));
+
+    /**
+     * Llegada de un cliente a un tótem
+     * @param segundo Segundos de jornada desde la apertura
+     */
+    public record Llegada(double segundo, QueueType queueType) {
+    }
+
+    private final int ticketsPorDia;
+    private final Random random;
+
+    public CurvaLlegadas(int ticketsPorDia, long semilla) {
+        if (ticketsPorDia <= 0) {
+            throw new IllegalArgumentException("Tickets por día debe ser mayor a 0");
+        }
+        this.ticketsPorDia = ticketsPorDia;
+        this.random = new Random(semilla);
+    }
+
+    /**
+     * Tasa esperada de llegadas de una cola en una hora de la jornada
+     * @param hora Hora desde la apertura (0 a HORAS_JORNADA - 1)
+     * @return Llegadas por hora
+     */
+    public double tasaPorHora(QueueType queueType, int hora) {
+        return ticketsPorDia * PARTICIPACION.get(queueType) * PESO_POR_HORA.get(queueType)[hora];
+    }
+
+    /**
+     * Genera las llegadas de toda la jornada en orden de tiempo
+     * Los intervalos entre llegadas son exponenciales con la tasa de la hora en curso
+     */
+    public List<Llegada> generar() {
+        List<Llegada> llegadas = new ArrayList<>();
+        for (QueueType queueType : QueueType.values()) {
+            for (int hora = 0; hora < HORAS_JORNADA; hora++) {
+                double porSegundo = tasaPorHora(queueType, hora) / 3600;
+                double finHora = (hora + 1) * 3600.0;
+                double segundo = hora * 3600.0 + exponencial(porSegundo);
+                while (segundo < finHora) {
+                    llegadas.add(new Llegada(segundo, queueType));
+                    segundo += exponencial(porSegundo);
+                }
+            }
+        }
+        llegadas.sort(Comparator.comparingDouble(Llegada::segundo));
+        return llegadas;
+    }
+
+    /**
+     * Duración de una atención: exponencial con el tiempo promedio de la cola
+     * @return Segundos de jornada
+     */
+    public double duracionAtencion(QueueType queueType) {
+        return exponencial(1.0 / (queueType.getAvgTimeMinutes() * 60));
+    }
+
+    private double exponencial(double tasa) {
+        return -Math.log(1 - random.nextDouble()) / tasa;
+    }
+}
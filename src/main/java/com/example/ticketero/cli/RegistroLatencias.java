@@ -0,0 +1,94 @@
+package com.example.ticketero.cli;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencias y resultados por endpoint de una corrida de carga
+ * Guarda cada muestra (una jornada son decenas de miles de solicitudes) para calcular percentiles exactos
+ */
+public class RegistroLatencias {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una solicitud respondida
+     * @param codigoHttp Código de respuesta; 4xx y 5xx cuentan como error
+     */
+    public void registrar(String endpoint, long nanos, int codigoHttp) {
+        endpoints.computeIfAbsent(endpoint, clave -> new Endpoint()).agregar(nanos, String.valueOf(codigoHttp), codigoHttp >= 400);
+    }
+
+    /**
+     * Registra una solicitud sin respuesta (timeout, conexión rechazada)
+     */
+    public void registrarFallo(String endpoint, long nanos, Throwable causa) {
+        endpoints.computeIfAbsent(endpoint, clave -> new Endpoint()).agregar(nanos, causa.getClass().getSimpleName(), true);
+    }
+
+    public Resumen resumen(String endpoint, double segundos) {
+        Endpoint datos = endpoints.get(endpoint);
+        if (datos == null) {
+            throw new IllegalArgumentException("Endpoint sin solicitudes: " + endpoint);
+        }
+        return datos.resumir(segundos);
+    }
+
+    /**
+     * Imprime una fila por endpoint: solicitudes, throughput, percentiles de latencia y errores
+     * @param segundos Duración real de la corrida
+     */
+    public void imprimir(PrintStream salida, double segundos) {
+        salida.printf("%-34s %9s %9s %9s %9s %9s %9s %8s  %s%n",
+            "Endpoint", "Total", "req/s", "p50 ms", "p99 ms", "p999 ms", "máx ms", "errores", "respuestas");
+        new TreeMap<>(endpoints).keySet().forEach(endpoint -> {
+            Resumen r = resumen(endpoint, segundos);
+            salida.printf("%-34s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%  %s%n",
+                endpoint, r.total(), r.porSegundo(), r.p50Ms(), r.p99Ms(), r.p999Ms(), r.maximoMs(),
+                r.tasaError() * 100, r.respuestas());
+        });
+    }
+
+    public record Resumen(int total, double porSegundo, double p50Ms, double p99Ms, double p999Ms, double maximoMs,
+                          double tasaError, Map<String, Integer> respuestas) {
+    }
+
+    private static class Endpoint {
+
+        private long[] muestras = new long[1024];
+        private int total;
+        private int errores;
+        private final Map<String, Integer> respuestas = new TreeMap<>();
+
+        synchronized void agregar(long nanos, String respuesta, boolean error) {
+            if (total == muestras.length) {
+                muestras = Arrays.copyOf(muestras, total * 2);
+            }
+            muestras[total++] = nanos;
+            respuestas.merge(respuesta, 1, Integer::sum);
+            if (error) {
+                errores++;
+            }
+        }
+
+        synchronized Resumen resumir(double segundos) {
+            long[] ordenadas = Arrays.copyOf(muestras, total);
+            Arrays.sort(ordenadas);
+            return new Resumen(total, total / segundos,
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+                ordenadas[total - 1] / 1e6, (double) errores / total, new TreeMap<>(respuestas));
+        }
+
+        /**
+         * Percentil por rango más cercano: la menor muestra que cubre la fracción pedida
+         */
+        private static double percentil(long[] ordenadas, double fraccion) {
+            // El margen evita que el redondeo binario de fracciones como 0.999 suba un rango
+            int rango = (int) Math.ceil(fraccion * ordenadas.length - 1e-9);
+            return ordenadas[Math.max(rango, 1) - 1] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.ticketero.cli;
+
+import com.example.ticketero.cli.CurvaLlegadas.Llegada;
+import com.example.ticketero.model.enums.QueueType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de extremo a extremo: reproduce una jornada completa de sucursal contra la API
+ *
+ * Modelo abierto: los clientes llegan a los tótems según CurvaLlegadas sin esperar las respuestas anteriores,
+ * así una API lenta acumula solicitudes en vuelo en lugar de frenar la carga. La latencia de cada solicitud
+ * se mide desde su instante programado, de modo que las demoras en enviarla también cuentan.
+ * Los asesores llaman al siguiente ticket, atienden durante un tiempo exponencial con el avgTimeMinutes
+ * de la cola y lo finalizan; las pantallas consultan colas y dashboard a intervalo fijo.
+ * Todo corre en hilos virtuales; la jornada se comprime con el factor de aceleración.
+ *
+ * Uso (con docker-compose up postgres rabbitmq y la API iniciada con TELEGRAM_API_URL=http://localhost:8091/bot):
+ *   mvn exec:java -Dexec.mainClass="com.example.ticketero.cli.SimuladorJornadaApp" \
+ *     -Dexec.args="--tickets-dia=3000 --aceleracion=60 --pantallas=20"
+ *
+ * Opciones: --url, --tickets-dia, --aceleracion, --asesores (0 = todos), --pantallas, --pantalla-ms,
+ * --con-telefono (fracción de clientes con teléfono), --telegram-puerto (0 = sin stub),
+ * --telegram-latencia-ms, --sucursal, --semilla
+ */
+public class SimuladorJornadaApp {
+
+    private static final Duration TIMEOUT_SOLICITUD = Duration.ofSeconds(30);
+    private static final long ESPERA_SIN_TICKETS_MS = 500;
+
+    private static final String CREAR_TICKET = "POST /api/tickets";
+    private static final String LLAMAR_SIGUIENTE = "POST /api/advisors/{id}/next";
+    private static final String FINALIZAR = "PUT /api/tickets/{id}/finalizar";
+    private static final String ESTADO_COLAS = "GET /api/queues";
+    private static final String DASHBOARD = "GET /api/admin/dashboard";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RegistroLatencias registro = new RegistroLatencias();
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean llegadasTerminadas = new AtomicBoolean();
+    private final AtomicInteger ticketsCreados = new AtomicInteger();
+    private final AtomicInteger ticketsLlamados = new AtomicInteger();
+    private final AtomicInteger ticketsFinalizados = new AtomicInteger();
+
+    private final String baseUrl;
+    private final double aceleracion;
+    private final double conTelefono;
+    private final String sucursal;
+    private final CurvaLlegadas curva;
+    private final String prefijoRut;
+
+    SimuladorJornadaApp(Map<String, String> opciones) {
+        this.baseUrl = opciones.getOrDefault("url", "http://localhost:8090");
+        this.aceleracion = Double.parseDouble(opciones.getOrDefault("aceleracion", "60"));
+        this.conTelefono = Double.parseDouble(opciones.getOrDefault("con-telefono", "0.7"));
+        this.sucursal = opciones.getOrDefault("sucursal", "Sucursal Carga");
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        this.curva = new CurvaLlegadas(Integer.parseInt(opciones.getOrDefault("tickets-dia", "2000")), semilla);
+        this.prefijoRut = "CARGA-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        if (aceleracion <= 0) {
+            throw new IllegalArgumentException("La aceleración debe ser mayor a 0");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        int puertoTelegram = Integer.parseInt(opciones.getOrDefault("telegram-puerto", "8091"));
+        long latenciaTelegram = Long.parseLong(opciones.getOrDefault("telegram-latencia-ms", "50"));
+
+        TelegramStub telegram = puertoTelegram > 0 ? new TelegramStub(puertoTelegram, latenciaTelegram) : null;
+        try {
+            new SimuladorJornadaApp(opciones).ejecutar(
+                Integer.parseInt(opciones.getOrDefault("asesores", "0")),
+                Integer.parseInt(opciones.getOrDefault("pantallas", "10")),
+                Long.parseLong(opciones.getOrDefault("pantalla-ms", "1000")),
+                telegram);
+        } finally {
+            if (telegram != null) {
+                telegram.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    void ejecutar(int maxAsesores, int pantallas, long pantallaMillis, TelegramStub telegram) throws Exception {
+        List<Llegada> llegadas = curva.generar();
+        List<Long> asesores = prepararAsesores(maxAsesores);
+        System.out.printf("Jornada de %d h con %d llegadas, %d asesores y %d pantallas, aceleración x%.0f (≈ %.1f min)%n",
+            CurvaLlegadas.HORAS_JORNADA, llegadas.size(), asesores.size(), pantallas, aceleracion,
+            CurvaLlegadas.HORAS_JORNADA * 60 / aceleracion);
+
+        long inicio = System.nanoTime();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (Long advisorId : asesores) {
+            trabajadores.add(Thread.ofVirtual().name("asesor-" + advisorId).start(() -> atender(advisorId)));
+        }
+        for (int i = 0; i < pantallas; i++) {
+            long desfase = pantallaMillis * i / Math.max(pantallas, 1);
+            trabajadores.add(Thread.ofVirtual().name("pantalla-" + i).start(() -> refrescarPantalla(pantallaMillis, desfase)));
+        }
+
+        generarLlegadas(llegadas, inicio);
+        esperarHasta(inicio + (long) (CurvaLlegadas.HORAS_JORNADA * 3600 / aceleracion * 1e9));
+        llegadasTerminadas.set(true);
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        hilos.shutdown();
+        hilos.awaitTermination(1, TimeUnit.MINUTES);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.printf("%nDuración real %.1f s: %d tickets creados, %d llamados, %d finalizados, %d en espera al cierre%n",
+            segundos, ticketsCreados.get(), ticketsLlamados.get(), ticketsFinalizados.get(),
+            ticketsCreados.get() - ticketsLlamados.get());
+        registro.imprimir(System.out, segundos);
+        if (telegram != null) {
+            System.out.printf("Telegram (stub): %d mensajes recibidos, %.1f/s%n",
+                telegram.mensajesRecibidos(), telegram.mensajesRecibidos() / segundos);
+        }
+    }
+
+    /**
+     * Cada llegada se envía en su propio hilo virtual en el instante que le toca, sin esperar respuestas
+     */
+    private void generarLlegadas(List<Llegada> llegadas, long inicio) {
+        int n = 0;
+        for (Llegada llegada : llegadas) {
+            long programada = inicio + (long) (llegada.segundo() / aceleracion * 1e9);
+            esperarHasta(programada);
+            String nationalId = prefijoRut + n++;
+            hilos.execute(() -> crearTicket(nationalId, llegada.queueType(), programada));
+        }
+    }
+
+    private void crearTicket(String nationalId, QueueType queueType, long programada) {
+        String telefono = ThreadLocalRandom.current().nextDouble() < conTelefono
+            ? "\"+569%08d\"".formatted(ThreadLocalRandom.current().nextInt(100_000_000))
+            : "null";
+        String json = """
+            {"nationalId": "%s", "telefono": %s, "branchOffice": "%s", "queueType": "%s"}
+            """.formatted(nationalId, telefono, sucursal, queueType);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/tickets"))
+                .timeout(TIMEOUT_SOLICITUD)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        if (enviar(CREAR_TICKET, request, programada) != null) {
+            ticketsCreados.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ciclo de un asesor: llama, atiende y finaliza hasta el cierre de la jornada
+     * Los tickets que siguen en espera al cierre se informan en el resumen: muestran si los asesores alcanzan
+     */
+    private void atender(Long advisorId) {
+        HttpRequest siguiente = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/advisors/" + advisorId + "/next"))
+                .timeout(TIMEOUT_SOLICITUD)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        while (!llegadasTerminadas.get()) {
+            HttpResponse<String> response = enviar(LLAMAR_SIGUIENTE, siguiente, System.nanoTime());
+            if (response == null || response.statusCode() != 200) {
+                dormir((long) Math.max(ESPERA_SIN_TICKETS_MS / aceleracion, 20));
+                continue;
+            }
+
+            ticketsLlamados.incrementAndGet();
+            try {
+                JsonNode ticket = mapper.readTree(response.body());
+                QueueType queueType = QueueType.valueOf(ticket.get("queueType").asText());
+                dormir((long) (curva.duracionAtencion(queueType) / aceleracion * 1000));
+                HttpRequest finalizar = HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/tickets/" + ticket.get("id").asLong() + "/finalizar"))
+                        .timeout(TIMEOUT_SOLICITUD)
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                if (enviar(FINALIZAR, finalizar, System.nanoTime()) != null) {
+                    ticketsFinalizados.incrementAndGet();
+                }
+            } catch (Exception e) {
+                System.out.println("❌ Asesor " + advisorId + ": respuesta inválida: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Una pantalla refresca colas y dashboard a intervalo fijo; cada refresco va en su propio hilo
+     * para que una respuesta lenta no retrase los siguientes
+     */
+    private void refrescarPantalla(long intervaloMillis, long desfaseMillis) {
+        HttpRequest colas = HttpRequest.newBuilder(URI.create(baseUrl + "/api/queues")).timeout(TIMEOUT_SOLICITUD).GET().build();
+        HttpRequest dashboard = HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/dashboard")).timeout(TIMEOUT_SOLICITUD).GET().build();
+        long programada = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(desfaseMillis);
+        while (!llegadasTerminadas.get()) {
+            esperarHasta(programada);
+            long instante = programada;
+            hilos.execute(() -> {
+                enviar(ESTADO_COLAS, colas, instante);
+                enviar(DASHBOARD, dashboard, instante);
+            });
+            programada += TimeUnit.MILLISECONDS.toNanos(intervaloMillis);
+        }
+    }
+
+    /**
+     * Pone disponibles a los asesores que participan de la jornada
+     */
+    private List<Long> prepararAsesores(int maximo) throws Exception {
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/advisors")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo obtener la lista de asesores: " + response.statusCode());
+        }
+
+        List<Long> asesores = new ArrayList<>();
+        for (JsonNode asesor : mapper.readTree(response.body())) {
+            if (maximo > 0 && asesores.size() == maximo) {
+                break;
+            }
+            long advisorId = asesor.get("id").asLong();
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/advisors/" + advisorId + "/estado?estado=AVAILABLE"))
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.discarding());
+            asesores.add(advisorId);
+        }
+        if (asesores.isEmpty()) {
+            throw new IllegalStateException("No hay asesores registrados");
+        }
+        return asesores;
+    }
+
+    /**
+     * Envía la solicitud y registra su latencia desde el instante programado
+     * @return Respuesta exitosa (2xx), o null si falló
+     */
+    private HttpResponse<String> enviar(String endpoint, HttpRequest request, long programada) {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            registro.registrar(endpoint, System.nanoTime() - programada, response.statusCode());
+            return response.statusCode() < 300 ? response : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            registro.registrarFallo(endpoint, System.nanoTime() - programada, e);
+            return null;
+        }
+    }
+
+    private static void esperarHasta(long nanos) {
+        long restante;
+        while ((restante = nanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opción inválida: " + arg + " (formato --clave=valor)");
+            }
+            opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return opciones;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ticketero.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor que responde como la API de Telegram a sendMessage, para pruebas de carga sin enviar mensajes reales
+ * La aplicación se apunta a él con TELEGRAM_API_URL=http://localhost:{puerto}/bot
+ * Cada respuesta se demora la latencia indicada para simular el viaje a Telegram
+ */
+public class TelegramStub implements AutoCloseable {
+
+    private final HttpServer servidor;
+    private final long latenciaMillis;
+    private final AtomicLong mensajes = new AtomicLong();
+
+    public TelegramStub(int puerto, long latenciaMillis) throws IOException {
+        this.latenciaMillis = latenciaMillis;
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        this.servidor.createContext("/", this::responder);
+        this.servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.servidor.start();
+    }
+
+    public long mensajesRecibidos() {
+        return mensajes.get();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            intercambio.getRequestBody().readAllBytes();
+            if (latenciaMillis > 0) {
+                Thread.sleep(latenciaMillis);
+            }
+            byte[] cuerpo = ("{\"ok\":true,\"result\":{\"message_id\":" + mensajes.incrementAndGet() + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,14 +1,35 @@
 package com.example.ticketero.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
 
+    /**
+     * Cliente HTTP compartido para Telegram
+     * HttpClient del JDK mantiene las conexiones abiertas y las reutiliza entre envíos (HTTP/2 si el
+     * servidor lo negocia, HTTP/1.1 keep-alive en caso contrario), evitando un handshake TLS por mensaje
+     */
+    @Bean
+    public HttpClient telegramHttpClient(@Value("${telegram.http.connect-timeout-ms:2000}") long connectTimeoutMillis) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+            .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClient telegramHttpClient,
+                                     @Value("${telegram.http.read-timeout-ms:5000}") long readTimeoutMillis) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(telegramHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        return new RestTemplate(requestFactory);
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,10 @@
 package com.example.ticketero.controller;
 
+import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.service.AdvisorService;
+import com.example.ticketero.service.TicketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,7 @@ import java.util.List;
 public class AdvisorController {
 
     private final AdvisorService advisorService;
+    private final TicketService ticketService;
 
     /**
      * Obtiene todos los asesores del sistema
@@ -91,4 +94,29 @@ public class AdvisorController {
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Llama al siguiente ticket para el asesor, elegido entre todas las colas por prioridad
+     * @param advisorId ID del asesor
+     * @return Ticket llamado, o sin contenido si no hay tickets en espera
+     */
+    @PostMapping("/{advisorId}/next")
+    public ResponseEntity<TicketResponse> llamarSiguiente(@PathVariable Long advisorId) {
+        if (advisorId <= 0) {
+            log.warn("ID de asesor inválido: {}", advisorId);
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            return ticketService.llamarSiguiente(advisorId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("No se pudo llamar al siguiente ticket para asesor {}: {}", advisorId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error llamando al siguiente ticket para asesor {}: {}", advisorId, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
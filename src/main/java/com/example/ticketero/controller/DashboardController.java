@@ -1,12 +1,18 @@
 package com.example.ticketero.controller;
 
 import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketHistoryCount;
 import com.example.ticketero.service.DashboardService;
+import com.example.ticketero.service.PanelSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 /**
  * Controlador REST para dashboard administrativo
  */
@@ -17,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class DashboardController {
 
+    private final PanelSnapshotService panelSnapshotService;
     private final DashboardService dashboardService;
 
     /**
@@ -26,11 +33,31 @@ public class DashboardController {
     public ResponseEntity<DashboardResponse> obtenerDashboard() {
         log.debug("Solicitando datos del dashboard");
         try {
-            DashboardResponse dashboard = dashboardService.obtenerDashboard();
+            DashboardResponse dashboard = panelSnapshotService.obtenerDashboard();
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
             log.error("Error obteniendo dashboard: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene los conteos por cola y estado de los tickets finalizados en un período
+     * Incluye los tickets ya archivados en el historial
+     */
+    @GetMapping("/historial")
+    public ResponseEntity<List<TicketHistoryCount>> obtenerHistorial(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        log.debug("Solicitando historial de tickets entre {} y {}", desde, hasta);
+        try {
+            return ResponseEntity.ok(dashboardService.obtenerHistorial(desde, hasta));
+        } catch (IllegalArgumentException e) {
+            log.warn("Período de historial inválido: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error obteniendo historial de tickets: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.example.ticketero.controller;
 
 import com.example.ticketero.model.dto.QueueStatusResponse;
 import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.PanelSnapshotService;
 import com.example.ticketero.service.QueueService;
+import com.example.ticketero.service.QueueStatusBroadcaster;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,6 +25,8 @@ import java.util.List;
 public class QueueController {
 
     private final QueueService queueService;
+    private final PanelSnapshotService panelSnapshotService;
+    private final QueueStatusBroadcaster queueStatusBroadcaster;
 
     /**
      * Obtiene el estado de todas las colas
@@ -29,7 +35,7 @@ public class QueueController {
     public ResponseEntity<List<QueueStatusResponse>> obtenerEstadoColas() {
         log.debug("Solicitando estado de todas las colas");
         try {
-            List<QueueStatusResponse> estados = queueService.obtenerEstadoColas();
+            List<QueueStatusResponse> estados = panelSnapshotService.obtenerEstadoColas();
             return ResponseEntity.ok(estados);
         } catch (Exception e) {
             log.error("Error obteniendo estado de colas: {}", e.getMessage());
@@ -37,6 +43,16 @@ public class QueueController {
         }
     }
 
+    /**
+     * Stream SSE con el estado de las colas: un evento "snapshot" al conectar
+     * y un evento "queue-status" por cada cola que cambia
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEstadoColas() {
+        log.debug("Nueva suscripción al stream de colas");
+        return queueStatusBroadcaster.suscribir();
+    }
+
     /**
      * Obtiene el estado de una cola específica
      */
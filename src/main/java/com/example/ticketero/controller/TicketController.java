@@ -1,5 +1,7 @@
 package com.example.ticketero.controller;
 
+import com.example.ticketero.exception.DuplicateActiveTicketException;
+import com.example.ticketero.model.dto.TicketBatchResponse;
 import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.service.TicketService;
@@ -24,6 +26,8 @@ public class TicketController {
         try {
             TicketResponse response = ticketService.crearTicket(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (DuplicateActiveTicketException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -31,6 +35,21 @@ public class TicketController {
         }
     }
 
+    /**
+     * Ingesta por lote (tótems que reenvían tickets acumulados sin conexión)
+     * Responde 200 con el resultado de cada ticket; los rechazos individuales no invalidan el lote
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<TicketBatchResponse> crearTicketsLote(@RequestBody List<TicketCreateRequest> requests) {
+        try {
+            return ResponseEntity.ok(ticketService.crearTicketsLote(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<TicketResponse>> obtenerTicketsActivos() {
         List<TicketResponse> tickets = ticketService.obtenerTicketsActivos();
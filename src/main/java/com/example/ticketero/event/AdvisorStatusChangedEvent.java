@@ -0,0 +1,12 @@
+package com.example.ticketero.event;
+
+import com.example.ticketero.model.enums.AdvisorStatus;
+
+/**
+ * Evento de dominio publicado cuando un asesor cambia de estado
+ */
+public record AdvisorStatusChangedEvent(
+    Long advisorId,
+    AdvisorStatus previousStatus,
+    AdvisorStatus newStatus
+) {}
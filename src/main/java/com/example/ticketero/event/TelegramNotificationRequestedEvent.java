@@ -0,0 +1,14 @@
+package com.example.ticketero.event;
+
+/**
+ * Solicitud de notificación Telegram para un ticket
+ * Se publica dentro de la transacción y se envía solo después del commit
+ * @param texto Mensaje ya renderizado con los datos vigentes al momento de la solicitud
+ */
+public record TelegramNotificationRequestedEvent(
+    Long ticketId,
+    String numeroTicket,
+    String telefono,
+    String plantilla,
+    String texto
+) {}
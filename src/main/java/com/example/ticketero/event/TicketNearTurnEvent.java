@@ -0,0 +1,13 @@
+package com.example.ticketero.event;
+
+import com.example.ticketero.model.enums.QueueType;
+
+/**
+ * Evento de dominio publicado cuando un ticket entra a las primeras posiciones de su fila
+ * @param posicion Posición que ocupa el ticket al momento del evento
+ */
+public record TicketNearTurnEvent(
+    Long ticketId,
+    QueueType queueType,
+    int posicion
+) {}
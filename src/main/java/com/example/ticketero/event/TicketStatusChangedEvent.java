@@ -0,0 +1,15 @@
+package com.example.ticketero.event;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+
+/**
+ * Evento de dominio publicado cuando un ticket cambia de estado
+ * @param previousStatus Estado anterior, null si el ticket recién se creó
+ */
+public record TicketStatusChangedEvent(
+    Long ticketId,
+    QueueType queueType,
+    TicketStatus previousStatus,
+    TicketStatus newStatus
+) {}
@@ -0,0 +1,20 @@
+package com.example.ticketero.exception;
+
+/**
+ * El RUT/ID ya tiene un ticket activo (EN_ESPERA, PROXIMO o ATENDIENDO)
+ * Extiende IllegalStateException para que los llamadores existentes la sigan tratando como estado inválido;
+ * la API la traduce a 409 Conflict
+ */
+public class DuplicateActiveTicketException extends IllegalStateException {
+
+    private final String numeroExistente;
+
+    public DuplicateActiveTicketException(String numeroExistente) {
+        super("Ya existe un ticket activo para este RUT/ID: " + numeroExistente);
+        this.numeroExistente = numeroExistente;
+    }
+
+    public String getNumeroExistente() {
+        return numeroExistente;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ticketero.model.dto;
+
+import com.example.ticketero.model.enums.AdvisorStatus;
+
+/**
+ * Conteo agregado de asesores por estado
+ */
+public record AdvisorStatusCount(
+    AdvisorStatus status,
+    Long total
+) {}
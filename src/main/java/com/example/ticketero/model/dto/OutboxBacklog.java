@@ -0,0 +1,13 @@
+package com.example.ticketero.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Backlog del Outbox: mensajes por publicar (PENDING o PROCESSING)
+ * @param pendientes Cantidad de mensajes por publicar
+ * @param masAntiguo Creación del mensaje más antiguo por publicar; null si no hay backlog
+ */
+public record OutboxBacklog(
+    Long pendientes,
+    LocalDateTime masAntiguo
+) {}
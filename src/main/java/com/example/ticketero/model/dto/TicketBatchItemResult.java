@@ -0,0 +1,39 @@
+package com.example.ticketero.model.dto;
+
+/**
+ * Resultado de un ticket dentro de una ingesta por lote
+ * @param indice Posición del ticket en el lote recibido
+ * @param resultado Resultado del ticket
+ * @param ticket Ticket creado (solo si resultado es CREADO)
+ * @param error Motivo del rechazo (solo si no fue creado)
+ */
+public record TicketBatchItemResult(
+    int indice,
+    Resultado resultado,
+    TicketResponse ticket,
+    String error
+) {
+
+    public enum Resultado {
+        CREADO,
+        DUPLICADO,
+        INVALIDO,
+        ERROR
+    }
+
+    public static TicketBatchItemResult creado(int indice, TicketResponse ticket) {
+        return new TicketBatchItemResult(indice, Resultado.CREADO, ticket, null);
+    }
+
+    public static TicketBatchItemResult duplicado(int indice, String error) {
+        return new TicketBatchItemResult(indice, Resultado.DUPLICADO, null, error);
+    }
+
+    public static TicketBatchItemResult invalido(int indice, String error) {
+        return new TicketBatchItemResult(indice, Resultado.INVALIDO, null, error);
+    }
+
+    public static TicketBatchItemResult error(int indice, String error) {
+        return new TicketBatchItemResult(indice, Resultado.ERROR, null, error);
+    }
+}
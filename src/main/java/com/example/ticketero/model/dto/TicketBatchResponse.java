@@ -0,0 +1,18 @@
+package com.example.ticketero.model.dto;
+
+import java.util.List;
+
+public record TicketBatchResponse(
+    int total,
+    int creados,
+    int rechazados,
+    List<TicketBatchItemResult> resultados
+) {
+
+    public static TicketBatchResponse de(List<TicketBatchItemResult> resultados) {
+        int creados = (int) resultados.stream()
+            .filter(r -> r.resultado() == TicketBatchItemResult.Resultado.CREADO)
+            .count();
+        return new TicketBatchResponse(resultados.size(), creados, resultados.size() - creados, resultados);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ticketero.model.dto;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+
+/**
+ * Conteo de tickets finalizados de un período por tipo de cola y estado
+ * @param total Tickets creados en el período que terminaron en ese estado
+ */
+public record TicketHistoryCount(
+    QueueType queueType,
+    TicketStatus status,
+    Long total
+) {}
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record TicketResponse(
+    Long id,
     UUID codigoReferencia,
     String numero,
     String nationalId,
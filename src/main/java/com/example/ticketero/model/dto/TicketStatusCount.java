@@ -0,0 +1,16 @@
+package com.example.ticketero.model.dto;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+
+/**
+ * Conteo agregado de tickets por tipo de cola y estado
+ * @param total Tickets en ese estado (activos: todos; finales: solo los creados hoy)
+ * @param creadosHoy Tickets de ese grupo creados desde el inicio del día
+ */
+public record TicketStatusCount(
+    QueueType queueType,
+    TicketStatus status,
+    Long total,
+    Long creadosHoy
+) {}
@@ -1,6 +1,7 @@
 package com.example.ticketero.model.entity;
 
 import com.example.ticketero.model.enums.AdvisorStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,8 @@ import java.util.List;
 public class Advisor {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "advisor_seq")
+    @SequenceGenerator(name = "advisor_seq", sequenceName = "advisor_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -45,6 +47,7 @@ public class Advisor {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "assignedAdvisor", fetch = FetchType.LAZY)
     private List<Ticket> assignedTickets;
 
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Mensaje {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mensaje_seq")
+    @SequenceGenerator(name = "mensaje_seq", sequenceName = "mensaje_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
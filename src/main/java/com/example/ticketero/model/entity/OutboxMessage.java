@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class OutboxMessage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_message_seq")
+    @SequenceGenerator(name = "outbox_message_seq", sequenceName = "outbox_message_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "aggregate_type", nullable = false, length = 50)
@@ -26,8 +27,12 @@ public class OutboxMessage {
     @Column(name = "event_type", nullable = false, length = 100)
     private String eventType;
 
-    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
-    private String payload;
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    @Builder.Default
+    private String contentType = "application/json";
 
     @Column(name = "routing_key", nullable = false, length = 100)
     private String routingKey;
@@ -50,6 +55,12 @@ public class OutboxMessage {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class RecoveryEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recovery_event_seq")
+    @SequenceGenerator(name = "recovery_event_seq", sequenceName = "recovery_event_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "recovery_type", nullable = false, length = 50)
@@ -16,14 +16,16 @@ import java.util.UUID;
 @Builder
 public class Ticket {
     
+    /** Ids por bloques de la secuencia (pooled-lo): permite agrupar los INSERT en batches JDBC */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "codigo_referencia", nullable = false, unique = true)
     private UUID codigoReferencia;
 
-    @Column(name = "numero", nullable = false, unique = true, length = 10)
+    @Column(name = "numero", nullable = false, length = 10)
     private String numero;
 
     @Column(name = "national_id", nullable = false, length = 20)
@@ -65,10 +67,10 @@ public class Ticket {
     @PrePersist
     protected void onCreate() {
         codigoReferencia = UUID.randomUUID();
-        if (numero == null && queueType != null && positionInQueue != null) {
-            numero = String.format("%c%03d", queueType.getPrefix(), positionInQueue);
+        // TicketService lo fija antes de numerar: el número pertenece al día de created_at
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
         }
-        createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
 
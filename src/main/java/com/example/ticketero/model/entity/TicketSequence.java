@@ -0,0 +1,37 @@
+package com.example.ticketero.model.entity;
+
+import com.example.ticketero.model.enums.QueueType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ticket_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sequence_date", nullable = false)
+    private LocalDate sequenceDate;
+
+    @Column(name = "branch_office", nullable = false, length = 100)
+    private String branchOffice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "queue_type", nullable = false, length = 20)
+    private QueueType queueType;
+
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
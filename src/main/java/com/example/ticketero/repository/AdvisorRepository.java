@@ -1,5 +1,6 @@
 package com.example.ticketero.repository;
 
+import com.example.ticketero.model.dto.AdvisorStatusCount;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,9 @@ public interface AdvisorRepository extends JpaRepository<Advisor, Long> {
     @Query("SELECT COUNT(a) FROM Advisor a WHERE a.status = :status")
     Long countByStatus(@Param("status") AdvisorStatus status);
 
+    @Query("SELECT new com.example.ticketero.model.dto.AdvisorStatusCount(a.status, COUNT(a)) FROM Advisor a GROUP BY a.status")
+    List<AdvisorStatusCount> countGroupedByStatus();
+
     @Query("SELECT a FROM Advisor a WHERE a.moduleNumber = :moduleNumber")
     Optional<Advisor> findByModuleNumber(@Param("moduleNumber") Integer moduleNumber);
 
@@ -34,11 +39,32 @@ public interface AdvisorRepository extends JpaRepository<Advisor, Long> {
     @Query("SELECT AVG(a.assignedTicketsCount) FROM Advisor a WHERE a.status = :status")
     Double getAverageAssignedTicketsCountByStatus(@Param("status") AdvisorStatus status);
 
-    // Métodos para Recovery Service
-    @Query("SELECT a FROM Advisor a WHERE a.status = 'BUSY' AND a.updatedAt < :timeoutThreshold")
-    List<Advisor> findDeadWorkers(@Param("timeoutThreshold") java.time.LocalDateTime timeoutThreshold);
+    /**
+     * Cambia el estado de un asesor en una sola sentencia y retorna el estado que tenía
+     * La subconsulta bloquea la fila, así el estado anterior informado es el que realmente se reemplazó
+     * aunque otro cambio concurrente llegue al mismo tiempo. Lista vacía si el asesor no existe
+     */
+    @Query(value = "UPDATE advisor a SET status = :nuevoEstado, updated_at = :ahora " +
+                   "FROM (SELECT id, status FROM advisor WHERE id = :advisorId FOR UPDATE) anterior " +
+                   "WHERE a.id = anterior.id RETURNING anterior.status",
+           nativeQuery = true)
+    List<String> cambiarEstado(@Param("advisorId") Long advisorId,
+                               @Param("nuevoEstado") String nuevoEstado,
+                               @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Lee un asesor bloqueando su fila hasta el fin de la transacción
+     * Serializa los llamados de un mismo asesor (doble clic, dos consolas abiertas)
+     */
+    @Query(value = "SELECT * FROM advisor WHERE id = :advisorId FOR UPDATE", nativeQuery = true)
+    Optional<Advisor> findByIdParaLlamado(@Param("advisorId") Long advisorId);
 
+    /** Incrementa el contador de tickets en la base, sin leer el valor anterior. Retorna las filas afectadas */
     @Modifying
     @Query("UPDATE Advisor a SET a.assignedTicketsCount = a.assignedTicketsCount + 1 WHERE a.id = :advisorId")
-    void incrementRecoveryCount(@Param("advisorId") Long advisorId);
+    int incrementarTicketsAsignados(@Param("advisorId") Long advisorId);
+
+    // Métodos para Recovery Service
+    @Query("SELECT a FROM Advisor a WHERE a.status = 'BUSY' AND a.updatedAt < :timeoutThreshold")
+    List<Advisor> findDeadWorkers(@Param("timeoutThreshold") LocalDateTime timeoutThreshold);
 }
\ No newline at end of file
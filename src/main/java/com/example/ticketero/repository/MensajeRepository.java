@@ -27,11 +27,12 @@ public interface MensajeRepository extends JpaRepository<Mensaje, Long> {
         @Param("maxIntentos") Integer maxIntentos
     );
 
-    @Query("SELECT m FROM Mensaje m WHERE m.estadoEnvio = :estado ORDER BY m.fechaProgramada ASC")
+    @Query("SELECT m FROM Mensaje m JOIN FETCH m.ticket t LEFT JOIN FETCH t.assignedAdvisor " +
+           "WHERE m.estadoEnvio = :estado ORDER BY m.fechaProgramada ASC")
     List<Mensaje> findByEstadoEnvio(@Param("estado") String estado);
 
-    @Query("SELECT COUNT(m) > 0 FROM Mensaje m WHERE m.ticket = :ticket AND m.plantilla = :plantilla")
-    boolean existsByTicketAndPlantilla(@Param("ticket") com.example.ticketero.model.entity.Ticket ticket, @Param("plantilla") String plantilla);
+    @Query("SELECT COUNT(m) > 0 FROM Mensaje m WHERE m.ticket.id = :ticketId AND m.plantilla = :plantilla")
+    boolean existsByTicketIdAndPlantilla(@Param("ticketId") Long ticketId, @Param("plantilla") String plantilla);
 
     @Query("SELECT m FROM Mensaje m WHERE m.ticket.numero = :numeroTicket ORDER BY m.fechaProgramada ASC")
     List<Mensaje> findByTicketNumeroOrderByFechaProgramadaAsc(@Param("numeroTicket") String numeroTicket);
@@ -1,35 +1,84 @@
 package com.example.ticketero.repository;
 
+import com.example.ticketero.model.dto.OutboxBacklog;
 import com.example.ticketero.model.entity.OutboxMessage;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT o FROM OutboxMessage o WHERE o.status = 'PENDING' AND (o.nextRetryAt IS NULL OR o.nextRetryAt <= :now) ORDER BY o.createdAt ASC")
-    List<OutboxMessage> findPendingWithLock(@Param("now") LocalDateTime now, Pageable pageable);
+    /**
+     * Reclama un lote de mensajes para un worker en una transacción corta
+     * SKIP LOCKED deja que otros workers e instancias tomen filas distintas sin esperarse;
+     * los mensajes en PROCESSING con lease vencido (worker caído) vuelven a ser reclamables
+     * Se filtra por (id, created_at) para que el UPDATE vaya directo a la partición de cada fila
+     */
+    @Transactional
+    @Query(value = "UPDATE outbox_message SET status = 'PROCESSING', locked_by = :worker, locked_until = :leaseHasta " +
+                   "WHERE (id, created_at) IN (" +
+                   "    SELECT id, created_at FROM outbox_message " +
+                   "    WHERE (status = 'PENDING' AND (next_retry_at IS NULL OR next_retry_at <= :now)) " +
+                   "       OR (status = 'PROCESSING' AND locked_until < :now) " +
+                   "    ORDER BY created_at LIMIT :limite " +
+                   "    FOR UPDATE SKIP LOCKED" +
+                   ") RETURNING *",
+           nativeQuery = true)
+    List<OutboxMessage> claimBatch(@Param("worker") String worker,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("leaseHasta") LocalDateTime leaseHasta,
+                                   @Param("limite") int limite);
 
+    /**
+     * Marca como enviados los mensajes confirmados de un lote
+     * El rango de created_at del lote (desde/hasta) acota el UPDATE a las particiones de esos días
+     */
+    @Transactional
     @Modifying
-    @Query("UPDATE OutboxMessage o SET o.status = 'SENT', o.processedAt = :processedAt WHERE o.id = :id")
-    void markAsSent(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
+    @Query("UPDATE OutboxMessage o SET o.status = 'SENT', o.processedAt = :processedAt, o.lockedBy = NULL, o.lockedUntil = NULL " +
+           "WHERE o.id IN :ids AND o.createdAt BETWEEN :desde AND :hasta AND o.lockedBy = :worker")
+    int markAllAsSent(@Param("ids") List<Long> ids, @Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta,
+                      @Param("worker") String worker, @Param("processedAt") LocalDateTime processedAt);
 
+    /**
+     * Devuelve un mensaje a PENDING con su próximo intento; created_at lleva el UPDATE directo a su partición
+     */
+    @Transactional
     @Modifying
-    @Query("UPDATE OutboxMessage o SET o.retryCount = :retryCount, o.nextRetryAt = :nextRetryAt, o.errorMessage = :errorMessage WHERE o.id = :id")
-    void scheduleRetry(@Param("id") Long id, @Param("retryCount") Integer retryCount, 
+    @Query("UPDATE OutboxMessage o SET o.status = 'PENDING', o.retryCount = :retryCount, o.nextRetryAt = :nextRetryAt, " +
+           "o.errorMessage = :errorMessage, o.lockedBy = NULL, o.lockedUntil = NULL " +
+           "WHERE o.id = :id AND o.createdAt = :createdAt")
+    void scheduleRetry(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt, @Param("retryCount") Integer retryCount,
                       @Param("nextRetryAt") LocalDateTime nextRetryAt, @Param("errorMessage") String errorMessage);
 
+    @Transactional
     @Modifying
-    @Query("UPDATE OutboxMessage o SET o.status = 'FAILED', o.errorMessage = :errorMessage, o.processedAt = :processedAt WHERE o.id = :id")
-    void markAsFailed(@Param("id") Long id, @Param("errorMessage") String errorMessage, @Param("processedAt") LocalDateTime processedAt);
-}
\ No newline at end of file
+    @Query("UPDATE OutboxMessage o SET o.status = 'FAILED', o.errorMessage = :errorMessage, o.processedAt = :processedAt, " +
+           "o.lockedBy = NULL, o.lockedUntil = NULL WHERE o.id = :id AND o.createdAt = :createdAt")
+    void markAsFailed(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt,
+                      @Param("errorMessage") String errorMessage, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Cantidad de mensajes por publicar y creación del más antiguo
+     * Solo lee el índice parcial de mensajes reclamables (idx_outbox_reclamables)
+     */
+    @Query("SELECT new com.example.ticketero.model.dto.OutboxBacklog(COUNT(o), MIN(o.createdAt)) " +
+           "FROM OutboxMessage o WHERE o.status IN ('PENDING', 'PROCESSING')")
+    OutboxBacklog medirBacklog();
+
+    /**
+     * Crea las particiones diarias de los próximos días, traslada a su partición lo que haya caído en DEFAULT
+     * y elimina lo que supera la retención, archivando antes sus mensajes FAILED
+     * @return Cantidad de particiones eliminadas
+     */
+    @Transactional
+    @Query(value = "SELECT mantener_particiones_outbox(:diasRetencion, :diasAdelante)", nativeQuery = true)
+    int mantenerParticiones(@Param("diasRetencion") int diasRetencion, @Param("diasAdelante") int diasAdelante);
+}
@@ -0,0 +1,50 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.entity.TicketHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TicketHistoryRepository extends JpaRepository<TicketHistory, Long> {
+
+    /** El número se reinicia cada día: se retorna el ticket archivado más reciente con ese número */
+    @Transactional(readOnly = true)
+    Optional<TicketHistory> findFirstByNumeroOrderByCreatedAtDesc(String numero);
+
+    /**
+     * Conteos por cola y estado de los tickets archivados creados en el período
+     * El filtro por created_at limita la lectura a las particiones mensuales del período
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.ticketero.model.dto.TicketHistoryCount(t.queueType, t.status, COUNT(t)) " +
+           "FROM TicketHistory t WHERE t.createdAt >= :desde AND t.createdAt < :hasta " +
+           "GROUP BY t.queueType, t.status")
+    List<TicketHistoryCount> countGroupedByQueueTypeAndStatus(
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+
+    /**
+     * Mueve al historial un lote de tickets finalizados antes del límite, junto con sus mensajes
+     * @return Cantidad de tickets archivados (menor que el lote cuando no quedan más candidatos)
+     */
+    @Transactional
+    @Query(value = "SELECT archivar_tickets_finalizados(:limite, :lote)", nativeQuery = true)
+    int archivarFinalizados(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    /**
+     * Crea las particiones mensuales del historial del mes actual y de los próximos meses
+     * @return Cantidad de particiones creadas
+     */
+    @Transactional
+    @Query(value = "SELECT mantener_particiones_ticket_history(:mesesAdelante)", nativeQuery = true)
+    int mantenerParticiones(@Param("mesesAdelante") int mesesAdelante);
+}
@@ -1,5 +1,7 @@
 package com.example.ticketero.repository;
 
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.dto.TicketStatusCount;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
@@ -7,8 +9,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,13 +22,43 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     Optional<Ticket> findByCodigoReferencia(UUID codigoReferencia);
 
-    Optional<Ticket> findByNumero(String numero);
+    /** El número se reinicia cada día: se retorna el ticket más reciente con ese número */
+    Optional<Ticket> findFirstByNumeroOrderByCreatedAtDesc(String numero);
 
-    @Query("SELECT t FROM Ticket t WHERE t.nationalId = :nationalId AND t.status IN :statuses")
-    Optional<Ticket> findByNationalIdAndStatusIn(
-        @Param("nationalId") String nationalId, 
-        @Param("statuses") List<TicketStatus> statuses
-    );
+    @Transactional(readOnly = true)
+    Optional<Ticket> findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(String nationalId, List<TicketStatus> statuses);
+
+    /**
+     * Toma un ticket en espera para un asesor con un UPDATE condicional
+     * Si otro llamado ya lo tomó, no actualiza filas y la lista resulta vacía
+     */
+    @Query(value = "UPDATE ticket SET status = 'ATENDIENDO', assigned_advisor_id = :advisorId, " +
+                   "assigned_module_number = :moduleNumber, updated_at = :ahora " +
+                   "WHERE id = :ticketId AND status = 'EN_ESPERA' RETURNING *",
+           nativeQuery = true)
+    List<Ticket> tomarParaAtencion(@Param("ticketId") Long ticketId,
+                                   @Param("advisorId") Long advisorId,
+                                   @Param("moduleNumber") Integer moduleNumber,
+                                   @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Completa un ticket en atención con un UPDATE condicional
+     * Si el ticket no estaba en atención (o ya fue finalizado), no actualiza filas y la lista resulta vacía
+     */
+    @Query(value = "UPDATE ticket SET status = 'COMPLETADO', updated_at = :ahora " +
+                   "WHERE id = :ticketId AND status = 'ATENDIENDO' RETURNING *",
+           nativeQuery = true)
+    List<Ticket> completarAtencion(@Param("ticketId") Long ticketId,
+                                   @Param("ahora") LocalDateTime ahora);
+
+    /** Tickets activos de varios RUT/ID en una sola consulta (ingesta por lotes) */
+    @Transactional(readOnly = true)
+    List<Ticket> findByNationalIdInAndStatusIn(Collection<String> nationalIds, List<TicketStatus> statuses);
+
+    /** Pares [nationalId, numero] de los tickets en los estados indicados, para el caché de RUT activos */
+    @Transactional(readOnly = true)
+    @Query("SELECT t.nationalId, t.numero FROM Ticket t WHERE t.status IN :statuses")
+    List<Object[]> findNationalIdsAndNumerosByStatusIn(@Param("statuses") List<TicketStatus> statuses);
 
     @Query("SELECT t FROM Ticket t WHERE t.status = :status ORDER BY t.createdAt ASC")
     List<Ticket> findByStatusOrderByCreatedAtAsc(@Param("status") TicketStatus status);
@@ -75,6 +109,70 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
         @Param("fecha") LocalDateTime fecha
     );
 
+    /**
+     * Conteos del dashboard en una sola consulta: tickets activos de cualquier fecha
+     * y tickets creados hoy, agrupados por tipo de cola y estado
+     */
+    @Query("SELECT new com.example.ticketero.model.dto.TicketStatusCount(t.queueType, t.status, COUNT(t), " +
+           "SUM(CASE WHEN t.createdAt >= :inicioDelDia THEN 1L ELSE 0L END)) " +
+           "FROM Ticket t WHERE t.status IN :estadosActivos OR t.createdAt >= :inicioDelDia " +
+           "GROUP BY t.queueType, t.status")
+    List<TicketStatusCount> countGroupedByQueueTypeAndStatus(
+        @Param("estadosActivos") List<TicketStatus> estadosActivos,
+        @Param("inicioDelDia") LocalDateTime inicioDelDia
+    );
+
+    /**
+     * Conteos por cola y estado de los tickets finalizados creados en el período que aún no se archivan
+     * Complementa a TicketHistoryRepository en los reportes históricos
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.ticketero.model.dto.TicketHistoryCount(t.queueType, t.status, COUNT(t)) " +
+           "FROM Ticket t WHERE t.status IN :estadosFinales AND t.createdAt >= :desde AND t.createdAt < :hasta " +
+           "GROUP BY t.queueType, t.status")
+    List<TicketHistoryCount> countFinalizadosGroupedByQueueTypeAndStatus(
+        @Param("estadosFinales") List<TicketStatus> estadosFinales,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+
+    /**
+     * Primeros tickets en espera de cada cola que tienen teléfono y aún no reciben la plantilla indicada
+     * Cada cola se lee con LIMIT sobre idx_ticket_espera_cola, así el costo no crece con el largo de las colas
+     */
+    @Query(value = "SELECT proximos.* FROM unnest(CAST(:colas AS VARCHAR[])) AS cola(queue_type) " +
+                   "CROSS JOIN LATERAL (" +
+                   "    SELECT t.* FROM ticket t " +
+                   "    WHERE t.queue_type = cola.queue_type AND t.status = 'EN_ESPERA' " +
+                   "    ORDER BY t.created_at, t.id LIMIT :posicion" +
+                   ") proximos " +
+                   "WHERE proximos.telefono IS NOT NULL AND proximos.telefono <> '' " +
+                   "AND NOT EXISTS (SELECT 1 FROM mensaje m WHERE m.ticket_id = proximos.id AND m.plantilla = :plantilla)",
+           nativeQuery = true)
+    List<Ticket> findProximosSinNotificar(
+        @Param("colas") String[] colas,
+        @Param("posicion") int posicion,
+        @Param("plantilla") String plantilla
+    );
+
+    /**
+     * Primer ticket en espera de cada cola indicada, leído con LIMIT 1 sobre idx_ticket_espera_cola
+     * Respaldo del índice en memoria cuando no conoce los tickets creados en otras instancias
+     */
+    @Query(value = "SELECT primero.* FROM unnest(CAST(:colas AS VARCHAR[])) AS cola(queue_type) " +
+                   "CROSS JOIN LATERAL (" +
+                   "    SELECT t.* FROM ticket t " +
+                   "    WHERE t.queue_type = cola.queue_type AND t.status = 'EN_ESPERA' " +
+                   "    ORDER BY t.created_at, t.id LIMIT 1" +
+                   ") primero",
+           nativeQuery = true)
+    List<Ticket> findPrimerosEnEspera(@Param("colas") String[] colas);
+
+    /** Indica si el asesor ya atiende un ticket; lo resuelve idx_ticket_asesor_vigente */
+    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Ticket t " +
+           "WHERE t.assignedAdvisor.id = :advisorId AND t.status = 'ATENDIENDO'")
+    boolean tieneTicketEnAtencion(@Param("advisorId") Long advisorId);
+
     // Métodos para Recovery Service
     @Query("SELECT t FROM Ticket t WHERE t.assignedAdvisor.id = :advisorId AND t.status IN ('ATENDIENDO', 'EN_ESPERA')")
     Optional<Ticket> findCurrentTicketForAdvisor(@Param("advisorId") Long advisorId);
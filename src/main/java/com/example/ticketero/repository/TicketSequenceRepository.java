@@ -0,0 +1,34 @@
+package com.example.ticketero.repository;
+
+import com.example.ticketero.model.entity.TicketSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface TicketSequenceRepository extends JpaRepository<TicketSequence, Long> {
+
+    /**
+     * Reserva un bloque de números en una transacción propia (upsert atómico, sin locks sobre ticket)
+     * @return Último valor del bloque reservado
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = """
+        INSERT INTO ticket_sequence (sequence_date, branch_office, queue_type, last_value, updated_at)
+        VALUES (:fecha, :branchOffice, :queueType, :tamanoBloque, CURRENT_TIMESTAMP)
+        ON CONFLICT (sequence_date, branch_office, queue_type)
+        DO UPDATE SET last_value = ticket_sequence.last_value + EXCLUDED.last_value, updated_at = CURRENT_TIMESTAMP
+        RETURNING last_value
+        """, nativeQuery = true)
+    Long reservarBloque(
+        @Param("fecha") LocalDate fecha,
+        @Param("branchOffice") String branchOffice,
+        @Param("queueType") String queueType,
+        @Param("tamanoBloque") int tamanoBloque
+    );
+}
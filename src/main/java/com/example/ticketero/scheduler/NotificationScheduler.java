@@ -2,9 +2,9 @@ package com.example.ticketero.scheduler;
 
 import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.entity.Ticket;
-import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.MensajeRepository;
-import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.ProximoTurnoNotifier;
+import com.example.ticketero.service.QueuePositionIndex;
 import com.example.ticketero.service.TelegramService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,40 +23,28 @@ import java.util.List;
 @Slf4j
 public class NotificationScheduler {
 
-    private final TicketRepository ticketRepository;
     private final MensajeRepository mensajeRepository;
     private final TelegramService telegramService;
+    private final QueuePositionIndex queuePositionIndex;
+    private final ProximoTurnoNotifier proximoTurnoNotifier;
     
-    private static final int POSICION_PROXIMO_TURNO = 3;
     private static final int MAX_INTENTOS_ENVIO = 3;
 
     /**
-     * Envía notificaciones a tickets que están próximos a ser atendidos
-     * Ejecuta cada 30 segundos
+     * Red de seguridad para notificaciones de próximo turno
+     * El aviso normal se dispara con cada avance de la fila (ProximoTurnoNotifier); esta revisión
+     * solo recoge los casos que ese camino no cubre, como tickets reencolados o avisos perdidos
+     * Ejecuta cada 5 minutos por defecto
      */
-    @Scheduled(fixedRate = 30000)
+    @Scheduled(fixedRateString = "${notificaciones.proximo-turno.revision-ms:300000}")
     public void enviarNotificacionesProximoTurno() {
-        log.debug("Iniciando proceso de notificaciones próximo turno");
+        log.debug("Iniciando revisión de notificaciones próximo turno");
         
         try {
-            List<Ticket> ticketsProximos = ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA)
-                .stream()
-                .filter(ticket -> ticket.getPositionInQueue() <= POSICION_PROXIMO_TURNO)
-                .filter(ticket -> ticket.getTelefono() != null && !ticket.getTelefono().isEmpty())
-                .toList();
-
-            log.debug("Encontrados {} tickets próximos para notificar", ticketsProximos.size());
+            int notificacionesSolicitadas = proximoTurnoNotifier.revisarColas();
             
-            int notificacionesEnviadas = 0;
-            for (Ticket ticket : ticketsProximos) {
-                if (!yaSeEnvioNotificacionProximo(ticket)) {
-                    enviarNotificacionProximo(ticket);
-                    notificacionesEnviadas++;
-                }
-            }
-            
-            if (notificacionesEnviadas > 0) {
-                log.info("Enviadas {} notificaciones de próximo turno", notificacionesEnviadas);
+            if (notificacionesSolicitadas > 0) {
+                log.info("Revisión periódica solicitó {} notificaciones de próximo turno", notificacionesSolicitadas);
             }
             
         } catch (Exception e) {
@@ -103,47 +91,6 @@ public class NotificationScheduler {
         }
     }
 
-    /**
-     * Verifica si ya se envió notificación de próximo turno para un ticket
-     */
-    private boolean yaSeEnvioNotificacionProximo(Ticket ticket) {
-        return mensajeRepository.existsByTicketAndPlantilla(ticket, "totem_proximo_turno");
-    }
-
-    /**
-     * Envía notificación de próximo turno
-     */
-    private void enviarNotificacionProximo(Ticket ticket) {
-        try {
-            String texto = telegramService.obtenerTextoMensaje(
-                "totem_proximo_turno",
-                ticket.getNumero(),
-                null,
-                null,
-                null,
-                null
-            );
-            
-            String messageId = telegramService.enviarMensaje(ticket.getTelefono(), texto);
-            
-            Mensaje mensaje = Mensaje.builder()
-                .ticket(ticket)
-                .plantilla("totem_proximo_turno")
-                .telegramMessageId(messageId)
-                .estadoEnvio("ENVIADO")
-                .fechaEnvio(LocalDateTime.now())
-                .fechaProgramada(LocalDateTime.now())
-                .build();
-            mensajeRepository.save(mensaje);
-            
-            log.debug("Notificación próximo turno enviada para ticket {}", ticket.getNumero());
-            
-        } catch (Exception e) {
-            log.error("Error enviando notificación próximo turno para ticket {}: {}", 
-                ticket.getNumero(), e.getMessage());
-        }
-    }
-
     /**
      * Procesa un mensaje pendiente individual
      */
@@ -187,7 +134,7 @@ public class NotificationScheduler {
         return telegramService.obtenerTextoMensaje(
             mensaje.getPlantilla(),
             ticket.getNumero(),
-            ticket.getPositionInQueue(),
+            queuePositionIndex.obtenerPosicion(ticket).orElse(ticket.getPositionInQueue()),
             ticket.getEstimatedWaitMinutes(),
             ticket.getAssignedAdvisor() != null ? ticket.getAssignedAdvisor().getName() : null,
             ticket.getAssignedModuleNumber()
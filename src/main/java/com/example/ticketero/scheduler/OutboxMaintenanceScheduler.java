@@ -0,0 +1,48 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.OutboxMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantenimiento de las particiones diarias del Outbox
+ * Crea por adelantado las particiones de los próximos días y elimina las que superan la retención
+ * Se ejecuta al iniciar la aplicación y luego una vez al día
+ */
+@Component
+@Slf4j
+public class OutboxMaintenanceScheduler {
+
+    private final OutboxMessageRepository outboxRepository;
+    private final int diasRetencion;
+    private final int diasAdelante;
+
+    public OutboxMaintenanceScheduler(OutboxMessageRepository outboxRepository,
+                                      @Value("${outbox.retencion.dias:7}") int diasRetencion,
+                                      @Value("${outbox.retencion.dias-adelante:7}") int diasAdelante) {
+        this.outboxRepository = outboxRepository;
+        this.diasRetencion = diasRetencion;
+        this.diasAdelante = diasAdelante;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        mantenerParticiones();
+    }
+
+    @Scheduled(cron = "${outbox.retencion.cron:0 15 3 * * *}")
+    public void mantenerParticiones() {
+        try {
+            int eliminadas = outboxRepository.mantenerParticiones(diasRetencion, diasAdelante);
+            if (eliminadas > 0) {
+                log.info("Outbox: {} particiones con más de {} días eliminadas", eliminadas, diasRetencion);
+            }
+        } catch (Exception e) {
+            log.error("Error en mantenimiento de particiones del Outbox: {}", e.getMessage());
+        }
+    }
+}
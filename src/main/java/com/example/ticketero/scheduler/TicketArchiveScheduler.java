@@ -0,0 +1,79 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.TicketHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Archivador de tickets finalizados
+ * Mueve a ticket_history los tickets COMPLETADO, CANCELADO y NO_ATENDIDO que terminaron antes del inicio
+ * del día (menos los días en caliente configurados), en lotes con su propia transacción.
+ * Los tickets del día nunca se archivan, así los conteos diarios del dashboard siguen saliendo solo de ticket.
+ * También crea por adelantado las particiones mensuales del historial
+ */
+@Component
+@Slf4j
+public class TicketArchiveScheduler {
+
+    private final TicketHistoryRepository ticketHistoryRepository;
+    private final int diasEnCaliente;
+    private final int tamanoLote;
+    private final int mesesAdelante;
+
+    public TicketArchiveScheduler(TicketHistoryRepository ticketHistoryRepository,
+                                  @Value("${ticket.archivo.dias-en-caliente:1}") int diasEnCaliente,
+                                  @Value("${ticket.archivo.lote:1000}") int tamanoLote,
+                                  @Value("${ticket.archivo.meses-adelante:3}") int mesesAdelante) {
+        this.ticketHistoryRepository = ticketHistoryRepository;
+        this.diasEnCaliente = Math.max(0, diasEnCaliente);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.mesesAdelante = mesesAdelante;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        mantenerParticiones();
+    }
+
+    @Scheduled(cron = "${ticket.archivo.particiones-cron:0 45 3 * * *}")
+    public void mantenerParticiones() {
+        try {
+            int creadas = ticketHistoryRepository.mantenerParticiones(mesesAdelante);
+            if (creadas > 0) {
+                log.info("Historial de tickets: {} particiones mensuales creadas", creadas);
+            }
+        } catch (Exception e) {
+            log.error("Error en mantenimiento de particiones del historial de tickets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archiva lotes hasta que no queden tickets finalizados antes del límite
+     * @return Cantidad total de tickets archivados
+     */
+    @Scheduled(fixedDelayString = "${ticket.archivo.intervalo-ms:600000}", initialDelayString = "${ticket.archivo.intervalo-ms:600000}")
+    public int archivar() {
+        LocalDateTime limite = LocalDate.now().minusDays(diasEnCaliente).atStartOfDay();
+        int total = 0;
+        try {
+            int movidos;
+            do {
+                movidos = ticketHistoryRepository.archivarFinalizados(limite, tamanoLote);
+                total += movidos;
+            } while (movidos == tamanoLote);
+        } catch (Exception e) {
+            log.error("Error archivando tickets finalizados: {}", e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Historial de tickets: {} tickets finalizados antes de {} archivados", total, limite);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RUT/ID con ticket activo conocidos por esta instancia, con el número de su ticket
+ * Un RUT ausente se crea sin consultar la base (el índice único parcial rechaza un duplicado);
+ * un RUT presente se confirma contra la base antes de rechazar, porque otra instancia pudo finalizarlo
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveNationalIdCache {
+
+    private final TicketRepository ticketRepository;
+
+    private final Map<String, String> activos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        activos.clear();
+        for (Object[] fila : ticketRepository.findNationalIdsAndNumerosByStatusIn(TicketStatus.getActiveStatuses())) {
+            activos.put((String) fila[0], (String) fila[1]);
+        }
+        log.info("Caché de RUT activos reconstruido: {} tickets activos", activos.size());
+    }
+
+    /**
+     * @return Número del ticket activo registrado para el RUT/ID, o vacío si no se conoce ninguno
+     */
+    public Optional<String> numeroActivo(String nationalId) {
+        return Optional.ofNullable(activos.get(nationalId));
+    }
+
+    public void registrar(String nationalId, String numero) {
+        activos.put(nationalId, numero);
+    }
+
+    public void liberar(String nationalId) {
+        activos.remove(nationalId);
+    }
+
+    int tamano() {
+        return activos.size();
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.repository.AdvisorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,7 @@ import java.util.Optional;
 public class AdvisorService {
 
     private final AdvisorRepository advisorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Obtiene asesores disponibles ordenados por carga de trabajo
@@ -51,7 +55,9 @@ public class AdvisorService {
     }
 
     /**
-     * Cambia el estado de un asesor
+     * Cambia el estado de un asesor con un UPDATE que retorna el estado anterior
+     * No lee la entidad antes de escribir: dos cambios concurrentes quedan serializados por la base
+     * y cada evento publicado informa la transición que realmente ocurrió
      * @param advisorId ID del asesor
      * @param nuevoEstado Nuevo estado a asignar
      */
@@ -60,18 +66,20 @@ public class AdvisorService {
             throw new IllegalArgumentException("ID del asesor y nuevo estado no pueden ser null");
         }
         
-        Advisor advisor = advisorRepository.findById(advisorId)
+        AdvisorStatus estadoAnterior = advisorRepository
+            .cambiarEstado(advisorId, nuevoEstado.name(), LocalDateTime.now())
+            .stream()
+            .findFirst()
+            .map(AdvisorStatus::valueOf)
             .orElseThrow(() -> new IllegalArgumentException("Asesor no encontrado con ID: " + advisorId));
+        eventPublisher.publishEvent(new AdvisorStatusChangedEvent(advisorId, estadoAnterior, nuevoEstado));
         
-        AdvisorStatus estadoAnterior = advisor.getStatus();
-        advisor.setStatus(nuevoEstado);
-        advisorRepository.save(advisor);
-        
-        log.info("Estado del asesor {} cambiado de {} a {}", advisor.getName(), estadoAnterior, nuevoEstado);
+        log.info("Estado del asesor {} cambiado de {} a {}", advisorId, estadoAnterior, nuevoEstado);
     }
 
     /**
      * Increments the counter of tickets assigned to an advisor
+     * El incremento se hace en la base, sin perder actualizaciones concurrentes
      * @param advisorId ID del asesor
      */
     public void incrementarContadorTickets(Long advisorId) {
@@ -79,15 +87,11 @@ public class AdvisorService {
             throw new IllegalArgumentException("ID del asesor no puede ser null");
         }
         
-        Advisor advisor = advisorRepository.findById(advisorId)
-            .orElseThrow(() -> new IllegalArgumentException("Asesor no encontrado con ID: " + advisorId));
-        
-        int contadorAnterior = advisor.getAssignedTicketsCount();
-        advisor.setAssignedTicketsCount(contadorAnterior + 1);
-        advisorRepository.save(advisor);
+        if (advisorRepository.incrementarTicketsAsignados(advisorId) == 0) {
+            throw new IllegalArgumentException("Asesor no encontrado con ID: " + advisorId);
+        }
         
-        log.debug("Contador de tickets del asesor {} incrementado de {} a {}", 
-            advisor.getName(), contadorAnterior, advisor.getAssignedTicketsCount());
+        log.debug("Contador de tickets del asesor {} incrementado", advisorId);
     }
 
     /**
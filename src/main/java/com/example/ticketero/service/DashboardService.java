@@ -1,20 +1,28 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.model.dto.AdvisorStatusCount;
 import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.dto.TicketStatusCount;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.TicketHistoryRepository;
 import com.example.ticketero.repository.TicketRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Servicio para generar métricas del dashboard administrativo
@@ -27,78 +35,131 @@ public class DashboardService {
 
     private final TicketRepository ticketRepository;
     private final AdvisorRepository advisorRepository;
+    private final TicketHistoryRepository ticketHistoryRepository;
+    private final WaitTimeEstimator waitTimeEstimator;
 
     /**
      * Genera el dashboard completo con métricas del sistema
+     * Todos los conteos salen de dos consultas agrupadas (tickets y asesores); los tiempos y la hora pico
+     * vienen del estimador en memoria
      */
     public DashboardResponse obtenerDashboard() {
         log.debug("Generando métricas del dashboard");
         
         LocalDateTime inicioDelDia = LocalDateTime.now().with(LocalTime.MIN);
+        List<TicketStatusCount> conteosTickets = ticketRepository.countGroupedByQueueTypeAndStatus(
+            TicketStatus.getActiveStatuses(), inicioDelDia);
+        List<AdvisorStatusCount> conteosAsesores = advisorRepository.countGroupedByStatus();
         
         return new DashboardResponse(
             LocalDateTime.now(),
-            generarSummaryData(inicioDelDia),
-            generarAdvisorData(),
-            generarQueueData(),
+            generarSummaryData(conteosTickets),
+            generarAdvisorData(conteosAsesores),
+            generarQueueData(conteosTickets),
             generarAlerts()
         );
     }
 
-    private DashboardResponse.SummaryData generarSummaryData(LocalDateTime inicioDelDia) {
-        Long totalHoy = ticketRepository.countByCreatedAtAfter(inicioDelDia);
-        Long enEspera = ticketRepository.countByStatus(TicketStatus.EN_ESPERA);
-        Long atendiendo = ticketRepository.countByStatus(TicketStatus.ATENDIENDO);
-        Long completados = ticketRepository.countByStatusAndCreatedAtAfter(TicketStatus.COMPLETADO, inicioDelDia);
+    /**
+     * Conteos por cola y estado de los tickets finalizados creados en el período [desde, hasta]
+     * Suma el historial (particiones del período) y los finalizados recientes que siguen en ticket
+     * @param desde Primer día del período
+     * @param hasta Último día del período (inclusive)
+     * @return Conteos ordenados por tipo de cola y estado
+     */
+    public List<TicketHistoryCount> obtenerHistorial(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("Período inválido: desde debe ser anterior o igual a hasta");
+        }
+        
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        Map<QueueType, Map<TicketStatus, Long>> totales = new EnumMap<>(QueueType.class);
+        Stream.concat(
+                ticketHistoryRepository.countGroupedByQueueTypeAndStatus(inicio, fin).stream(),
+                ticketRepository.countFinalizadosGroupedByQueueTypeAndStatus(TicketStatus.getFinalStatuses(), inicio, fin).stream())
+            .forEach(conteo -> totales
+                .computeIfAbsent(conteo.queueType(), k -> new EnumMap<>(TicketStatus.class))
+                .merge(conteo.status(), conteo.total(), Long::sum));
+        
+        return totales.entrySet().stream()
+            .flatMap(cola -> cola.getValue().entrySet().stream()
+                .map(estado -> new TicketHistoryCount(cola.getKey(), estado.getKey(), estado.getValue())))
+            .toList();
+    }
+
+    private DashboardResponse.SummaryData generarSummaryData(List<TicketStatusCount> conteos) {
+        long totalHoy = conteos.stream().mapToLong(TicketStatusCount::creadosHoy).sum();
+        long enEspera = sumarTotal(conteos, null, TicketStatus.EN_ESPERA);
+        long atendiendo = sumarTotal(conteos, null, TicketStatus.ATENDIENDO);
+        long completados = sumarCreadosHoy(conteos, null, TicketStatus.COMPLETADO);
         
         return new DashboardResponse.SummaryData(
-            totalHoy.intValue(),
-            enEspera.intValue(),
-            atendiendo.intValue(),
-            completados.intValue(),
-            15, // Tiempo promedio estimado
-            "10:00-11:00" // Hora pico estimada
+            (int) totalHoy,
+            (int) enEspera,
+            (int) atendiendo,
+            (int) completados,
+            waitTimeEstimator.esperaPromedioMinutos(),
+            waitTimeEstimator.horaPico()
         );
     }
 
-    private DashboardResponse.AdvisorData generarAdvisorData() {
-        Long disponibles = advisorRepository.countByStatus(AdvisorStatus.AVAILABLE);
-        Long ocupados = advisorRepository.countByStatus(AdvisorStatus.BUSY);
-        Long offline = advisorRepository.countByStatus(AdvisorStatus.OFFLINE);
-        Long total = advisorRepository.count();
+    private DashboardResponse.AdvisorData generarAdvisorData(List<AdvisorStatusCount> conteos) {
+        Map<AdvisorStatus, Long> porEstado = new EnumMap<>(AdvisorStatus.class);
+        conteos.forEach(conteo -> porEstado.merge(conteo.status(), conteo.total(), Long::sum));
+        long total = porEstado.values().stream().mapToLong(Long::longValue).sum();
         
         return new DashboardResponse.AdvisorData(
-            disponibles.intValue(),
-            ocupados.intValue(),
-            offline.intValue(),
-            total.intValue()
+            porEstado.getOrDefault(AdvisorStatus.AVAILABLE, 0L).intValue(),
+            porEstado.getOrDefault(AdvisorStatus.BUSY, 0L).intValue(),
+            porEstado.getOrDefault(AdvisorStatus.OFFLINE, 0L).intValue(),
+            (int) total
         );
     }
 
-    private List<DashboardResponse.QueueData> generarQueueData() {
+    private List<DashboardResponse.QueueData> generarQueueData(List<TicketStatusCount> conteos) {
         return Arrays.stream(QueueType.values())
-            .map(this::generarQueueDataPorTipo)
+            .map(queueType -> generarQueueDataPorTipo(queueType, conteos))
             .toList();
     }
 
-    private DashboardResponse.QueueData generarQueueDataPorTipo(QueueType queueType) {
-        Long enEspera = ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.EN_ESPERA);
-        Long atendiendo = ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.ATENDIENDO);
-        Long completadosHoy = ticketRepository.countByQueueTypeAndStatusAndCreatedAtAfter(
-            queueType, TicketStatus.COMPLETADO, LocalDateTime.now().with(LocalTime.MIN));
+    private DashboardResponse.QueueData generarQueueDataPorTipo(QueueType queueType, List<TicketStatusCount> conteos) {
+        int enEspera = (int) sumarTotal(conteos, queueType, TicketStatus.EN_ESPERA);
+        int atendiendo = (int) sumarTotal(conteos, queueType, TicketStatus.ATENDIENDO);
+        int completadosHoy = (int) sumarCreadosHoy(conteos, queueType, TicketStatus.COMPLETADO);
         
         return new DashboardResponse.QueueData(
             queueType.name(),
             queueType.getDisplayName(),
-            enEspera.intValue(),
-            atendiendo.intValue(),
-            completadosHoy.intValue(),
-            enEspera.intValue() * queueType.getAvgTimeMinutes(),
-            queueType.getAvgTimeMinutes(),
+            enEspera,
+            atendiendo,
+            completadosHoy,
+            waitTimeEstimator.estimarEsperaMaximaMinutos(queueType, enEspera),
+            waitTimeEstimator.tiempoAtencionMinutos(queueType),
             enEspera > 10 ? "ALTA_DEMANDA" : "NORMAL"
         );
     }
 
+    /**
+     * Suma el total de tickets en un estado, para una cola o para todas (queueType null)
+     */
+    private long sumarTotal(List<TicketStatusCount> conteos, QueueType queueType, TicketStatus status) {
+        return filtrar(conteos, queueType, status).mapToLong(TicketStatusCount::total).sum();
+    }
+
+    /**
+     * Suma los tickets creados hoy en un estado, para una cola o para todas (queueType null)
+     */
+    private long sumarCreadosHoy(List<TicketStatusCount> conteos, QueueType queueType, TicketStatus status) {
+        return filtrar(conteos, queueType, status).mapToLong(TicketStatusCount::creadosHoy).sum();
+    }
+
+    private Stream<TicketStatusCount> filtrar(List<TicketStatusCount> conteos, QueueType queueType, TicketStatus status) {
+        return conteos.stream()
+            .filter(conteo -> conteo.status() == status)
+            .filter(conteo -> queueType == null || conteo.queueType() == queueType);
+    }
+
     private List<DashboardResponse.AlertData> generarAlerts() {
         // Alertas básicas del sistema
         return List.of();
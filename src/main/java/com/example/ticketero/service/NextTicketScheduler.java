@@ -0,0 +1,99 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.QueuePositionIndex.TicketEnEspera;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Planificador del siguiente ticket a atender entre todas las colas
+ * Cada ticket compite con una llegada virtual: su hora de llegada adelantada en el crédito de prioridad
+ * por cada nivel de prioridad de su cola. Gana la llegada virtual más antigua, de modo que las colas
+ * de mayor prioridad pasan primero, pero un ticket de menor prioridad que ya esperó más que la diferencia
+ * de crédito también es llamado (envejecimiento): ninguna cola espera indefinidamente.
+ * Como dentro de cada cola el orden es FIFO, basta comparar el primero de cada fila del índice en memoria;
+ * una cola sin tickets en el índice (p. ej. creados en otra instancia) se consulta en la base
+ */
+@Component
+@Slf4j
+public class NextTicketScheduler {
+
+    private final QueuePositionIndex queuePositionIndex;
+    private final TicketRepository ticketRepository;
+    private final long creditoPrioridadMillis;
+    private final Comparator<TicketEnEspera> orden;
+
+    public NextTicketScheduler(QueuePositionIndex queuePositionIndex,
+                               TicketRepository ticketRepository,
+                               @Value("${atencion.siguiente.credito-prioridad-min:10}") long creditoPrioridadMinutos) {
+        this.queuePositionIndex = queuePositionIndex;
+        this.ticketRepository = ticketRepository;
+        this.creditoPrioridadMillis = Duration.ofMinutes(creditoPrioridadMinutos).toMillis();
+        this.orden = Comparator.comparingLong(this::llegadaVirtual)
+            .thenComparing(candidato -> candidato.queueType().getPriority(), Comparator.reverseOrder())
+            .thenComparingLong(TicketEnEspera::ticketId);
+    }
+
+    /**
+     * Ofrece los candidatos en orden de atención hasta que uno sea tomado
+     * Si un candidato ya no está disponible (lo tomó otro asesor u otra instancia), se retira del
+     * índice y su lugar en el heap lo ocupa el siguiente de la misma cola. Cuando el índice no tiene
+     * candidato para una cola, se lee su primer ticket en espera de la base
+     * @param tomar Intenta tomar el ticket candidato; vacío si ya no estaba en espera
+     * @return Resultado del primer candidato tomado, o vacío si no quedan tickets en espera
+     */
+    public <T> Optional<T> tomarSiguiente(Function<TicketEnEspera, Optional<T>> tomar) {
+        PriorityQueue<TicketEnEspera> candidatos = new PriorityQueue<>(QueueType.values().length, orden);
+        List<QueueType> sinCandidato = new ArrayList<>();
+        for (QueueType queueType : QueueType.values()) {
+            queuePositionIndex.obtenerPrimero(queueType).ifPresentOrElse(candidatos::add, () -> sinCandidato.add(queueType));
+        }
+        Set<Long> intentados = new HashSet<>();
+        candidatos.addAll(primerosEnBase(sinCandidato, intentados));
+
+        while (!candidatos.isEmpty()) {
+            TicketEnEspera candidato = candidatos.poll();
+            intentados.add(candidato.ticketId());
+            Optional<T> tomado = tomar.apply(candidato);
+            if (tomado.isPresent()) {
+                return tomado;
+            }
+            log.debug("Ticket {} ya no está en espera, se descarta de la fila {}", candidato.ticketId(), candidato.queueType());
+            queuePositionIndex.retirar(candidato.queueType(), candidato.ticketId());
+            queuePositionIndex.obtenerPrimero(candidato.queueType()).ifPresentOrElse(candidatos::add,
+                () -> candidatos.addAll(primerosEnBase(List.of(candidato.queueType()), intentados)));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Primer ticket en espera de cada cola según la base, sin los ya intentados en este llamado
+     */
+    private List<TicketEnEspera> primerosEnBase(Collection<QueueType> colas, Set<Long> intentados) {
+        if (colas.isEmpty()) {
+            return List.of();
+        }
+        return ticketRepository.findPrimerosEnEspera(colas.stream().map(QueueType::name).toArray(String[]::new))
+            .stream()
+            .map(TicketEnEspera::de)
+            .filter(candidato -> !intentados.contains(candidato.ticketId()))
+            .toList();
+    }
+
+    private long llegadaVirtual(TicketEnEspera candidato) {
+        return candidato.llegadaMillis() - creditoPrioridadMillis * candidato.queueType().getPriority();
+    }
+}
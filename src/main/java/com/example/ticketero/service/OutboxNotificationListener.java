@@ -0,0 +1,124 @@
+package com.example.ticketero.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Escucha el canal outbox_message de PostgreSQL y despierta al publicador del Outbox
+ * Usa una conexión dedicada fuera del pool (queda bloqueada esperando avisos); si se pierde,
+ * reconecta con backoff y mientras tanto el polling de OutboxPublisherService cubre la publicación
+ */
+@Service
+@Slf4j
+public class OutboxNotificationListener {
+
+    static final String CANAL = "outbox_message";
+    private static final long REINTENTO_INICIAL_MS = 1_000;
+    private static final long REINTENTO_MAXIMO_MS = 30_000;
+
+    private final OutboxPublisherService outboxPublisherService;
+    private final String url;
+    private final String usuario;
+    private final String password;
+    private final boolean habilitado;
+    private final int esperaMillis;
+
+    private volatile boolean activo;
+    private Thread hilo;
+
+    public OutboxNotificationListener(OutboxPublisherService outboxPublisherService,
+                                      @Value("${spring.datasource.url}") String url,
+                                      @Value("${spring.datasource.username:}") String usuario,
+                                      @Value("${spring.datasource.password:}") String password,
+                                      @Value("${outbox.listen.enabled:true}") boolean habilitado,
+                                      @Value("${outbox.listen.espera-ms:10000}") int esperaMillis) {
+        this.outboxPublisherService = outboxPublisherService;
+        this.url = url;
+        this.usuario = usuario;
+        this.password = password;
+        this.habilitado = habilitado;
+        this.esperaMillis = esperaMillis;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado || !url.startsWith("jdbc:postgresql:")) {
+            log.info("LISTEN/NOTIFY del Outbox deshabilitado: la publicación queda solo con polling");
+            return;
+        }
+        activo = true;
+        hilo = Thread.ofPlatform().daemon().name("outbox-listener").start(this::escuchar);
+    }
+
+    boolean isActivo() {
+        return activo;
+    }
+
+    private void escuchar() {
+        long reintentoMillis = REINTENTO_INICIAL_MS;
+        while (activo) {
+            try (Connection conexion = DriverManager.getConnection(url, usuario, password)) {
+                try (Statement statement = conexion.createStatement()) {
+                    statement.execute("LISTEN " + CANAL);
+                }
+                PGConnection pgConexion = conexion.unwrap(PGConnection.class);
+                log.info("Escuchando avisos del Outbox en el canal {}", CANAL);
+                reintentoMillis = REINTENTO_INICIAL_MS;
+
+                // Lo insertado mientras no había escucha se publica sin esperar al polling
+                outboxPublisherService.despertar();
+                esperarAvisos(conexion, pgConexion);
+            } catch (SQLException e) {
+                if (!activo) {
+                    break;
+                }
+                log.warn("Conexión LISTEN del Outbox perdida: {}. Reintentando en {} ms", e.getMessage(), reintentoMillis);
+                if (!dormir(reintentoMillis)) {
+                    break;
+                }
+                reintentoMillis = Math.min(reintentoMillis * 2, REINTENTO_MAXIMO_MS);
+            }
+        }
+        log.info("Escucha de avisos del Outbox detenida");
+    }
+
+    private void esperarAvisos(Connection conexion, PGConnection pgConexion) throws SQLException {
+        while (activo) {
+            PGNotification[] avisos = pgConexion.getNotifications(esperaMillis);
+            if (avisos != null && avisos.length > 0) {
+                log.debug("{} avisos del Outbox recibidos", avisos.length);
+                outboxPublisherService.despertar();
+            } else if (activo && !conexion.isValid(5)) {
+                throw new SQLException("Conexión de escucha no válida");
+            }
+        }
+    }
+
+    private static boolean dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+}
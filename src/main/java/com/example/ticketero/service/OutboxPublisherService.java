@@ -1,98 +1,346 @@
 package com.example.ticketero.service;
 
-import com.example.ticketero.model.dto.TicketQueueMessage;
+import com.example.ticketero.model.dto.OutboxBacklog;
 import com.example.ticketero.model.entity.OutboxMessage;
 import com.example.ticketero.repository.OutboxMessageRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
+/**
+ * Publicación de mensajes del Outbox hacia RabbitMQ
+ * Cada worker reclama un lote con FOR UPDATE SKIP LOCKED en una transacción corta, publica fuera
+ * de la transacción y marca los enviados con un solo UPDATE por lote. Varios workers e instancias
+ * drenan en paralelo sin bloquearse; el tamaño de lote crece mientras haya backlog
+ * Todo el lote se publica en vuelo con publisher confirms correlacionados: solo los mensajes
+ * confirmados (ack y enrutados) pasan a SENT; nack, devolución o timeout van a reintento
+ * El payload ya está serializado: se envía como Message AMQP crudo, sin pasar por el conversor
+ * La publicación se dispara con cada NOTIFY de la base (OutboxNotificationListener); el polling
+ * periódico queda como respaldo y para los reintentos programados
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OutboxPublisherService {
 
     private final OutboxMessageRepository outboxRepository;
     private final RabbitTemplate rabbitTemplate;
-    private final ObjectMapper objectMapper;
+    private final String exchangeName;
+    private final int workers;
+    private final int loteMinimo;
+    private final int loteMaximo;
+    private final long leaseMillis;
+    private final long confirmTimeoutMillis;
 
-    @Value("${rabbitmq.exchange.name:ticketero-exchange}")
-    private String exchangeName;
+    private final String instancia = "outbox-" + UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicInteger loteActual;
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean despertarPendiente = new AtomicBoolean();
+    private final ReentrantLock drenando = new ReentrantLock();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicReference<LocalDateTime> pendienteMasAntiguo = new AtomicReference<>();
 
-    @Value("${outbox.batch-size:10}")
-    private int batchSize;
+    private final Counter enviados;
+    private final Counter reintentos;
+    private final Counter fallidos;
+    private final Timer latenciaConfirmacion;
+    private final Timer lagPublicacion;
 
-    @Scheduled(fixedDelayString = "${outbox.process-interval:5000}")
-    @Transactional
+    public OutboxPublisherService(OutboxMessageRepository outboxRepository,
+                                  RabbitTemplate rabbitTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${rabbitmq.exchange.name:ticketero-exchange}") String exchangeName,
+                                  @Value("${outbox.workers:4}") int workers,
+                                  @Value("${outbox.batch-size:10}") int loteMinimo,
+                                  @Value("${outbox.batch-size-max:500}") int loteMaximo,
+                                  @Value("${outbox.lease-ms:30000}") long leaseMillis,
+                                  @Value("${outbox.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchangeName = exchangeName;
+        this.workers = workers;
+        this.loteMinimo = loteMinimo;
+        this.loteMaximo = Math.max(loteMinimo, loteMaximo);
+        this.leaseMillis = leaseMillis;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.loteActual = new AtomicInteger(loteMinimo);
+        this.enviados = contador(meterRegistry, "sent");
+        this.reintentos = contador(meterRegistry, "retry");
+        this.fallidos = contador(meterRegistry, "failed");
+        this.latenciaConfirmacion = Timer.builder("ticketero.outbox.confirm.latency")
+            .description("Tiempo entre la publicación y la confirmación del broker")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("ticketero.outbox.batch.size", loteActual, AtomicInteger::get)
+            .description("Tamaño de lote actual del publicador Outbox")
+            .register(meterRegistry);
+        this.lagPublicacion = Timer.builder("ticketero.outbox.publish.lag")
+            .description("Tiempo entre la inserción en el Outbox y la confirmación del broker")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("ticketero.outbox.backlog", backlog, AtomicLong::get)
+            .description("Mensajes del Outbox por publicar (última medición)")
+            .register(meterRegistry);
+        TimeGauge.builder("ticketero.outbox.lag", pendienteMasAntiguo, TimeUnit.MILLISECONDS, OutboxPublisherService::antiguedadMillis)
+            .description("Antigüedad del mensaje más antiguo por publicar")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Pasada de polling. Comparte el lock con las pasadas por aviso: nunca corren dos pasadas de esta
+     * instancia a la vez con los mismos ids de worker. Si hay una en curso, esta se omite, porque
+     * la pasada activa drena hasta vaciar el backlog
+     */
+    @Scheduled(fixedDelayString = "${outbox.process-interval:15000}")
     public void processOutbox() {
+        if (!drenando.tryLock()) {
+            log.debug("Pasada del Outbox en curso, se omite el polling");
+            return;
+        }
+        try {
+            drenarConWorkers();
+        } finally {
+            drenando.unlock();
+        }
+        // Un aviso que llegó durante esta pasada no pudo tomar el lock
+        if (despertarPendiente.get()) {
+            ejecutor.execute(this::atenderAvisos);
+        }
+    }
+
+    private void drenarConWorkers() {
         log.debug("Procesando mensajes pendientes del Outbox");
-        
-        List<OutboxMessage> pendingMessages = outboxRepository.findPendingWithLock(
-            LocalDateTime.now(), 
-            PageRequest.of(0, batchSize)
-        );
 
-        if (pendingMessages.isEmpty()) {
-            log.debug("No hay mensajes pendientes en el Outbox");
-            return;
+        List<Callable<Integer>> tareas = IntStream.range(0, workers)
+            .mapToObj(i -> (Callable<Integer>) () -> drenar(instancia + "-" + i))
+            .toList();
+
+        int publicados = 0;
+        try {
+            for (Future<Integer> resultado : ejecutor.invokeAll(tareas)) {
+                publicados += resultado.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error en worker del Outbox: {}", e.getCause().getMessage(), e.getCause());
+        }
+
+        if (publicados > 0) {
+            log.info("Outbox: {} mensajes publicados, lote actual {}", publicados, loteActual.get());
+        }
+    }
+
+    /**
+     * Mide el backlog para las métricas. El lag se calcula en cada scrape desde el mensaje más antiguo
+     * medido, de modo que sigue creciendo entre mediciones si el publicador se detiene
+     */
+    @Scheduled(fixedDelayString = "${outbox.metricas.intervalo-ms:15000}")
+    public void medirBacklog() {
+        OutboxBacklog medicion = outboxRepository.medirBacklog();
+        backlog.set(medicion.pendientes());
+        pendienteMasAntiguo.set(medicion.masAntiguo());
+    }
+
+    private static double antiguedadMillis(AtomicReference<LocalDateTime> masAntiguo) {
+        LocalDateTime creado = masAntiguo.get();
+        return creado == null ? 0 : Math.max(0, Duration.between(creado, LocalDateTime.now()).toMillis());
+    }
+
+    /**
+     * Solicita un drenado inmediato. Los avisos que llegan durante un drenado se agrupan en una sola
+     * pasada adicional, de modo que una ráfaga de NOTIFY no lanza una pasada por aviso
+     */
+    public void despertar() {
+        despertarPendiente.set(true);
+        ejecutor.execute(this::atenderAvisos);
+    }
+
+    private void atenderAvisos() {
+        while (despertarPendiente.get() && drenando.tryLock()) {
+            try {
+                despertarPendiente.set(false);
+                drenarConWorkers();
+            } finally {
+                drenando.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reclama y publica lotes hasta que el backlog se vacía
+     * @return Cantidad de mensajes publicados por este worker
+     */
+    int drenar(String worker) {
+        int publicados = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int limite = loteActual.get();
+            LocalDateTime ahora = LocalDateTime.now();
+            List<OutboxMessage> lote = outboxRepository.claimBatch(
+                worker, ahora, ahora.plusNanos(leaseMillis * 1_000_000), limite);
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            publicados += publicarLote(worker, lote);
+            ajustarLote(lote.size(), limite);
+            if (lote.size() < limite) {
+                break;
+            }
         }
+        return publicados;
+    }
 
-        log.info("Procesando {} mensajes del Outbox", pendingMessages.size());
+    private int publicarLote(String worker, List<OutboxMessage> lote) {
+        // Se publica todo el lote sin esperar: las confirmaciones llegan en paralelo por el canal
+        Map<OutboxMessage, CorrelationData> enVuelo = new LinkedHashMap<>();
+        for (OutboxMessage message : lote) {
+            try {
+                enVuelo.put(message, publishMessage(message));
+            } catch (Exception e) {
+                handlePublishError(message, e);
+            }
+        }
 
-        for (OutboxMessage message : pendingMessages) {
+        long plazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        List<OutboxMessage> confirmados = new ArrayList<>(enVuelo.size());
+        enVuelo.forEach((message, correlacion) -> {
             try {
-                publishMessage(message);
-                outboxRepository.markAsSent(message.getId(), LocalDateTime.now());
-                log.debug("Mensaje {} publicado exitosamente", message.getId());
-                
+                esperarConfirmacion(correlacion, plazo);
+                confirmados.add(message);
+                if (message.getCreatedAt() != null) {
+                    lagPublicacion.record(Duration.between(message.getCreatedAt(), LocalDateTime.now()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
                 handlePublishError(message, e);
             }
+        });
+
+        if (!confirmados.isEmpty()) {
+            List<Long> ids = confirmados.stream().map(OutboxMessage::getId).toList();
+            LocalDateTime desde = confirmados.stream().map(OutboxMessage::getCreatedAt).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime hasta = confirmados.stream().map(OutboxMessage::getCreatedAt).max(Comparator.naturalOrder()).orElseThrow();
+            outboxRepository.markAllAsSent(ids, desde, hasta, worker, LocalDateTime.now());
+            enviados.increment(confirmados.size());
+            log.debug("Worker {} confirmó {} mensajes", worker, confirmados.size());
         }
+        return confirmados.size();
     }
 
-    private void publishMessage(OutboxMessage message) throws Exception {
-        TicketQueueMessage queueMessage = objectMapper.readValue(message.getPayload(), TicketQueueMessage.class);
-        
-        rabbitTemplate.convertAndSend(
+    /**
+     * Espera el ack del broker hasta el plazo común del lote
+     * @throws IllegalStateException si el broker rechaza, devuelve (sin ruta) o no confirma a tiempo
+     */
+    private void esperarConfirmacion(CorrelationData correlacion, long plazoNanos) throws Exception {
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlacion.getFuture().get(Math.max(0, plazoNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Sin confirmación del broker en " + confirmTimeoutMillis + " ms");
+        }
+        if (!confirm.isAck()) {
+            throw new IllegalStateException("Mensaje rechazado por el broker: " + confirm.getReason());
+        }
+        if (correlacion.getReturned() != null) {
+            throw new IllegalStateException("Mensaje sin ruta: " + correlacion.getReturned().getReplyText());
+        }
+    }
+
+    /**
+     * Lote lleno indica backlog: se duplica hasta el máximo. Lote a menos de la mitad: se reduce
+     */
+    private void ajustarLote(int reclamados, int limite) {
+        if (reclamados == limite) {
+            loteActual.set(Math.min(limite * 2, loteMaximo));
+        } else if (reclamados < limite / 2) {
+            loteActual.set(Math.max(limite / 2, loteMinimo));
+        }
+    }
+
+    int tamanoLoteActual() {
+        return loteActual.get();
+    }
+
+    private CorrelationData publishMessage(OutboxMessage message) {
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setContentType(message.getContentType());
+        propiedades.setMessageId(String.valueOf(message.getId()));
+
+        CorrelationData correlacion = new CorrelationData(String.valueOf(message.getId()));
+        long inicio = System.nanoTime();
+        correlacion.getFuture().whenComplete((confirm, error) ->
+            latenciaConfirmacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+
+        rabbitTemplate.send(
             exchangeName,
             message.getRoutingKey(),
-            queueMessage
+            new Message(message.getPayload(), propiedades),
+            correlacion
         );
-        
-        log.debug("Mensaje publicado: exchange={}, routingKey={}, messageId={}", 
+
+        log.debug("Mensaje publicado: exchange={}, routingKey={}, messageId={}",
             exchangeName, message.getRoutingKey(), message.getId());
+        return correlacion;
     }
 
     private void handlePublishError(OutboxMessage message, Exception e) {
         log.error("Error publicando mensaje {}: {}", message.getId(), e.getMessage());
-        
+
         int newRetryCount = message.getRetryCount() + 1;
-        
+
         if (newRetryCount >= message.getMaxRetries()) {
             outboxRepository.markAsFailed(
-                message.getId(), 
+                message.getId(),
+                message.getCreatedAt(),
                 "Max retries exceeded: " + e.getMessage(),
                 LocalDateTime.now()
             );
+            fallidos.increment();
             log.warn("Mensaje {} marcado como FAILED después de {} intentos", message.getId(), newRetryCount);
         } else {
             LocalDateTime nextRetry = calculateNextRetry(newRetryCount);
             outboxRepository.scheduleRetry(
                 message.getId(),
+                message.getCreatedAt(),
                 newRetryCount,
                 nextRetry,
                 e.getMessage()
             );
+            reintentos.increment();
             log.info("Mensaje {} programado para reintento #{} en {}", message.getId(), newRetryCount, nextRetry);
         }
     }
@@ -102,4 +350,15 @@ public class OutboxPublisherService {
         long delaySeconds = (long) Math.pow(2, retryCount);
         return LocalDateTime.now().plusSeconds(delaySeconds);
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("ticketero.outbox.messages")
+            .tag("result", resultado)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.QueueStatusResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Snapshots compartidos del dashboard y del estado de colas para las pantallas de sucursal
+ * Las solicitudes concurrentes comparten un mismo cálculo, que se renueva por TTL
+ * o antes cuando cambia el estado de un ticket o asesor
+ */
+@Service
+@Slf4j
+public class PanelSnapshotService {
+
+    private final SnapshotCache<DashboardResponse> dashboard;
+    private final SnapshotCache<List<QueueStatusResponse>> estadoColas;
+
+    public PanelSnapshotService(DashboardService dashboardService,
+                                QueueService queueService,
+                                MeterRegistry meterRegistry,
+                                @Value("${panel.cache.ttl-ms:2000}") long ttlMillis,
+                                @Value("${panel.cache.intervalo-minimo-ms:250}") long intervaloMinimoMillis) {
+        this.dashboard = new SnapshotCache<>("dashboard", dashboardService::obtenerDashboard,
+            ttlMillis, intervaloMinimoMillis, meterRegistry);
+        this.estadoColas = new SnapshotCache<>("colas", queueService::obtenerEstadoColas,
+            ttlMillis, intervaloMinimoMillis, meterRegistry);
+    }
+
+    /**
+     * Obtiene el snapshot vigente del dashboard administrativo
+     */
+    public DashboardResponse obtenerDashboard() {
+        return dashboard.obtener();
+    }
+
+    /**
+     * Obtiene el snapshot vigente del estado de todas las colas
+     */
+    public List<QueueStatusResponse> obtenerEstadoColas() {
+        return estadoColas.obtener();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoTicket(TicketStatusChangedEvent event) {
+        log.trace("Invalidando snapshots por ticket {}", event.ticketId());
+        dashboard.invalidar();
+        estadoColas.invalidar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoAsesor(AdvisorStatusChangedEvent event) {
+        log.trace("Invalidando snapshot del dashboard por asesor {}", event.advisorId());
+        dashboard.invalidar();
+    }
+}
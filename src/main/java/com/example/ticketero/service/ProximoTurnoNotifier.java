@@ -0,0 +1,130 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.event.TicketNearTurnEvent;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Notificaciones de próximo turno
+ * El aviso se dispara cuando un ticket entra a las primeras posiciones de su fila (TicketNearTurnEvent),
+ * procesado en un hilo virtual tras el commit; revisarColas() queda como red de seguridad periódica
+ */
+@Service
+@Slf4j
+public class ProximoTurnoNotifier {
+
+    static final int POSICION_PROXIMO_TURNO = 3;
+    static final String PLANTILLA_PROXIMO_TURNO = "totem_proximo_turno";
+    private static final String[] COLAS = Arrays.stream(QueueType.values()).map(QueueType::name).toArray(String[]::new);
+    private static final long VIGENCIA_SOLICITUD_MS = 5 * 60_000;
+
+    private final TicketRepository ticketRepository;
+    private final MensajeRepository mensajeRepository;
+    private final TelegramService telegramService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Tickets con notificación solicitada cuyo mensaje aún no se registra, con el instante de la solicitud */
+    private final Map<Long, Long> solicitudesEnCurso = new ConcurrentHashMap<>();
+
+    public ProximoTurnoNotifier(TicketRepository ticketRepository,
+                                MensajeRepository mensajeRepository,
+                                TelegramService telegramService,
+                                ApplicationEventPublisher eventPublisher) {
+        this.ticketRepository = ticketRepository;
+        this.mensajeRepository = mensajeRepository;
+        this.telegramService = telegramService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alAcercarseTurno(TicketNearTurnEvent event) {
+        ejecutor.execute(() -> notificar(event));
+    }
+
+    void notificar(TicketNearTurnEvent event) {
+        try {
+            ticketRepository.findById(event.ticketId())
+                .filter(ticket -> ticket.getStatus() == TicketStatus.EN_ESPERA)
+                .filter(ProximoTurnoNotifier::tieneTelefono)
+                .filter(ticket -> !mensajeRepository.existsByTicketIdAndPlantilla(ticket.getId(), PLANTILLA_PROXIMO_TURNO))
+                .ifPresent(this::solicitar);
+        } catch (Exception e) {
+            log.error("Error procesando próximo turno del ticket {}: {}", event.ticketId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Busca en una sola consulta los primeros de cada cola sin aviso y solicita los que falten
+     * @return Cantidad de notificaciones solicitadas
+     */
+    public int revisarColas() {
+        List<Ticket> ticketsProximos = ticketRepository.findProximosSinNotificar(
+            COLAS, POSICION_PROXIMO_TURNO, PLANTILLA_PROXIMO_TURNO);
+        log.debug("Encontrados {} tickets próximos para notificar", ticketsProximos.size());
+
+        // Un ticket sigue apareciendo hasta que el despachador registra su mensaje: no se vuelve a solicitar
+        long ahora = System.currentTimeMillis();
+        Set<Long> candidatos = ticketsProximos.stream().map(Ticket::getId).collect(Collectors.toSet());
+        solicitudesEnCurso.entrySet().removeIf(solicitud ->
+            !candidatos.contains(solicitud.getKey()) || ahora - solicitud.getValue() > VIGENCIA_SOLICITUD_MS);
+
+        int solicitadas = 0;
+        for (Ticket ticket : ticketsProximos) {
+            if (solicitar(ticket)) {
+                solicitadas++;
+            }
+        }
+        return solicitadas;
+    }
+
+    /**
+     * Solicita la notificación al despachador, salvo que ya haya una en curso para el ticket
+     */
+    private boolean solicitar(Ticket ticket) {
+        if (solicitudesEnCurso.putIfAbsent(ticket.getId(), System.currentTimeMillis()) != null) {
+            return false;
+        }
+        try {
+            String texto = telegramService.obtenerTextoMensaje(
+                PLANTILLA_PROXIMO_TURNO, ticket.getNumero(), null, null, null, null);
+            eventPublisher.publishEvent(new TelegramNotificationRequestedEvent(
+                ticket.getId(), ticket.getNumero(), ticket.getTelefono(), PLANTILLA_PROXIMO_TURNO, texto));
+            log.debug("Notificación próximo turno solicitada para ticket {}", ticket.getNumero());
+            return true;
+        } catch (Exception e) {
+            solicitudesEnCurso.remove(ticket.getId());
+            log.error("Error solicitando notificación próximo turno para ticket {}: {}",
+                ticket.getNumero(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean tieneTelefono(Ticket ticket) {
+        return ticket.getTelefono() != null && !ticket.getTelefono().isEmpty();
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Índice en memoria de las filas de espera por tipo de cola
+ * La posición de un ticket se calcula como su rango dentro de la fila (O(log n)),
+ * evitando reescribir position_in_queue de todos los tickets en cada llamado
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueuePositionIndex {
+
+    private final TicketRepository ticketRepository;
+
+    private final Map<QueueType, FilaEspera> filas = crearFilas();
+
+    /**
+     * Reconstruye el índice desde la tabla ticket al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        Map<QueueType, List<Ticket>> enEspera = ticketRepository
+            .findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA)
+            .stream()
+            .collect(Collectors.groupingBy(Ticket::getQueueType));
+
+        for (QueueType queueType : QueueType.values()) {
+            filas.get(queueType).cargar(enEspera.getOrDefault(queueType, List.of()));
+        }
+        log.info("Índice de filas reconstruido: {} tickets en espera", enEspera.values().stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Reconstruye la fila de un tipo de cola, usado cuando un ticket vuelve a la fila fuera de orden
+     * @param queueType Tipo de cola a reconstruir
+     */
+    public void reconstruir(QueueType queueType) {
+        List<Ticket> tickets = ticketRepository
+            .findByQueueTypeAndStatusInOrderByCreatedAtAsc(queueType, List.of(TicketStatus.EN_ESPERA));
+        filas.get(queueType).cargar(tickets);
+        log.debug("Fila {} reconstruida con {} tickets", queueType.getDisplayName(), tickets.size());
+    }
+
+    /**
+     * Agrega un ticket recién creado al final de su fila
+     * Si la transacción en curso hace rollback, el ticket se retira del índice
+     * @param ticket Ticket persistido en estado EN_ESPERA
+     */
+    public void registrar(Ticket ticket) {
+        FilaEspera fila = filas.get(ticket.getQueueType());
+        fila.agregar(ticket.getId(), llegada(ticket));
+        alHacerRollback(() -> fila.retirar(ticket.getId()));
+    }
+
+    /**
+     * Retira un ticket de su fila (llamado, cancelado, etc.)
+     * Si la transacción en curso hace rollback, la fila se reconstruye desde la base de datos
+     * @param ticket Ticket a retirar
+     */
+    public void retirar(Ticket ticket) {
+        retirar(ticket.getQueueType(), ticket.getId());
+    }
+
+    /**
+     * Retira un ticket de su fila conociendo solo su ID
+     * @param queueType Tipo de cola del ticket
+     * @param ticketId ID del ticket a retirar
+     */
+    public void retirar(QueueType queueType, long ticketId) {
+        filas.get(queueType).retirar(ticketId);
+        alHacerRollback(() -> reconstruir(queueType));
+    }
+
+    /**
+     * Obtiene la posición actual (1..n) de un ticket en su fila
+     * @param ticket Ticket a consultar
+     * @return Posición del ticket, o vacío si no está en espera
+     */
+    public OptionalInt obtenerPosicion(Ticket ticket) {
+        if (ticket.getId() == null || ticket.getQueueType() == null) {
+            return OptionalInt.empty();
+        }
+        return filas.get(ticket.getQueueType()).posicion(ticket.getId());
+    }
+
+    /**
+     * Obtiene el ticket que ocupa una posición de la fila
+     * @param queueType Tipo de cola
+     * @param posicion Posición buscada (1..n)
+     * @return ID del ticket, o vacío si la fila es más corta
+     */
+    public OptionalLong obtenerTicketEnPosicion(QueueType queueType, int posicion) {
+        return filas.get(queueType).ticketEn(posicion);
+    }
+
+    /**
+     * Obtiene el primer ticket de la fila, el de llegada más antigua
+     * @param queueType Tipo de cola
+     * @return Primer ticket y su hora de llegada, o vacío si la fila está vacía
+     */
+    public Optional<TicketEnEspera> obtenerPrimero(QueueType queueType) {
+        return filas.get(queueType).primero(queueType);
+    }
+
+    /**
+     * Cantidad de tickets en espera en una cola
+     * @param queueType Tipo de cola
+     * @return Largo actual de la fila
+     */
+    public int contarEnEspera(QueueType queueType) {
+        return filas.get(queueType).tamano();
+    }
+
+    private static long llegada(Ticket ticket) {
+        return ticket.getCreatedAt() != null
+            ? ticket.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : System.currentTimeMillis();
+    }
+
+    private void alHacerRollback(Runnable compensacion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensacion.run();
+                }
+            }
+        });
+    }
+
+    private static Map<QueueType, FilaEspera> crearFilas() {
+        Map<QueueType, FilaEspera> mapa = new EnumMap<>(QueueType.class);
+        for (QueueType queueType : QueueType.values()) {
+            mapa.put(queueType, new FilaEspera());
+        }
+        return mapa;
+    }
+
+    /**
+     * Ticket en espera con su hora de llegada (epoch en milisegundos)
+     */
+    public record TicketEnEspera(long ticketId, QueueType queueType, long llegadaMillis) {
+
+        public static TicketEnEspera de(Ticket ticket) {
+            return new TicketEnEspera(ticket.getId(), ticket.getQueueType(), llegada(ticket));
+        }
+    }
+
+    /**
+     * Fila de espera de un tipo de cola
+     * Cada ticket ocupa un slot según su orden de llegada; un árbol de Fenwick sobre los slots
+     * ocupados permite obtener el rango de un ticket y retirarlo en O(log n)
+     */
+    static final class FilaEspera {
+
+        private static final int CAPACIDAD_MINIMA = 64;
+
+        private final Map<Long, Integer> slotPorTicket = new HashMap<>();
+        private long[] ticketPorSlot = new long[CAPACIDAD_MINIMA];
+        private long[] llegadaPorSlot = new long[CAPACIDAD_MINIMA];
+        private int[] arbol = new int[CAPACIDAD_MINIMA + 1];
+        private int siguienteSlot;
+
+        synchronized void cargar(List<Ticket> tickets) {
+            long[] ticketIds = tickets.stream().mapToLong(Ticket::getId).toArray();
+            long[] llegadas = tickets.stream().mapToLong(QueuePositionIndex::llegada).toArray();
+            cargar(ticketIds, llegadas);
+        }
+
+        private void cargar(long[] ticketIds, long[] llegadas) {
+            slotPorTicket.clear();
+            int capacidad = Math.max(CAPACIDAD_MINIMA, ticketIds.length * 2);
+            ticketPorSlot = new long[capacidad];
+            llegadaPorSlot = new long[capacidad];
+            arbol = new int[capacidad + 1];
+            siguienteSlot = 0;
+            for (int i = 0; i < ticketIds.length; i++) {
+                ocupar(ticketIds[i], llegadas[i]);
+            }
+        }
+
+        synchronized void agregar(long ticketId, long llegadaMillis) {
+            if (slotPorTicket.containsKey(ticketId)) {
+                return;
+            }
+            if (siguienteSlot == ticketPorSlot.length) {
+                compactar();
+            }
+            ocupar(ticketId, llegadaMillis);
+        }
+
+        synchronized void retirar(long ticketId) {
+            Integer slot = slotPorTicket.remove(ticketId);
+            if (slot != null) {
+                actualizar(slot, -1);
+            }
+        }
+
+        synchronized OptionalInt posicion(long ticketId) {
+            Integer slot = slotPorTicket.get(ticketId);
+            return slot == null ? OptionalInt.empty() : OptionalInt.of(sumaHasta(slot));
+        }
+
+        synchronized OptionalLong ticketEn(int posicion) {
+            int slot = slotEn(posicion);
+            return slot < 0 ? OptionalLong.empty() : OptionalLong.of(ticketPorSlot[slot]);
+        }
+
+        synchronized Optional<TicketEnEspera> primero(QueueType queueType) {
+            int slot = slotEn(1);
+            return slot < 0
+                ? Optional.empty()
+                : Optional.of(new TicketEnEspera(ticketPorSlot[slot], queueType, llegadaPorSlot[slot]));
+        }
+
+        /**
+         * Desciende por el árbol buscando el primer slot cuya suma acumulada alcanza la posición, en O(log n)
+         * @return Slot de la posición, o -1 si la fila es más corta
+         */
+        private int slotEn(int posicion) {
+            if (posicion < 1 || posicion > slotPorTicket.size()) {
+                return -1;
+            }
+            int indice = 0;
+            int restante = posicion;
+            for (int paso = Integer.highestOneBit(arbol.length - 1); paso > 0; paso >>= 1) {
+                int siguiente = indice + paso;
+                if (siguiente < arbol.length && arbol[siguiente] < restante) {
+                    indice = siguiente;
+                    restante -= arbol[siguiente];
+                }
+            }
+            return indice;
+        }
+
+        synchronized int tamano() {
+            return slotPorTicket.size();
+        }
+
+        private void ocupar(long ticketId, long llegadaMillis) {
+            int slot = siguienteSlot++;
+            ticketPorSlot[slot] = ticketId;
+            llegadaPorSlot[slot] = llegadaMillis;
+            slotPorTicket.put(ticketId, slot);
+            actualizar(slot, 1);
+        }
+
+        /**
+         * Reubica los tickets vivos al inicio de un arreglo nuevo, descartando slots liberados
+         */
+        private void compactar() {
+            int[] slotsVivos = IntStream.range(0, siguienteSlot)
+                .filter(slot -> Integer.valueOf(slot).equals(slotPorTicket.get(ticketPorSlot[slot])))
+                .toArray();
+            long[] vivos = Arrays.stream(slotsVivos).mapToLong(slot -> ticketPorSlot[slot]).toArray();
+            long[] llegadas = Arrays.stream(slotsVivos).mapToLong(slot -> llegadaPorSlot[slot]).toArray();
+            cargar(vivos, llegadas);
+        }
+
+        private void actualizar(int slot, int delta) {
+            for (int i = slot + 1; i < arbol.length; i += i & -i) {
+                arbol[i] += delta;
+            }
+        }
+
+        private int sumaHasta(int slot) {
+            int suma = 0;
+            for (int i = slot + 1; i > 0; i -= i & -i) {
+                suma += arbol[i];
+            }
+            return suma;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Servicio para gestión de colas de atención
@@ -24,6 +25,7 @@ import java.util.List;
 public class QueueService {
 
     private final TicketRepository ticketRepository;
+    private final WaitTimeEstimator waitTimeEstimator;
     private static final int MAX_TICKETS_DISPLAY = 10;
 
     /**
@@ -85,15 +87,16 @@ public class QueueService {
         Long ticketsAtendiendo = ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.ATENDIENDO);
         Long totalTickets = ticketsEnEspera + ticketsAtendiendo;
         
-        int tiempoEstimado = Math.toIntExact(ticketsEnEspera * queueType.getAvgTimeMinutes());
+        int tiempoEstimado = waitTimeEstimator.estimarEsperaMinutos(queueType, Math.toIntExact(ticketsEnEspera));
         
+        // Los tickets vienen ordenados por llegada, su posición vigente es el índice en la lista
         List<Ticket> ticketsEspera = obtenerProximosTickets(queueType, MAX_TICKETS_DISPLAY);
-        List<QueueStatusResponse.TicketInfo> waitingList = ticketsEspera.stream()
-            .map(ticket -> new QueueStatusResponse.TicketInfo(
-                ticket.getNumero(),
-                ticket.getPositionInQueue(),
-                ticket.getEstimatedWaitMinutes(),
-                ticket.getCreatedAt()
+        List<QueueStatusResponse.TicketInfo> waitingList = IntStream.range(0, ticketsEspera.size())
+            .mapToObj(i -> new QueueStatusResponse.TicketInfo(
+                ticketsEspera.get(i).getNumero(),
+                i + 1,
+                waitTimeEstimator.estimarEsperaMinutos(queueType, i + 1),
+                ticketsEspera.get(i).getCreatedAt()
             ))
             .toList();
         
@@ -103,7 +106,7 @@ public class QueueService {
         return new QueueStatusResponse(
             queueType,
             queueType.getDisplayName(),
-            queueType.getAvgTimeMinutes(),
+            waitTimeEstimator.tiempoAtencionMinutos(queueType),
             queueType.getPriority(),
             String.valueOf(queueType.getPrefix()),
             Math.toIntExact(totalTickets),
@@ -0,0 +1,193 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.model.dto.QueueStatusResponse;
+import com.example.ticketero.model.enums.QueueType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Difusión del estado de colas a las pantallas conectadas por Server-Sent Events
+ * Los cambios confirmados marcan su cola como pendiente; en cada ciclo se calcula una sola vez
+ * el estado de las colas pendientes y se entrega a todos los suscriptores, de modo que la carga
+ * sobre la base de datos no depende de la cantidad de pantallas conectadas
+ */
+@Service
+@Slf4j
+public class QueueStatusBroadcaster {
+
+    static final String EVENTO_SNAPSHOT = "snapshot";
+    static final String EVENTO_COLA = "queue-status";
+
+    private final QueueService queueService;
+    private final PanelSnapshotService panelSnapshotService;
+    private final long timeoutMillis;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final Set<QueueType> colasPendientes = EnumSet.noneOf(QueueType.class);
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    public QueueStatusBroadcaster(QueueService queueService,
+                                  PanelSnapshotService panelSnapshotService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${panel.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.queueService = queueService;
+        this.panelSnapshotService = panelSnapshotService;
+        this.timeoutMillis = timeoutMillis;
+        Gauge.builder("ticketero.queue.stream.clients", suscriptores, Set::size)
+            .description("Pantallas suscritas al stream de colas")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registra una nueva pantalla y le envía el estado completo de las colas
+     * @return Emitter SSE de la suscripción
+     */
+    public SseEmitter suscribir() {
+        return registrar(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter registrar(SseEmitter emitter) {
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+
+        suscriptor.encolar(EVENTO_SNAPSHOT, SseEmitter.event()
+            .name(EVENTO_SNAPSHOT)
+            .data(panelSnapshotService.obtenerEstadoColas()));
+        log.debug("Pantalla suscrita al stream de colas, total: {}", suscriptores.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoTicket(TicketStatusChangedEvent event) {
+        if (event.queueType() == null) {
+            return;
+        }
+        synchronized (colasPendientes) {
+            colasPendientes.add(event.queueType());
+        }
+    }
+
+    /**
+     * Calcula el estado de las colas con cambios y lo difunde a todas las pantallas
+     */
+    @Scheduled(fixedDelayString = "${panel.stream.intervalo-ms:250}")
+    public void difundirCambios() {
+        Set<QueueType> colas;
+        synchronized (colasPendientes) {
+            if (colasPendientes.isEmpty()) {
+                return;
+            }
+            colas = EnumSet.copyOf(colasPendientes);
+            colasPendientes.clear();
+        }
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        for (QueueType queueType : colas) {
+            QueueStatusResponse estado = queueService.obtenerEstadoCola(queueType);
+            String clave = queueType.name();
+            for (Suscriptor suscriptor : suscriptores) {
+                suscriptor.encolar(clave, SseEmitter.event().name(EVENTO_COLA).data(estado));
+            }
+        }
+        log.debug("Estado de colas {} difundido a {} pantallas", colas, suscriptores.size());
+    }
+
+    /**
+     * Mantiene viva la conexión y detecta pantallas desconectadas
+     */
+    @Scheduled(fixedRateString = "${panel.stream.heartbeat-ms:15000}")
+    public void enviarHeartbeat() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar("heartbeat", SseEmitter.event().comment("ping"));
+        }
+    }
+
+    int contarSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @PreDestroy
+    void cerrar() {
+        suscriptores.forEach(suscriptor -> suscriptor.emitter.complete());
+        suscriptores.clear();
+        envios.shutdownNow();
+    }
+
+    /**
+     * Buzón de una pantalla: conserva solo el último evento pendiente por clave
+     * Una pantalla lenta recibe el estado más reciente en lugar de acumular eventos,
+     * y su envío bloquea únicamente su propio hilo virtual
+     */
+    private final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final Map<String, SseEmitter.SseEventBuilder> pendientes = new LinkedHashMap<>();
+        private boolean enviando;
+
+        private Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void encolar(String clave, SseEmitter.SseEventBuilder evento) {
+            synchronized (this) {
+                pendientes.remove(clave);
+                pendientes.put(clave, evento);
+                if (enviando) {
+                    return;
+                }
+                enviando = true;
+            }
+            envios.execute(this::drenar);
+        }
+
+        private void drenar() {
+            while (true) {
+                Map<String, SseEmitter.SseEventBuilder> lote;
+                synchronized (this) {
+                    if (pendientes.isEmpty()) {
+                        enviando = false;
+                        return;
+                    }
+                    lote = new LinkedHashMap<>(pendientes);
+                    pendientes.clear();
+                }
+                try {
+                    for (SseEmitter.SseEventBuilder evento : lote.values()) {
+                        emitter.send(evento);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Pantalla desconectada del stream de colas: {}", e.getMessage());
+                    suscriptores.remove(this);
+                    emitter.completeWithError(e);
+                    synchronized (this) {
+                        pendientes.clear();
+                        enviando = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
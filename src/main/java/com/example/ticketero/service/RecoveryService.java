@@ -1,5 +1,7 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.entity.RecoveryEvent;
 import com.example.ticketero.model.entity.Ticket;
@@ -8,10 +10,13 @@ import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.RecoveryEventRepository;
 import com.example.ticketero.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +34,9 @@ public class RecoveryService {
     private final TicketRepository ticketRepository;
     private final RecoveryEventRepository recoveryEventRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final QueuePositionIndex queuePositionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
     @Value("${recovery.heartbeat-timeout-seconds:300}")
     private int heartbeatTimeoutSeconds;
@@ -91,6 +99,9 @@ public class RecoveryService {
                 ticket.setAssignedAdvisor(null);
                 ticket.setAssignedModuleNumber(null);
                 ticketRepository.save(ticket);
+                queuePositionIndex.reconstruir(ticket.getQueueType());
+                eventPublisher.publishEvent(new TicketStatusChangedEvent(
+                    ticket.getId(), ticket.getQueueType(), TicketStatus.valueOf(oldTicketStatus), TicketStatus.EN_ESPERA));
                 
                 newTicketStatus = TicketStatus.EN_ESPERA.name();
                 
@@ -110,8 +121,10 @@ public class RecoveryService {
         
         // Liberar advisor
         advisor.setStatus(AdvisorStatus.AVAILABLE);
-        advisorRepository.incrementRecoveryCount(advisor.getId());
+        advisorRepository.incrementarTicketsAsignados(advisor.getId());
         advisorRepository.save(advisor);
+        eventPublisher.publishEvent(new AdvisorStatusChangedEvent(
+            advisor.getId(), AdvisorStatus.valueOf(oldStatus), AdvisorStatus.AVAILABLE));
         
         // Registrar evento de recuperación
         RecoveryEvent event = RecoveryEvent.builder()
@@ -126,6 +139,12 @@ public class RecoveryService {
             .build();
         
         recoveryEventRepository.save(event);
+        Counter.builder("ticketero.recovery.events")
+            .description("Recuperaciones de asesores, por tipo y si hubo ticket reencolado")
+            .tag("type", recoveryType)
+            .tag("requeued", String.valueOf(newTicketStatus != null))
+            .register(meterRegistry)
+            .increment();
         
         log.info("Worker {} recuperado exitosamente", advisor.getId());
     }
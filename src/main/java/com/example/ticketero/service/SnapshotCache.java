@@ -0,0 +1,142 @@
+package com.example.ticketero.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de un único snapshot calculado bajo demanda
+ * - Single-flight: las solicitudes concurrentes durante un recálculo esperan el mismo resultado
+ * - El snapshot se recalcula como máximo cada ttl, o antes si fue invalidado
+ * - Tras una invalidación se respeta un intervalo mínimo entre recálculos
+ */
+public class SnapshotCache<T> {
+
+    private final Supplier<T> cargador;
+    private final long ttlNanos;
+    private final long intervaloMinimoNanos;
+    private final Object lock = new Object();
+    private final AtomicLong version = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalescidas;
+    private final Counter invalidaciones;
+
+    private volatile Snapshot<T> actual;
+    private CompletableFuture<T> enCurso;
+
+    public SnapshotCache(String nombre, Supplier<T> cargador, long ttlMillis, long intervaloMinimoMillis, MeterRegistry meterRegistry) {
+        this.cargador = cargador;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.intervaloMinimoNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(intervaloMinimoMillis, ttlMillis));
+        this.hits = contador(meterRegistry, nombre, "hit");
+        this.misses = contador(meterRegistry, nombre, "miss");
+        this.coalescidas = contador(meterRegistry, nombre, "coalesced");
+        this.invalidaciones = Counter.builder("ticketero.snapshot.cache.invalidations")
+            .tag("cache", nombre)
+            .register(meterRegistry);
+        Gauge.builder("ticketero.snapshot.cache.staleness", this, SnapshotCache::antiguedadSegundos)
+            .tag("cache", nombre)
+            .baseUnit("seconds")
+            .description("Antigüedad del snapshot servido actualmente")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene el snapshot vigente, recalculándolo si expiró o fue invalidado
+     */
+    public T obtener() {
+        Snapshot<T> snapshot = actual;
+        if (esVigente(snapshot)) {
+            hits.increment();
+            return snapshot.valor();
+        }
+
+        CompletableFuture<T> resultado;
+        boolean cargaPropia = false;
+        synchronized (lock) {
+            snapshot = actual;
+            if (esVigente(snapshot)) {
+                hits.increment();
+                return snapshot.valor();
+            }
+            if (enCurso == null) {
+                enCurso = new CompletableFuture<>();
+                cargaPropia = true;
+            }
+            resultado = enCurso;
+        }
+
+        if (!cargaPropia) {
+            coalescidas.increment();
+            return esperar(resultado);
+        }
+
+        misses.increment();
+        long versionCarga = version.get();
+        try {
+            T valor = cargador.get();
+            actual = new Snapshot<>(valor, System.nanoTime(), versionCarga);
+            resultado.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (lock) {
+                enCurso = null;
+            }
+        }
+    }
+
+    /**
+     * Marca el snapshot actual como desactualizado
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        invalidaciones.increment();
+    }
+
+    private boolean esVigente(Snapshot<T> snapshot) {
+        if (snapshot == null) {
+            return false;
+        }
+        long edad = System.nanoTime() - snapshot.cargadoEn();
+        if (edad >= ttlNanos) {
+            return false;
+        }
+        return snapshot.version() == version.get() || edad < intervaloMinimoNanos;
+    }
+
+    private double antiguedadSegundos() {
+        Snapshot<T> snapshot = actual;
+        return snapshot == null ? 0 : (System.nanoTime() - snapshot.cargadoEn()) / 1e9;
+    }
+
+    private static <T> T esperar(CompletableFuture<T> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String nombre, String resultado) {
+        return Counter.builder("ticketero.snapshot.cache.requests")
+            .tag("cache", nombre)
+            .tag("result", resultado)
+            .register(meterRegistry);
+    }
+
+    private record Snapshot<T>(T valor, long cargadoEn, long version) {}
+}
@@ -0,0 +1,217 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envío asíncrono de notificaciones Telegram
+ * Las solicitudes se encolan después del commit en una cola acotada que drenan hilos virtuales,
+ * de modo que la latencia de Telegram no retiene el hilo HTTP ni la conexión a la base de datos.
+ * Si la cola está llena o el envío falla, el mensaje queda PENDIENTE para el NotificationScheduler.
+ * Cada worker toma junto con la solicitud las que ya esperan en la cola (hasta lote-maximo) y las
+ * envía combinadas, de modo que el límite por chat de Telegram no frena el ritmo de notificaciones
+ */
+@Service
+@Slf4j
+public class TelegramDispatcher {
+
+    private final TelegramService telegramService;
+    private final MensajeRepository mensajeRepository;
+    private final TicketRepository ticketRepository;
+    private final BlockingQueue<TelegramNotificationRequestedEvent> cola;
+    private final int cantidadWorkers;
+    private final int loteMaximo;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Counter enviados;
+    private final Counter fallidos;
+    private final Counter desbordados;
+
+    private volatile boolean activo = true;
+
+    public TelegramDispatcher(TelegramService telegramService,
+                              MensajeRepository mensajeRepository,
+                              TicketRepository ticketRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${telegram.dispatcher.capacidad:1000}") int capacidad,
+                              @Value("${telegram.dispatcher.workers:8}") int cantidadWorkers,
+                              @Value("${telegram.dispatcher.lote-maximo:20}") int loteMaximo) {
+        this.telegramService = telegramService;
+        this.mensajeRepository = mensajeRepository;
+        this.ticketRepository = ticketRepository;
+        this.cola = new LinkedBlockingQueue<>(capacidad);
+        this.cantidadWorkers = cantidadWorkers;
+        this.loteMaximo = loteMaximo;
+        this.enviados = contador(meterRegistry, "enviado");
+        this.fallidos = contador(meterRegistry, "fallido");
+        this.desbordados = contador(meterRegistry, "desbordado");
+        Gauge.builder("ticketero.telegram.dispatcher.queue", cola, BlockingQueue::size)
+            .description("Notificaciones Telegram en espera de envío")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        for (int i = 0; i < cantidadWorkers; i++) {
+            workers.add(Thread.ofVirtual().name("telegram-dispatcher-", i).start(this::procesarCola));
+        }
+        log.info("Despachador Telegram iniciado con {} workers", cantidadWorkers);
+    }
+
+    /**
+     * Encola la notificación una vez confirmada la transacción que la solicitó
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alSolicitarNotificacion(TelegramNotificationRequestedEvent solicitud) {
+        if (!activo || !cola.offer(solicitud)) {
+            desbordados.increment();
+            log.warn("Cola de Telegram llena, ticket {} queda pendiente para reintento", solicitud.numeroTicket());
+            guardarMensaje(solicitud, "PENDIENTE", null, 0);
+        }
+    }
+
+    private void procesarCola() {
+        while (activo) {
+            try {
+                TelegramNotificationRequestedEvent solicitud = cola.poll(1, TimeUnit.SECONDS);
+                if (solicitud != null) {
+                    List<TelegramNotificationRequestedEvent> lote = new ArrayList<>();
+                    lote.add(solicitud);
+                    cola.drainTo(lote, loteMaximo - 1);
+                    enviar(lote);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error inesperado en despachador Telegram: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    void enviar(List<TelegramNotificationRequestedEvent> lote) {
+        List<String> messageIds;
+        try {
+            messageIds = telegramService.enviarAgrupados(lote.stream()
+                .map(solicitud -> new TelegramService.Notificacion(solicitud.telefono(), solicitud.texto()))
+                .toList());
+        } catch (Exception e) {
+            log.warn("Envío Telegram fallido para {} notificaciones, quedan pendientes: {}", lote.size(), e.getMessage());
+            messageIds = Collections.nCopies(lote.size(), null);
+        }
+
+        List<Mensaje> mensajes = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            TelegramNotificationRequestedEvent solicitud = lote.get(i);
+            String messageId = messageIds.get(i);
+            if (messageId == null) {
+                fallidos.increment();
+                log.warn("Envío Telegram fallido para ticket {}, queda pendiente", solicitud.numeroTicket());
+                mensajes.add(nuevoMensaje(solicitud, "PENDIENTE", null, 1));
+            } else {
+                enviados.increment();
+                mensajes.add(nuevoMensaje(solicitud, "ENVIADO", messageId, 1));
+                log.debug("Notificación {} enviada para ticket {}", solicitud.plantilla(), solicitud.numeroTicket());
+            }
+        }
+        guardarMensajes(mensajes);
+    }
+
+    private void guardarMensaje(TelegramNotificationRequestedEvent solicitud, String estado, String messageId, int intentos) {
+        try {
+            mensajeRepository.save(nuevoMensaje(solicitud, estado, messageId, intentos));
+        } catch (Exception e) {
+            log.error("No se pudo registrar mensaje {} del ticket {}: {}",
+                solicitud.plantilla(), solicitud.numeroTicket(), e.getMessage());
+        }
+    }
+
+    /**
+     * Registra los mensajes de un lote en una sola transacción (INSERT en batch)
+     * Si el lote falla (por ejemplo, un ticket eliminado entre el envío y el registro) se guardan
+     * uno a uno, para que una fila inválida no haga perder el registro de las demás
+     */
+    private void guardarMensajes(List<Mensaje> mensajes) {
+        if (mensajes.isEmpty()) {
+            return;
+        }
+        try {
+            mensajeRepository.saveAll(mensajes);
+        } catch (Exception e) {
+            log.warn("No se pudo registrar el lote de {} mensajes, se registran uno a uno: {}",
+                mensajes.size(), e.getMessage());
+            mensajes.forEach(this::guardarMensaje);
+        }
+    }
+
+    private void guardarMensaje(Mensaje mensaje) {
+        // El lote revertido pudo dejar asignado el id de la secuencia; sin él se inserta como nuevo
+        mensaje.setId(null);
+        try {
+            mensajeRepository.save(mensaje);
+        } catch (Exception e) {
+            log.error("No se pudo registrar mensaje {} del ticket {}: {}",
+                mensaje.getPlantilla(), mensaje.getTicket().getId(), e.getMessage());
+        }
+    }
+
+    private Mensaje nuevoMensaje(TelegramNotificationRequestedEvent solicitud, String estado, String messageId, int intentos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return Mensaje.builder()
+            .ticket(ticketRepository.getReferenceById(solicitud.ticketId()))
+            .plantilla(solicitud.plantilla())
+            .estadoEnvio(estado)
+            .telegramMessageId(messageId)
+            .intentos(intentos)
+            .fechaProgramada(ahora)
+            .fechaEnvio(messageId != null ? ahora : null)
+            .build();
+    }
+
+    int pendientesEnCola() {
+        return cola.size();
+    }
+
+    /**
+     * Detiene los workers y deja como pendientes las notificaciones aún encoladas
+     */
+    @PreDestroy
+    void detener() {
+        activo = false;
+        workers.forEach(Thread::interrupt);
+        List<TelegramNotificationRequestedEvent> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        guardarMensajes(restantes.stream()
+            .map(solicitud -> nuevoMensaje(solicitud, "PENDIENTE", null, 0))
+            .toList());
+        if (!restantes.isEmpty()) {
+            log.info("{} notificaciones Telegram quedaron pendientes al detener", restantes.size());
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("ticketero.telegram.dispatcher.messages")
+            .tag("result", resultado)
+            .register(meterRegistry);
+    }
+}
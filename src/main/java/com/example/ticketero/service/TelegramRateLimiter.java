@@ -0,0 +1,105 @@
+package com.example.ticketero.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de envíos a Telegram con cubetas de tokens global y por chat
+ * Cuando se alcanza el límite el llamador espera su turno en lugar de fallar; las reservas
+ * se atienden en orden de llegada. Un 429 de Telegram bloquea la cubeta del chat hasta retry_after
+ */
+@Component
+@Slf4j
+public class TelegramRateLimiter {
+
+    private final Cubeta global;
+    private final Map<String, Cubeta> porChat = new ConcurrentHashMap<>();
+    private final double porChatPorSegundo;
+    private final int rafagaPorChat;
+    private final Timer espera;
+
+    public TelegramRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${telegram.rate.global-por-segundo:30}") double globalPorSegundo,
+                               @Value("${telegram.rate.por-chat-por-segundo:1}") double porChatPorSegundo,
+                               @Value("${telegram.rate.rafaga-por-chat:1}") int rafagaPorChat) {
+        this.global = new Cubeta(globalPorSegundo, Math.max(1, (int) globalPorSegundo));
+        this.porChatPorSegundo = porChatPorSegundo;
+        this.rafagaPorChat = rafagaPorChat;
+        this.espera = Timer.builder("ticketero.telegram.rate.wait")
+            .description("Tiempo de espera por el límite de envíos de Telegram")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Bloquea hasta que el chat y el límite global admiten un nuevo envío
+     */
+    public void adquirir(String chatId) throws InterruptedException {
+        long inicio = System.nanoTime();
+        dormir(cubetaDe(chatId).reservar());
+        dormir(global.reservar());
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Aplica el retry_after informado por Telegram: el chat no recibe envíos hasta que expire
+     */
+    public void penalizar(String chatId, long retryAfterSegundos) {
+        log.warn("Telegram limitó el chat {}, envíos suspendidos por {} s", chatId, retryAfterSegundos);
+        cubetaDe(chatId).bloquearHasta(System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfterSegundos));
+    }
+
+    private Cubeta cubetaDe(String chatId) {
+        return porChat.computeIfAbsent(chatId, id -> new Cubeta(porChatPorSegundo, rafagaPorChat));
+    }
+
+    private static void dormir(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    /**
+     * Cubeta de tokens que admite saldo negativo: cada reserva descuenta un token y retorna
+     * cuánto debe esperar el llamador hasta que ese token exista
+     */
+    private static final class Cubeta {
+
+        private final double tokensPorNano;
+        private final int capacidad;
+        private double tokens;
+        private long ultimaRecarga;
+
+        private Cubeta(double porSegundo, int capacidad) {
+            this.tokensPorNano = porSegundo / TimeUnit.SECONDS.toNanos(1);
+            this.capacidad = capacidad;
+            this.tokens = capacidad;
+            this.ultimaRecarga = System.nanoTime();
+        }
+
+        synchronized long reservar() {
+            long ahora = System.nanoTime();
+            recargar(ahora);
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPorNano);
+        }
+
+        synchronized void bloquearHasta(long instante) {
+            long ahora = System.nanoTime();
+            recargar(ahora);
+            double deuda = (instante - ahora) * tokensPorNano;
+            tokens = Math.min(tokens, 1 - deuda);
+        }
+
+        private void recargar(long ahora) {
+            tokens = Math.min(capacidad, tokens + (ahora - ultimaRecarga) * tokensPorNano);
+            ultimaRecarga = ahora;
+        }
+    }
+}
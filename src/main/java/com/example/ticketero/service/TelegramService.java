@@ -1,6 +1,7 @@
 package com.example.ticketero.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
@@ -8,16 +9,30 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TelegramService {
 
+    private static final int LARGO_MAXIMO_MENSAJE = 4096;
+    private static final int MAX_INTENTOS_LIMITADOS = 3;
+    private static final String SEPARADOR = "\n\n──────────\n\n";
+    private static final Pattern RETRY_AFTER = Pattern.compile("\"retry_after\"\\s*:\\s*(\\d+)");
+
     private final RestTemplate restTemplate;
+    private final TelegramRateLimiter rateLimiter;
+    private final Timer enviosExitosos;
+    private final Timer enviosLimitados;
+    private final Timer enviosFallidos;
 
     @Value("${telegram.bot-token}")
     private String botToken;
@@ -28,7 +43,14 @@ public class TelegramService {
     @Value("${telegram.chat-id}")
     private String chatId;
 
-    @SuppressWarnings("unchecked")
+    public TelegramService(RestTemplate restTemplate, TelegramRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.enviosExitosos = envio(meterRegistry, "success");
+        this.enviosLimitados = envio(meterRegistry, "rate_limited");
+        this.enviosFallidos = envio(meterRegistry, "error");
+    }
+
     public String enviarMensaje(String telefono, String texto) {
         log.info("Iniciando envío de mensaje Telegram. Teléfono: {}, ChatId: {}", telefono, chatId);
         
@@ -37,6 +59,60 @@ public class TelegramService {
             return "simulated_message_id_" + System.currentTimeMillis();
         }
         
+        log.info("Enviando mensaje a chat_id: {} con texto: {}", chatId, texto);
+        return publicar(formatear(telefono, texto));
+    }
+
+    /**
+     * Envía varias notificaciones al chat configurado combinándolas en la menor cantidad de mensajes
+     * Como todas van al mismo chat, agruparlas evita consumir un envío del límite por chat por cada una
+     * @return message_id de cada notificación, en el mismo orden; null si su mensaje no pudo enviarse
+     */
+    public List<String> enviarAgrupados(List<Notificacion> notificaciones) {
+        List<String> messageIds = new ArrayList<>(notificaciones.size());
+        int desde = 0;
+        while (desde < notificaciones.size()) {
+            StringBuilder texto = new StringBuilder(formatear(notificaciones.get(desde).telefono(), notificaciones.get(desde).texto()));
+            int hasta = desde + 1;
+            while (hasta < notificaciones.size()) {
+                String siguiente = formatear(notificaciones.get(hasta).telefono(), notificaciones.get(hasta).texto());
+                if (texto.length() + SEPARADOR.length() + siguiente.length() > LARGO_MAXIMO_MENSAJE) {
+                    break;
+                }
+                texto.append(SEPARADOR).append(siguiente);
+                hasta++;
+            }
+            
+            String messageId;
+            if (botToken == null || botToken.isEmpty()) {
+                messageId = "simulated_message_id_" + System.currentTimeMillis();
+            } else {
+                try {
+                    messageId = publicar(texto.toString());
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo enviar mensaje agrupado con {} notificaciones: {}", hasta - desde, e.getMessage());
+                    messageId = null;
+                }
+            }
+            for (int i = desde; i < hasta; i++) {
+                messageIds.add(messageId);
+            }
+            log.debug("{} notificaciones combinadas en un mensaje a chat_id: {}", hasta - desde, chatId);
+            desde = hasta;
+        }
+        return messageIds;
+    }
+
+    private static String formatear(String telefono, String texto) {
+        return "📱 Tel: " + (telefono != null ? telefono : "N/A") + "\n\n" + texto;
+    }
+
+    /**
+     * Publica un texto en el chat configurado respetando el límite de envíos
+     * Un 429 de Telegram suspende el chat por retry_after y el envío se reintenta
+     */
+    @SuppressWarnings("unchecked")
+    private String publicar(String texto) {
         String url = apiUrl + botToken + "/sendMessage";
         log.debug("URL Telegram: {}", url);
         
@@ -46,37 +122,84 @@ public class TelegramService {
         // Usar el chat_id configurado, no el teléfono
         Map<String, Object> body = new java.util.HashMap<>();
         body.put("chat_id", chatId);
-        body.put("text", "📱 Tel: " + (telefono != null ? telefono : "N/A") + "\n\n" + texto);
+        body.put("text", texto);
         body.put("parse_mode", "HTML");
         
-        log.info("Enviando mensaje a chat_id: {} con texto: {}", chatId, texto);
-        
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
-            
-            log.info("Respuesta Telegram - Status: {}, Body: {}", response.getStatusCode(), response.getBody());
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Object resultObj = response.getBody().get("result");
-                if (resultObj instanceof Map<?, ?> result) {
-                    Object messageIdObj = result.get("message_id");
-                    String messageId = messageIdObj != null ? messageIdObj.toString() : "unknown_message_id";
-                    log.info("Mensaje enviado exitosamente. MessageId: {}", messageId);
-                    return messageId;
+            for (int intento = 1; ; intento++) {
+                rateLimiter.adquirir(chatId);
+                ResponseEntity<Map> response;
+                long inicio = System.nanoTime();
+                try {
+                    response = restTemplate.postForEntity(url, request, Map.class);
+                } catch (HttpClientErrorException.TooManyRequests e) {
+                    enviosLimitados.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    if (intento >= MAX_INTENTOS_LIMITADOS) {
+                        throw e;
+                    }
+                    rateLimiter.penalizar(chatId, obtenerRetryAfter(e));
+                    continue;
+                } catch (RuntimeException e) {
+                    enviosFallidos.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+                
+                log.info("Respuesta Telegram - Status: {}, Body: {}", response.getStatusCode(), response.getBody());
+                
+                if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                    Object resultObj = response.getBody().get("result");
+                    if (resultObj instanceof Map<?, ?> result) {
+                        Object messageIdObj = result.get("message_id");
+                        String messageId = messageIdObj != null ? messageIdObj.toString() : "unknown_message_id";
+                        enviosExitosos.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                        log.info("Mensaje enviado exitosamente. MessageId: {}", messageId);
+                        return messageId;
+                    }
                 }
+                
+                enviosFallidos.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                log.error("Error en respuesta de Telegram: {}", response.getBody());
+                throw new RuntimeException("Error enviando mensaje a Telegram");
             }
-            
-            log.error("Error en respuesta de Telegram: {}", response.getBody());
-            throw new RuntimeException("Error enviando mensaje a Telegram");
-            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Error enviando mensaje a Telegram: envío interrumpido");
         } catch (Exception e) {
             log.error("Error enviando mensaje a Telegram: {}", e.getMessage());
             throw new RuntimeException("Error enviando mensaje a Telegram: " + e.getMessage());
         }
     }
 
+    /**
+     * Segundos de espera informados por Telegram en parameters.retry_after o en el header Retry-After
+     */
+    private static long obtenerRetryAfter(HttpClientErrorException e) {
+        Matcher matcher = RETRY_AFTER.matcher(e.getResponseBodyAsString());
+        if (matcher.find()) {
+            return Long.parseLong(matcher.group(1));
+        }
+        String header = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (header != null && header.matches("\\d+")) {
+            return Long.parseLong(header);
+        }
+        return 1;
+    }
+
+    private static Timer envio(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("ticketero.telegram.send")
+            .description("Latencia de cada llamada a sendMessage de Telegram")
+            .tag("result", resultado)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Notificación a combinar con otras en un mismo mensaje
+     */
+    public record Notificacion(String telefono, String texto) {
+    }
+
     public String obtenerTextoMensaje(String plantilla, String numeroTicket, Integer posicion, Integer tiempoEstimado, String nombreAsesor, Integer modulo) {
         return switch (plantilla) {
             case "totem_ticket_creado" -> String.format(
@@ -0,0 +1,115 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métricas de negocio de los tickets: latencia de cada operación, largo de fila y espera por cola
+ * Los gauges leen el índice de posiciones en memoria al momento del scrape, sin consultar la base
+ */
+@Component
+public class TicketMetrics {
+
+    public static final String CREAR = "crear";
+    public static final String CREAR_LOTE = "crear_lote";
+    public static final String LLAMAR = "llamar";
+    public static final String LLAMAR_SIGUIENTE = "llamar_siguiente";
+    public static final String FINALIZAR = "finalizar";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<QueueType, Timer> esperas = new EnumMap<>(QueueType.class);
+
+    public TicketMetrics(MeterRegistry meterRegistry, QueuePositionIndex queuePositionIndex) {
+        this.meterRegistry = meterRegistry;
+        for (QueueType queueType : QueueType.values()) {
+            Gauge.builder("ticketero.queue.waiting", () -> queuePositionIndex.contarEnEspera(queueType))
+                .description("Tickets en espera en la cola")
+                .tag("queue", queueType.name())
+                .register(meterRegistry);
+            TimeGauge.builder("ticketero.queue.oldest.wait", () -> queuePositionIndex.obtenerPrimero(queueType)
+                    .map(primero -> Math.max(0, System.currentTimeMillis() - primero.llegadaMillis()))
+                    .orElse(0L), TimeUnit.MILLISECONDS)
+                .description("Espera acumulada del primer ticket de la cola")
+                .tag("queue", queueType.name())
+                .register(meterRegistry);
+            esperas.put(queueType, Timer.builder("ticketero.ticket.wait")
+                .description("Tiempo entre la creación de un ticket y su llamado")
+                .tag("queue", queueType.name())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Mide una operación de tickets; IllegalArgumentException e IllegalStateException (datos inválidos,
+     * duplicados, transiciones rechazadas) se registran como rechazo y el resto de las excepciones como error
+     * Dentro de una transacción la medición se registra al completarla: incluye el commit, y una operación
+     * que terminó bien pero cuya transacción no se confirmó se registra como error
+     * @param operacion Nombre de la operación (tag operation)
+     */
+    public <T> T medir(String operacion, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        String resultado = "error";
+        try {
+            T valor = accion.get();
+            resultado = "success";
+            return valor;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            resultado = "rejected";
+            throw e;
+        } finally {
+            registrar(operacion, resultado, inicio);
+        }
+    }
+
+    public void medir(String operacion, Runnable accion) {
+        medir(operacion, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    /**
+     * Registra la espera de un ticket recién llamado
+     * @param creado Hora de creación del ticket
+     */
+    public void registrarEspera(QueueType queueType, LocalDateTime creado) {
+        if (creado != null) {
+            esperas.get(queueType).record(Duration.between(creado, LocalDateTime.now()));
+        }
+    }
+
+    private void registrar(String operacion, String resultado, long inicio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            operacion(operacion, resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                String confirmado = "success".equals(resultado) && status != STATUS_COMMITTED ? "error" : resultado;
+                operacion(operacion, confirmado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private Timer operacion(String operacion, String resultado) {
+        return Timer.builder("ticketero.ticket.operation")
+            .description("Latencia de las operaciones sobre tickets")
+            .tag("operation", operacion)
+            .tag("result", resultado)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador del número visible de los tickets (C001, P015, ...)
+ * La numeración se reinicia cada día por sucursal y tipo de cola. Cada instancia reserva
+ * bloques de números en ticket_sequence y los entrega desde memoria, sin COUNT ni locks sobre ticket
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TicketNumberSequencer {
+
+    private final TicketSequenceRepository ticketSequenceRepository;
+
+    private final ConcurrentMap<ClaveSecuencia, Contador> contadores = new ConcurrentHashMap<>();
+
+    @Value("${ticket.numero.tamano-bloque:20}")
+    private int tamanoBloque;
+
+    /**
+     * Obtiene el siguiente número de ticket para la cola y sucursal en el día de creación del ticket
+     * @param queueType Tipo de cola
+     * @param branchOffice Sucursal
+     * @param fecha Día de created_at del ticket, el mismo que usa el índice único de numeración
+     * @return Número visible del ticket
+     */
+    public String siguienteNumero(QueueType queueType, String branchOffice, LocalDate fecha) {
+        long valor = siguienteValor(new ClaveSecuencia(fecha, branchOffice, queueType));
+        return String.format("%c%03d", queueType.getPrefix(), valor);
+    }
+
+    /**
+     * Reserva en una sola operación un rango contiguo de números para un lote de tickets
+     * No consume los bloques en memoria de las solicitudes individuales
+     * @param queueType Tipo de cola
+     * @param branchOffice Sucursal
+     * @param fecha Día de created_at de los tickets del lote
+     * @param cantidad Cantidad de números a reservar
+     * @return Números visibles en orden ascendente
+     */
+    public List<String> siguientesNumeros(QueueType queueType, String branchOffice, LocalDate fecha, int cantidad) {
+        if (cantidad <= 0) {
+            return List.of();
+        }
+        long ultimo = ticketSequenceRepository.reservarBloque(
+            fecha, branchOffice, queueType.name(), cantidad);
+        long primero = ultimo - cantidad + 1;
+        log.debug("Rango de números reservado para lote en {} / {}: {}-{}", branchOffice, queueType, primero, ultimo);
+
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (long valor = primero; valor <= ultimo; valor++) {
+            numeros.add(String.format("%c%03d", queueType.getPrefix(), valor));
+        }
+        return numeros;
+    }
+
+    private long siguienteValor(ClaveSecuencia clave) {
+        Contador contador = contadores.get(clave);
+        if (contador == null) {
+            descartarDiasAnteriores(clave.fecha());
+            contador = contadores.computeIfAbsent(clave, k -> new Contador());
+        }
+
+        long valor = contador.tomar();
+        if (valor > 0) {
+            return valor;
+        }
+
+        synchronized (contador) {
+            valor = contador.tomar();
+            int bloque = Math.max(1, tamanoBloque);
+            while (valor <= 0) {
+                long ultimo = ticketSequenceRepository.reservarBloque(
+                    clave.fecha(), clave.branchOffice(), clave.queueType().name(), bloque);
+                contador.recargar(ultimo - bloque + 1, ultimo);
+                log.debug("Bloque de números reservado para {} / {}: {}-{}",
+                    clave.branchOffice(), clave.queueType(), ultimo - bloque + 1, ultimo);
+                valor = contador.tomar();
+            }
+            return valor;
+        }
+    }
+
+    private void descartarDiasAnteriores(LocalDate hoy) {
+        contadores.keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+    }
+
+    private record ClaveSecuencia(LocalDate fecha, String branchOffice, QueueType queueType) {}
+
+    private record Bloque(long ultimo, AtomicLong siguiente) {}
+
+    /**
+     * Contador de una clave: entrega números del bloque vigente con un incremento atómico
+     */
+    private static final class Contador {
+
+        private volatile Bloque bloque = new Bloque(0, new AtomicLong(1));
+
+        long tomar() {
+            Bloque actual = bloque;
+            long valor = actual.siguiente().getAndIncrement();
+            return valor <= actual.ultimo() ? valor : -1;
+        }
+
+        void recargar(long primero, long ultimo) {
+            bloque = new Bloque(ultimo, new AtomicLong(primero));
+        }
+    }
+}
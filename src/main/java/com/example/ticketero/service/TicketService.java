@@ -1,24 +1,45 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.event.TicketNearTurnEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.exception.DuplicateActiveTicketException;
+import com.example.ticketero.model.dto.TicketBatchItemResult;
+import com.example.ticketero.model.dto.TicketBatchResponse;
 import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.entity.Advisor;
-import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.entity.TicketHistory;
+import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
-import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketHistoryRepository;
 import com.example.ticketero.repository.TicketRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,76 +47,354 @@ import java.util.UUID;
 @Transactional
 public class TicketService {
 
+    /** Índice único parcial que impide dos tickets activos para el mismo RUT/ID */
+    static final String INDICE_TICKET_ACTIVO = "uq_ticket_national_id_activo";
+
+    /** Máximo de tickets aceptados en una ingesta por lote */
+    static final int MAXIMO_LOTE = 1000;
+
     private final TicketRepository ticketRepository;
+    private final TicketHistoryRepository ticketHistoryRepository;
     private final AdvisorRepository advisorRepository;
-    private final MensajeRepository mensajeRepository;
     private final TelegramService telegramService;
+    private final QueuePositionIndex queuePositionIndex;
+    private final TicketNumberSequencer ticketNumberSequencer;
+    private final ActiveNationalIdCache activeNationalIdCache;
+    private final NextTicketScheduler nextTicketScheduler;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TicketMetrics ticketMetrics;
+    private final WaitTimeEstimator waitTimeEstimator;
 
+    /**
+     * Crea un ticket sin transacción envolvente: la validación, la reserva de número (REQUIRES_NEW)
+     * y el insert usan cada uno su propia transacción corta, de modo que ninguna solicitud retiene
+     * una conexión mientras espera otra. Cada acceso a datos de este método debe ser transaccional
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TicketResponse crearTicket(TicketCreateRequest request) {
+        return ticketMetrics.medir(TicketMetrics.CREAR, () -> crear(request));
+    }
+
+    private TicketResponse crear(TicketCreateRequest request) {
         // Validaciones de seguridad
         if (request == null) {
             throw new IllegalArgumentException("Request no puede ser null");
         }
         
         QueueType queueType = request.queueType();
+        String nationalId = request.nationalId().trim();
         
-        // Validar que no existe ticket activo para el mismo nationalId
-        List<TicketStatus> estadosActivos = TicketStatus.getActiveStatuses();
-        Optional<Ticket> ticketExistente = ticketRepository.findByNationalIdAndStatusIn(
-            request.nationalId(), estadosActivos);
-        
-        if (ticketExistente.isPresent()) {
-            throw new IllegalStateException("Ya existe un ticket activo para este RUT/ID: " + 
-                ticketExistente.get().getNumero());
+        // Solo un RUT conocido como activo se consulta; el resto lo valida el índice único al insertar
+        if (activeNationalIdCache.numeroActivo(nationalId).isPresent()) {
+            Optional<Ticket> ticketExistente = buscarTicketActivo(nationalId);
+            if (ticketExistente.isPresent()) {
+                throw new DuplicateActiveTicketException(ticketExistente.get().getNumero());
+            }
+            activeNationalIdCache.liberar(nationalId);
         }
         
-        // Obtener posición en cola
-        Long posicion = ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.EN_ESPERA) + 1;
+        // Obtener posición en cola desde el índice en memoria
+        Long posicion = (long) queuePositionIndex.contarEnEspera(queueType) + 1;
         
-        // Crear ticket
+        // Crear ticket; created_at se fija antes de numerar para que ambos caigan en el mismo día
+        String branchOffice = request.branchOffice().trim();
+        LocalDateTime creado = LocalDateTime.now();
         Ticket ticket = Ticket.builder()
-            .nationalId(request.nationalId().trim())
+            .numero(ticketNumberSequencer.siguienteNumero(queueType, branchOffice, creado.toLocalDate()))
+            .nationalId(nationalId)
             .telefono(request.telefono() != null ? request.telefono().trim() : null)
-            .branchOffice(request.branchOffice().trim())
+            .branchOffice(branchOffice)
             .queueType(queueType)
             .status(TicketStatus.EN_ESPERA)
             .positionInQueue(posicion.intValue())
-            .estimatedWaitMinutes(queueType.getAvgTimeMinutes() * posicion.intValue())
+            .estimatedWaitMinutes(waitTimeEstimator.estimarEsperaMinutos(queueType, posicion.intValue()))
+            .createdAt(creado)
             .build();
         
-        ticket = ticketRepository.save(ticket);
+        ticket = guardarNuevo(ticket);
+        registrarCreado(ticket, queueType, posicion.intValue());
+        return convertirAResponse(ticket);
+    }
+
+    /**
+     * Ingesta por lote de tickets, p. ej. los que un tótem acumuló sin conexión
+     * Cada ticket se valida por separado; la posición se calcula una vez por cola, los números se
+     * reservan por rango y todos los tickets se insertan en batch en una sola transacción.
+     * Si el índice único rechaza el lote por un RUT/ID que se activó en paralelo, se reintenta ticket a ticket
+     * @return Resultado de cada ticket en el orden recibido
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TicketBatchResponse crearTicketsLote(List<TicketCreateRequest> requests) {
+        return ticketMetrics.medir(TicketMetrics.CREAR_LOTE, () -> crearLote(requests));
+    }
+
+    private TicketBatchResponse crearLote(List<TicketCreateRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("El lote no puede estar vacío");
+        }
+        if (requests.size() > MAXIMO_LOTE) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + MAXIMO_LOTE + " tickets");
+        }
+
+        TicketBatchItemResult[] resultados = new TicketBatchItemResult[requests.size()];
+        Map<String, Integer> aceptados = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TicketCreateRequest request = requests.get(i);
+            Optional<String> error = validar(request);
+            if (error.isPresent()) {
+                resultados[i] = TicketBatchItemResult.invalido(i, error.get());
+            } else if (aceptados.putIfAbsent(request.nationalId().trim(), i) != null) {
+                resultados[i] = TicketBatchItemResult.duplicado(i, "RUT/ID repetido en el lote");
+            }
+        }
+
+        descartarActivos(aceptados, resultados);
+        if (!aceptados.isEmpty()) {
+            guardarLote(requests, List.copyOf(aceptados.values()), resultados);
+        }
+
+        TicketBatchResponse response = TicketBatchResponse.de(List.of(resultados));
+        log.info("Lote de {} tickets procesado: {} creados, {} rechazados",
+            response.total(), response.creados(), response.rechazados());
+        return response;
+    }
+
+    private Optional<String> validar(TicketCreateRequest request) {
+        if (request == null) {
+            return Optional.of("Ticket vacío");
+        }
+        Set<ConstraintViolation<TicketCreateRequest>> violaciones = validator.validate(request);
+        if (violaciones.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(violaciones.stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.joining("; ")));
+    }
+
+    /**
+     * Rechaza los RUT/ID que el caché conoce como activos, confirmándolos con una sola consulta
+     */
+    private void descartarActivos(Map<String, Integer> aceptados, TicketBatchItemResult[] resultados) {
+        List<String> conocidos = aceptados.keySet().stream()
+            .filter(nationalId -> activeNationalIdCache.numeroActivo(nationalId).isPresent())
+            .toList();
+        if (conocidos.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> activos = new HashMap<>();
+        ticketRepository.findByNationalIdInAndStatusIn(conocidos, TicketStatus.getActiveStatuses())
+            .forEach(t -> activos.putIfAbsent(t.getNationalId(), t.getNumero()));
+        for (String nationalId : conocidos) {
+            String numeroExistente = activos.get(nationalId);
+            if (numeroExistente == null) {
+                activeNationalIdCache.liberar(nationalId);
+                continue;
+            }
+            int indice = aceptados.remove(nationalId);
+            resultados[indice] = TicketBatchItemResult.duplicado(indice,
+                new DuplicateActiveTicketException(numeroExistente).getMessage());
+        }
+    }
+
+    private void guardarLote(List<TicketCreateRequest> requests, List<Integer> indices,
+                             TicketBatchItemResult[] resultados) {
+        // Una reserva de números por cola y sucursal, una posición base por cola
+        Map<GrupoNumeracion, Integer> cantidades = new HashMap<>();
+        for (int indice : indices) {
+            cantidades.merge(GrupoNumeracion.de(requests.get(indice)), 1, Integer::sum);
+        }
+        LocalDateTime creado = LocalDateTime.now();
+        Map<GrupoNumeracion, Iterator<String>> numeros = new HashMap<>();
+        cantidades.forEach((grupo, cantidad) -> numeros.put(grupo, ticketNumberSequencer.siguientesNumeros(
+            grupo.queueType(), grupo.branchOffice(), creado.toLocalDate(), cantidad).iterator()));
+        Map<QueueType, Integer> enEspera = new EnumMap<>(QueueType.class);
+
+        List<Ticket> tickets = new ArrayList<>(indices.size());
+        for (int indice : indices) {
+            TicketCreateRequest request = requests.get(indice);
+            QueueType queueType = request.queueType();
+            int posicion = enEspera.computeIfAbsent(queueType, queuePositionIndex::contarEnEspera) + 1;
+            enEspera.put(queueType, posicion);
+            tickets.add(Ticket.builder()
+                .numero(numeros.get(GrupoNumeracion.de(request)).next())
+                .nationalId(request.nationalId().trim())
+                .telefono(request.telefono() != null ? request.telefono().trim() : null)
+                .branchOffice(request.branchOffice().trim())
+                .queueType(queueType)
+                .status(TicketStatus.EN_ESPERA)
+                .positionInQueue(posicion)
+                .estimatedWaitMinutes(waitTimeEstimator.estimarEsperaMinutos(queueType, posicion))
+                .createdAt(creado)
+                .build());
+        }
+
+        List<Ticket> guardados;
+        try {
+            guardados = ticketRepository.saveAll(tickets);
+        } catch (DataIntegrityViolationException e) {
+            if (!esTicketActivoDuplicado(e)) {
+                throw e;
+            }
+            log.warn("Lote rechazado por un RUT/ID activo en paralelo; se reintentan {} tickets uno a uno", indices.size());
+            for (int indice : indices) {
+                resultados[indice] = crearTicketDelLote(indice, requests.get(indice));
+            }
+            return;
+        }
+
+        for (int k = 0; k < guardados.size(); k++) {
+            Ticket ticket = guardados.get(k);
+            int indice = indices.get(k);
+            registrarCreado(ticket, ticket.getQueueType(), ticket.getPositionInQueue());
+            resultados[indice] = TicketBatchItemResult.creado(indice, convertirAResponse(ticket));
+        }
+    }
+
+    private TicketBatchItemResult crearTicketDelLote(int indice, TicketCreateRequest request) {
+        try {
+            // Sin el timer de crearTicket: el ticket ya se mide dentro de crear_lote
+            return TicketBatchItemResult.creado(indice, crear(request));
+        } catch (DuplicateActiveTicketException e) {
+            return TicketBatchItemResult.duplicado(indice, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Error creando ticket {} del lote: {}", indice, e.getMessage());
+            return TicketBatchItemResult.error(indice, e.getMessage());
+        }
+    }
+
+    /**
+     * Publica un ticket recién insertado: caché de RUT activos, índice de posiciones, eventos y notificación
+     */
+    private void registrarCreado(Ticket ticket, QueueType queueType, int posicion) {
+        activeNationalIdCache.registrar(ticket.getNationalId(), ticket.getNumero());
+        queuePositionIndex.registrar(ticket);
+        eventPublisher.publishEvent(new TicketStatusChangedEvent(
+            ticket.getId(), queueType, null, TicketStatus.EN_ESPERA));
+        if (posicion <= ProximoTurnoNotifier.POSICION_PROXIMO_TURNO) {
+            eventPublisher.publishEvent(new TicketNearTurnEvent(ticket.getId(), queueType, posicion));
+        }
         
-        // Enviar notificación Telegram solo si hay teléfono
+        // Solicitar notificación Telegram solo si hay teléfono (se envía tras el commit)
         if (ticket.getTelefono() != null && !ticket.getTelefono().isEmpty()) {
-            enviarNotificacionCreacion(ticket, posicion.intValue());
+            enviarNotificacionCreacion(ticket, posicion);
         }
-        
-        return convertirAResponse(ticket);
     }
 
+    private record GrupoNumeracion(QueueType queueType, String branchOffice) {
+
+        static GrupoNumeracion de(TicketCreateRequest request) {
+            return new GrupoNumeracion(request.queueType(), request.branchOffice().trim());
+        }
+    }
+
+    /**
+     * Inserta el ticket; si otra solicitud ganó la carrera por el mismo RUT, el índice único lo rechaza
+     */
+    private Ticket guardarNuevo(Ticket ticket) {
+        try {
+            return ticketRepository.save(ticket);
+        } catch (DataIntegrityViolationException e) {
+            if (!esTicketActivoDuplicado(e)) {
+                throw e;
+            }
+            String numeroExistente = buscarTicketActivo(ticket.getNationalId())
+                .map(Ticket::getNumero)
+                .orElse("desconocido");
+            activeNationalIdCache.registrar(ticket.getNationalId(), numeroExistente);
+            throw new DuplicateActiveTicketException(numeroExistente);
+        }
+    }
+
+    private Optional<Ticket> buscarTicketActivo(String nationalId) {
+        return ticketRepository.findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(
+            nationalId, TicketStatus.getActiveStatuses());
+    }
+
+    private static boolean esTicketActivoDuplicado(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violacion
+            && INDICE_TICKET_ACTIVO.equalsIgnoreCase(violacion.getConstraintName());
+    }
+
+    /**
+     * Llama un ticket específico con un UPDATE condicional sobre su estado
+     * Si dos asesores llaman el mismo ticket a la vez, solo uno lo toma; el otro recibe IllegalStateException
+     */
     public void llamarTicket(Long ticketId, Long advisorId) {
+        ticketMetrics.medir(TicketMetrics.LLAMAR, () -> llamar(ticketId, advisorId));
+    }
+
+    private void llamar(Long ticketId, Long advisorId) {
         if (ticketId == null || advisorId == null) {
             throw new IllegalArgumentException("IDs no pueden ser null");
         }
         
-        Ticket ticket = ticketRepository.findById(ticketId)
-            .orElseThrow(() -> new IllegalArgumentException("Ticket no encontrado con ID: " + ticketId));
+        Advisor advisor = advisorRepository.findById(advisorId)
+            .orElseThrow(() -> new IllegalArgumentException("Asesor no encontrado con ID: " + advisorId));
+        
+        Ticket ticket = ticketRepository
+            .tomarParaAtencion(ticketId, advisor.getId(), advisor.getModuleNumber(), LocalDateTime.now())
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> transicionRechazada(ticketId, "El ticket no está en espera. Estado actual: "));
         
-        if (ticket.getStatus() != TicketStatus.EN_ESPERA) {
-            throw new IllegalStateException("El ticket no está en espera. Estado actual: " + ticket.getStatus());
+        registrarLlamado(ticket, advisor);
+    }
+
+    /**
+     * Llama al siguiente ticket para el asesor, elegido entre todas las colas por prioridad con envejecimiento
+     * El ticket se toma con un UPDATE condicional: si otro asesor lo tomó antes, se intenta con el siguiente.
+     * Un asesor que ya atiende un ticket debe finalizarlo antes; la fila del asesor queda bloqueada durante
+     * el llamado, así dos llamados simultáneos del mismo asesor no toman dos tickets
+     * @param advisorId ID del asesor que llama
+     * @return Ticket llamado, o vacío si no hay tickets en espera
+     */
+    public Optional<TicketResponse> llamarSiguiente(Long advisorId) {
+        return ticketMetrics.medir(TicketMetrics.LLAMAR_SIGUIENTE, () -> tomarSiguiente(advisorId));
+    }
+
+    private Optional<TicketResponse> tomarSiguiente(Long advisorId) {
+        if (advisorId == null) {
+            throw new IllegalArgumentException("ID del asesor no puede ser null");
         }
         
-        Advisor advisor = advisorRepository.findById(advisorId)
+        Advisor advisor = advisorRepository.findByIdParaLlamado(advisorId)
             .orElseThrow(() -> new IllegalArgumentException("Asesor no encontrado con ID: " + advisorId));
         
-        ticket.setStatus(TicketStatus.ATENDIENDO);
-        ticket.setAssignedAdvisor(advisor);
-        ticket.setAssignedModuleNumber(advisor.getModuleNumber());
+        if (advisor.getStatus() == AdvisorStatus.OFFLINE) {
+            throw new IllegalStateException("El asesor no está disponible. Estado actual: " + advisor.getStatus());
+        }
+        if (ticketRepository.tieneTicketEnAtencion(advisorId)) {
+            throw new IllegalStateException("El asesor ya tiene un ticket en atención; debe finalizarlo antes de llamar al siguiente");
+        }
         
-        ticketRepository.save(ticket);
+        LocalDateTime ahora = LocalDateTime.now();
+        Optional<Ticket> llamado = nextTicketScheduler.tomarSiguiente(candidato -> ticketRepository
+            .tomarParaAtencion(candidato.ticketId(), advisor.getId(), advisor.getModuleNumber(), ahora)
+            .stream()
+            .findFirst());
         
-        // Actualizar posiciones en cola
-        actualizarPosicionesEnCola(ticket.getQueueType());
+        llamado.ifPresent(ticket -> {
+            registrarLlamado(ticket, advisor);
+            log.info("Asesor {} llamó al ticket {} de {}", advisor.getName(), ticket.getNumero(), ticket.getQueueType());
+        });
+        return llamado.map(this::convertirAResponse);
+    }
+
+    /**
+     * Retira de la fila un ticket recién llamado, publica el cambio y notifica al cliente
+     */
+    private void registrarLlamado(Ticket ticket, Advisor advisor) {
+        // Retirar de la fila: las posiciones del resto se derivan del índice
+        OptionalInt posicionAnterior = queuePositionIndex.obtenerPosicion(ticket);
+        queuePositionIndex.retirar(ticket);
+        ticketMetrics.registrarEspera(ticket.getQueueType(), ticket.getCreatedAt());
+        eventPublisher.publishEvent(new TicketStatusChangedEvent(
+            ticket.getId(), ticket.getQueueType(), TicketStatus.EN_ESPERA, TicketStatus.ATENDIENDO));
+        avisarNuevoProximo(ticket.getQueueType(), posicionAnterior);
         
         // Enviar notificación
         if (ticket.getTelefono() != null && !ticket.getTelefono().isEmpty()) {
@@ -103,24 +402,54 @@ public class TicketService {
         }
     }
 
+    /**
+     * Si el ticket retirado estaba entre los primeros, el que ahora ocupa la última posición
+     * de aviso acaba de entrar a ese tramo y recibe su notificación de próximo turno
+     */
+    private void avisarNuevoProximo(QueueType queueType, OptionalInt posicionRetirada) {
+        int posicionAviso = ProximoTurnoNotifier.POSICION_PROXIMO_TURNO;
+        if (posicionRetirada.isEmpty() || posicionRetirada.getAsInt() > posicionAviso) {
+            return;
+        }
+        queuePositionIndex.obtenerTicketEnPosicion(queueType, posicionAviso)
+            .ifPresent(ticketId -> eventPublisher.publishEvent(new TicketNearTurnEvent(ticketId, queueType, posicionAviso)));
+    }
+
+    /**
+     * Finaliza la atención de un ticket con un UPDATE condicional sobre su estado
+     * Una segunda finalización concurrente no actualiza filas y recibe IllegalStateException
+     */
     public void finalizarTicket(Long ticketId) {
+        ticketMetrics.medir(TicketMetrics.FINALIZAR, () -> finalizar(ticketId));
+    }
+
+    private void finalizar(Long ticketId) {
         if (ticketId == null) {
             throw new IllegalArgumentException("ID del ticket no puede ser null");
         }
         
-        Ticket ticket = ticketRepository.findById(ticketId)
-            .orElseThrow(() -> new IllegalArgumentException("Ticket no encontrado con ID: " + ticketId));
-        
-        if (ticket.getStatus() != TicketStatus.ATENDIENDO) {
-            throw new IllegalStateException("The ticket is not being attended. Current status: " + ticket.getStatus());
-        }
+        Ticket ticket = ticketRepository.completarAtencion(ticketId, LocalDateTime.now())
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> transicionRechazada(ticketId, "The ticket is not being attended. Current status: "));
         
-        ticket.setStatus(TicketStatus.COMPLETADO);
-        ticketRepository.save(ticket);
+        activeNationalIdCache.liberar(ticket.getNationalId());
+        eventPublisher.publishEvent(new TicketStatusChangedEvent(
+            ticket.getId(), ticket.getQueueType(), TicketStatus.ATENDIENDO, TicketStatus.COMPLETADO));
         
         log.info("Ticket {} finalizado exitosamente", ticket.getNumero());
     }
 
+    /**
+     * Explica por qué un UPDATE condicional no actualizó filas: el ticket no existe o su estado no era el esperado
+     */
+    private IllegalStateException transicionRechazada(Long ticketId, String mensaje) {
+        TicketStatus estadoActual = ticketRepository.findById(ticketId)
+            .map(Ticket::getStatus)
+            .orElseThrow(() -> new IllegalArgumentException("Ticket no encontrado con ID: " + ticketId));
+        return new IllegalStateException(mensaje + estadoActual);
+    }
+
     @Transactional(readOnly = true)
     public List<TicketResponse> obtenerTicketsActivos() {
         return ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA)
@@ -135,25 +464,47 @@ public class TicketService {
             throw new IllegalArgumentException("Número de ticket no puede ser null o vacío");
         }
         
-        return ticketRepository.findByNumero(numeroTicket.trim().toUpperCase())
-            .map(this::convertirAResponse);
+        String numero = numeroTicket.trim().toUpperCase();
+        // Los tickets finalizados de días anteriores ya fueron movidos al historial
+        return ticketRepository.findFirstByNumeroOrderByCreatedAtDesc(numero)
+            .map(this::convertirAResponse)
+            .or(() -> ticketHistoryRepository.findFirstByNumeroOrderByCreatedAtDesc(numero)
+                .map(this::convertirAResponse));
     }
 
-    private void actualizarPosicionesEnCola(QueueType tipoFila) {
-        List<TicketStatus> estadosActivos = List.of(TicketStatus.EN_ESPERA);
-        List<Ticket> ticketsEnEspera = ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(tipoFila, estadosActivos);
-        
-        for (int i = 0; i < ticketsEnEspera.size(); i++) {
-            Ticket ticket = ticketsEnEspera.get(i);
-            ticket.setPositionInQueue(i + 1);
-            ticket.setEstimatedWaitMinutes(tipoFila.getAvgTimeMinutes() * (i + 1));
+    private TicketResponse convertirAResponse(Ticket ticket) {
+        // position_in_queue guarda la posición al emitir el ticket; la posición vigente viene del índice
+        Integer posicion = ticket.getPositionInQueue();
+        Integer tiempoEstimado = ticket.getEstimatedWaitMinutes();
+        if (ticket.getStatus() == TicketStatus.EN_ESPERA) {
+            OptionalInt posicionActual = queuePositionIndex.obtenerPosicion(ticket);
+            if (posicionActual.isPresent()) {
+                posicion = posicionActual.getAsInt();
+                tiempoEstimado = waitTimeEstimator.estimarEsperaMinutos(ticket.getQueueType(), posicion);
+            }
         }
         
-        ticketRepository.saveAll(ticketsEnEspera);
+        return new TicketResponse(
+            ticket.getId(),
+            ticket.getCodigoReferencia(),
+            ticket.getNumero(),
+            ticket.getNationalId(),
+            ticket.getTelefono(),
+            ticket.getBranchOffice(),
+            ticket.getQueueType(),
+            ticket.getStatus(),
+            posicion,
+            tiempoEstimado,
+            ticket.getAssignedAdvisor() != null ? ticket.getAssignedAdvisor().getName() : null,
+            ticket.getAssignedModuleNumber(),
+            ticket.getCreatedAt(),
+            ticket.getUpdatedAt()
+        );
     }
-
-    private TicketResponse convertirAResponse(Ticket ticket) {
+    
+    private TicketResponse convertirAResponse(TicketHistory ticket) {
         return new TicketResponse(
+            ticket.getId(),
             ticket.getCodigoReferencia(),
             ticket.getNumero(),
             ticket.getNationalId(),
@@ -171,65 +522,35 @@ public class TicketService {
     }
     
     private void enviarNotificacionCreacion(Ticket ticket, Integer posicion) {
-        try {
-            log.info("Iniciando envío de notificación para ticket: {}", ticket.getNumero());
-            
-            if (ticket.getTelefono() == null || ticket.getTelefono().isEmpty()) {
-                log.warn("Ticket {} no tiene teléfono configurado", ticket.getNumero());
-                return;
-            }
-            
-            String texto = telegramService.obtenerTextoMensaje(
-                "totem_ticket_creado",
-                ticket.getNumero(),
-                posicion,
-                ticket.getEstimatedWaitMinutes(),
-                null,
-                null
-            );
-            
-            log.info("Enviando mensaje Telegram para ticket {}: {}", ticket.getNumero(), texto);
-            
-            String messageId = telegramService.enviarMensaje(ticket.getTelefono(), texto);
-            
-            log.info("Mensaje enviado exitosamente. MessageId: {}", messageId);
-            
-            Mensaje mensaje = Mensaje.builder()
-                .ticket(ticket)
-                .telegramMessageId(messageId)
-                .plantilla("totem_ticket_creado")
-                .build();
-            mensajeRepository.save(mensaje);
-            
-            log.info("Mensaje guardado en BD para ticket {}", ticket.getNumero());
-            
-        } catch (Exception e) {
-            log.error("Error enviando notificación para ticket {}: {}", ticket.getNumero(), e.getMessage(), e);
-        }
+        String texto = telegramService.obtenerTextoMensaje(
+            "totem_ticket_creado",
+            ticket.getNumero(),
+            posicion,
+            ticket.getEstimatedWaitMinutes(),
+            null,
+            null
+        );
+        solicitarNotificacion(ticket, "totem_ticket_creado", texto);
     }
     
     private void enviarNotificacionLlamada(Ticket ticket, Advisor advisor) {
-        try {
-            String texto = telegramService.obtenerTextoMensaje(
-                "totem_es_tu_turno",
-                ticket.getNumero(),
-                null,
-                null,
-                advisor.getName(),
-                advisor.getModuleNumber()
-            );
-            
-            String messageId = telegramService.enviarMensaje(ticket.getTelefono(), texto);
-            
-            Mensaje mensaje = Mensaje.builder()
-                .ticket(ticket)
-                .telegramMessageId(messageId)
-                .plantilla("totem_es_tu_turno")
-                .build();
-            mensajeRepository.save(mensaje);
-            
-        } catch (Exception e) {
-            log.error("Error enviando notificación de llamada para ticket {}: {}", ticket.getNumero(), e.getMessage());
-        }
-    }
-}
\ No newline at end of file
+        String texto = telegramService.obtenerTextoMensaje(
+            "totem_es_tu_turno",
+            ticket.getNumero(),
+            null,
+            null,
+            advisor.getName(),
+            advisor.getModuleNumber()
+        );
+        solicitarNotificacion(ticket, "totem_es_tu_turno", texto);
+    }
+
+    /**
+     * Solicita el envío de la notificación; TelegramDispatcher la envía después del commit
+     */
+    private void solicitarNotificacion(Ticket ticket, String plantilla, String texto) {
+        log.debug("Notificación {} solicitada para ticket {}", plantilla, ticket.getNumero());
+        eventPublisher.publishEvent(new TelegramNotificationRequestedEvent(
+            ticket.getId(), ticket.getNumero(), ticket.getTelefono(), plantilla, texto));
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.AdvisorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estimación de tiempos de espera a partir de las atenciones observadas por esta instancia
+ * Cada transición de ticket actualiza en O(1) estadísticas en memoria: EWMA del tiempo de atención
+ * (ATENDIENDO → COMPLETADO) por cola y por cola y hora del día, un cuantil P² (p90) por cola,
+ * EWMA de la espera observada (EN_ESPERA → ATENDIENDO) y llegadas por hora del día
+ * La espera de una posición se aproxima como posición × tiempo de atención / asesores activos;
+ * mientras una cola no tenga atenciones observadas se usa su tiempo promedio configurado
+ */
+@Component
+@Slf4j
+public class WaitTimeEstimator {
+
+    /** Atenciones observadas en una hora del día antes de preferir su EWMA sobre el de toda la cola */
+    static final int MUESTRAS_MINIMAS_POR_HORA = 5;
+
+    static final String SIN_DATOS = "Sin datos";
+
+    private static final double PERCENTIL_MAXIMO = 0.9;
+    private static final long MILLIS_POR_DIA = 86_400_000L;
+
+    private final AdvisorRepository advisorRepository;
+    private final Map<QueueType, EstadisticaCola> colas = new EnumMap<>(QueueType.class);
+    private final Ewma esperaObservada;
+    private final AtomicInteger asesoresActivos = new AtomicInteger();
+
+    /** Llegada (epoch ms) de los tickets en espera y comienzo de atención de los tickets en atención */
+    private final Map<Long, Long> llegadas = new ConcurrentHashMap<>();
+    private final Map<Long, Long> iniciosAtencion = new ConcurrentHashMap<>();
+
+    private final int[] llegadasPorHora = new int[24];
+    private LocalDate diaLlegadas;
+
+    public WaitTimeEstimator(AdvisorRepository advisorRepository,
+                             @Value("${estimacion.ewma-alpha:0.1}") double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("El factor EWMA debe estar en (0, 1]: " + alpha);
+        }
+        this.advisorRepository = advisorRepository;
+        this.esperaObservada = new Ewma(alpha);
+        for (QueueType queueType : QueueType.values()) {
+            colas.put(queueType, new EstadisticaCola(alpha));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        log.info("Estimador de espera iniciado con {} asesores activos", contarAsesoresActivos());
+    }
+
+    /**
+     * Los eventos de cambio de estado de asesor solo llegan a la instancia que hizo el cambio:
+     * el conteo se corrige periódicamente con la base para reflejar los cambios de las demás
+     */
+    @Scheduled(fixedDelayString = "${estimacion.asesores.intervalo-ms:60000}",
+               initialDelayString = "${estimacion.asesores.intervalo-ms:60000}")
+    public void refrescarAsesoresActivos() {
+        try {
+            int anterior = asesoresActivos.get();
+            int activos = contarAsesoresActivos();
+            if (activos != anterior) {
+                log.debug("Asesores activos corregidos desde la base: {} → {}", anterior, activos);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo refrescar el conteo de asesores activos: {}", e.getMessage());
+        }
+    }
+
+    private int contarAsesoresActivos() {
+        int activos = advisorRepository.countGroupedByStatus().stream()
+            .filter(conteo -> conteo.status() != AdvisorStatus.OFFLINE)
+            .mapToInt(conteo -> conteo.total().intValue())
+            .sum();
+        asesoresActivos.set(activos);
+        return activos;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoTicket(TicketStatusChangedEvent event) {
+        long ahora = System.currentTimeMillis();
+        if (event.previousStatus() == null && event.newStatus() == TicketStatus.EN_ESPERA) {
+            llegadas.put(event.ticketId(), ahora);
+            registrarLlegada(LocalDateTime.now());
+        } else if (event.previousStatus() == TicketStatus.EN_ESPERA && event.newStatus() == TicketStatus.ATENDIENDO) {
+            Long llegada = llegadas.remove(event.ticketId());
+            if (llegada != null) {
+                registrarEspera((ahora - llegada) / 1000.0);
+            }
+            iniciosAtencion.put(event.ticketId(), ahora);
+        } else if (event.previousStatus() == TicketStatus.ATENDIENDO && event.newStatus() == TicketStatus.COMPLETADO) {
+            Long inicio = iniciosAtencion.remove(event.ticketId());
+            if (inicio != null) {
+                int hora = Instant.ofEpochMilli(inicio).atZone(ZoneId.systemDefault()).getHour();
+                registrarAtencion(event.queueType(), hora, (ahora - inicio) / 1000.0);
+            }
+        } else {
+            // Reencolado por recuperación, cancelación o inasistencia: la medición en curso se descarta
+            llegadas.remove(event.ticketId());
+            iniciosAtencion.remove(event.ticketId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoAsesor(AdvisorStatusChangedEvent event) {
+        boolean estabaActivo = event.previousStatus() != AdvisorStatus.OFFLINE;
+        boolean quedaActivo = event.newStatus() != AdvisorStatus.OFFLINE;
+        if (estabaActivo != quedaActivo) {
+            asesoresActivos.updateAndGet(activos -> Math.max(0, activos + (quedaActivo ? 1 : -1)));
+        }
+    }
+
+    /**
+     * Espera estimada de un ticket en la posición indicada, con el EWMA de atención de la hora actual
+     * (o de toda la cola si la hora aún tiene pocas atenciones observadas)
+     */
+    public int estimarEsperaMinutos(QueueType queueType, int posicion) {
+        return minutosDeEspera(posicion, colas.get(queueType).ewmaSegundos(horaActual(), queueType));
+    }
+
+    /**
+     * Espera de la posición indicada si cada atención dura lo que el percentil 90 observado
+     */
+    public int estimarEsperaMaximaMinutos(QueueType queueType, int posicion) {
+        return minutosDeEspera(posicion, colas.get(queueType).p90Segundos(queueType));
+    }
+
+    /**
+     * Tiempo de atención por ticket de la cola (EWMA de toda la cola)
+     */
+    public int tiempoAtencionMinutos(QueueType queueType) {
+        double segundos = colas.get(queueType).ewmaSegundos(-1, queueType);
+        return (int) Math.max(1, Math.round(segundos / 60));
+    }
+
+    /**
+     * Espera observada entre la creación y el llamado (EWMA de todas las colas); 0 sin observaciones
+     */
+    public int esperaPromedioMinutos() {
+        synchronized (esperaObservada) {
+            return esperaObservada.muestras() == 0 ? 0 : (int) Math.round(esperaObservada.valor() / 60);
+        }
+    }
+
+    /**
+     * Hora con más llegadas del último día con tickets, p. ej. "10:00-11:00"
+     */
+    public synchronized String horaPico() {
+        if (diaLlegadas == null) {
+            return SIN_DATOS;
+        }
+        int pico = 0;
+        for (int hora = 1; hora < llegadasPorHora.length; hora++) {
+            if (llegadasPorHora[hora] > llegadasPorHora[pico]) {
+                pico = hora;
+            }
+        }
+        return String.format("%02d:00-%02d:00", pico, (pico + 1) % 24);
+    }
+
+    int asesoresActivos() {
+        return asesoresActivos.get();
+    }
+
+    synchronized void registrarLlegada(LocalDateTime momento) {
+        LocalDate dia = momento.toLocalDate();
+        if (!dia.equals(diaLlegadas)) {
+            Arrays.fill(llegadasPorHora, 0);
+            diaLlegadas = dia;
+            // Tickets que dejaron la fila sin transición observada (otra instancia, archivo): no se esperan más
+            long limite = System.currentTimeMillis() - MILLIS_POR_DIA;
+            llegadas.values().removeIf(llegada -> llegada < limite);
+            iniciosAtencion.values().removeIf(inicio -> inicio < limite);
+        }
+        llegadasPorHora[momento.getHour()]++;
+    }
+
+    void registrarEspera(double segundos) {
+        synchronized (esperaObservada) {
+            esperaObservada.agregar(segundos);
+        }
+    }
+
+    void registrarAtencion(QueueType queueType, int hora, double segundos) {
+        colas.get(queueType).agregar(hora, segundos);
+    }
+
+    private int minutosDeEspera(int posicion, double segundosPorAtencion) {
+        int asesores = Math.max(1, asesoresActivos.get());
+        return (int) Math.ceil(posicion * segundosPorAtencion / asesores / 60);
+    }
+
+    private static int horaActual() {
+        return LocalDateTime.now().getHour();
+    }
+
+    /**
+     * Estadísticas de atención de una cola: EWMA global, EWMA por hora del día y p90
+     */
+    private static class EstadisticaCola {
+
+        private final Ewma total;
+        private final Ewma[] porHora = new Ewma[24];
+        private final CuantilP2 p90 = new CuantilP2(PERCENTIL_MAXIMO);
+
+        EstadisticaCola(double alpha) {
+            total = new Ewma(alpha);
+            for (int hora = 0; hora < porHora.length; hora++) {
+                porHora[hora] = new Ewma(alpha);
+            }
+        }
+
+        synchronized void agregar(int hora, double segundos) {
+            total.agregar(segundos);
+            porHora[hora].agregar(segundos);
+            p90.agregar(segundos);
+        }
+
+        /**
+         * @param hora Hora del día a preferir, o -1 para usar siempre el EWMA de toda la cola
+         */
+        synchronized double ewmaSegundos(int hora, QueueType queueType) {
+            if (hora >= 0 && porHora[hora].muestras() >= MUESTRAS_MINIMAS_POR_HORA) {
+                return porHora[hora].valor();
+            }
+            return total.muestras() > 0 ? total.valor() : queueType.getAvgTimeMinutes() * 60.0;
+        }
+
+        synchronized double p90Segundos(QueueType queueType) {
+            return p90.muestras() > 0 ? p90.valor() : queueType.getAvgTimeMinutes() * 60.0;
+        }
+    }
+
+    /**
+     * Promedio móvil exponencial; la primera muestra inicializa el valor
+     */
+    static class Ewma {
+
+        private final double alpha;
+        private double valor;
+        private long muestras;
+
+        Ewma(double alpha) {
+            this.alpha = alpha;
+        }
+
+        void agregar(double muestra) {
+            valor = muestras == 0 ? muestra : valor + alpha * (muestra - valor);
+            muestras++;
+        }
+
+        double valor() {
+            return valor;
+        }
+
+        long muestras() {
+            return muestras;
+        }
+    }
+
+    /**
+     * Cuantil en streaming con el algoritmo P² (Jain y Chlamtac): cinco marcadores cuyas alturas se
+     * ajustan con interpolación parabólica. Memoria constante y O(1) por muestra
+     */
+    static class CuantilP2 {
+
+        private final double[] alturas = new double[5];
+        private final int[] posiciones = new int[5];
+        private final double[] deseadas = new double[5];
+        private final double p;
+        private final double[] incrementos;
+        private int muestras;
+
+        CuantilP2(double p) {
+            this.p = p;
+            incrementos = new double[] {0, p / 2, p, (1 + p) / 2, 1};
+            deseadas[0] = 1;
+            deseadas[1] = 1 + 2 * p;
+            deseadas[2] = 1 + 4 * p;
+            deseadas[3] = 3 + 2 * p;
+            deseadas[4] = 5;
+        }
+
+        void agregar(double x) {
+            if (muestras < 5) {
+                alturas[muestras++] = x;
+                if (muestras == 5) {
+                    Arrays.sort(alturas);
+                    for (int i = 0; i < 5; i++) {
+                        posiciones[i] = i + 1;
+                    }
+                }
+                return;
+            }
+            muestras++;
+
+            // Celda k tal que alturas[k] <= x < alturas[k + 1]; los extremos se amplían
+            int k;
+            if (x < alturas[0]) {
+                alturas[0] = x;
+                k = 0;
+            } else if (x >= alturas[4]) {
+                alturas[4] = x;
+                k = 3;
+            } else {
+                k = 0;
+                while (x >= alturas[k + 1]) {
+                    k++;
+                }
+            }
+            for (int i = k + 1; i < 5; i++) {
+                posiciones[i]++;
+            }
+            for (int i = 0; i < 5; i++) {
+                deseadas[i] += incrementos[i];
+            }
+
+            for (int i = 1; i <= 3; i++) {
+                double desvio = deseadas[i] - posiciones[i];
+                if ((desvio >= 1 && posiciones[i + 1] - posiciones[i] > 1)
+                        || (desvio <= -1 && posiciones[i - 1] - posiciones[i] < -1)) {
+                    int paso = desvio >= 0 ? 1 : -1;
+                    double candidata = parabolica(i, paso);
+                    alturas[i] = alturas[i - 1] < candidata && candidata < alturas[i + 1] ? candidata : lineal(i, paso);
+                    posiciones[i] += paso;
+                }
+            }
+        }
+
+        double valor() {
+            if (muestras >= 5) {
+                return alturas[2];
+            }
+            // Con menos de cinco muestras: rango más cercano sobre las muestras ordenadas
+            double[] ordenadas = Arrays.copyOf(alturas, muestras);
+            Arrays.sort(ordenadas);
+            int rango = (int) Math.ceil(p * muestras);
+            return ordenadas[Math.max(rango, 1) - 1];
+        }
+
+        long muestras() {
+            return muestras;
+        }
+
+        private double parabolica(int i, int paso) {
+            double n = posiciones[i];
+            double nAnterior = posiciones[i - 1];
+            double nSiguiente = posiciones[i + 1];
+            return alturas[i] + paso / (nSiguiente - nAnterior)
+                * ((n - nAnterior + paso) * (alturas[i + 1] - alturas[i]) / (nSiguiente - n)
+                + (nSiguiente - n - paso) * (alturas[i] - alturas[i - 1]) / (n - nAnterior));
+        }
+
+        private double lineal(int i, int paso) {
+            return alturas[i] + paso * (alturas[i + paso] - alturas[i]) / (posiciones[i + paso] - posiciones[i]);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- V10__store_outbox_payload_as_bytes.sql
+-- El payload se guarda tal como viaja al broker: el publicador lo envía sin deserializar ni volver a serializar
+
+ALTER TABLE outbox_message
+    ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8'),
+    ADD COLUMN content_type VARCHAR(100) NOT NULL DEFAULT 'application/json';
+
+COMMENT ON COLUMN outbox_message.payload IS 'Cuerpo del mensaje AMQP ya serializado';
+COMMENT ON COLUMN outbox_message.content_type IS 'Content-Type del cuerpo (application/json por defecto)';
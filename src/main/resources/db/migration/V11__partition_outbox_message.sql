@@ -0,0 +1,138 @@
+-- V11__partition_outbox_message.sql
+-- Outbox particionado por día de creación: el historial se elimina soltando particiones completas
+-- en lugar de DELETE masivos, y el reclamo solo recorre el índice parcial de mensajes por publicar
+
+ALTER TABLE outbox_message RENAME TO outbox_message_legacy;
+DROP TRIGGER trg_outbox_message_notify ON outbox_message_legacy;
+ALTER SEQUENCE outbox_message_id_seq OWNED BY NONE;
+
+CREATE TABLE outbox_message (
+    id BIGINT NOT NULL DEFAULT nextval('outbox_message_id_seq'),
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload BYTEA NOT NULL,
+    content_type VARCHAR(100) NOT NULL DEFAULT 'application/json',
+    routing_key VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    max_retries INTEGER NOT NULL DEFAULT 5,
+    next_retry_at TIMESTAMP,
+    error_message TEXT,
+    locked_by VARCHAR(100),
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE outbox_message_id_seq OWNED BY outbox_message.id;
+
+-- Recibe lo que no cae en una partición diaria (mensajes heredados fuera de la retención)
+CREATE TABLE outbox_message_default PARTITION OF outbox_message DEFAULT;
+
+-- Mensajes FAILED de particiones eliminadas, conservados para auditoría
+CREATE TABLE outbox_message_archivo (LIKE outbox_message INCLUDING DEFAULTS);
+ALTER TABLE outbox_message_archivo ADD COLUMN archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Crea la partición de un día si no existe
+CREATE OR REPLACE FUNCTION crear_particion_outbox(dia DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    nombre TEXT := 'outbox_message_p' || to_char(dia, 'YYYYMMDD');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF outbox_message FOR VALUES FROM (%L) TO (%L)',
+                   nombre, dia::timestamp, (dia + 1)::timestamp);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea las particiones de los próximos días y elimina las más antiguas que la retención
+-- Antes de eliminar archiva los FAILED; una partición con mensajes sin publicar se conserva
+CREATE OR REPLACE FUNCTION mantener_particiones_outbox(dias_retencion INT, dias_adelante INT) RETURNS INT AS $$
+DECLARE
+    particion RECORD;
+    limite DATE := current_date - dias_retencion;
+    sin_publicar BIGINT;
+    eliminadas INT := 0;
+BEGIN
+    FOR dia IN 0..dias_adelante LOOP
+        BEGIN
+            PERFORM crear_particion_outbox(current_date + dia);
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'No se pudo crear la partición del Outbox para %: %', current_date + dia, SQLERRM;
+        END;
+    END LOOP;
+
+    FOR particion IN
+        SELECT c.relname AS nombre
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'outbox_message'::regclass
+          AND c.relname ~ '^outbox_message_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 17), 'YYYYMMDD') < limite
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('SELECT count(*) FROM %I WHERE status IN (''PENDING'', ''PROCESSING'')', particion.nombre)
+            INTO sin_publicar;
+        IF sin_publicar > 0 THEN
+            RAISE WARNING 'Partición % conserva % mensajes sin publicar; no se elimina', particion.nombre, sin_publicar;
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('INSERT INTO outbox_message_archivo SELECT *, CURRENT_TIMESTAMP FROM %I WHERE status = ''FAILED''',
+                       particion.nombre);
+        EXECUTE format('ALTER TABLE outbox_message DETACH PARTITION %I', particion.nombre);
+        EXECUTE format('DROP TABLE %I', particion.nombre);
+        eliminadas := eliminadas + 1;
+    END LOOP;
+
+    RETURN eliminadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones de la última semana y la próxima
+SELECT crear_particion_outbox(dia::date)
+FROM generate_series(current_date - 7, current_date + 7, interval '1 day') AS dia;
+
+-- Se migran la última semana y todo lo que falte publicar; los FAILED anteriores van al archivo
+INSERT INTO outbox_message (id, aggregate_type, aggregate_id, event_type, payload, content_type, routing_key, status,
+                            retry_count, max_retries, next_retry_at, error_message, locked_by, locked_until,
+                            created_at, processed_at)
+SELECT id, aggregate_type, aggregate_id, event_type, payload, content_type, routing_key, status,
+       retry_count, max_retries, next_retry_at, error_message, locked_by, locked_until,
+       created_at, processed_at
+FROM outbox_message_legacy
+WHERE created_at >= current_date - 7 OR status IN ('PENDING', 'PROCESSING');
+
+INSERT INTO outbox_message_archivo (id, aggregate_type, aggregate_id, event_type, payload, content_type, routing_key,
+                                    status, retry_count, max_retries, next_retry_at, error_message, locked_by,
+                                    locked_until, created_at, processed_at)
+SELECT id, aggregate_type, aggregate_id, event_type, payload, content_type, routing_key,
+       status, retry_count, max_retries, next_retry_at, error_message, locked_by,
+       locked_until, created_at, processed_at
+FROM outbox_message_legacy
+WHERE created_at < current_date - 7 AND status = 'FAILED';
+
+DROP TABLE outbox_message_legacy;
+
+-- Índice parcial por partición: solo contiene mensajes reclamables, su tamaño no depende del historial
+-- (reemplaza idx_outbox_status, de baja cardinalidad, e idx_outbox_created_at, cubierto por la poda de particiones)
+CREATE INDEX idx_outbox_reclamables ON outbox_message(created_at) WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX idx_outbox_archivo_created_at ON outbox_message_archivo(created_at);
+
+CREATE TRIGGER trg_outbox_message_notify
+    AFTER INSERT ON outbox_message
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notificar_outbox();
+
+-- Comentarios
+COMMENT ON TABLE outbox_message IS 'Mensajes del patrón Outbox, particionados por día de creación';
+COMMENT ON COLUMN outbox_message.status IS 'Estado: PENDING, PROCESSING, SENT, FAILED';
+COMMENT ON COLUMN outbox_message.payload IS 'Cuerpo del mensaje AMQP ya serializado';
+COMMENT ON COLUMN outbox_message.locked_by IS 'Worker que reclamó el mensaje';
+COMMENT ON COLUMN outbox_message.locked_until IS 'Vencimiento del reclamo: pasado este instante otro worker puede tomarlo';
+COMMENT ON TABLE outbox_message_archivo IS 'Mensajes FAILED de particiones del Outbox eliminadas por retención';
+COMMENT ON FUNCTION mantener_particiones_outbox(INT, INT) IS 'Crea particiones futuras y elimina las que superan la retención';
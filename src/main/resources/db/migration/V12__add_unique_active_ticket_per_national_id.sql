@@ -0,0 +1,19 @@
+-- V12__add_unique_active_ticket_per_national_id.sql
+-- Un RUT/ID solo puede tener un ticket activo: lo garantiza la base, sin ventana de carrera
+-- entre la consulta previa y el insert
+
+-- Duplicados existentes: se conserva el ticket activo más antiguo y se cancelan los demás
+UPDATE ticket t
+SET status = 'CANCELADO', updated_at = CURRENT_TIMESTAMP
+WHERE t.status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO')
+  AND EXISTS (
+      SELECT 1 FROM ticket o
+      WHERE o.national_id = t.national_id
+        AND o.status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO')
+        AND (o.created_at, o.id) < (t.created_at, t.id)
+  );
+
+CREATE UNIQUE INDEX uq_ticket_national_id_activo ON ticket(national_id)
+    WHERE status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO');
+
+COMMENT ON INDEX uq_ticket_national_id_activo IS 'Un solo ticket activo por RUT/ID; debe coincidir con TicketStatus.getActiveStatuses()';
@@ -0,0 +1,5 @@
+-- V13__ticket_id_sequence_blocks.sql
+-- Hibernate asigna los ids de ticket por bloques de 50 (pooled-lo) para agrupar los INSERT en batches JDBC
+-- El DEFAULT nextval de la columna sigue siendo válido: cada llamada entrega el inicio de un bloque libre
+
+ALTER SEQUENCE ticket_id_seq INCREMENT BY 50;
@@ -0,0 +1,8 @@
+-- V14__pooled_id_sequences.sql
+-- Mensajes, asesores, Outbox y eventos de recuperación también reciben ids por bloques de 50 (pooled-lo),
+-- igual que ticket en V13: Hibernate agrupa sus INSERT en batches JDBC en lugar de un viaje por fila
+
+ALTER SEQUENCE mensaje_id_seq INCREMENT BY 50;
+ALTER SEQUENCE advisor_id_seq INCREMENT BY 50;
+ALTER SEQUENCE outbox_message_id_seq INCREMENT BY 50;
+ALTER SEQUENCE recovery_event_id_seq INCREMENT BY 50;
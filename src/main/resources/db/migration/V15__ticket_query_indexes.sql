@@ -0,0 +1,25 @@
+-- V15__ticket_query_indexes.sql
+-- Índices compuestos alineados con las consultas de TicketRepository
+-- Los índices de una sola columna de V1 y V6 quedan cubiertos por la columna inicial de los nuevos y se eliminan,
+-- así cada inserción de ticket mantiene la misma cantidad de índices
+
+-- Cola y estado en orden de llegada: findByQueueTypeAndStatusInOrderByCreatedAtAsc, findNextTicketsForQueue,
+-- countByQueueTypeAndStatus (solo índice) y countByQueueTypeAndStatusInAndCreatedAtBefore
+CREATE INDEX idx_ticket_cola_estado_creado ON ticket(queue_type, status, created_at, id);
+DROP INDEX idx_ticket_queue_type;
+
+-- Estado en orden de llegada: findByStatusOrderByCreatedAtAsc (carga del índice de posiciones),
+-- countByStatus y la parte de estados activos del conteo del dashboard
+CREATE INDEX idx_ticket_estado_creado ON ticket(status, created_at);
+DROP INDEX idx_ticket_status;
+
+-- Tickets de un RUT/ID por estado: findFirstByNationalIdAndStatusIn y la ingesta por lotes
+CREATE INDEX idx_ticket_national_id_estado ON ticket(national_id, status);
+DROP INDEX idx_ticket_national_id;
+
+-- El número se repite cada día: el más reciente sale del primer elemento del índice, sin ordenar
+CREATE INDEX idx_ticket_numero_creado ON ticket(numero, created_at DESC);
+DROP INDEX idx_ticket_numero;
+
+-- Ticket vigente de un asesor (recuperación de workers): solo los tickets no finalizados
+CREATE INDEX idx_ticket_asesor_vigente ON ticket(assigned_advisor_id) WHERE status IN ('EN_ESPERA', 'ATENDIENDO');
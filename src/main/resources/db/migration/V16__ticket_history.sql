@@ -0,0 +1,133 @@
+-- V16__ticket_history.sql
+-- Separación caliente/frío: los tickets finalizados pasan a ticket_history, particionada por mes de creación.
+-- ticket conserva solo los activos y los finalizados recientes, así las consultas de colas y los conteos
+-- por estado no recorren el historial
+
+CREATE TABLE ticket_history (
+    id BIGINT NOT NULL,
+    codigo_referencia UUID NOT NULL,
+    numero VARCHAR(10) NOT NULL,
+    national_id VARCHAR(20) NOT NULL,
+    telefono VARCHAR(20),
+    branch_office VARCHAR(100) NOT NULL,
+    queue_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    position_in_queue INTEGER NOT NULL,
+    estimated_wait_minutes INTEGER NOT NULL,
+    assigned_advisor_id BIGINT,
+    assigned_module_number INTEGER,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Recibe lo que no cae en una partición mensual (tickets anteriores a las particiones creadas)
+CREATE TABLE ticket_history_default PARTITION OF ticket_history DEFAULT;
+
+-- Mensajes de los tickets archivados: se mueven junto con su ticket para conservar el registro de envíos
+CREATE TABLE mensaje_history (LIKE mensaje INCLUDING DEFAULTS);
+ALTER TABLE mensaje_history ADD COLUMN archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- El evento de recuperación sigue apuntando al ticket aunque este pase al historial
+ALTER TABLE recovery_event DROP CONSTRAINT fk_recovery_ticket;
+
+-- Crea la partición de un mes si no existe
+CREATE OR REPLACE FUNCTION crear_particion_ticket_history(mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    nombre TEXT := 'ticket_history_p' || to_char(inicio, 'YYYYMM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF ticket_history FOR VALUES FROM (%L) TO (%L)',
+                   nombre, inicio::timestamp, (inicio + interval '1 month')::timestamp);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea por adelantado las particiones del mes actual y de los próximos meses
+CREATE OR REPLACE FUNCTION mantener_particiones_ticket_history(meses_adelante INT) RETURNS INT AS $$
+DECLARE
+    creadas INT := 0;
+BEGIN
+    FOR mes IN 0..meses_adelante LOOP
+        BEGIN
+            IF crear_particion_ticket_history((current_date + make_interval(months => mes))::date) THEN
+                creadas := creadas + 1;
+            END IF;
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'No se pudo crear la partición del historial de tickets para %: %',
+                current_date + make_interval(months => mes), SQLERRM;
+        END;
+    END LOOP;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Mueve un lote de tickets finalizados antes del límite (y sus mensajes) al historial
+-- SKIP LOCKED: dos instancias archivando a la vez toman lotes distintos
+CREATE OR REPLACE FUNCTION archivar_tickets_finalizados(limite TIMESTAMP, lote INT) RETURNS INT AS $$
+DECLARE
+    ids BIGINT[];
+    movidos INT;
+BEGIN
+    SELECT array_agg(id) INTO ids
+    FROM (
+        SELECT id FROM ticket
+        WHERE status IN ('COMPLETADO', 'CANCELADO', 'NO_ATENDIDO') AND updated_at < limite
+        ORDER BY updated_at
+        LIMIT lote
+        FOR UPDATE SKIP LOCKED
+    ) finalizados;
+
+    IF ids IS NULL THEN
+        RETURN 0;
+    END IF;
+
+    WITH mensajes AS (
+        DELETE FROM mensaje WHERE ticket_id = ANY(ids)
+        RETURNING id, ticket_id, plantilla, estado_envio, fecha_programada, fecha_envio,
+                  telegram_message_id, intentos, created_at
+    )
+    INSERT INTO mensaje_history (id, ticket_id, plantilla, estado_envio, fecha_programada, fecha_envio,
+                                 telegram_message_id, intentos, created_at)
+    SELECT * FROM mensajes;
+
+    WITH tickets AS (
+        DELETE FROM ticket WHERE id = ANY(ids)
+        RETURNING id, codigo_referencia, numero, national_id, telefono, branch_office, queue_type, status,
+                  position_in_queue, estimated_wait_minutes, assigned_advisor_id, assigned_module_number,
+                  created_at, updated_at
+    )
+    INSERT INTO ticket_history (id, codigo_referencia, numero, national_id, telefono, branch_office, queue_type,
+                                status, position_in_queue, estimated_wait_minutes, assigned_advisor_id,
+                                assigned_module_number, created_at, updated_at)
+    SELECT * FROM tickets;
+
+    GET DIAGNOSTICS movidos = ROW_COUNT;
+    RETURN movidos;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones del último año y de los próximos tres meses
+SELECT crear_particion_ticket_history(mes::date)
+FROM generate_series(date_trunc('month', current_date) - interval '12 months',
+                     date_trunc('month', current_date) + interval '3 months',
+                     interval '1 month') AS mes;
+
+-- Candidatos del archivador: solo los finalizados que aún no se mueven, el índice se mantiene pequeño
+CREATE INDEX idx_ticket_finalizados ON ticket(updated_at) WHERE status IN ('COMPLETADO', 'CANCELADO', 'NO_ATENDIDO');
+
+-- Consultas sobre el historial (por partición): búsqueda por número y reportes por período
+CREATE INDEX idx_ticket_history_numero_creado ON ticket_history(numero, created_at DESC);
+CREATE INDEX idx_ticket_history_cola_estado ON ticket_history(created_at, queue_type, status);
+CREATE INDEX idx_mensaje_history_ticket_id ON mensaje_history(ticket_id);
+
+-- Comentarios
+COMMENT ON TABLE ticket_history IS 'Tickets finalizados archivados desde ticket, particionados por mes de creación';
+COMMENT ON COLUMN ticket_history.archived_at IS 'Momento en que el archivador movió el ticket';
+COMMENT ON TABLE mensaje_history IS 'Mensajes de los tickets archivados';
+COMMENT ON FUNCTION archivar_tickets_finalizados(TIMESTAMP, INT) IS 'Mueve un lote de tickets finalizados y sus mensajes al historial';
+COMMENT ON FUNCTION mantener_particiones_ticket_history(INT) IS 'Crea las particiones mensuales del historial por adelantado';
@@ -0,0 +1,99 @@
+-- V17__outbox_default_partition_maintenance.sql
+-- La partición DEFAULT del Outbox deja de ser un callejón sin salida: si el mantenimiento no alcanzó
+-- a crear la partición de un día, sus mensajes caen en DEFAULT y crear esa partición después fallaba
+-- (PostgreSQL rechaza la partición cuando DEFAULT ya tiene filas de su rango), dejando al Outbox
+-- escribiendo en DEFAULT para siempre. Ahora se mueven esas filas a la partición nueva, y las filas
+-- de DEFAULT fuera de la retención se archivan y eliminan igual que las particiones diarias
+
+-- Crea la partición de un día si no existe, trasladando las filas de ese día que hayan caído en DEFAULT
+-- DEFAULT se separa mientras dura el traslado: sin ella no se valida su contenido al crear la partición
+CREATE OR REPLACE FUNCTION crear_particion_outbox(dia DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    nombre TEXT := 'outbox_message_p' || to_char(dia, 'YYYYMMDD');
+    desde TIMESTAMP := dia::timestamp;
+    hasta TIMESTAMP := (dia + 1)::timestamp;
+    trasladadas BIGINT;
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM outbox_message_default WHERE created_at >= desde AND created_at < hasta) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF outbox_message FOR VALUES FROM (%L) TO (%L)',
+                       nombre, desde, hasta);
+        RETURN TRUE;
+    END IF;
+
+    ALTER TABLE outbox_message DETACH PARTITION outbox_message_default;
+    EXECUTE format('CREATE TABLE %I PARTITION OF outbox_message FOR VALUES FROM (%L) TO (%L)',
+                   nombre, desde, hasta);
+    EXECUTE format('INSERT INTO %I SELECT * FROM outbox_message_default WHERE created_at >= $1 AND created_at < $2',
+                   nombre) USING desde, hasta;
+    DELETE FROM outbox_message_default WHERE created_at >= desde AND created_at < hasta;
+    GET DIAGNOSTICS trasladadas = ROW_COUNT;
+    ALTER TABLE outbox_message ATTACH PARTITION outbox_message_default DEFAULT;
+
+    RAISE NOTICE 'Partición % creada con % mensajes trasladados desde DEFAULT', nombre, trasladadas;
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea las particiones de los próximos días y de los días dentro de la retención con filas en DEFAULT,
+-- y elimina las particiones más antiguas que la retención
+-- En DEFAULT, lo anterior a la retención se archiva (FAILED) y se elimina salvo lo que falte publicar
+CREATE OR REPLACE FUNCTION mantener_particiones_outbox(dias_retencion INT, dias_adelante INT) RETURNS INT AS $$
+DECLARE
+    particion RECORD;
+    dia DATE;
+    limite DATE := current_date - dias_retencion;
+    sin_publicar BIGINT;
+    eliminadas INT := 0;
+BEGIN
+    FOR dia IN
+        SELECT generate_series(current_date, current_date + dias_adelante, interval '1 day')::date
+        UNION
+        SELECT DISTINCT created_at::date FROM outbox_message_default WHERE created_at >= limite
+        ORDER BY 1
+    LOOP
+        BEGIN
+            PERFORM crear_particion_outbox(dia);
+        EXCEPTION WHEN OTHERS THEN
+            RAISE WARNING 'No se pudo crear la partición del Outbox para %: %', dia, SQLERRM;
+        END;
+    END LOOP;
+
+    INSERT INTO outbox_message_archivo
+    SELECT *, CURRENT_TIMESTAMP FROM outbox_message_default WHERE created_at < limite AND status = 'FAILED';
+    DELETE FROM outbox_message_default
+    WHERE created_at < limite AND status NOT IN ('PENDING', 'PROCESSING');
+
+    FOR particion IN
+        SELECT c.relname AS nombre
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'outbox_message'::regclass
+          AND c.relname ~ '^outbox_message_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 17), 'YYYYMMDD') < limite
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('SELECT count(*) FROM %I WHERE status IN (''PENDING'', ''PROCESSING'')', particion.nombre)
+            INTO sin_publicar;
+        IF sin_publicar > 0 THEN
+            RAISE WARNING 'Partición % conserva % mensajes sin publicar; no se elimina', particion.nombre, sin_publicar;
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('INSERT INTO outbox_message_archivo SELECT *, CURRENT_TIMESTAMP FROM %I WHERE status = ''FAILED''',
+                       particion.nombre);
+        EXECUTE format('ALTER TABLE outbox_message DETACH PARTITION %I', particion.nombre);
+        EXECUTE format('DROP TABLE %I', particion.nombre);
+        eliminadas := eliminadas + 1;
+    END LOOP;
+
+    RETURN eliminadas;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE outbox_message_default IS 'Mensajes sin partición diaria; el mantenimiento los traslada o los elimina por retención';
+COMMENT ON FUNCTION mantener_particiones_outbox(INT, INT) IS
+    'Crea particiones futuras, vacía DEFAULT en particiones diarias y elimina lo que supera la retención';
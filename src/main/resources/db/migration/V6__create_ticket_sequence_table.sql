@@ -0,0 +1,24 @@
+-- V6__create_ticket_sequence_table.sql
+-- Contadores de numeración de tickets por día, sucursal y tipo de cola
+
+CREATE TABLE ticket_sequence (
+    id BIGSERIAL PRIMARY KEY,
+    sequence_date DATE NOT NULL,
+    branch_office VARCHAR(100) NOT NULL,
+    queue_type VARCHAR(20) NOT NULL,
+    last_value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uq_ticket_sequence UNIQUE (sequence_date, branch_office, queue_type),
+    CONSTRAINT chk_ticket_sequence_last_value CHECK (last_value >= 0)
+);
+
+-- El número visible se reinicia cada día por sucursal: deja de ser único globalmente
+ALTER TABLE ticket DROP CONSTRAINT ticket_numero_key;
+CREATE UNIQUE INDEX uq_ticket_numero_sucursal_dia ON ticket (branch_office, numero, (CAST(created_at AS DATE)));
+CREATE INDEX idx_ticket_numero ON ticket(numero);
+
+-- Comentarios
+COMMENT ON TABLE ticket_sequence IS 'Último número reservado por día, sucursal y tipo de cola';
+COMMENT ON COLUMN ticket_sequence.last_value IS 'Último valor entregado a una instancia (se reserva por bloques)';
+COMMENT ON COLUMN ticket.numero IS 'Número visible del ticket (C001, P015, etc.), único por sucursal y día';
@@ -0,0 +1,9 @@
+-- V7__add_proximo_turno_indexes.sql
+-- Índices para la búsqueda de tickets próximos a ser atendidos
+
+-- Cabeza de cada cola: solo tickets en espera, en orden de llegada
+CREATE INDEX idx_ticket_espera_cola ON ticket(queue_type, created_at, id) WHERE status = 'EN_ESPERA';
+
+-- Anti-join de mensajes ya enviados por ticket y plantilla (reemplaza al índice solo por ticket)
+CREATE INDEX idx_mensaje_ticket_plantilla ON mensaje(ticket_id, plantilla);
+DROP INDEX idx_mensaje_ticket_id;
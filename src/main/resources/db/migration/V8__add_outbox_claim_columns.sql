@@ -0,0 +1,13 @@
+-- V8__add_outbox_claim_columns.sql
+-- Reclamo de mensajes del Outbox por lotes con lease, para varios workers e instancias
+
+ALTER TABLE outbox_message ADD COLUMN locked_by VARCHAR(100);
+ALTER TABLE outbox_message ADD COLUMN locked_until TIMESTAMP;
+
+-- Solo los mensajes por publicar o en proceso, en orden de creación
+CREATE INDEX idx_outbox_reclamables ON outbox_message(created_at) WHERE status IN ('PENDING', 'PROCESSING');
+
+-- Comentarios
+COMMENT ON COLUMN outbox_message.status IS 'Estado: PENDING, PROCESSING, SENT, FAILED';
+COMMENT ON COLUMN outbox_message.locked_by IS 'Worker que reclamó el mensaje';
+COMMENT ON COLUMN outbox_message.locked_until IS 'Vencimiento del reclamo: pasado este instante otro worker puede tomarlo';
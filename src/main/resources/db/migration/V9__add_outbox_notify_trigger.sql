@@ -0,0 +1,18 @@
+-- V9__add_outbox_notify_trigger.sql
+-- Aviso inmediato al publicador del Outbox: pg_notify se entrega al hacer commit
+-- de la transacción que inserta (y se descarta si hace rollback)
+
+CREATE OR REPLACE FUNCTION notificar_outbox() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('outbox_message', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Un aviso por sentencia: inserciones en lote generan una sola notificación
+CREATE TRIGGER trg_outbox_message_notify
+    AFTER INSERT ON outbox_message
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notificar_outbox();
+
+COMMENT ON FUNCTION notificar_outbox() IS 'Notifica en el canal outbox_message que hay mensajes nuevos para publicar';
@@ -0,0 +1,90 @@
+package com.example.ticketero.cli;
+
+import com.example.ticketero.cli.CurvaLlegadas.Llegada;
+import com.example.ticketero.model.enums.QueueType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("CurvaLlegadas - Unit Tests")
+class CurvaLlegadasTest {
+
+    private static final int TICKETS_DIA = 20_000;
+
+    @Test
+    @DisplayName("jornada generada → llegadas ordenadas dentro del horario y cercanas al total esperado")
+    void generar_debeRespetarHorarioYTotal() {
+        // Given
+        CurvaLlegadas curva = new CurvaLlegadas(TICKETS_DIA, 7);
+
+        // When
+        List<Llegada> llegadas = curva.generar();
+
+        // Then
+        assertThat(llegadas).isSortedAccordingTo((a, b) -> Double.compare(a.segundo(), b.segundo()));
+        assertThat(llegadas.get(0).segundo()).isGreaterThanOrEqualTo(0);
+        assertThat(llegadas.get(llegadas.size() - 1).segundo()).isLessThan(CurvaLlegadas.HORAS_JORNADA * 3600.0);
+        assertThat((double) llegadas.size()).isCloseTo(TICKETS_DIA, within(TICKETS_DIA * 0.03));
+    }
+
+    @Test
+    @DisplayName("participación por cola → caja recibe la mayor parte y gerencia la menor")
+    void generar_debeRepartirPorCola() {
+        // Given
+        CurvaLlegadas curva = new CurvaLlegadas(TICKETS_DIA, 7);
+
+        // When
+        Map<QueueType, Long> porCola = curva.generar().stream()
+            .collect(Collectors.groupingBy(Llegada::queueType, Collectors.counting()));
+
+        // Then
+        assertThat((double) porCola.get(QueueType.CAJA)).isCloseTo(TICKETS_DIA * 0.55, within(TICKETS_DIA * 0.03));
+        assertThat(porCola.get(QueueType.GERENCIA)).isLessThan(porCola.get(QueueType.EMPRESAS));
+    }
+
+    @Test
+    @DisplayName("curva horaria de caja → la hora de almuerzo tiene más llegadas que la apertura")
+    void tasaPorHora_caja_debeConcentrarseAlAlmuerzo() {
+        CurvaLlegadas curva = new CurvaLlegadas(TICKETS_DIA, 7);
+
+        assertThat(curva.tasaPorHora(QueueType.CAJA, 3)).isGreaterThan(curva.tasaPorHora(QueueType.CAJA, 0));
+        assertThat(curva.tasaPorHora(QueueType.EMPRESAS, 0)).isGreaterThan(curva.tasaPorHora(QueueType.EMPRESAS, 4));
+    }
+
+    @Test
+    @DisplayName("misma semilla → debe generar la misma jornada")
+    void generar_mismaSemilla_debeSerReproducible() {
+        assertThat(new CurvaLlegadas(500, 3).generar()).isEqualTo(new CurvaLlegadas(500, 3).generar());
+    }
+
+    @Test
+    @DisplayName("duración de atención → promedio cercano a avgTimeMinutes de la cola")
+    void duracionAtencion_debePromediarTiempoDeLaCola() {
+        // Given
+        CurvaLlegadas curva = new CurvaLlegadas(TICKETS_DIA, 7);
+
+        // When
+        double promedio = 0;
+        for (int i = 0; i < 20_000; i++) {
+            promedio += curva.duracionAtencion(QueueType.PERSONAL_BANKER) / 20_000;
+        }
+
+        // Then
+        assertThat(promedio).isCloseTo(QueueType.PERSONAL_BANKER.getAvgTimeMinutes() * 60.0, within(45.0));
+    }
+
+    @Test
+    @DisplayName("tickets por día no positivo → debe lanzar excepción")
+    void constructor_ticketsInvalidos_debeLanzarExcepcion() {
+        assertThatThrownBy(() -> new CurvaLlegadas(0, 1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Tickets por día");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ticketero.cli;
+
+import com.example.ticketero.cli.RegistroLatencias.Resumen;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("RegistroLatencias - Unit Tests")
+class RegistroLatenciasTest {
+
+    private static final String ENDPOINT = "POST /api/tickets";
+
+    @Test
+    @DisplayName("1.000 muestras de 1 a 1.000 ms → percentiles por rango más cercano")
+    void resumen_debeCalcularPercentiles() {
+        // Given
+        RegistroLatencias registro = new RegistroLatencias();
+        for (int ms = 1000; ms >= 1; ms--) {
+            registro.registrar(ENDPOINT, ms * 1_000_000L, 201);
+        }
+
+        // When
+        Resumen resumen = registro.resumen(ENDPOINT, 10);
+
+        // Then
+        assertThat(resumen.total()).isEqualTo(1000);
+        assertThat(resumen.porSegundo()).isEqualTo(100.0);
+        assertThat(resumen.p50Ms()).isEqualTo(500.0);
+        assertThat(resumen.p99Ms()).isEqualTo(990.0);
+        assertThat(resumen.p999Ms()).isEqualTo(999.0);
+        assertThat(resumen.maximoMs()).isEqualTo(1000.0);
+        assertThat(resumen.tasaError()).isZero();
+    }
+
+    @Test
+    @DisplayName("respuestas 4xx/5xx y fallos de conexión → deben contar como error")
+    void resumen_debeContarErrores() {
+        // Given
+        RegistroLatencias registro = new RegistroLatencias();
+        registro.registrar(ENDPOINT, 1_000_000, 201);
+        registro.registrar(ENDPOINT, 1_000_000, 201);
+        registro.registrar(ENDPOINT, 1_000_000, 409);
+        registro.registrarFallo(ENDPOINT, 30_000_000_000L, new HttpTimeoutException("timeout"));
+
+        // When
+        Resumen resumen = registro.resumen(ENDPOINT, 1);
+
+        // Then
+        assertThat(resumen.tasaError()).isCloseTo(0.5, within(1e-9));
+        assertThat(resumen.respuestas())
+            .containsEntry("201", 2)
+            .containsEntry("409", 1)
+            .containsEntry("HttpTimeoutException", 1);
+    }
+
+    @Test
+    @DisplayName("imprimir → una fila por endpoint")
+    void imprimir_debeListarCadaEndpoint() {
+        // Given
+        RegistroLatencias registro = new RegistroLatencias();
+        registro.registrar(ENDPOINT, 2_000_000, 201);
+        registro.registrar("GET /api/queues", 1_000_000, 200);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // When
+        registro.imprimir(new PrintStream(salida, true, StandardCharsets.UTF_8), 1);
+
+        // Then
+        assertThat(salida.toString(StandardCharsets.UTF_8))
+            .contains("GET /api/queues")
+            .contains(ENDPOINT);
+    }
+
+    @Test
+    @DisplayName("endpoint sin solicitudes → debe lanzar excepción")
+    void resumen_endpointDesconocido_debeLanzarExcepcion() {
+        assertThatThrownBy(() -> new RegistroLatencias().resumen("GET /x", 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.ticketero.controller;
 
+import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.service.AdvisorService;
+import com.example.ticketero.service.TicketService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +18,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -31,6 +37,9 @@ class AdvisorControllerTest {
     @MockBean
     private AdvisorService advisorService;
 
+    @MockBean
+    private TicketService ticketService;
+
     @Nested
     @DisplayName("GET /api/advisors")
     class ObtenerTodosLosAsesores {
@@ -230,6 +239,48 @@ class AdvisorControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/advisors/{id}/next")
+    class LlamarSiguiente {
+
+        @Test
+        @DisplayName("con ticket en espera → debe retornar 200 con el ticket llamado")
+        void llamarSiguiente_conTicket_debeRetornar200() throws Exception {
+            // Given
+            TicketResponse response = new TicketResponse(
+                42L, UUID.randomUUID(), "G002", "12345678-9", null, "Sucursal Centro",
+                QueueType.GERENCIA, TicketStatus.ATENDIENDO, 1, 30, "María López", 1,
+                LocalDateTime.now(), LocalDateTime.now()
+            );
+            when(ticketService.llamarSiguiente(1L)).thenReturn(Optional.of(response));
+
+            // When & Then
+            mockMvc.perform(post("/api/advisors/1/next"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.numero").value("G002"))
+                .andExpect(jsonPath("$.assignedModuleNumber").value(1));
+        }
+
+        @Test
+        @DisplayName("sin tickets en espera → debe retornar 204")
+        void llamarSiguiente_sinTickets_debeRetornar204() throws Exception {
+            when(ticketService.llamarSiguiente(1L)).thenReturn(Optional.empty());
+
+            mockMvc.perform(post("/api/advisors/1/next"))
+                .andExpect(status().isNoContent());
+        }
+
+        @Test
+        @DisplayName("con asesor no disponible → debe retornar 400")
+        void llamarSiguiente_asesorNoDisponible_debeRetornar400() throws Exception {
+            when(ticketService.llamarSiguiente(1L)).thenThrow(new IllegalStateException("El asesor no está disponible"));
+
+            mockMvc.perform(post("/api/advisors/1/next"))
+                .andExpect(status().isBadRequest());
+        }
+    }
+
     private Advisor createAdvisor(Long id, String name, AdvisorStatus status) {
         return Advisor.builder()
             .id(id)
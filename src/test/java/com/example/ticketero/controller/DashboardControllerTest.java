@@ -1,7 +1,11 @@
 package com.example.ticketero.controller;
 
 import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.service.DashboardService;
+import com.example.ticketero.service.PanelSnapshotService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -10,9 +14,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,9 +30,48 @@ class DashboardControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private PanelSnapshotService panelSnapshotService;
+
     @MockBean
     private DashboardService dashboardService;
 
+    @Nested
+    @DisplayName("GET /api/admin/dashboard/historial")
+    class ObtenerHistorial {
+
+        @Test
+        @DisplayName("con período válido → debe retornar conteos por cola y estado")
+        void obtenerHistorial_conPeriodoValido_debeRetornar200() throws Exception {
+            // Given
+            when(dashboardService.obtenerHistorial(LocalDate.of(2026, 9, 1), LocalDate.of(2026, 9, 30)))
+                .thenReturn(List.of(new TicketHistoryCount(QueueType.CAJA, TicketStatus.COMPLETADO, 125L)));
+
+            // When & Then
+            mockMvc.perform(get("/api/admin/dashboard/historial")
+                    .param("desde", "2026-09-01")
+                    .param("hasta", "2026-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].queueType").value("CAJA"))
+                .andExpect(jsonPath("$[0].status").value("COMPLETADO"))
+                .andExpect(jsonPath("$[0].total").value(125));
+        }
+
+        @Test
+        @DisplayName("con período inválido → debe retornar 400")
+        void obtenerHistorial_conPeriodoInvalido_debeRetornar400() throws Exception {
+            // Given
+            when(dashboardService.obtenerHistorial(any(), any()))
+                .thenThrow(new IllegalArgumentException("Período inválido"));
+
+            // When & Then
+            mockMvc.perform(get("/api/admin/dashboard/historial")
+                    .param("desde", "2026-09-30")
+                    .param("hasta", "2026-09-01"))
+                .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/admin/dashboard")
     class ObtenerDashboard {
@@ -36,7 +81,7 @@ class DashboardControllerTest {
         void obtenerDashboard_debeRetornarDashboardCompleto() throws Exception {
             // Given
             DashboardResponse dashboard = createDashboardResponse();
-            when(dashboardService.obtenerDashboard()).thenReturn(dashboard);
+            when(panelSnapshotService.obtenerDashboard()).thenReturn(dashboard);
 
             // When & Then
             mockMvc.perform(get("/api/admin/dashboard"))
@@ -51,20 +96,20 @@ class DashboardControllerTest {
                 .andExpect(jsonPath("$.queues.length()").value(4))
                 .andExpect(jsonPath("$.alerts").exists());
 
-            verify(dashboardService).obtenerDashboard();
+            verify(panelSnapshotService).obtenerDashboard();
         }
 
         @Test
         @DisplayName("con excepción → debe retornar 500")
         void obtenerDashboard_conExcepcion_debeRetornar500() throws Exception {
             // Given
-            when(dashboardService.obtenerDashboard()).thenThrow(new RuntimeException("Error interno"));
+            when(panelSnapshotService.obtenerDashboard()).thenThrow(new RuntimeException("Error interno"));
 
             // When & Then
             mockMvc.perform(get("/api/admin/dashboard"))
                 .andExpect(status().isInternalServerError());
 
-            verify(dashboardService).obtenerDashboard();
+            verify(panelSnapshotService).obtenerDashboard();
         }
 
         @Test
@@ -72,7 +117,7 @@ class DashboardControllerTest {
         void obtenerDashboard_debeManejarDashboardVacio() throws Exception {
             // Given
             DashboardResponse dashboard = createEmptyDashboardResponse();
-            when(dashboardService.obtenerDashboard()).thenReturn(dashboard);
+            when(panelSnapshotService.obtenerDashboard()).thenReturn(dashboard);
 
             // When & Then
             mockMvc.perform(get("/api/admin/dashboard"))
@@ -2,14 +2,18 @@ package com.example.ticketero.controller;
 
 import com.example.ticketero.model.dto.QueueStatusResponse;
 import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.PanelSnapshotService;
 import com.example.ticketero.service.QueueService;
+import com.example.ticketero.service.QueueStatusBroadcaster;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -28,6 +32,12 @@ class QueueControllerTest {
     @MockBean
     private QueueService queueService;
 
+    @MockBean
+    private PanelSnapshotService panelSnapshotService;
+
+    @MockBean
+    private QueueStatusBroadcaster queueStatusBroadcaster;
+
     @Nested
     @DisplayName("GET /api/queues")
     class ObtenerEstadoColas {
@@ -40,7 +50,7 @@ class QueueControllerTest {
                 createQueueStatusResponse(QueueType.CAJA, 5, 2),
                 createQueueStatusResponse(QueueType.PERSONAL_BANKER, 3, 1)
             );
-            when(queueService.obtenerEstadoColas()).thenReturn(estados);
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(estados);
 
             // When & Then
             mockMvc.perform(get("/api/queues"))
@@ -51,14 +61,14 @@ class QueueControllerTest {
                 .andExpect(jsonPath("$[1].queueType").value("PERSONAL_BANKER"))
                 .andExpect(jsonPath("$[1].waitingTickets").value(3));
 
-            verify(queueService).obtenerEstadoColas();
+            verify(panelSnapshotService).obtenerEstadoColas();
         }
 
         @Test
         @DisplayName("sin colas → debe retornar lista vacía")
         void obtenerEstadoColas_sinColas_debeRetornarListaVacia() throws Exception {
             // Given
-            when(queueService.obtenerEstadoColas()).thenReturn(List.of());
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(List.of());
 
             // When & Then
             mockMvc.perform(get("/api/queues"))
@@ -70,7 +80,7 @@ class QueueControllerTest {
         @DisplayName("con excepción → debe retornar 500")
         void obtenerEstadoColas_conExcepcion_debeRetornar500() throws Exception {
             // Given
-            when(queueService.obtenerEstadoColas()).thenThrow(new RuntimeException("Error interno"));
+            when(panelSnapshotService.obtenerEstadoColas()).thenThrow(new RuntimeException("Error interno"));
 
             // When & Then
             mockMvc.perform(get("/api/queues"))
@@ -78,6 +88,25 @@ class QueueControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/queues/stream")
+    class StreamEstadoColas {
+
+        @Test
+        @DisplayName("debe abrir una suscripción SSE")
+        void streamEstadoColas_debeAbrirSuscripcionSse() throws Exception {
+            // Given
+            when(queueStatusBroadcaster.suscribir()).thenReturn(new SseEmitter());
+
+            // When & Then
+            mockMvc.perform(get("/api/queues/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+            verify(queueStatusBroadcaster).suscribir();
+            verify(queueService, never()).obtenerEstadoCola(any());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/queues/{queueType}")
     class ObtenerEstadoCola {
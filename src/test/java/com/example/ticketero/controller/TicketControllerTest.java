@@ -1,5 +1,8 @@
 package com.example.ticketero.controller;
 
+import com.example.ticketero.exception.DuplicateActiveTicketException;
+import com.example.ticketero.model.dto.TicketBatchItemResult;
+import com.example.ticketero.model.dto.TicketBatchResponse;
 import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.enums.QueueType;
@@ -21,6 +24,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -52,7 +56,7 @@ class TicketControllerTest {
                 "12345678-9", "+56912345678", "Sucursal Centro", QueueType.CAJA
             );
             TicketResponse response = new TicketResponse(
-                UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Sucursal Centro",
+                1L, UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Sucursal Centro",
                 QueueType.CAJA, TicketStatus.EN_ESPERA, 1, 5, null, null,
                 LocalDateTime.now(), LocalDateTime.now()
             );
@@ -88,6 +92,23 @@ class TicketControllerTest {
                 .andExpect(status().isBadRequest());
         }
 
+        @Test
+        @DisplayName("con ticket activo existente → debe retornar 409")
+        void crearTicket_conTicketActivoExistente_debeRetornar409() throws Exception {
+            // Given
+            TicketCreateRequest request = new TicketCreateRequest(
+                "12345678-9", "+56912345678", "Sucursal Centro", QueueType.CAJA
+            );
+
+            when(ticketService.crearTicket(any())).thenThrow(new DuplicateActiveTicketException("C002"));
+
+            // When & Then
+            mockMvc.perform(post("/api/tickets")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+        }
+
         @Test
         @DisplayName("con IllegalStateException → debe retornar 400")
         void crearTicket_conIllegalStateException_debeRetornar400() throws Exception {
@@ -123,6 +144,57 @@ class TicketControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/tickets/batch")
+    class CrearTicketsLote {
+
+        @Test
+        @DisplayName("con lote válido → debe retornar 200 con el resultado de cada ticket")
+        void crearTicketsLote_conLoteValido_debeRetornar200() throws Exception {
+            // Given
+            List<TicketCreateRequest> requests = List.of(
+                new TicketCreateRequest("12345678-9", "+56912345678", "Sucursal Centro", QueueType.CAJA),
+                new TicketCreateRequest("12345678-9", null, "Sucursal Centro", QueueType.CAJA)
+            );
+            TicketResponse creado = new TicketResponse(
+                2L, UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Sucursal Centro",
+                QueueType.CAJA, TicketStatus.EN_ESPERA, 1, 5, null, null,
+                LocalDateTime.now(), LocalDateTime.now()
+            );
+            TicketBatchResponse response = TicketBatchResponse.de(List.of(
+                TicketBatchItemResult.creado(0, creado),
+                TicketBatchItemResult.duplicado(1, "RUT/ID repetido en el lote")
+            ));
+
+            when(ticketService.crearTicketsLote(anyList())).thenReturn(response);
+
+            // When & Then
+            mockMvc.perform(post("/api/tickets/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.creados").value(1))
+                .andExpect(jsonPath("$.rechazados").value(1))
+                .andExpect(jsonPath("$.resultados[0].ticket.numero").value("C001"))
+                .andExpect(jsonPath("$.resultados[1].resultado").value("DUPLICADO"));
+        }
+
+        @Test
+        @DisplayName("con lote vacío o excedido → debe retornar 400")
+        void crearTicketsLote_conLoteInvalido_debeRetornar400() throws Exception {
+            // Given
+            when(ticketService.crearTicketsLote(anyList()))
+                .thenThrow(new IllegalArgumentException("El lote no puede estar vacío"));
+
+            // When & Then
+            mockMvc.perform(post("/api/tickets/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[]"))
+                .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/tickets")
     class ObtenerTicketsActivos {
@@ -132,10 +204,10 @@ class TicketControllerTest {
         void obtenerTicketsActivos_debeRetornarListaTickets() throws Exception {
             // Given
             List<TicketResponse> tickets = List.of(
-                new TicketResponse(UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Centro",
+                new TicketResponse(3L, UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Centro",
                     QueueType.CAJA, TicketStatus.EN_ESPERA, 1, 5, null, null,
                     LocalDateTime.now(), LocalDateTime.now()),
-                new TicketResponse(UUID.randomUUID(), "C002", "87654321-0", "+56987654321", "Centro",
+                new TicketResponse(4L, UUID.randomUUID(), "C002", "87654321-0", "+56987654321", "Centro",
                     QueueType.PERSONAL_BANKER, TicketStatus.EN_ESPERA, 2, 10, null, null,
                     LocalDateTime.now(), LocalDateTime.now())
             );
@@ -174,7 +246,7 @@ class TicketControllerTest {
         void obtenerTicketPorNumero_conTicketExistente_debeRetornarTicket() throws Exception {
             // Given
             TicketResponse ticket = new TicketResponse(
-                UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Centro",
+                5L, UUID.randomUUID(), "C001", "12345678-9", "+56912345678", "Centro",
                 QueueType.CAJA, TicketStatus.EN_ESPERA, 1, 5, null, null,
                 LocalDateTime.now(), LocalDateTime.now()
             );
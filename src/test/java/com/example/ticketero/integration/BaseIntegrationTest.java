@@ -10,7 +10,6 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
-import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.containers.RabbitMQContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -18,11 +17,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 /**
  * Base class for all integration tests.
  * Provides TestContainers setup and common utilities.
+ * PostgreSQL comes from BasePostgresIntegrationTest; RabbitMQ is started here.
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Testcontainers
 @ActiveProfiles("test")
-public abstract class BaseIntegrationTest {
+public abstract class BaseIntegrationTest extends BasePostgresIntegrationTest {
 
     @LocalServerPort
     protected int port;
@@ -34,23 +34,12 @@ public abstract class BaseIntegrationTest {
     // TESTCONTAINERS
     // ============================================================
 
-    @Container
-    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
-        .withDatabaseName("ticketero_test")
-        .withUsername("test")
-        .withPassword("test");
-
     @Container
     static RabbitMQContainer rabbitmq = new RabbitMQContainer("rabbitmq:3.13-management-alpine")
         .withExposedPorts(5672, 15672);
 
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
-        // PostgreSQL
-        registry.add("spring.datasource.url", postgres::getJdbcUrl);
-        registry.add("spring.datasource.username", postgres::getUsername);
-        registry.add("spring.datasource.password", postgres::getPassword);
-
         // RabbitMQ
         registry.add("spring.rabbitmq.host", rabbitmq::getHost);
         registry.add("spring.rabbitmq.port", rabbitmq::getAmqpPort);
@@ -64,7 +53,6 @@ public abstract class BaseIntegrationTest {
 
     @BeforeAll
     static void setupContainers() {
-        postgres.start();
         rabbitmq.start();
     }
 
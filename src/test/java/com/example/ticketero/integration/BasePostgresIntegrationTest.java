@@ -0,0 +1,70 @@
+package com.example.ticketero.integration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base de los tests de integración contra PostgreSQL real
+ * Un solo contenedor para toda la corrida; cada contexto de Spring recibe su propia base vacía
+ * (migrada por Flyway al iniciar) y se cierra al terminar la clase, para que sus schedulers
+ * e índices en memoria no alcancen a la clase siguiente
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public abstract class BasePostgresIntegrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+        .withDatabaseName("ticketero_test")
+        .withUsername("test")
+        .withPassword("test");
+
+    private static final AtomicInteger BASES = new AtomicInteger();
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void configurarBaseDeDatos(DynamicPropertyRegistry registry) {
+        String url = crearBase("ticketero_" + BASES.incrementAndGet());
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    /**
+     * Bloques de buffer (en caché o leídos de disco) que toca una consulta según EXPLAIN (ANALYZE, BUFFERS)
+     * Sirve para verificar que un costo no crece con el volumen sin depender de la carga de la máquina;
+     * la latencia se mide en los benchmarks JMH (perfil benchmarks)
+     */
+    protected static long bloquesLeidos(JdbcTemplate jdbcTemplate, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class);
+        try {
+            JsonNode raiz = new ObjectMapper().readTree(plan).get(0).get("Plan");
+            return raiz.get("Shared Hit Blocks").asLong() + raiz.get("Shared Read Blocks").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Plan no legible: " + plan, e);
+        }
+    }
+
+    private static String crearBase(String nombre) {
+        try (Connection conexion = POSTGRES.createConnection("");
+             Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE DATABASE " + nombre);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo crear la base de pruebas " + nombre, e);
+        }
+        return "jdbc:postgresql://" + POSTGRES.getHost() + ":"
+            + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + nombre;
+    }
+}
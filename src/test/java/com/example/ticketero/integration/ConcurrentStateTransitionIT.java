@@ -0,0 +1,184 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.AdvisorService;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de estrés de las transiciones de estado: varios hilos intentan la misma transición sobre
+ * el mismo ticket o asesor y solo una debe aplicarse, sin asignaciones duplicadas ni eventos inconsistentes
+ */
+@SpringBootTest
+@DisplayName("Transiciones de estado - Concurrencia")
+class ConcurrentStateTransitionIT extends BasePostgresIntegrationTest {
+
+    private static final int TICKETS = 100;
+    private static final int HILOS = 8;
+
+    @TestConfiguration
+    static class EventosAsesor {
+
+        @Bean
+        List<AdvisorStatusChangedEvent> eventosAsesor() {
+            return new CopyOnWriteArrayList<>();
+        }
+
+        @Bean
+        Object registradorEventosAsesor(List<AdvisorStatusChangedEvent> eventosAsesor) {
+            return new Object() {
+                @EventListener
+                public void registrar(AdvisorStatusChangedEvent event) {
+                    eventosAsesor.add(event);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private AdvisorService advisorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<AdvisorStatusChangedEvent> eventosAsesor;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+        jdbcTemplate.update("UPDATE advisor SET status = 'AVAILABLE', assigned_tickets_count = 0");
+        eventosAsesor.clear();
+    }
+
+    @Test
+    @DisplayName("llamados y finalizaciones concurrentes del mismo ticket → exactamente una transición por ticket")
+    void transicionesTicket_concurrentes_debenAplicarseUnaVez() throws Exception {
+        // Given
+        List<TicketCreateRequest> requests = new ArrayList<>(TICKETS);
+        for (int i = 0; i < TICKETS; i++) {
+            requests.add(new TicketCreateRequest("TRANS-" + i, null, "Sucursal Centro", QueueType.CAJA));
+        }
+        ticketService.crearTicketsLote(requests);
+        List<Long> ticketIds = jdbcTemplate.queryForList("SELECT id FROM ticket ORDER BY id", Long.class);
+        List<Long> asesores = jdbcTemplate.queryForList("SELECT id FROM advisor ORDER BY id", Long.class);
+        Map<Long, Long> ganadores = new ConcurrentHashMap<>();
+        AtomicInteger llamadosRechazados = new AtomicInteger();
+        AtomicInteger finalizados = new AtomicInteger();
+        AtomicInteger finalizacionesRechazadas = new AtomicInteger();
+
+        // When: cada hilo intenta llamar y luego finalizar todos los tickets
+        enParalelo(hilo -> {
+            Long advisorId = asesores.get(hilo % asesores.size());
+            for (Long ticketId : ticketIds) {
+                try {
+                    ticketService.llamarTicket(ticketId, advisorId);
+                    assertThat(ganadores.putIfAbsent(ticketId, advisorId)).isNull();
+                } catch (IllegalStateException e) {
+                    llamadosRechazados.incrementAndGet();
+                }
+            }
+            for (Long ticketId : ticketIds) {
+                try {
+                    ticketService.finalizarTicket(ticketId);
+                    finalizados.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    finalizacionesRechazadas.incrementAndGet();
+                }
+            }
+        });
+
+        // Then
+        assertThat(ganadores).hasSize(TICKETS);
+        assertThat(llamadosRechazados.get()).isEqualTo(TICKETS * (HILOS - 1));
+        assertThat(finalizados.get()).isEqualTo(TICKETS);
+        assertThat(finalizacionesRechazadas.get()).isEqualTo(TICKETS * (HILOS - 1));
+        for (Map.Entry<Long, Long> ganador : ganadores.entrySet()) {
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT assigned_advisor_id FROM ticket WHERE id = ? AND status = 'COMPLETADO'",
+                Long.class, ganador.getKey())).isEqualTo(ganador.getValue());
+        }
+    }
+
+    @Test
+    @DisplayName("cambios de estado concurrentes de un asesor → los eventos forman una cadena sin transiciones perdidas")
+    void cambiosEstadoAsesor_concurrentes_debenFormarCadena() throws Exception {
+        // Given
+        Long advisorId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM advisor", Long.class);
+        AdvisorStatus[] estados = AdvisorStatus.values();
+        int cambiosPorHilo = 50;
+
+        // When
+        enParalelo(hilo -> {
+            for (int i = 0; i < cambiosPorHilo; i++) {
+                advisorService.cambiarEstadoAsesor(advisorId, estados[(hilo + i) % estados.length]);
+            }
+        });
+
+        // Then: cada estado anterior informado fue el nuevo estado de otro cambio (o el inicial)
+        assertThat(eventosAsesor).hasSize(HILOS * cambiosPorHilo);
+        AdvisorStatus estadoFinal = AdvisorStatus.valueOf(jdbcTemplate.queryForObject(
+            "SELECT status FROM advisor WHERE id = ?", String.class, advisorId));
+        Map<AdvisorStatus, Integer> balance = new EnumMap<>(AdvisorStatus.class);
+        for (AdvisorStatusChangedEvent evento : eventosAsesor) {
+            balance.merge(evento.previousStatus(), 1, Integer::sum);
+            balance.merge(evento.newStatus(), -1, Integer::sum);
+        }
+        balance.merge(AdvisorStatus.AVAILABLE, -1, Integer::sum);
+        balance.merge(estadoFinal, 1, Integer::sum);
+        assertThat(balance.values()).containsOnly(0);
+    }
+
+    private void enParalelo(Trabajo trabajo) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> trabajos = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int numeroHilo = hilo;
+            trabajos.add(executor.submit(() -> {
+                largada.await();
+                trabajo.ejecutar(numeroHilo);
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> pendiente : trabajos) {
+            pendiente.get();
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface Trabajo {
+        void ejecutar(int hilo);
+    }
+}
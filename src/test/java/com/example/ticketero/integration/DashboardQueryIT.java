@@ -0,0 +1,116 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.DashboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que el dashboard agregado (2 consultas) entrega los mismos totales que el cálculo
+ * anterior de ~20 COUNT individuales, sobre un volumen de tickets realista.
+ * La latencia se mide en PanelBenchmark (perfil benchmarks)
+ */
+@SpringBootTest
+@DisplayName("Dashboard - Consultas agregadas")
+class DashboardQueryIT extends BasePostgresIntegrationTest {
+
+    private static final int TICKETS_HISTORICOS = 100_000;
+    private static final int TICKETS_HOY = 2_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private AdvisorRepository advisorRepository;
+
+    @BeforeEach
+    void seedTickets() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+
+        QueueType[] colas = QueueType.values();
+        TicketStatus[] finales = {TicketStatus.COMPLETADO, TicketStatus.CANCELADO, TicketStatus.NO_ATENDIDO};
+        LocalDateTime inicioDelDia = LocalDateTime.now().with(LocalTime.MIN);
+        List<Object[]> filas = new ArrayList<>();
+
+        for (int i = 0; i < TICKETS_HISTORICOS + TICKETS_HOY; i++) {
+            boolean hoy = i >= TICKETS_HISTORICOS;
+            QueueType cola = colas[i % colas.length];
+            TicketStatus estado = hoy && i % 5 == 0 ? TicketStatus.EN_ESPERA
+                : hoy && i % 7 == 0 ? TicketStatus.ATENDIENDO
+                : finales[i % finales.length];
+            LocalDateTime creado = hoy
+                ? inicioDelDia.plusSeconds(i - TICKETS_HISTORICOS)
+                : inicioDelDia.minusDays(1 + i % 180).plusSeconds(i % 36_000);
+            filas.add(new Object[]{
+                UUID.randomUUID(), cola.getPrefix() + String.valueOf(i), "RUT" + i, "Sucursal Centro",
+                cola.name(), estado.name(), 1, cola.getAvgTimeMinutes(), Timestamp.valueOf(creado), Timestamp.valueOf(creado)
+            });
+        }
+
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            filas);
+        jdbcTemplate.execute("ANALYZE ticket");
+    }
+
+    @Test
+    @DisplayName("dashboard agregado debe coincidir con los COUNT individuales")
+    void dashboardAgregado_debeCoincidirConCountsIndividuales() {
+        // When
+        DashboardResponse dashboard = dashboardService.obtenerDashboard();
+
+        // Then
+        LocalDateTime inicioDelDia = LocalDateTime.now().with(LocalTime.MIN);
+        DashboardResponse.SummaryData summary = dashboard.summary();
+        assertThat(summary.totalTicketsToday().longValue()).isEqualTo(ticketRepository.countByCreatedAtAfter(inicioDelDia));
+        assertThat(summary.waitingTickets().longValue()).isEqualTo(ticketRepository.countByStatus(TicketStatus.EN_ESPERA));
+        assertThat(summary.attendingTickets().longValue()).isEqualTo(ticketRepository.countByStatus(TicketStatus.ATENDIENDO));
+        assertThat(summary.completedTickets().longValue())
+            .isEqualTo(ticketRepository.countByStatusAndCreatedAtAfter(TicketStatus.COMPLETADO, inicioDelDia));
+
+        DashboardResponse.AdvisorData asesores = dashboard.advisors();
+        assertThat(asesores.available().longValue()).isEqualTo(advisorRepository.countByStatus(AdvisorStatus.AVAILABLE));
+        assertThat(asesores.busy().longValue()).isEqualTo(advisorRepository.countByStatus(AdvisorStatus.BUSY));
+        assertThat(asesores.offline().longValue()).isEqualTo(advisorRepository.countByStatus(AdvisorStatus.OFFLINE));
+        assertThat(asesores.totalCapacity().longValue()).isEqualTo(advisorRepository.count());
+
+        for (QueueType queueType : QueueType.values()) {
+            DashboardResponse.QueueData cola = dashboard.queues().stream()
+                .filter(q -> q.queueType().equals(queueType.name()))
+                .findFirst()
+                .orElseThrow();
+            assertThat(cola.waitingTickets().longValue())
+                .isEqualTo(ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.EN_ESPERA));
+            assertThat(cola.attendingTickets().longValue())
+                .isEqualTo(ticketRepository.countByQueueTypeAndStatus(queueType, TicketStatus.ATENDIENDO));
+            assertThat(cola.completedToday().longValue()).isEqualTo(ticketRepository
+                .countByQueueTypeAndStatusAndCreatedAtAfter(queueType, TicketStatus.COMPLETADO, inicioDelDia));
+        }
+    }
+}
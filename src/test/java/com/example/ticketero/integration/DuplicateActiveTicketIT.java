@@ -0,0 +1,93 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.exception.DuplicateActiveTicketException;
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que solicitudes concurrentes para el mismo RUT crean un solo ticket activo
+ */
+@SpringBootTest
+@DisplayName("Creación de tickets - Un ticket activo por RUT")
+class DuplicateActiveTicketIT extends BasePostgresIntegrationTest {
+
+    private static final int CONCURRENCIA = 20;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+    }
+
+    @Test
+    @DisplayName("solicitudes simultáneas del mismo RUT → una creada y el resto rechazadas como duplicado")
+    void crearTicket_concurrente_debeCrearUnSoloActivo() throws Exception {
+        TicketCreateRequest request = new TicketCreateRequest("11111111-1", null, "Sucursal Centro", QueueType.CAJA);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        int creados = 0;
+        int duplicados = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCIA)) {
+            List<Future<?>> solicitudes = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCIA; i++) {
+                solicitudes.add(executor.submit(() -> {
+                    largada.await();
+                    return ticketService.crearTicket(request);
+                }));
+            }
+            largada.countDown();
+            for (Future<?> solicitud : solicitudes) {
+                try {
+                    solicitud.get();
+                    creados++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(DuplicateActiveTicketException.class);
+                    duplicados++;
+                }
+            }
+        }
+
+        assertThat(creados).isEqualTo(1);
+        assertThat(duplicados).isEqualTo(CONCURRENCIA - 1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM ticket WHERE national_id = '11111111-1' AND status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO')",
+            Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ticket finalizado fuera de esta instancia → debe permitir crear uno nuevo")
+    void crearTicket_activoFinalizadoEnOtraInstancia_debeCrear() {
+        TicketCreateRequest request = new TicketCreateRequest("22222222-2", null, "Sucursal Centro", QueueType.CAJA);
+        ticketService.crearTicket(request);
+
+        // Otra instancia completa el ticket: el caché local aún lo cree activo
+        jdbcTemplate.update("UPDATE ticket SET status = 'COMPLETADO' WHERE national_id = '22222222-2'");
+
+        assertThat(ticketService.crearTicket(request)).isNotNull();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM ticket WHERE national_id = '22222222-2'", Integer.class)).isEqualTo(2);
+    }
+}
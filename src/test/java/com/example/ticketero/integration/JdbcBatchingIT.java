@@ -0,0 +1,103 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.RecoveryEvent;
+import com.example.ticketero.model.entity.Ticket;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara los viajes a la base de un registro masivo (mensajes y eventos de recuperación intercalados,
+ * como en un lote del despachador o una recuperación de varios asesores) sin batching y con batching JDBC
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "outbox.listen.enabled=false"
+})
+@DisplayName("Persistencia - Batching JDBC con ids por secuencia")
+class JdbcBatchingIT extends BasePostgresIntegrationTest {
+
+    private static final int FILAS_POR_TABLA = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ticketId;
+    private Long advisorId;
+
+    @BeforeEach
+    void preparar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM recovery_event");
+        jdbcTemplate.execute("DELETE FROM ticket");
+        ticketId = jdbcTemplate.queryForObject(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes) VALUES (gen_random_uuid(), 'C001', 'BATCH-1', " +
+            "'Sucursal Centro', 'CAJA', 'EN_ESPERA', 1, 5) RETURNING id", Long.class);
+        advisorId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM advisor", Long.class);
+    }
+
+    @Test
+    @DisplayName("registro masivo → batching debe reducir las sentencias enviadas en más de 10 veces")
+    void registroMasivo_conBatching_debeReducirViajes() {
+        // When
+        long sinBatch = registrar(1);
+        long conBatch = registrar(50);
+
+        // Then
+        assertThat(conBatch * 10).isLessThan(sinBatch);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mensaje", Integer.class))
+            .isEqualTo(2 * FILAS_POR_TABLA);
+    }
+
+    /**
+     * Persiste mensajes y eventos intercalados en una transacción con el tamaño de batch indicado
+     * @return Sentencias preparadas enviadas a la base
+     */
+    private long registrar(int tamanoBatch) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanoBatch);
+            Ticket ticket = entityManager.getReference(Ticket.class, ticketId);
+            for (int i = 0; i < FILAS_POR_TABLA; i++) {
+                entityManager.persist(Mensaje.builder()
+                    .ticket(ticket)
+                    .plantilla("totem_ticket_creado")
+                    .estadoEnvio("PENDIENTE")
+                    .intentos(0)
+                    .fechaProgramada(LocalDateTime.now())
+                    .build());
+                entityManager.persist(RecoveryEvent.builder()
+                    .recoveryType("DEAD_WORKER")
+                    .advisorId(advisorId)
+                    .reason("Benchmark de batching")
+                    .build());
+            }
+        });
+        return estadisticas.getPrepareStatementCount();
+    }
+}
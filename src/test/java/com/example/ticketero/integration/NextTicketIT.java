@@ -0,0 +1,152 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.dto.TicketResponse;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.QueuePositionIndex;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Varios asesores llaman al siguiente ticket en paralelo: cada ticket debe ser tomado una sola vez
+ * y ningún asesor puede tener dos tickets en atención
+ * La latencia del llamado se mide en TicketServiceBenchmark (perfil benchmarks)
+ */
+@SpringBootTest
+@DisplayName("Atención - Llamado del siguiente ticket")
+class NextTicketIT extends BasePostgresIntegrationTest {
+
+    private static final int TICKETS = 400;
+    private static final int HILOS = 8;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private QueuePositionIndex queuePositionIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+    }
+
+    @Test
+    @DisplayName("asesores concurrentes → cada ticket atendido una sola vez, empezando por la mayor prioridad")
+    void llamarSiguiente_asesoresConcurrentes_noDebeDuplicarAsignaciones() throws Exception {
+        // Given
+        QueueType[] colas = QueueType.values();
+        List<TicketCreateRequest> requests = new ArrayList<>(TICKETS);
+        for (int i = 0; i < TICKETS; i++) {
+            requests.add(new TicketCreateRequest("SIG-" + i, null, "Sucursal Centro", colas[i % colas.length]));
+        }
+        ticketService.crearTicketsLote(requests);
+        List<Long> asesores = jdbcTemplate.queryForList("SELECT id FROM advisor ORDER BY id", Long.class);
+        List<String> llamados = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(asesores.size());
+        List<Future<?>> trabajos = new ArrayList<>();
+        for (Long advisorId : asesores) {
+            trabajos.add(executor.submit(() -> {
+                while (true) {
+                    Optional<TicketResponse> ticket = ticketService.llamarSiguiente(advisorId);
+                    if (ticket.isEmpty()) {
+                        return;
+                    }
+                    llamados.add(ticket.get().numero());
+                    ticketService.finalizarTicket(ticket.get().id());
+                }
+            }));
+        }
+        for (Future<?> trabajo : trabajos) {
+            trabajo.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(llamados).hasSize(TICKETS).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM ticket WHERE status = 'COMPLETADO' AND assigned_advisor_id IS NOT NULL", Integer.class))
+            .isEqualTo(TICKETS);
+        assertThat(llamados.get(0)).startsWith(String.valueOf(QueueType.GERENCIA.getPrefix()));
+    }
+
+    @Test
+    @DisplayName("llamados simultáneos del mismo asesor → debe tomar un solo ticket")
+    void llamarSiguiente_mismoAsesorConcurrente_debeTomarUnSoloTicket() throws Exception {
+        // Given
+        List<TicketCreateRequest> requests = new ArrayList<>(HILOS);
+        for (int i = 0; i < HILOS; i++) {
+            requests.add(new TicketCreateRequest("DOBLE-" + i, null, "Sucursal Centro", QueueType.CAJA));
+        }
+        ticketService.crearTicketsLote(requests);
+        Long advisorId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM advisor", Long.class);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger tomados = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> trabajos = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            trabajos.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    ticketService.llamarSiguiente(advisorId).ifPresent(ticket -> tomados.incrementAndGet());
+                } catch (IllegalStateException e) {
+                    rechazados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> trabajo : trabajos) {
+            trabajo.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(tomados.get()).isEqualTo(1);
+        assertThat(rechazados.get()).isEqualTo(HILOS - 1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM ticket WHERE status = 'ATENDIENDO' AND assigned_advisor_id = ?", Integer.class, advisorId))
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ticket ausente del índice en memoria (creado en otra instancia) → debe llamarse desde la base")
+    void llamarSiguiente_ticketFueraDelIndice_debeTomarloDeLaBase() {
+        // Given
+        TicketResponse creado = ticketService.crearTicket(
+            new TicketCreateRequest("OTRA-INSTANCIA", null, "Sucursal Centro", QueueType.EMPRESAS));
+        queuePositionIndex.retirar(QueueType.EMPRESAS, creado.id());
+        Long advisorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM advisor", Long.class);
+
+        // When
+        Optional<TicketResponse> llamado = ticketService.llamarSiguiente(advisorId);
+
+        // Then
+        assertThat(llamado).map(TicketResponse::id).contains(creado.id());
+    }
+}
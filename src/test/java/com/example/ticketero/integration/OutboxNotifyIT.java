@@ -0,0 +1,81 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Publicación del Outbox despertada por LISTEN/NOTIFY (commit del INSERT → fila SENT)
+ * El polling se deja en una hora: cualquier publicación dentro del test se debe al aviso de la base
+ */
+@SpringBootTest(properties = {
+    "outbox.process-interval=3600000",
+    "outbox.listen.enabled=true"
+})
+@DisplayName("Outbox - Despertar por LISTEN/NOTIFY")
+class OutboxNotifyIT extends BasePostgresIntegrationTest {
+
+    private static final int MUESTRAS = 50;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void brokerConfirmaTodo() {
+        doAnswer(invocation -> {
+            CorrelationData correlacion = invocation.getArgument(3);
+            correlacion.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        jdbcTemplate.execute("DELETE FROM outbox_message");
+    }
+
+    @Test
+    @DisplayName("INSERT confirmado → debe publicarse sin esperar el polling")
+    void insert_debePublicarseSinPolling() throws Exception {
+        // Espera a que la conexión de escucha esté lista
+        esperarSent(insertar(0), 10_000);
+
+        for (int i = 1; i <= MUESTRAS; i++) {
+            long id = insertar(i);
+            assertThat(esperarSent(id, 10_000)).as("mensaje %d publicado", id).isTrue();
+        }
+    }
+
+    private long insertar(int i) {
+        String payload = "{\"ticketId\":" + i + ",\"numero\":\"C" + i + "\",\"queueType\":\"CAJA\"}";
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO outbox_message (aggregate_type, aggregate_id, event_type, payload, routing_key) " +
+            "VALUES ('TICKET', ?, 'TICKET_CREATED', ?, 'ticket.created') RETURNING id",
+            Long.class, (long) i, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean esperarSent(long id, long timeoutMillis) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < limite) {
+            String estado = jdbcTemplate.queryForObject("SELECT status FROM outbox_message WHERE id = ?", String.class, id);
+            if ("SENT".equals(estado)) {
+                return true;
+            }
+            Thread.sleep(1);
+        }
+        return false;
+    }
+}
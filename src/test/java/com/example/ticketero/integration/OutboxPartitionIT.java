@@ -0,0 +1,149 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.entity.OutboxMessage;
+import com.example.ticketero.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la retención por particiones del Outbox y que el reclamo no se degrada con el historial
+ */
+@SpringBootTest(properties = {
+    "outbox.process-interval=3600000",
+    "outbox.listen.enabled=false"
+})
+@DisplayName("Outbox - Particiones y retención")
+class OutboxPartitionIT extends BasePostgresIntegrationTest {
+
+    private static final byte[] PAYLOAD = "{\"ticketId\":1}".getBytes(StandardCharsets.UTF_8);
+    private static final String CONSULTA_RECLAMO = "SELECT id, created_at FROM outbox_message " +
+        "WHERE (status = 'PENDING' AND (next_retry_at IS NULL OR next_retry_at <= now())) " +
+        "   OR (status = 'PROCESSING' AND locked_until < now()) " +
+        "ORDER BY created_at LIMIT 50";
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxMessageRepository outboxRepository;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM outbox_message");
+        jdbcTemplate.execute("DELETE FROM outbox_message_archivo");
+    }
+
+    @Test
+    @DisplayName("partición fuera de retención → debe eliminarse archivando sus FAILED")
+    void mantenerParticiones_debeEliminarYArchivar() {
+        // Given: una partición de hace 10 días con historial y otra de hace 9 con un mensaje sin publicar
+        LocalDateTime hace10 = LocalDate.now().minusDays(10).atTime(12, 0);
+        LocalDateTime hace9 = LocalDate.now().minusDays(9).atTime(12, 0);
+        crearParticion(hace10.toLocalDate());
+        crearParticion(hace9.toLocalDate());
+        insertar("SENT", hace10, 5);
+        insertar("FAILED", hace10, 2);
+        insertar("PENDING", hace9, 1);
+
+        // When
+        int eliminadas = outboxRepository.mantenerParticiones(7, 7);
+
+        // Then
+        assertThat(eliminadas).isEqualTo(1);
+        assertThat(existeParticion(hace10.toLocalDate())).isFalse();
+        assertThat(existeParticion(hace9.toLocalDate())).isTrue();
+        assertThat(existeParticion(LocalDate.now().plusDays(7))).isTrue();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_message_archivo WHERE status = 'FAILED'", Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_message", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("filas en DEFAULT → deben trasladarse a su partición o eliminarse por retención")
+    void mantenerParticiones_debeVaciarDefault() {
+        // Given: un día dentro de la retención sin partición y un historial antiguo, ambos en DEFAULT
+        LocalDateTime hace3 = LocalDate.now().minusDays(3).atTime(12, 0);
+        LocalDateTime hace30 = LocalDate.now().minusDays(30).atTime(12, 0);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + nombreParticion(hace3.toLocalDate()));
+        insertar("PENDING", hace3, 4);
+        insertar("SENT", hace30, 3);
+        insertar("FAILED", hace30, 1);
+        insertar("PENDING", hace30, 1);
+
+        // When
+        outboxRepository.mantenerParticiones(7, 7);
+
+        // Then
+        assertThat(existeParticion(hace3.toLocalDate())).isTrue();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + nombreParticion(hace3.toLocalDate()), Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM outbox_message_default", String.class))
+            .containsExactly("PENDING");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_message_archivo WHERE status = 'FAILED'", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reclamo → bloques leídos no deben crecer con el historial SENT")
+    void claimBatch_costoPlanoConHistorial() {
+        // Given
+        insertar("PENDING", LocalDateTime.now(), 100);
+        long sinHistorial = bloquesLeidos(jdbcTemplate, CONSULTA_RECLAMO);
+
+        for (int dia = 1; dia <= 6; dia++) {
+            insertar("SENT", LocalDateTime.now().minusDays(dia), 40_000);
+        }
+        jdbcTemplate.execute("ANALYZE outbox_message");
+        long conHistorial = bloquesLeidos(jdbcTemplate, CONSULTA_RECLAMO);
+
+        // When
+        List<OutboxMessage> lote = outboxRepository.claimBatch("worker-it", LocalDateTime.now(),
+            LocalDateTime.now().plusSeconds(30), 50);
+
+        // Then
+        assertThat(lote).hasSize(50).allMatch(m -> "PROCESSING".equals(m.getStatus()));
+        assertThat(conHistorial).isLessThan(sinHistorial * 3 + 50);
+    }
+
+    private void crearParticion(LocalDate dia) {
+        jdbcTemplate.queryForObject("SELECT crear_particion_outbox(?)", Boolean.class, Date.valueOf(dia));
+    }
+
+    private boolean existeParticion(LocalDate dia) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, nombreParticion(dia));
+    }
+
+    private static String nombreParticion(LocalDate dia) {
+        return "outbox_message_p" + dia.toString().replace("-", "");
+    }
+
+    private void insertar(String estado, LocalDateTime creado, int cantidad) {
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add(new Object[]{(long) i, PAYLOAD, estado, Timestamp.valueOf(creado.plusNanos(i * 1_000L))});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO outbox_message (aggregate_type, aggregate_id, event_type, payload, routing_key, status, created_at) " +
+            "VALUES ('TICKET', ?, 'TICKET_CREATED', ?, 'ticket.created', ?, ?)",
+            filas);
+    }
+}
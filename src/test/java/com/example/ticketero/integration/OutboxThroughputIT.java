@@ -0,0 +1,131 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.service.OutboxPublisherService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drenado del Outbox hacia RabbitMQ con varios workers y lotes adaptativos (costo medido en OutboxProcessingBenchmark)
+ * Verifica que cada fila se publica una sola vez y termina en SENT solo tras el ack del broker
+ */
+@SpringBootTest(properties = {
+    "outbox.process-interval=3600000",
+    "outbox.workers=4",
+    "outbox.batch-size=10",
+    "outbox.batch-size-max=500"
+})
+@Testcontainers
+@DisplayName("Outbox - Throughput del publicador")
+class OutboxThroughputIT extends BasePostgresIntegrationTest {
+
+    private static final String EXCHANGE = "ticketero-exchange";
+    private static final String COLA = "outbox-throughput";
+    private static final String ROUTING_KEY = "ticket.created";
+    private static final int MENSAJES = 5_000;
+
+    @Container
+    static RabbitMQContainer rabbitmq = new RabbitMQContainer("rabbitmq:3.13-management-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.rabbitmq.host", rabbitmq::getHost);
+        registry.add("spring.rabbitmq.port", rabbitmq::getAmqpPort);
+        registry.add("spring.rabbitmq.username", rabbitmq::getAdminUsername);
+        registry.add("spring.rabbitmq.password", rabbitmq::getAdminPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AmqpAdmin amqpAdmin;
+
+    @Autowired
+    private OutboxPublisherService outboxPublisherService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void preparar() {
+        jdbcTemplate.execute("DELETE FROM outbox_message");
+        TopicExchange exchange = new TopicExchange(EXCHANGE);
+        Queue cola = new Queue(COLA, false);
+        amqpAdmin.declareExchange(exchange);
+        amqpAdmin.declareQueue(cola);
+        amqpAdmin.declareBinding(BindingBuilder.bind(cola).to(exchange).with(ROUTING_KEY));
+        amqpAdmin.purgeQueue(COLA, false);
+    }
+
+    @Test
+    @DisplayName("backlog de 5.000 mensajes → debe publicarlos todos una sola vez")
+    void processOutbox_debeDrenarBacklog() throws Exception {
+        sembrarOutbox(MENSAJES);
+
+        int rondas = 0;
+        while (pendientes() > 0 && rondas++ < 20) {
+            outboxPublisherService.processOutbox();
+        }
+
+        Timer confirmacion = meterRegistry.get("ticketero.outbox.confirm.latency").timer();
+
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_message WHERE status = 'SENT' AND locked_by IS NULL", Integer.class))
+            .isEqualTo(MENSAJES);
+        assertThat(confirmacion.count()).isGreaterThanOrEqualTo(MENSAJES);
+        assertThat(mensajesEnCola()).isEqualTo(MENSAJES);
+    }
+
+    private int mensajesEnCola() throws InterruptedException {
+        // Las publicaciones son asíncronas en el broker: se espera a que el conteo se estabilice
+        int conteo = 0;
+        for (int i = 0; i < 50 && conteo < MENSAJES; i++) {
+            Properties propiedades = amqpAdmin.getQueueProperties(COLA);
+            conteo = propiedades == null ? 0 : (Integer) propiedades.get(RabbitAdmin.QUEUE_MESSAGE_COUNT);
+            Thread.sleep(100);
+        }
+        return conteo;
+    }
+
+    private int pendientes() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_message WHERE status IN ('PENDING', 'PROCESSING')", Integer.class);
+    }
+
+    private void sembrarOutbox(int cantidad) {
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            String payload = String.format(
+                "{\"ticketId\":%d,\"numero\":\"C%04d\",\"queueType\":\"CAJA\",\"telefono\":\"+56912345678\"," +
+                "\"branchOffice\":\"Sucursal Centro\",\"positionInQueue\":%d,\"estimatedWaitMinutes\":5}", i, i, i);
+            filas.add(new Object[]{"TICKET", (long) i, "TICKET_CREATED", payload.getBytes(StandardCharsets.UTF_8), ROUTING_KEY});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO outbox_message (aggregate_type, aggregate_id, event_type, payload, routing_key) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            filas);
+    }
+}
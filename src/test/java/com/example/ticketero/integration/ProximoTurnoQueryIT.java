@@ -0,0 +1,124 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la consulta de próximos turnos y que los bloques que lee no crecen con la cantidad de tickets en espera
+ */
+@SpringBootTest
+@DisplayName("Próximo turno - Consulta de candidatos")
+class ProximoTurnoQueryIT extends BasePostgresIntegrationTest {
+
+    private static final String[] COLAS = Arrays.stream(QueueType.values()).map(QueueType::name).toArray(String[]::new);
+    private static final String PLANTILLA = "totem_proximo_turno";
+
+    /**
+     * SQL de findProximosSinNotificar con los parámetros como literales
+     */
+    private static final String CONSULTA =
+        "SELECT proximos.* FROM unnest(CAST('{CAJA,PERSONAL_BANKER,EMPRESAS,GERENCIA}' AS VARCHAR[])) AS cola(queue_type) " +
+        "CROSS JOIN LATERAL (" +
+        "    SELECT t.* FROM ticket t " +
+        "    WHERE t.queue_type = cola.queue_type AND t.status = 'EN_ESPERA' " +
+        "    ORDER BY t.created_at, t.id LIMIT 3" +
+        ") proximos " +
+        "WHERE proximos.telefono IS NOT NULL AND proximos.telefono <> '' " +
+        "AND NOT EXISTS (SELECT 1 FROM mensaje m WHERE m.ticket_id = proximos.id AND m.plantilla = 'totem_proximo_turno')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+    }
+
+    @Test
+    @DisplayName("debe retornar solo los 3 primeros de cada cola con teléfono y sin aviso")
+    void findProximosSinNotificar_debeFiltrarPorCola() {
+        // Given: en CAJA el 1° no tiene teléfono y el 2° ya fue avisado; el 4° queda fuera del top 3
+        LocalDateTime base = LocalDateTime.now().minusHours(1);
+        insertarTicket("C01", QueueType.CAJA, TicketStatus.EN_ESPERA, null, base);
+        long avisado = insertarTicket("C02", QueueType.CAJA, TicketStatus.EN_ESPERA, "+56900000002", base.plusMinutes(1));
+        insertarTicket("C03", QueueType.CAJA, TicketStatus.EN_ESPERA, "+56900000003", base.plusMinutes(2));
+        insertarTicket("C04", QueueType.CAJA, TicketStatus.EN_ESPERA, "+56900000004", base.plusMinutes(3));
+        insertarTicket("P01", QueueType.PERSONAL_BANKER, TicketStatus.ATENDIENDO, "+56900000011", base);
+        insertarTicket("P02", QueueType.PERSONAL_BANKER, TicketStatus.EN_ESPERA, "+56900000012", base.plusMinutes(1));
+        jdbcTemplate.update("INSERT INTO mensaje (ticket_id, plantilla, estado_envio, fecha_programada) VALUES (?, ?, 'ENVIADO', now())",
+            avisado, PLANTILLA);
+
+        // When
+        List<Ticket> proximos = ticketRepository.findProximosSinNotificar(COLAS, 3, PLANTILLA);
+
+        // Then
+        assertThat(proximos).extracting(Ticket::getNumero).containsExactlyInAnyOrder("C03", "P02");
+    }
+
+    @Test
+    @DisplayName("costo de la consulta no debe crecer con la población en espera")
+    void findProximosSinNotificar_costoPlano() {
+        // Given
+        sembrarEnEspera(1_000);
+        long pequena = bloquesLeidos(jdbcTemplate, CONSULTA);
+
+        // When
+        sembrarEnEspera(100_000);
+        long grande = bloquesLeidos(jdbcTemplate, CONSULTA);
+
+        // Then
+        assertThat(ticketRepository.findProximosSinNotificar(COLAS, 3, PLANTILLA)).hasSize(QueueType.values().length * 3);
+        assertThat(grande).isLessThan(pequena * 3 + 50);
+    }
+
+    private void sembrarEnEspera(int cantidad) {
+        QueueType[] colas = QueueType.values();
+        int desde = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket", Integer.class);
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = desde; i < desde + cantidad; i++) {
+            QueueType cola = colas[i % colas.length];
+            Timestamp creado = Timestamp.valueOf(base.plusNanos(i * 1_000L));
+            filas.add(new Object[]{
+                UUID.randomUUID(), cola.getPrefix() + String.valueOf(i), "RUT" + i, "+569" + i, "Sucursal Centro",
+                cola.name(), TicketStatus.EN_ESPERA.name(), i, cola.getAvgTimeMinutes(), creado, creado
+            });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, telefono, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            filas);
+        jdbcTemplate.execute("ANALYZE ticket");
+    }
+
+    private long insertarTicket(String numero, QueueType cola, TicketStatus estado, String telefono, LocalDateTime creado) {
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, telefono, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, 'Sucursal Centro', ?, ?, 1, 5, ?, ?) RETURNING id",
+            Long.class,
+            UUID.randomUUID(), numero, "RUT-" + numero, telefono, cola.name(), estado.name(),
+            Timestamp.valueOf(creado), Timestamp.valueOf(creado));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.config.RestTemplateConfig;
+import com.example.ticketero.service.TelegramRateLimiter;
+import com.example.ticketero.service.TelegramService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transporte Telegram con envíos concurrentes contra un stub local
+ * Verifica que las conexiones se reutilizan y que el limitador encola en lugar de fallar
+ */
+@DisplayName("Telegram - Throughput del transporte")
+class TelegramThroughputIT {
+
+    private static final int RETARDO_STUB_MS = 20;
+    private static final int MENSAJES = 1000;
+    private static final int CONCURRENCIA = 16;
+
+    private final AtomicInteger recibidos = new AtomicInteger();
+    private final AtomicInteger limitadosPendientes = new AtomicInteger();
+    private final Set<InetSocketAddress> conexiones = ConcurrentHashMap.newKeySet();
+    private final List<Long> instantesRecibidos = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer stub;
+
+    @BeforeEach
+    void iniciarStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            conexiones.add(exchange.getRemoteAddress());
+            try {
+                Thread.sleep(RETARDO_STUB_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int status = 200;
+            String respuesta;
+            if (limitadosPendientes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                status = 429;
+                respuesta = "{\"ok\":false,\"error_code\":429,\"parameters\":{\"retry_after\":1}}";
+            } else {
+                instantesRecibidos.add(System.nanoTime());
+                respuesta = "{\"ok\":true,\"result\":{\"message_id\":" + recibidos.incrementAndGet() + "}}";
+            }
+            byte[] bytes = respuesta.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void detenerStub() {
+        stub.stop(0);
+    }
+
+    private TelegramService crearServicio(TelegramRateLimiter rateLimiter) {
+        RestTemplateConfig config = new RestTemplateConfig();
+        RestTemplate restTemplate = config.restTemplate(config.telegramHttpClient(2000), 5000);
+        TelegramService service = new TelegramService(restTemplate, rateLimiter, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "botToken", "stub");
+        ReflectionTestUtils.setField(service, "apiUrl", "http://localhost:" + stub.getAddress().getPort() + "/bot");
+        ReflectionTestUtils.setField(service, "chatId", "12345");
+        return service;
+    }
+
+    @Test
+    @DisplayName("sin límite efectivo → debe entregar todo reutilizando conexiones")
+    void transporte_debeReutilizarConexiones() throws Exception {
+        TelegramService service = crearServicio(new TelegramRateLimiter(new SimpleMeterRegistry(), 100_000, 100_000, 100_000));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCIA, Thread.ofVirtual().factory())) {
+            List<Future<String>> envios = new ArrayList<>();
+            for (int i = 0; i < MENSAJES; i++) {
+                String texto = "Notificación " + i;
+                envios.add(executor.submit(() -> service.enviarMensaje("+56900000000", texto)));
+            }
+            for (Future<String> envio : envios) {
+                assertThat(envio.get()).isNotNull();
+            }
+        }
+
+        assertThat(recibidos.get()).isEqualTo(MENSAJES);
+        assertThat(conexiones.size()).isLessThanOrEqualTo(CONCURRENCIA * 2);
+    }
+
+    @Test
+    @DisplayName("con límite por chat y un 429 → debe encolar y entregar todo sin errores")
+    void limitePorChat_debeEncolarSinFallar() throws Exception {
+        TelegramService service = crearServicio(new TelegramRateLimiter(new SimpleMeterRegistry(), 30, 2, 1));
+        limitadosPendientes.set(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> envios = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                String texto = "Notificación " + i;
+                envios.add(executor.submit(() -> service.enviarMensaje("+56900000000", texto)));
+            }
+            for (Future<String> envio : envios) {
+                assertThat(envio.get()).isNotNull();
+            }
+        }
+
+        assertThat(recibidos.get()).isEqualTo(5);
+        List<Long> instantes = new ArrayList<>(instantesRecibidos);
+        Collections.sort(instantes);
+        for (int i = 1; i < instantes.size(); i++) {
+            // 2 envíos/s por chat: al menos ~500 ms entre entregas
+            assertThat((instantes.get(i) - instantes.get(i - 1)) / 1_000_000).isGreaterThanOrEqualTo(450);
+        }
+    }
+}
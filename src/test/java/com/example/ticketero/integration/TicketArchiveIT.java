@@ -0,0 +1,127 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.dto.TicketResponse;
+import com.example.ticketero.scheduler.TicketArchiveScheduler;
+import com.example.ticketero.service.DashboardService;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archivado de tickets finalizados: con 500.000 tickets de historia, el archivador debe dejar en ticket
+ * solo los activos y los del día, conservar los mensajes y mantener las búsquedas y reportes sobre el historial
+ */
+@SpringBootTest(properties = "ticket.archivo.lote=5000")
+@DisplayName("Historial de tickets - Archivado de finalizados")
+class TicketArchiveIT extends BasePostgresIntegrationTest {
+
+    private static final int FINALIZADOS = 500_000;
+    private static final int ACTIVOS = 400;
+
+    /**
+     * Camino activo: próximos de una cola y conteos del dashboard, con los parámetros como literales
+     */
+    private static final String CONSULTA_PROXIMOS =
+        "SELECT * FROM ticket WHERE status IN ('EN_ESPERA') AND queue_type = 'CAJA' ORDER BY created_at";
+    private static final String CONSULTA_DASHBOARD =
+        "SELECT queue_type, status, COUNT(*) FROM ticket " +
+        "WHERE status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO') OR created_at >= current_date " +
+        "GROUP BY queue_type, status";
+
+    @Autowired
+    private TicketArchiveScheduler ticketArchiveScheduler;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void sembrar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+        jdbcTemplate.execute("DELETE FROM mensaje_history");
+        jdbcTemplate.execute("DELETE FROM ticket_history");
+
+        // Un año de tickets finalizados (uno de cada diez con su mensaje enviado)
+        jdbcTemplate.update(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), (ARRAY['C','P','E','G'])[1 + g % 4] || (g % 100000), 'HIST-' || g, " +
+            "       'Sucursal Centro', (ARRAY['CAJA','PERSONAL_BANKER','EMPRESAS','GERENCIA'])[1 + g % 4], " +
+            "       (ARRAY['COMPLETADO','COMPLETADO','COMPLETADO','CANCELADO','NO_ATENDIDO'])[1 + g % 5], 1, 5, ts, ts " +
+            "FROM generate_series(1, ?) AS g, " +
+            "     LATERAL (SELECT CAST(current_date AS TIMESTAMP) - INTERVAL '1 day' - g * INTERVAL '60 seconds') AS creado(ts)",
+            FINALIZADOS);
+        jdbcTemplate.update(
+            "INSERT INTO mensaje (ticket_id, plantilla, estado_envio, fecha_programada, intentos) " +
+            "SELECT id, 'totem_ticket_creado', 'ENVIADO', created_at, 1 FROM ticket WHERE id % 10 = 0");
+
+        // Activos de hoy y un finalizado de hoy, que no debe archivarse
+        jdbcTemplate.update(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes) " +
+            "SELECT gen_random_uuid(), 'H' || g, 'HOY-' || g, 'Sucursal Centro', " +
+            "       (ARRAY['CAJA','PERSONAL_BANKER','EMPRESAS','GERENCIA'])[1 + g % 4], " +
+            "       CASE WHEN g = 0 THEN 'COMPLETADO' ELSE 'EN_ESPERA' END, g, 5 " +
+            "FROM generate_series(0, ?) AS g", ACTIVOS);
+        jdbcTemplate.execute("VACUUM ANALYZE ticket");
+    }
+
+    @Test
+    @DisplayName("archivado → ticket queda con activos y tickets del día, el historial conserva todo lo demás")
+    void archivar_debeSepararCalienteDeFrio() {
+        // Given
+        long bloquesAntes = bloquesCaminoActivo();
+        String numeroArchivado = jdbcTemplate.queryForObject(
+            "SELECT numero FROM ticket WHERE national_id = 'HIST-12345'", String.class);
+        int mensajes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mensaje", Integer.class);
+
+        // When
+        int archivados = ticketArchiveScheduler.archivar();
+        jdbcTemplate.execute("VACUUM ANALYZE ticket");
+        long bloquesDespues = bloquesCaminoActivo();
+
+        // Then: en caliente solo quedan los activos y el finalizado de hoy
+        assertThat(archivados).isEqualTo(FINALIZADOS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket", Integer.class)).isEqualTo(ACTIVOS + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket_history", Integer.class)).isEqualTo(FINALIZADOS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mensaje", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM mensaje_history", Integer.class)).isEqualTo(mensajes);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT tableoid) FROM ticket_history", Integer.class)).isGreaterThanOrEqualTo(12);
+
+        // La búsqueda por número encuentra el ticket archivado
+        Optional<TicketResponse> archivado = ticketService.obtenerTicketPorNumero(numeroArchivado);
+        assertThat(archivado).isPresent();
+        assertThat(archivado.get().nationalId()).isEqualTo("HIST-12345");
+
+        // El reporte del período suma historial y finalizados recientes
+        LocalDate hoy = LocalDate.now();
+        long totalReporte = dashboardService.obtenerHistorial(hoy.minusYears(2), hoy).stream()
+            .mapToLong(TicketHistoryCount::total).sum();
+        assertThat(totalReporte).isEqualTo(FINALIZADOS + 1);
+
+        // Una segunda pasada no encuentra más candidatos
+        assertThat(ticketArchiveScheduler.archivar()).isZero();
+        assertThat(bloquesDespues).isLessThanOrEqualTo(bloquesAntes);
+    }
+
+    private long bloquesCaminoActivo() {
+        return bloquesLeidos(jdbcTemplate, CONSULTA_PROXIMOS) + bloquesLeidos(jdbcTemplate, CONSULTA_DASHBOARD);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.dto.TicketBatchItemResult;
+import com.example.ticketero.model.dto.TicketBatchResponse;
+import com.example.ticketero.model.dto.TicketCreateRequest;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la ingesta por lote de 1.000 tickets y el reintento ticket a ticket cuando el índice único
+ * rechaza el lote. El costo frente a la creación individual se mide en TicketServiceBenchmark (perfil benchmarks)
+ */
+@SpringBootTest
+@DisplayName("Creación de tickets - Ingesta por lote")
+class TicketBatchIngestionIT extends BasePostgresIntegrationTest {
+
+    private static final int TAMANO_LOTE = 1000;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void limpiar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+    }
+
+    @Test
+    @DisplayName("lote de 1.000 tickets → todos creados con números únicos")
+    void crearTicketsLote_milTickets_debeCrearTodos() {
+        // Given: números ya entregados a tickets individuales en las mismas colas
+        solicitudes("UNO", 100).forEach(ticketService::crearTicket);
+
+        // When
+        TicketBatchResponse response = ticketService.crearTicketsLote(solicitudes("LOTE", TAMANO_LOTE));
+
+        // Then
+        assertThat(response.creados()).isEqualTo(TAMANO_LOTE);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT (queue_type, numero)) FROM ticket", Integer.class))
+            .isEqualTo(TAMANO_LOTE + 100);
+    }
+
+    @Test
+    @DisplayName("RUT activado fuera del caché → lote reintentado uno a uno, solo ese ticket rechazado")
+    void crearTicketsLote_conRutActivoNoConocido_debeReintentarUnoAUno() {
+        // Otra instancia creó un ticket activo para este RUT: el caché local no lo conoce
+        jdbcTemplate.update("INSERT INTO ticket (codigo_referencia, numero, national_id, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes) VALUES (gen_random_uuid(), 'C-OTRA', 'OTRA-1', 'Sucursal Centro', " +
+            "'CAJA', 'EN_ESPERA', 1, 5)");
+
+        TicketBatchResponse response = ticketService.crearTicketsLote(List.of(
+            new TicketCreateRequest("OTRA-0", null, "Sucursal Centro", QueueType.CAJA),
+            new TicketCreateRequest("OTRA-1", null, "Sucursal Centro", QueueType.CAJA),
+            new TicketCreateRequest("OTRA-2", null, "Sucursal Centro", QueueType.CAJA)));
+
+        assertThat(response.resultados()).extracting(TicketBatchItemResult::resultado).containsExactly(
+            TicketBatchItemResult.Resultado.CREADO,
+            TicketBatchItemResult.Resultado.DUPLICADO,
+            TicketBatchItemResult.Resultado.CREADO);
+        assertThat(response.resultados().get(1).error()).contains("C-OTRA");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket", Integer.class)).isEqualTo(3);
+    }
+
+    private List<TicketCreateRequest> solicitudes(String prefijo, int cantidad) {
+        QueueType[] colas = QueueType.values();
+        List<TicketCreateRequest> requests = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            requests.add(new TicketCreateRequest(prefijo + "-" + i, null, "Sucursal Centro", colas[i % colas.length]));
+        }
+        return requests;
+    }
+}
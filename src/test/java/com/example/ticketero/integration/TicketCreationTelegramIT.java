@@ -0,0 +1,148 @@
+package com.example.ticketero.integration;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * POST /api/tickets contra un stub local de Telegram que no responde hasta que el test lo libera.
+ * Con el envío fuera de la transacción, la creación debe completarse sin esperar a Telegram
+ * La latencia se mide en TicketServiceBenchmark (perfil benchmarks)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "telegram.http.read-timeout-ms=60000")
+@DisplayName("Creación de tickets - Telegram sin responder")
+class TicketCreationTelegramIT extends BasePostgresIntegrationTest {
+
+    private static final int SOLICITUDES = 300;
+    private static final int CONCURRENCIA = 20;
+
+    private static final AtomicInteger mensajesRespondidos = new AtomicInteger();
+    private static final CountDownLatch telegramLiberado = new CountDownLatch(1);
+    private static final HttpServer telegramStub = iniciarTelegramStub();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("telegram.bot-token", () -> "stub");
+        registry.add("telegram.api-url", () -> "http://localhost:" + telegramStub.getAddress().getPort() + "/bot");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterAll
+    static void detenerStub() {
+        telegramLiberado.countDown();
+        telegramStub.stop(0);
+    }
+
+    @Test
+    @DisplayName("creación debe completarse mientras Telegram no responde")
+    void crearTicket_noDebeEsperarATelegram() throws Exception {
+        // When: todas las solicitudes terminan con el stub todavía bloqueado
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        crearTickets(client, SOLICITUDES);
+
+        // Then
+        assertThat(mensajesRespondidos).hasValue(0);
+
+        // Las notificaciones igual se entregan y quedan registradas al liberar Telegram
+        telegramLiberado.countDown();
+        await().atMost(Duration.ofSeconds(120)).untilAsserted(() ->
+            assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM mensaje WHERE estado_envio = 'ENVIADO' AND plantilla = 'totem_ticket_creado'",
+                Integer.class))
+                .isEqualTo(SOLICITUDES));
+    }
+
+    /**
+     * Envía solicitudes de creación con concurrencia acotada y verifica que todas respondan 201
+     */
+    private void crearTickets(HttpClient client, int cantidad) throws Exception {
+        Semaphore enVuelo = new Semaphore(CONCURRENCIA);
+        QueueType[] colas = QueueType.values();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> respuestas = new ArrayList<>();
+            for (int i = 0; i < cantidad; i++) {
+                String body = String.format(
+                    "{\"nationalId\":\"LAT-%d\",\"telefono\":\"+569%08d\",\"branchOffice\":\"Sucursal Centro\",\"queueType\":\"%s\"}",
+                    i, i, colas[i % colas.length]);
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tickets"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+                enVuelo.acquire();
+                respuestas.add(executor.submit(() -> {
+                    try {
+                        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } finally {
+                        enVuelo.release();
+                    }
+                }));
+            }
+            for (Future<Integer> respuesta : respuestas) {
+                assertThat(respuesta.get()).isEqualTo(201);
+            }
+        }
+    }
+
+    private static HttpServer iniciarTelegramStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    telegramLiberado.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] respuesta = ("{\"ok\":true,\"result\":{\"message_id\":" + mensajesRespondidos.incrementAndGet() + "}}")
+                    .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, respuesta.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(respuesta);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo iniciar el stub de Telegram", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ticketero.integration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regresión de planes: sobre una tabla de 1.000.000 de tickets (casi todos históricos), cada consulta
+ * caliente de TicketRepository debe resolverse con el índice previsto y nunca con un Seq Scan
+ * Las sentencias replican el SQL que genera cada método del repositorio, con los valores como literales.
+ * Donde hay más de un índice válido se acepta cualquiera: con los activos agrupados al final de la tabla,
+ * el planificador puede preferir un Bitmap Heap Scan sobre pocas páginas y ordenar en memoria
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Ticket - Planes de consulta con índices compuestos")
+class TicketQueryPlanIT extends BasePostgresIntegrationTest {
+
+    private static final int FILAS = 1_000_000;
+    private static final int ACTIVOS = 2_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Un año de historia completada y, al final, los tickets activos del día repartidos entre las colas
+     */
+    @BeforeAll
+    void sembrar() {
+        jdbcTemplate.execute("DELETE FROM mensaje");
+        jdbcTemplate.execute("DELETE FROM ticket");
+        jdbcTemplate.update(
+            "INSERT INTO ticket (codigo_referencia, numero, national_id, telefono, branch_office, queue_type, status, " +
+            "position_in_queue, estimated_wait_minutes, assigned_advisor_id, assigned_module_number, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), " +
+            "       (ARRAY['C','P','E','G'])[1 + g % 4] || (g % 100000), " +
+            "       'RUT-' || (g % 300000), " +
+            "       '+569' || g, " +
+            "       'Sucursal Centro', " +
+            "       (ARRAY['CAJA','PERSONAL_BANKER','EMPRESAS','GERENCIA'])[1 + g % 4], " +
+            "       CASE WHEN g <= ? THEN 'COMPLETADO' WHEN g % 10 = 0 THEN 'ATENDIENDO' ELSE 'EN_ESPERA' END, " +
+            "       1, 5, " +
+            "       CASE WHEN g <= ? OR g % 10 = 0 THEN (SELECT array_agg(id ORDER BY id) FROM advisor)[1 + g % 5] END, " +
+            "       CASE WHEN g <= ? OR g % 10 = 0 THEN 1 + g % 5 END, " +
+            "       ts, ts " +
+            "FROM generate_series(1, ?) AS g, " +
+            "     LATERAL (SELECT CAST(now() AS TIMESTAMP) - (? - g) * INTERVAL '30 seconds') AS creado(ts)",
+            FILAS - ACTIVOS, FILAS - ACTIVOS, FILAS - ACTIVOS, FILAS, FILAS);
+        jdbcTemplate.execute("VACUUM ANALYZE ticket");
+    }
+
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+            Arguments.of("findByQueueTypeAndStatusInOrderByCreatedAtAsc",
+                "SELECT * FROM ticket WHERE queue_type = 'CAJA' AND status IN ('EN_ESPERA') ORDER BY created_at",
+                List.of("idx_ticket_cola_estado_creado", "idx_ticket_espera_cola", "idx_ticket_estado_creado")),
+            Arguments.of("findNextTicketsForQueue",
+                "SELECT * FROM ticket WHERE status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO') AND queue_type = 'GERENCIA' " +
+                "ORDER BY created_at",
+                List.of("idx_ticket_cola_estado_creado")),
+            Arguments.of("countByQueueTypeAndStatus",
+                "SELECT COUNT(*) FROM ticket WHERE queue_type = 'EMPRESAS' AND status = 'ATENDIENDO'",
+                List.of("idx_ticket_cola_estado_creado")),
+            Arguments.of("countByQueueTypeAndStatusInAndCreatedAtBefore",
+                "SELECT COUNT(*) FROM ticket WHERE queue_type = 'CAJA' AND status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO') " +
+                "AND created_at < now()",
+                List.of("idx_ticket_cola_estado_creado")),
+            Arguments.of("findByStatusOrderByCreatedAtAsc",
+                "SELECT * FROM ticket WHERE status = 'EN_ESPERA' ORDER BY created_at",
+                List.of("idx_ticket_estado_creado")),
+            Arguments.of("countByStatus",
+                "SELECT COUNT(*) FROM ticket WHERE status = 'ATENDIENDO'",
+                List.of("idx_ticket_estado_creado")),
+            Arguments.of("findFirstByNationalIdAndStatusInOrderByCreatedAtAsc",
+                "SELECT * FROM ticket WHERE national_id = 'RUT-1234' AND status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO') " +
+                "ORDER BY created_at LIMIT 1",
+                List.of("idx_ticket_national_id_estado", "uq_ticket_national_id_activo")),
+            Arguments.of("findByNationalIdInAndStatusIn",
+                "SELECT * FROM ticket WHERE national_id IN ('RUT-1', 'RUT-2', 'RUT-3') " +
+                "AND status IN ('EN_ESPERA', 'PROXIMO', 'ATENDIENDO')",
+                List.of("idx_ticket_national_id_estado", "uq_ticket_national_id_activo")),
+            Arguments.of("findFirstByNumeroOrderByCreatedAtDesc",
+                "SELECT * FROM ticket WHERE numero = 'C120' ORDER BY created_at DESC LIMIT 1",
+                List.of("idx_ticket_numero_creado")),
+            Arguments.of("findCurrentTicketForAdvisor",
+                "SELECT * FROM ticket WHERE assigned_advisor_id = (SELECT MIN(id) FROM advisor) " +
+                "AND status IN ('ATENDIENDO', 'EN_ESPERA')",
+                List.of("idx_ticket_asesor_vigente")),
+            Arguments.of("findPrimerosEnEspera",
+                "SELECT primero.* FROM unnest(ARRAY['CAJA', 'EMPRESAS']) AS cola(queue_type) " +
+                "CROSS JOIN LATERAL (SELECT t.* FROM ticket t WHERE t.queue_type = cola.queue_type " +
+                "AND t.status = 'EN_ESPERA' ORDER BY t.created_at, t.id LIMIT 1) primero",
+                List.of("idx_ticket_espera_cola")),
+            Arguments.of("tieneTicketEnAtencion",
+                "SELECT COUNT(*) FROM ticket WHERE assigned_advisor_id = (SELECT MIN(id) FROM advisor) " +
+                "AND status = 'ATENDIENDO'",
+                List.of("idx_ticket_asesor_vigente", "idx_ticket_estado_creado"))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    @DisplayName("consulta caliente → debe usar el índice previsto, sin Seq Scan sobre ticket")
+    void consulta_debeUsarIndice(String metodo, String sql, List<String> indicesEsperados) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN (COSTS OFF) " + sql, String.class));
+
+        assertThat(plan).as(metodo).doesNotContain("Seq Scan on ticket");
+        assertThat(indicesEsperados).as(plan).anyMatch(plan::contains);
+    }
+}
@@ -2,9 +2,9 @@ package com.example.ticketero.scheduler;
 
 import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.entity.Ticket;
-import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.MensajeRepository;
-import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.ProximoTurnoNotifier;
+import com.example.ticketero.service.QueuePositionIndex;
 import com.example.ticketero.service.TelegramService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,7 +14,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 import static com.example.ticketero.testutil.TestDataBuilder.*;
@@ -25,15 +24,18 @@ import static org.mockito.Mockito.*;
 @DisplayName("NotificationScheduler - Unit Tests")
 class NotificationSchedulerTest {
 
-    @Mock
-    private TicketRepository ticketRepository;
-
     @Mock
     private MensajeRepository mensajeRepository;
 
     @Mock
     private TelegramService telegramService;
 
+    @Mock
+    private QueuePositionIndex queuePositionIndex;
+
+    @Mock
+    private ProximoTurnoNotifier proximoTurnoNotifier;
+
     @InjectMocks
     private NotificationScheduler notificationScheduler;
 
@@ -42,96 +44,24 @@ class NotificationSchedulerTest {
     class EnviarNotificacionesProximoTurno {
 
         @Test
-        @DisplayName("con tickets próximos sin notificar → debe enviar notificaciones")
-        void enviarNotificaciones_conTicketsProximos_debeEnviarNotificaciones() {
-            // Given
-            Ticket ticket1 = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").positionInQueue(2).build();
-            Ticket ticket2 = ticketWaiting().id(2L).numero("C002").telefono("+56987654321").positionInQueue(3).build();
-            
-            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
-                .thenReturn(List.of(ticket1, ticket2));
-            when(mensajeRepository.existsByTicketAndPlantilla(any(), eq("totem_proximo_turno")))
-                .thenReturn(false);
-            when(telegramService.obtenerTextoMensaje(eq("totem_proximo_turno"), anyString(), isNull(), isNull(), isNull(), isNull()))
-                .thenReturn("Mensaje de prueba");
-            when(telegramService.enviarMensaje(anyString(), anyString()))
-                .thenReturn("msg_123");
-
-            // When
-            notificationScheduler.enviarNotificacionesProximoTurno();
-
-            // Then
-            verify(telegramService, times(2)).enviarMensaje(anyString(), anyString());
-            verify(mensajeRepository, times(2)).save(any(Mensaje.class));
-        }
-
-        @Test
-        @DisplayName("con tickets ya notificados → no debe enviar duplicados")
-        void enviarNotificaciones_conTicketsYaNotificados_noDebeEnviarDuplicados() {
-            // Given
-            Ticket ticket = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").positionInQueue(2).build();
-            
-            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
-                .thenReturn(List.of(ticket));
-            when(mensajeRepository.existsByTicketAndPlantilla(ticket, "totem_proximo_turno"))
-                .thenReturn(true);
-
-            // When
-            notificationScheduler.enviarNotificacionesProximoTurno();
-
-            // Then
-            verify(telegramService, never()).enviarMensaje(anyString(), anyString());
-            verify(mensajeRepository, never()).save(any(Mensaje.class));
-        }
-
-        @Test
-        @DisplayName("con tickets sin teléfono → debe omitir notificación")
-        void enviarNotificaciones_conTicketsSinTelefono_debeOmitir() {
+        @DisplayName("debe delegar la revisión de colas al notificador")
+        void enviarNotificaciones_debeDelegarRevision() {
             // Given
-            Ticket ticket = ticketWaiting().id(1L).numero("C001").telefono(null).positionInQueue(2).build();
-            
-            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
-                .thenReturn(List.of(ticket));
+            when(proximoTurnoNotifier.revisarColas()).thenReturn(2);
 
             // When
             notificationScheduler.enviarNotificacionesProximoTurno();
 
             // Then
-            verify(telegramService, never()).enviarMensaje(anyString(), anyString());
-        }
-
-        @Test
-        @DisplayName("con error en envío → debe continuar con otros tickets")
-        void enviarNotificaciones_conErrorEnEnvio_debeContinuar() {
-            // Given
-            Ticket ticket1 = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").positionInQueue(2).build();
-            Ticket ticket2 = ticketWaiting().id(2L).numero("C002").telefono("+56987654321").positionInQueue(3).build();
-            
-            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
-                .thenReturn(List.of(ticket1, ticket2));
-            when(mensajeRepository.existsByTicketAndPlantilla(any(), eq("totem_proximo_turno")))
-                .thenReturn(false);
-            when(telegramService.obtenerTextoMensaje(anyString(), anyString(), isNull(), isNull(), isNull(), isNull()))
-                .thenReturn("Mensaje");
-            when(telegramService.enviarMensaje(eq("+56912345678"), anyString()))
-                .thenThrow(new RuntimeException("Error de red"));
-            when(telegramService.enviarMensaje(eq("+56987654321"), anyString()))
-                .thenReturn("msg_123");
-
-            // When
-            notificationScheduler.enviarNotificacionesProximoTurno();
-
-            // Then
-            verify(telegramService, times(2)).enviarMensaje(anyString(), anyString());
-            verify(mensajeRepository, times(1)).save(any(Mensaje.class)); // Solo el exitoso
+            verify(proximoTurnoNotifier).revisarColas();
+            verifyNoInteractions(telegramService, mensajeRepository);
         }
 
         @Test
         @DisplayName("con excepción general → debe manejar error sin fallar")
         void enviarNotificaciones_conExcepcionGeneral_debeManejarError() {
             // Given
-            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
-                .thenThrow(new RuntimeException("Error de BD"));
+            when(proximoTurnoNotifier.revisarColas()).thenThrow(new RuntimeException("Error de BD"));
 
             // When & Then - No debe lanzar excepción
             notificationScheduler.enviarNotificacionesProximoTurno();
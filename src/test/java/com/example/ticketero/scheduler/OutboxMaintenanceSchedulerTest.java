@@ -0,0 +1,51 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.OutboxMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxMaintenanceScheduler - Unit Tests")
+class OutboxMaintenanceSchedulerTest {
+
+    @Mock
+    private OutboxMessageRepository outboxRepository;
+
+    private OutboxMaintenanceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new OutboxMaintenanceScheduler(outboxRepository, 7, 3);
+    }
+
+    @Test
+    @DisplayName("debe mantener particiones con la retención configurada")
+    void mantenerParticiones_debeUsarRetencionConfigurada() {
+        // Given
+        when(outboxRepository.mantenerParticiones(7, 3)).thenReturn(2);
+
+        // When
+        scheduler.mantenerParticiones();
+
+        // Then
+        verify(outboxRepository).mantenerParticiones(7, 3);
+    }
+
+    @Test
+    @DisplayName("error en la base → no debe propagar la excepción")
+    void mantenerParticiones_conError_noDebePropagar() {
+        // Given
+        when(outboxRepository.mantenerParticiones(anyInt(), anyInt()))
+            .thenThrow(new RuntimeException("function mantener_particiones_outbox does not exist"));
+
+        // When / Then
+        assertThatCode(() -> scheduler.mantenerParticiones()).doesNotThrowAnyException();
+    }
+}
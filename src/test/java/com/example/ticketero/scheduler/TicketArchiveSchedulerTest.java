@@ -0,0 +1,72 @@
+package com.example.ticketero.scheduler;
+
+import com.example.ticketero.repository.TicketHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketArchiveScheduler - Unit Tests")
+class TicketArchiveSchedulerTest {
+
+    @Mock
+    private TicketHistoryRepository ticketHistoryRepository;
+
+    private TicketArchiveScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new TicketArchiveScheduler(ticketHistoryRepository, 1, 100, 3);
+    }
+
+    @Test
+    @DisplayName("debe archivar lotes completos hasta que uno venga incompleto")
+    void archivar_debeRepetirMientrasLosLotesVenganCompletos() {
+        // Given
+        LocalDateTime limite = LocalDate.now().minusDays(1).atStartOfDay();
+        when(ticketHistoryRepository.archivarFinalizados(limite, 100)).thenReturn(100, 100, 37);
+
+        // When
+        int archivados = scheduler.archivar();
+
+        // Then
+        assertThat(archivados).isEqualTo(237);
+        verify(ticketHistoryRepository, times(3)).archivarFinalizados(limite, 100);
+    }
+
+    @Test
+    @DisplayName("error en la base → no debe propagar la excepción")
+    void archivar_conError_noDebePropagar() {
+        // Given
+        when(ticketHistoryRepository.archivarFinalizados(any(), anyInt()))
+            .thenThrow(new RuntimeException("function archivar_tickets_finalizados does not exist"));
+
+        // When / Then
+        assertThatCode(() -> scheduler.archivar()).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("debe crear las particiones de los meses configurados")
+    void mantenerParticiones_debeUsarMesesConfigurados() {
+        // Given
+        when(ticketHistoryRepository.mantenerParticiones(3)).thenReturn(1);
+
+        // When
+        scheduler.mantenerParticiones();
+
+        // Then
+        verify(ticketHistoryRepository).mantenerParticiones(3);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActiveNationalIdCache - Unit Tests")
+class ActiveNationalIdCacheTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private ActiveNationalIdCache cache;
+
+    @Test
+    @DisplayName("reconstruir → debe cargar los RUT con ticket activo")
+    void reconstruir_debeCargarActivos() {
+        // Given
+        when(ticketRepository.findNationalIdsAndNumerosByStatusIn(TicketStatus.getActiveStatuses()))
+            .thenReturn(List.of(new Object[]{"11111111-1", "C001"}, new Object[]{"22222222-2", "P003"}));
+
+        // When
+        cache.reconstruir();
+
+        // Then
+        assertThat(cache.tamano()).isEqualTo(2);
+        assertThat(cache.numeroActivo("22222222-2")).contains("P003");
+        assertThat(cache.numeroActivo("33333333-3")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("registrar y liberar → debe reflejar el ciclo de vida del ticket")
+    void registrarYLiberar_debeActualizarCache() {
+        // When
+        cache.registrar("11111111-1", "C001");
+
+        // Then
+        assertThat(cache.numeroActivo("11111111-1")).contains("C001");
+
+        // When
+        cache.liberar("11111111-1");
+
+        // Then
+        assertThat(cache.numeroActivo("11111111-1")).isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
 import com.example.ticketero.model.entity.Advisor;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.repository.AdvisorRepository;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
 import java.util.List;
@@ -18,6 +20,7 @@ import java.util.Optional;
 import static com.example.ticketero.testutil.TestDataBuilder.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +30,9 @@ class AdvisorServiceTest {
     @Mock
     private AdvisorRepository advisorRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AdvisorService advisorService;
 
@@ -123,16 +129,17 @@ class AdvisorServiceTest {
         @Test
         @DisplayName("con datos válidos → debe cambiar estado correctamente")
         void cambiarEstado_conDatosValidos_debeCambiarEstado() {
-            // Given
-            Advisor advisor = advisorAvailable().build();
-            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
+            // Given: el UPDATE retorna el estado que reemplazó
+            when(advisorRepository.cambiarEstado(eq(1L), eq("BUSY"), any())).thenReturn(List.of("AVAILABLE"));
 
             // When
             advisorService.cambiarEstadoAsesor(1L, AdvisorStatus.BUSY);
 
             // Then
-            assertThat(advisor.getStatus()).isEqualTo(AdvisorStatus.BUSY);
-            verify(advisorRepository).save(advisor);
+            verify(advisorRepository, never()).findById(any());
+            verify(advisorRepository, never()).save(any());
+            verify(eventPublisher).publishEvent(
+                new AdvisorStatusChangedEvent(1L, AdvisorStatus.AVAILABLE, AdvisorStatus.BUSY));
         }
 
         @Test
@@ -157,7 +164,7 @@ class AdvisorServiceTest {
         @DisplayName("con asesor inexistente → debe lanzar IllegalArgumentException")
         void cambiarEstado_conAsesorInexistente_debeLanzarExcepcion() {
             // Given
-            when(advisorRepository.findById(999L)).thenReturn(Optional.empty());
+            when(advisorRepository.cambiarEstado(eq(999L), eq("BUSY"), any())).thenReturn(List.of());
 
             // When + Then
             assertThatThrownBy(() -> advisorService.cambiarEstadoAsesor(999L, AdvisorStatus.BUSY))
@@ -178,15 +185,14 @@ class AdvisorServiceTest {
         @DisplayName("con asesor válido → debe incrementar contador")
         void incrementarContador_conAsesorValido_debeIncrementar() {
             // Given
-            Advisor advisor = advisorAvailable().assignedTicketsCount(5).build();
-            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
+            when(advisorRepository.incrementarTicketsAsignados(1L)).thenReturn(1);
 
             // When
             advisorService.incrementarContadorTickets(1L);
 
             // Then
-            assertThat(advisor.getAssignedTicketsCount()).isEqualTo(6);
-            verify(advisorRepository).save(advisor);
+            verify(advisorRepository).incrementarTicketsAsignados(1L);
+            verify(advisorRepository, never()).save(any());
         }
 
         @Test
@@ -202,7 +208,7 @@ class AdvisorServiceTest {
         @DisplayName("con asesor inexistente → debe lanzar IllegalArgumentException")
         void incrementarContador_conAsesorInexistente_debeLanzarExcepcion() {
             // Given
-            when(advisorRepository.findById(999L)).thenReturn(Optional.empty());
+            when(advisorRepository.incrementarTicketsAsignados(999L)).thenReturn(0);
 
             // When + Then
             assertThatThrownBy(() -> advisorService.incrementarContadorTickets(999L))
@@ -1,10 +1,14 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.model.dto.AdvisorStatusCount;
 import com.example.ticketero.model.dto.DashboardResponse;
+import com.example.ticketero.model.dto.TicketHistoryCount;
+import com.example.ticketero.model.dto.TicketStatusCount;
 import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.repository.TicketHistoryRepository;
 import com.example.ticketero.repository.TicketRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,14 +16,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,9 +42,51 @@ class DashboardServiceTest {
     @Mock
     private AdvisorRepository advisorRepository;
 
+    @Mock
+    private TicketHistoryRepository ticketHistoryRepository;
+
+    @Spy
+    private WaitTimeEstimator waitTimeEstimator = new WaitTimeEstimator(mock(AdvisorRepository.class), 0.1);
+
     @InjectMocks
     private DashboardService dashboardService;
 
+    @Nested
+    @DisplayName("obtenerHistorial")
+    class ObtenerHistorial {
+
+        @Test
+        @DisplayName("debe sumar el historial y los finalizados aún no archivados del período")
+        void debeSumarHistorialYTicketsRecientes() {
+            // Given
+            LocalDate desde = LocalDate.of(2026, 9, 1);
+            LocalDate hasta = LocalDate.of(2026, 9, 30);
+            when(ticketHistoryRepository.countGroupedByQueueTypeAndStatus(
+                desde.atStartOfDay(), LocalDate.of(2026, 10, 1).atStartOfDay()))
+                .thenReturn(List.of(
+                    new TicketHistoryCount(QueueType.CAJA, TicketStatus.COMPLETADO, 120L),
+                    new TicketHistoryCount(QueueType.GERENCIA, TicketStatus.NO_ATENDIDO, 3L)));
+            when(ticketRepository.countFinalizadosGroupedByQueueTypeAndStatus(
+                TicketStatus.getFinalStatuses(), desde.atStartOfDay(), LocalDate.of(2026, 10, 1).atStartOfDay()))
+                .thenReturn(List.of(new TicketHistoryCount(QueueType.CAJA, TicketStatus.COMPLETADO, 5L)));
+
+            // When
+            List<TicketHistoryCount> historial = dashboardService.obtenerHistorial(desde, hasta);
+
+            // Then
+            assertThat(historial).containsExactly(
+                new TicketHistoryCount(QueueType.CAJA, TicketStatus.COMPLETADO, 125L),
+                new TicketHistoryCount(QueueType.GERENCIA, TicketStatus.NO_ATENDIDO, 3L));
+        }
+
+        @Test
+        @DisplayName("con período invertido → debe lanzar IllegalArgumentException")
+        void conPeriodoInvertido_debeLanzarExcepcion() {
+            assertThatThrownBy(() -> dashboardService.obtenerHistorial(LocalDate.of(2026, 9, 30), LocalDate.of(2026, 9, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     @Nested
     @DisplayName("obtenerDashboard")
     class ObtenerDashboard {
@@ -62,6 +114,10 @@ class DashboardServiceTest {
         void debeGenerarSummaryDataCorrectamente() {
             // Given
             mockearRepositorios();
+            waitTimeEstimator.registrarEspera(12 * 60);
+            waitTimeEstimator.registrarLlegada(LocalDateTime.now().withHour(9));
+            waitTimeEstimator.registrarLlegada(LocalDateTime.now().withHour(10));
+            waitTimeEstimator.registrarLlegada(LocalDateTime.now().withHour(10));
 
             // When
             DashboardResponse dashboard = dashboardService.obtenerDashboard();
@@ -72,7 +128,7 @@ class DashboardServiceTest {
             assertThat(summary.waitingTickets()).isEqualTo(8);
             assertThat(summary.attendingTickets()).isEqualTo(5);
             assertThat(summary.completedTickets()).isEqualTo(12);
-            assertThat(summary.averageWaitTimeMinutes()).isEqualTo(15);
+            assertThat(summary.averageWaitTimeMinutes()).isEqualTo(12);
             assertThat(summary.peakHour()).isEqualTo("10:00-11:00");
         }
 
@@ -119,9 +175,9 @@ class DashboardServiceTest {
         @DisplayName("debe calcular estado de cola según demanda")
         void debeCalcularEstadoColaSegunDemanda() {
             // Given
-            when(ticketRepository.countByQueueTypeAndStatus(any(), eq(TicketStatus.EN_ESPERA)))
-                .thenReturn(15L); // Alta demanda
-            mockearOtrosRepositorios();
+            when(ticketRepository.countGroupedByQueueTypeAndStatus(any(), any()))
+                .thenReturn(List.of(conteo(QueueType.CAJA, TicketStatus.EN_ESPERA, 15, 15))); // Alta demanda
+            when(advisorRepository.countGroupedByStatus()).thenReturn(List.of());
 
             // When
             DashboardResponse dashboard = dashboardService.obtenerDashboard();
@@ -129,19 +185,15 @@ class DashboardServiceTest {
             // Then
             DashboardResponse.QueueData queue = dashboard.queues().get(0);
             assertThat(queue.status()).isEqualTo("ALTA_DEMANDA");
+            assertThat(queue.maxWaitTimeMinutes()).isEqualTo(15 * QueueType.CAJA.getAvgTimeMinutes());
         }
 
         @Test
         @DisplayName("debe manejar valores cero correctamente")
         void debeManejarValoresCeroCorrectamente() {
             // Given
-            when(ticketRepository.countByCreatedAtAfter(any())).thenReturn(0L);
-            when(ticketRepository.countByStatus(any())).thenReturn(0L);
-            when(ticketRepository.countByStatusAndCreatedAtAfter(any(), any())).thenReturn(0L);
-            when(advisorRepository.countByStatus(any())).thenReturn(0L);
-            when(advisorRepository.count()).thenReturn(0L);
-            when(ticketRepository.countByQueueTypeAndStatus(any(), any())).thenReturn(0L);
-            when(ticketRepository.countByQueueTypeAndStatusAndCreatedAtAfter(any(), any(), any())).thenReturn(0L);
+            when(ticketRepository.countGroupedByQueueTypeAndStatus(any(), any())).thenReturn(List.of());
+            when(advisorRepository.countGroupedByStatus()).thenReturn(List.of());
 
             // When
             DashboardResponse dashboard = dashboardService.obtenerDashboard();
@@ -152,33 +204,43 @@ class DashboardServiceTest {
             assertThat(dashboard.queues().get(0).waitingTickets()).isZero();
         }
 
+        @Test
+        @DisplayName("debe consultar solo los estados activos y el inicio del día")
+        void debeConsultarEstadosActivosEInicioDelDia() {
+            // Given
+            when(ticketRepository.countGroupedByQueueTypeAndStatus(any(), any())).thenReturn(List.of());
+            when(advisorRepository.countGroupedByStatus()).thenReturn(List.of());
+
+            // When
+            dashboardService.obtenerDashboard();
+
+            // Then
+            verify(ticketRepository).countGroupedByQueueTypeAndStatus(
+                TicketStatus.getActiveStatuses(), LocalDateTime.now().with(LocalTime.MIN));
+            verifyNoMoreInteractions(ticketRepository);
+        }
+
         private void mockearRepositorios() {
-            // Summary data mocks
-            when(ticketRepository.countByCreatedAtAfter(any())).thenReturn(25L);
-            when(ticketRepository.countByStatus(TicketStatus.EN_ESPERA)).thenReturn(8L);
-            when(ticketRepository.countByStatus(TicketStatus.ATENDIENDO)).thenReturn(5L);
-            when(ticketRepository.countByStatusAndCreatedAtAfter(eq(TicketStatus.COMPLETADO), any())).thenReturn(12L);
-
-            // Advisor data mocks
-            when(advisorRepository.countByStatus(AdvisorStatus.AVAILABLE)).thenReturn(3L);
-            when(advisorRepository.countByStatus(AdvisorStatus.BUSY)).thenReturn(2L);
-            when(advisorRepository.countByStatus(AdvisorStatus.OFFLINE)).thenReturn(1L);
-            when(advisorRepository.count()).thenReturn(6L);
-
-            // Queue data mocks
-            when(ticketRepository.countByQueueTypeAndStatus(any(), eq(TicketStatus.EN_ESPERA))).thenReturn(4L);
-            when(ticketRepository.countByQueueTypeAndStatus(any(), eq(TicketStatus.ATENDIENDO))).thenReturn(2L);
-            when(ticketRepository.countByQueueTypeAndStatusAndCreatedAtAfter(any(), eq(TicketStatus.COMPLETADO), any())).thenReturn(6L);
+            // Hoy: 25 tickets creados; 8 en espera, 5 atendiendo y 12 completados
+            when(ticketRepository.countGroupedByQueueTypeAndStatus(any(), any())).thenReturn(List.of(
+                conteo(QueueType.CAJA, TicketStatus.EN_ESPERA, 4, 4),
+                conteo(QueueType.CAJA, TicketStatus.ATENDIENDO, 2, 2),
+                conteo(QueueType.CAJA, TicketStatus.COMPLETADO, 6, 6),
+                conteo(QueueType.EMPRESAS, TicketStatus.EN_ESPERA, 4, 3),
+                conteo(QueueType.EMPRESAS, TicketStatus.ATENDIENDO, 3, 3),
+                conteo(QueueType.EMPRESAS, TicketStatus.COMPLETADO, 6, 6),
+                conteo(QueueType.GERENCIA, TicketStatus.CANCELADO, 1, 1)
+            ));
+
+            when(advisorRepository.countGroupedByStatus()).thenReturn(List.of(
+                new AdvisorStatusCount(AdvisorStatus.AVAILABLE, 3L),
+                new AdvisorStatusCount(AdvisorStatus.BUSY, 2L),
+                new AdvisorStatusCount(AdvisorStatus.OFFLINE, 1L)
+            ));
         }
 
-        private void mockearOtrosRepositorios() {
-            when(ticketRepository.countByCreatedAtAfter(any())).thenReturn(25L);
-            when(ticketRepository.countByStatus(any())).thenReturn(5L);
-            when(ticketRepository.countByStatusAndCreatedAtAfter(any(), any())).thenReturn(12L);
-            when(advisorRepository.countByStatus(any())).thenReturn(2L);
-            when(advisorRepository.count()).thenReturn(6L);
-            when(ticketRepository.countByQueueTypeAndStatus(any(), eq(TicketStatus.ATENDIENDO))).thenReturn(2L);
-            when(ticketRepository.countByQueueTypeAndStatusAndCreatedAtAfter(any(), any(), any())).thenReturn(6L);
+        private TicketStatusCount conteo(QueueType queueType, TicketStatus status, long total, long creadosHoy) {
+            return new TicketStatusCount(queueType, status, total, creadosHoy);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketRepository;
+import com.example.ticketero.service.QueuePositionIndex.TicketEnEspera;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.ticketero.testutil.TestDataBuilder.ticketWaiting;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NextTicketScheduler - Unit Tests")
+class NextTicketSchedulerTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    private QueuePositionIndex queuePositionIndex;
+    private NextTicketScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        queuePositionIndex = new QueuePositionIndex(ticketRepository);
+        scheduler = new NextTicketScheduler(queuePositionIndex, ticketRepository, 10);
+    }
+
+    private void enEspera(long id, QueueType queueType, int minutosEsperando) {
+        queuePositionIndex.registrar(ticketWaiting().id(id).queueType(queueType)
+            .createdAt(AHORA.minusMinutes(minutosEsperando)).build());
+    }
+
+    private Optional<Long> tomarSiguiente() {
+        return scheduler.tomarSiguiente(candidato -> Optional.of(candidato.ticketId()));
+    }
+
+    @Test
+    @DisplayName("cola de mayor prioridad → debe pasar primero aunque haya llegado después")
+    void tomarSiguiente_debePriorizarColaDeMayorPrioridad() {
+        // Given: GERENCIA (4) tiene 30 min de crédito sobre CAJA (1)
+        enEspera(1L, QueueType.CAJA, 20);
+        enEspera(2L, QueueType.GERENCIA, 5);
+
+        // When + Then
+        assertThat(tomarSiguiente()).contains(2L);
+    }
+
+    @Test
+    @DisplayName("ticket de baja prioridad que esperó más que la diferencia de crédito → debe pasar primero")
+    void tomarSiguiente_conEnvejecimiento_noDebeHaberInanicion() {
+        // Given
+        enEspera(1L, QueueType.CAJA, 40);
+        enEspera(2L, QueueType.GERENCIA, 5);
+        enEspera(3L, QueueType.EMPRESAS, 15);
+
+        // When + Then: llegadas virtuales CAJA -50, GERENCIA -45, EMPRESAS -45 (empate: mayor prioridad)
+        assertThat(tomarSiguiente()).contains(1L);
+    }
+
+    @Test
+    @DisplayName("candidato ya tomado por otro asesor → debe retirarlo y considerar al siguiente de su cola")
+    void tomarSiguiente_candidatoYaTomado_debeSeguirConElSiguiente() {
+        // Given
+        enEspera(1L, QueueType.GERENCIA, 30);
+        enEspera(2L, QueueType.GERENCIA, 25);
+        enEspera(3L, QueueType.CAJA, 30);
+        List<Long> intentados = new ArrayList<>();
+
+        // When: el ticket 1 ya no está en espera en la base
+        Optional<Long> tomado = scheduler.tomarSiguiente(candidato -> {
+            intentados.add(candidato.ticketId());
+            return candidato.ticketId() == 1L ? Optional.empty() : Optional.of(candidato.ticketId());
+        });
+
+        // Then
+        assertThat(tomado).contains(2L);
+        assertThat(intentados).containsExactly(1L, 2L);
+        assertThat(queuePositionIndex.obtenerPrimero(QueueType.GERENCIA))
+            .map(TicketEnEspera::ticketId).contains(2L);
+        assertThat(queuePositionIndex.contarEnEspera(QueueType.GERENCIA)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("sin tickets en espera → debe retornar vacío sin intentar tomar")
+    void tomarSiguiente_sinTickets_debeRetornarVacio() {
+        List<Long> intentados = new ArrayList<>();
+
+        Optional<Long> tomado = scheduler.tomarSiguiente(candidato -> {
+            intentados.add(candidato.ticketId());
+            return Optional.of(candidato.ticketId());
+        });
+
+        assertThat(tomado).isEmpty();
+        assertThat(intentados).isEmpty();
+    }
+
+    @Test
+    @DisplayName("cola sin tickets en el índice → debe competir con el primero de esa cola en la base")
+    void tomarSiguiente_colaVaciaEnIndice_debeConsultarBase() {
+        // Given: CAJA solo tiene un ticket creado en otra instancia, con 50 min de espera
+        enEspera(2L, QueueType.GERENCIA, 5);
+        when(ticketRepository.findPrimerosEnEspera(any())).thenReturn(List.of(
+            ticketWaiting().id(9L).queueType(QueueType.CAJA).createdAt(AHORA.minusMinutes(50)).build()));
+
+        // When + Then: llegadas virtuales CAJA -60, GERENCIA -45
+        assertThat(tomarSiguiente()).contains(9L);
+    }
+
+    @Test
+    @DisplayName("candidato de la base ya tomado → debe volver a consultar el primero de su cola")
+    void tomarSiguiente_candidatoDeBaseYaTomado_debeConsultarDeNuevo() {
+        // Given
+        when(ticketRepository.findPrimerosEnEspera(any()))
+            .thenReturn(List.of(ticketWaiting().id(1L).queueType(QueueType.CAJA).createdAt(AHORA).build()))
+            .thenReturn(List.of(ticketWaiting().id(2L).queueType(QueueType.CAJA).createdAt(AHORA).build()));
+        List<Long> intentados = new ArrayList<>();
+
+        // When: el ticket 1 lo tomó otra instancia
+        Optional<Long> tomado = scheduler.tomarSiguiente(candidato -> {
+            intentados.add(candidato.ticketId());
+            return candidato.ticketId() == 1L ? Optional.empty() : Optional.of(candidato.ticketId());
+        });
+
+        // Then
+        assertThat(tomado).contains(2L);
+        assertThat(intentados).containsExactly(1L, 2L);
+        verify(ticketRepository).findPrimerosEnEspera(new String[]{"CAJA"});
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ticketero.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxNotificationListener - Unit Tests")
+class OutboxNotificationListenerTest {
+
+    @Mock
+    private OutboxPublisherService outboxPublisherService;
+
+    @Test
+    @DisplayName("base que no es PostgreSQL → no debe escuchar y deja solo el polling")
+    void iniciar_baseNoPostgres_noDebeEscuchar() {
+        // Given
+        OutboxNotificationListener listener = new OutboxNotificationListener(outboxPublisherService,
+            "jdbc:h2:mem:testdb", "sa", "", true, 10_000);
+
+        // When
+        listener.iniciar();
+
+        // Then
+        assertThat(listener.isActivo()).isFalse();
+        verifyNoInteractions(outboxPublisherService);
+    }
+
+    @Test
+    @DisplayName("deshabilitado por configuración → no debe escuchar")
+    void iniciar_deshabilitado_noDebeEscuchar() {
+        // Given
+        OutboxNotificationListener listener = new OutboxNotificationListener(outboxPublisherService,
+            "jdbc:postgresql://localhost:5432/ticketero", "dev", "dev123", false, 10_000);
+
+        // When
+        listener.iniciar();
+
+        // Then
+        assertThat(listener.isActivo()).isFalse();
+        verifyNoInteractions(outboxPublisherService);
+    }
+}
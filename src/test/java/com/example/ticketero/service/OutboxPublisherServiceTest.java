@@ -1,24 +1,32 @@
 package com.example.ticketero.service;
 
-import com.example.ticketero.model.dto.TicketQueueMessage;
+import com.example.ticketero.model.dto.OutboxBacklog;
 import com.example.ticketero.model.entity.OutboxMessage;
 import com.example.ticketero.repository.OutboxMessageRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 import static com.example.ticketero.testutil.TestDataBuilder.*;
 import static org.assertj.core.api.Assertions.*;
@@ -35,67 +43,91 @@ class OutboxPublisherServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
-    @Spy
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
     private OutboxPublisherService outboxPublisherService;
 
+    @BeforeEach
+    void setUp() {
+        outboxPublisherService = new OutboxPublisherService(outboxRepository, rabbitTemplate,
+            meterRegistry, "ticketero-exchange", 1, 10, 40, 30_000, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxPublisherService.detener();
+    }
+
+    private void dadoLotes(List<OutboxMessage> primero, List<OutboxMessage>... siguientes) {
+        when(outboxRepository.claimBatch(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+            .thenReturn(primero, siguientes);
+    }
+
+    /**
+     * El broker confirma cada publicación con el ack indicado
+     */
+    private void dadoConfirmaciones(boolean ack) {
+        lenient().doAnswer(invocation -> {
+            CorrelationData correlacion = invocation.getArgument(3);
+            correlacion.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static List<OutboxMessage> mensajes(int cantidad) {
+        return LongStream.rangeClosed(1, cantidad)
+            .mapToObj(id -> outboxPending().id(id).build())
+            .toList();
+    }
+
     @Nested
     @DisplayName("processOutbox()")
     class ProcessOutbox {
 
         @Test
-        @DisplayName("con mensaje pendiente → debe publicar y marcar SENT")
+        @DisplayName("con mensaje pendiente → debe publicar y marcar SENT en lote")
         void processOutbox_conMensajePendiente_debePublicarYMarcarSent() {
             // Given
-            ReflectionTestUtils.setField(outboxPublisherService, "exchangeName", "ticketero-exchange");
-            ReflectionTestUtils.setField(outboxPublisherService, "batchSize", 10);
-            
             OutboxMessage mensaje = outboxPending().build();
-            when(outboxRepository.findPendingWithLock(any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(List.of(mensaje));
+            dadoLotes(List.of(mensaje));
+            dadoConfirmaciones(true);
 
             // When
             outboxPublisherService.processOutbox();
 
             // Then
-            verify(rabbitTemplate).convertAndSend(
+            verify(rabbitTemplate).send(
                 eq("ticketero-exchange"),
                 eq("caja-queue"),
-                any(TicketQueueMessage.class)
+                any(Message.class),
+                any(CorrelationData.class)
             );
-            verify(outboxRepository).markAsSent(eq(1L), any(LocalDateTime.class));
+            verify(outboxRepository).markAllAsSent(eq(List.of(1L)), any(LocalDateTime.class), any(LocalDateTime.class),
+                startsWith("outbox-"), any(LocalDateTime.class));
         }
 
         @Test
         @DisplayName("sin mensajes pendientes → no debe hacer nada")
         void processOutbox_sinMensajes_noDebeHacerNada() {
             // Given
-            ReflectionTestUtils.setField(outboxPublisherService, "batchSize", 10);
-            when(outboxRepository.findPendingWithLock(any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(List.of());
+            dadoLotes(List.of());
 
             // When
             outboxPublisherService.processOutbox();
 
             // Then
-            verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
-            verify(outboxRepository, never()).markAsSent(any(), any());
+            verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+            verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
         }
 
         @Test
         @DisplayName("fallo al publicar → debe incrementar retry y programar siguiente")
         void processOutbox_falloAlPublicar_debeIncrementarRetry() {
             // Given
-            ReflectionTestUtils.setField(outboxPublisherService, "exchangeName", "ticketero-exchange");
-            ReflectionTestUtils.setField(outboxPublisherService, "batchSize", 10);
-            
             OutboxMessage mensaje = outboxPending().retryCount(0).maxRetries(5).build();
-            when(outboxRepository.findPendingWithLock(any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(List.of(mensaje));
+            dadoLotes(List.of(mensaje));
             doThrow(new RuntimeException("RabbitMQ error"))
-                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
 
             // When
             outboxPublisherService.processOutbox();
@@ -103,28 +135,25 @@ class OutboxPublisherServiceTest {
             // Then
             verify(outboxRepository).scheduleRetry(
                 eq(1L),
+                any(LocalDateTime.class),  // createdAt, para podar particiones
                 eq(1),  // retryCount incrementado
                 any(LocalDateTime.class),  // nextRetryAt
                 contains("RabbitMQ error")
             );
-            verify(outboxRepository, never()).markAsSent(any(), any());
+            verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
         }
 
         @Test
         @DisplayName("reintentos agotados → debe marcar FAILED")
         void processOutbox_reintentosAgotados_debeMarcarFailed() {
             // Given
-            ReflectionTestUtils.setField(outboxPublisherService, "exchangeName", "ticketero-exchange");
-            ReflectionTestUtils.setField(outboxPublisherService, "batchSize", 10);
-            
             OutboxMessage mensaje = outboxPending()
                 .retryCount(4)
                 .maxRetries(5)
                 .build();
-            when(outboxRepository.findPendingWithLock(any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(List.of(mensaje));
+            dadoLotes(List.of(mensaje));
             doThrow(new RuntimeException("Error"))
-                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
 
             // When
             outboxPublisherService.processOutbox();
@@ -132,33 +161,292 @@ class OutboxPublisherServiceTest {
             // Then
             verify(outboxRepository).markAsFailed(
                 eq(1L),
+                eq(mensaje.getCreatedAt()),
                 anyString(),
                 any(LocalDateTime.class)
             );
         }
 
         @Test
-        @DisplayName("debe parsear JSON a TicketQueueMessage correctamente")
-        void processOutbox_debeParserJsonCorrectamente() {
+        @DisplayName("debe publicar el payload almacenado sin re-serializar")
+        void processOutbox_debePublicarPayloadCrudo() {
             // Given
-            ReflectionTestUtils.setField(outboxPublisherService, "exchangeName", "ticketero-exchange");
-            ReflectionTestUtils.setField(outboxPublisherService, "batchSize", 10);
-            
-            String payload = "{\"ticketId\":99,\"numero\":\"C099\",\"queueType\":\"CAJA\",\"telefono\":\"+56912345678\"}";
+            byte[] payload = "{\"ticketId\":99,\"numero\":\"C099\",\"queueType\":\"CAJA\"}".getBytes(StandardCharsets.UTF_8);
             OutboxMessage mensaje = outboxPending().payload(payload).build();
-            when(outboxRepository.findPendingWithLock(any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(List.of(mensaje));
+            dadoLotes(List.of(mensaje));
+            dadoConfirmaciones(true);
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+            verify(rabbitTemplate).send(anyString(), anyString(), captor.capture(), any(CorrelationData.class));
+
+            Message publicado = captor.getValue();
+            assertThat(publicado.getBody()).isSameAs(payload);
+            assertThat(publicado.getMessageProperties().getContentType()).isEqualTo("application/json");
+            assertThat(publicado.getMessageProperties().getMessageId()).isEqualTo("1");
+        }
+
+        @Test
+        @DisplayName("lote con fallos parciales → debe marcar SENT solo los publicados en un UPDATE acotado a su created_at")
+        void processOutbox_loteConFallosParciales_debeMarcarSoloPublicados() {
+            // Given
+            LocalDateTime creado = LocalDateTime.now().minusMinutes(5);
+            OutboxMessage ok1 = outboxPending().id(1L).routingKey("caja-queue").createdAt(creado.plusSeconds(1)).build();
+            OutboxMessage falla = outboxPending().id(2L).routingKey("rota").createdAt(creado).build();
+            OutboxMessage ok2 = outboxPending().id(3L).routingKey("caja-queue").createdAt(creado.plusSeconds(2)).build();
+            dadoLotes(List.of(ok1, falla, ok2));
+            dadoConfirmaciones(true);
+            lenient().doThrow(new RuntimeException("Canal cerrado"))
+                .when(rabbitTemplate).send(anyString(), eq("rota"), any(Message.class), any(CorrelationData.class));
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            verify(outboxRepository, times(1)).markAllAsSent(eq(List.of(1L, 3L)),
+                eq(creado.plusSeconds(1)), eq(creado.plusSeconds(2)), anyString(), any(LocalDateTime.class));
+            verify(outboxRepository).scheduleRetry(eq(2L), eq(creado), eq(1), any(LocalDateTime.class), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("processOutbox() - publisher confirms")
+    class PublisherConfirms {
+
+        @Test
+        @DisplayName("sin ack todavía → no debe marcar SENT al publicar")
+        void processOutbox_debeEsperarAckAntesDeMarcarSent() {
+            // Given: el broker confirma solo después de publicar todo el lote
+            List<OutboxMessage> lote = mensajes(3);
+            dadoLotes(lote);
+            List<CorrelationData> enVuelo = new ArrayList<>();
+            doAnswer(invocation -> {
+                enVuelo.add(invocation.getArgument(3));
+                if (enVuelo.size() == lote.size()) {
+                    verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
+                    enVuelo.forEach(c -> c.getFuture().complete(new CorrelationData.Confirm(true, null)));
+                }
+                return null;
+            }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            assertThat(enVuelo).extracting(CorrelationData::getId).containsExactly("1", "2", "3");
+            verify(outboxRepository).markAllAsSent(eq(List.of(1L, 2L, 3L)), any(LocalDateTime.class), any(LocalDateTime.class),
+                anyString(), any(LocalDateTime.class));
+            assertThat(meterRegistry.get("ticketero.outbox.confirm.latency").timer().count()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("nack del broker → debe programar reintento y no marcar SENT")
+        void processOutbox_nack_debeProgramarReintento() {
+            // Given
+            dadoLotes(List.of(outboxPending().build()));
+            dadoConfirmaciones(false);
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            verify(outboxRepository).scheduleRetry(eq(1L), any(LocalDateTime.class), eq(1), any(LocalDateTime.class), contains("rechazado"));
+            verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("sin confirmación a tiempo → debe programar reintento")
+        void processOutbox_sinConfirmacion_debeProgramarReintento() {
+            // Given: el mock nunca completa la confirmación
+            dadoLotes(List.of(outboxPending().build()));
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            verify(outboxRepository).scheduleRetry(eq(1L), any(LocalDateTime.class), eq(1), any(LocalDateTime.class), contains("Sin confirmación"));
+            verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("mensaje devuelto sin ruta → debe programar reintento aunque llegue el ack")
+        void processOutbox_mensajeDevuelto_debeProgramarReintento() {
+            // Given
+            dadoLotes(List.of(outboxPending().build()));
+            doAnswer(invocation -> {
+                CorrelationData correlacion = invocation.getArgument(3);
+                correlacion.setReturned(new ReturnedMessage(
+                    new Message(new byte[0], new MessageProperties()), 312, "NO_ROUTE", "ticketero-exchange", "caja-queue"));
+                correlacion.getFuture().complete(new CorrelationData.Confirm(true, null));
+                return null;
+            }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            verify(outboxRepository).scheduleRetry(eq(1L), any(LocalDateTime.class), eq(1), any(LocalDateTime.class), contains("NO_ROUTE"));
+            verify(outboxRepository, never()).markAllAsSent(any(), any(), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("despertar()")
+    class Despertar {
+
+        @Test
+        @DisplayName("aviso de la base → debe drenar sin esperar al polling")
+        void despertar_debeDrenarInmediatamente() {
+            // Given
+            dadoLotes(List.of(outboxPending().build()), List.of());
+            dadoConfirmaciones(true);
+
+            // When
+            outboxPublisherService.despertar();
+
+            // Then
+            verify(outboxRepository, timeout(1000)).markAllAsSent(eq(List.of(1L)), any(LocalDateTime.class), any(LocalDateTime.class),
+                anyString(), any(LocalDateTime.class));
+        }
+
+        /**
+         * El primer reclamo queda detenido hasta liberar el latch, simulando una pasada en curso
+         */
+        private CountDownLatch dadoReclamoDetenido(CountDownLatch reclamando) {
+            CountDownLatch liberar = new CountDownLatch(1);
+            when(outboxRepository.claimBatch(anyString(), any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenAnswer(invocation -> {
+                    reclamando.countDown();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return List.of();
+                });
+            return liberar;
+        }
+
+        @Test
+        @DisplayName("pasada por aviso en curso → el polling debe omitirse sin reclamar con los mismos workers")
+        void processOutbox_conPasadaPorAvisoEnCurso_debeOmitirse() throws Exception {
+            // Given
+            CountDownLatch reclamando = new CountDownLatch(1);
+            CountDownLatch liberar = dadoReclamoDetenido(reclamando);
+            outboxPublisherService.despertar();
+            assertThat(reclamando.await(1, TimeUnit.SECONDS)).isTrue();
 
             // When
             outboxPublisherService.processOutbox();
 
             // Then
-            ArgumentCaptor<TicketQueueMessage> captor = ArgumentCaptor.forClass(TicketQueueMessage.class);
-            verify(rabbitTemplate).convertAndSend(anyString(), anyString(), captor.capture());
+            verify(outboxRepository, times(1)).claimBatch(anyString(), any(), any(), anyInt());
+            liberar.countDown();
+        }
+
+        @Test
+        @DisplayName("aviso durante el polling → debe drenar otra vez al terminar la pasada")
+        void despertar_duranteElPolling_debeDrenarAlTerminar() throws Exception {
+            // Given
+            CountDownLatch reclamando = new CountDownLatch(1);
+            CountDownLatch liberar = dadoReclamoDetenido(reclamando);
+            Thread polling = Thread.ofVirtual().start(outboxPublisherService::processOutbox);
+            assertThat(reclamando.await(1, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            outboxPublisherService.despertar();
+            liberar.countDown();
+            polling.join(1000);
+
+            // Then
+            verify(outboxRepository, timeout(1000).times(2)).claimBatch(anyString(), any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("drenar() - tamaño de lote adaptativo")
+    class LoteAdaptativo {
+
+        @Test
+        @DisplayName("lotes llenos → debe seguir reclamando y duplicar el lote hasta el máximo")
+        void drenar_lotesLlenos_debeCrecerHastaMaximo() {
+            // Given: backlog de 10 + 20 + 40 + 5
+            dadoLotes(mensajes(10), mensajes(20), mensajes(40), mensajes(5));
+            dadoConfirmaciones(true);
+
+            // When
+            int publicados = outboxPublisherService.drenar("worker-1");
+
+            // Then
+            assertThat(publicados).isEqualTo(75);
+            ArgumentCaptor<Integer> limites = ArgumentCaptor.forClass(Integer.class);
+            verify(outboxRepository, times(4)).claimBatch(eq("worker-1"), any(), any(), limites.capture());
+            assertThat(limites.getAllValues()).containsExactly(10, 20, 40, 40);
+            assertThat(outboxPublisherService.tamanoLoteActual()).isEqualTo(20);
+        }
+
+        @Test
+        @DisplayName("backlog pequeño → debe volver al lote mínimo")
+        void drenar_backlogPequeno_debeVolverAlMinimo() {
+            // Given
+            dadoLotes(mensajes(10), mensajes(3));
+            dadoConfirmaciones(true);
+
+            // When
+            outboxPublisherService.drenar("worker-1");
+
+            // Then
+            assertThat(outboxPublisherService.tamanoLoteActual()).isEqualTo(10);
+        }
+    }
 
-            TicketQueueMessage parsed = captor.getValue();
-            assertThat(parsed.ticketId()).isEqualTo(99L);
-            assertThat(parsed.numero()).isEqualTo("C099");
+    @Nested
+    @DisplayName("métricas")
+    class Metricas {
+
+        @Test
+        @DisplayName("medirBacklog → debe publicar pendientes y antigüedad del más antiguo")
+        void medirBacklog_debeActualizarGauges() {
+            // Given
+            when(outboxRepository.medirBacklog())
+                .thenReturn(new OutboxBacklog(42L, LocalDateTime.now().minusSeconds(90)));
+
+            // When
+            outboxPublisherService.medirBacklog();
+
+            // Then
+            assertThat(meterRegistry.get("ticketero.outbox.backlog").gauge().value()).isEqualTo(42);
+            assertThat(meterRegistry.get("ticketero.outbox.lag").timeGauge().value(TimeUnit.SECONDS))
+                .isCloseTo(90, within(5.0));
+        }
+
+        @Test
+        @DisplayName("sin backlog → lag debe ser cero")
+        void medirBacklog_sinBacklog_lagDebeSerCero() {
+            // Given
+            when(outboxRepository.medirBacklog()).thenReturn(new OutboxBacklog(0L, null));
+
+            // When
+            outboxPublisherService.medirBacklog();
+
+            // Then
+            assertThat(meterRegistry.get("ticketero.outbox.backlog").gauge().value()).isZero();
+            assertThat(meterRegistry.get("ticketero.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isZero();
+        }
+
+        @Test
+        @DisplayName("mensaje confirmado → debe registrar el lag desde su inserción")
+        void processOutbox_mensajeConfirmado_debeRegistrarLag() {
+            // Given
+            dadoLotes(List.of(outboxPending().createdAt(LocalDateTime.now().minusSeconds(30)).build()));
+            dadoConfirmaciones(true);
+
+            // When
+            outboxPublisherService.processOutbox();
+
+            // Then
+            Timer lag = meterRegistry.get("ticketero.outbox.publish.lag").timer();
+            assertThat(lag.count()).isEqualTo(1);
+            assertThat(lag.totalTime(TimeUnit.SECONDS)).isCloseTo(30, within(5.0));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.event.TicketNearTurnEvent;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.ticketero.testutil.TestDataBuilder.ticketWaiting;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProximoTurnoNotifier - Unit Tests")
+class ProximoTurnoNotifierTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private TelegramService telegramService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProximoTurnoNotifier proximoTurnoNotifier;
+
+    @AfterEach
+    void tearDown() {
+        proximoTurnoNotifier.detener();
+    }
+
+    private static TicketNearTurnEvent evento(long ticketId) {
+        return new TicketNearTurnEvent(ticketId, QueueType.CAJA, 3);
+    }
+
+    @Nested
+    @DisplayName("alAcercarseTurno()")
+    class AlAcercarseTurno {
+
+        @Test
+        @DisplayName("ticket en espera sin aviso → debe solicitar la notificación en segundo plano")
+        void alAcercarseTurno_sinAviso_debeSolicitarNotificacion() {
+            // Given
+            Ticket ticket = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").build();
+            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
+            when(mensajeRepository.existsByTicketIdAndPlantilla(1L, "totem_proximo_turno")).thenReturn(false);
+            when(telegramService.obtenerTextoMensaje(eq("totem_proximo_turno"), eq("C001"), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn("Pronto será tu turno");
+
+            // When
+            proximoTurnoNotifier.alAcercarseTurno(evento(1L));
+
+            // Then
+            ArgumentCaptor<TelegramNotificationRequestedEvent> captor = ArgumentCaptor.forClass(TelegramNotificationRequestedEvent.class);
+            await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> verify(eventPublisher).publishEvent(captor.capture()));
+            assertThat(captor.getValue().ticketId()).isEqualTo(1L);
+            assertThat(captor.getValue().plantilla()).isEqualTo("totem_proximo_turno");
+            assertThat(captor.getValue().texto()).isEqualTo("Pronto será tu turno");
+        }
+
+        @Test
+        @DisplayName("ticket ya avisado → no debe solicitar duplicado")
+        void notificar_yaAvisado_noDebeSolicitar() {
+            // Given
+            Ticket ticket = ticketWaiting().id(1L).telefono("+56912345678").build();
+            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
+            when(mensajeRepository.existsByTicketIdAndPlantilla(1L, "totem_proximo_turno")).thenReturn(true);
+
+            // When
+            proximoTurnoNotifier.notificar(evento(1L));
+
+            // Then
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("ticket sin teléfono o ya no en espera → no debe solicitar")
+        void notificar_sinTelefonoONoEnEspera_noDebeSolicitar() {
+            // Given
+            Ticket sinTelefono = ticketWaiting().id(1L).telefono(null).build();
+            Ticket atendiendo = ticketWaiting().id(2L).telefono("+56912345678").status(TicketStatus.ATENDIENDO).build();
+            when(ticketRepository.findById(1L)).thenReturn(Optional.of(sinTelefono));
+            when(ticketRepository.findById(2L)).thenReturn(Optional.of(atendiendo));
+
+            // When
+            proximoTurnoNotifier.notificar(evento(1L));
+            proximoTurnoNotifier.notificar(evento(2L));
+
+            // Then
+            verifyNoInteractions(eventPublisher, mensajeRepository);
+        }
+
+        @Test
+        @DisplayName("con solicitud en curso → la revisión periódica no debe duplicarla")
+        void notificar_conSolicitudEnCurso_revisionNoDebeDuplicar() {
+            // Given
+            Ticket ticket = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").build();
+            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
+            when(ticketRepository.findProximosSinNotificar(any(String[].class), eq(3), eq("totem_proximo_turno")))
+                .thenReturn(List.of(ticket));
+            when(telegramService.obtenerTextoMensaje(anyString(), anyString(), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn("Mensaje");
+
+            // When
+            proximoTurnoNotifier.notificar(evento(1L));
+            int solicitadas = proximoTurnoNotifier.revisarColas();
+
+            // Then
+            assertThat(solicitadas).isZero();
+            verify(eventPublisher, times(1)).publishEvent(any(TelegramNotificationRequestedEvent.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("revisarColas()")
+    class RevisarColas {
+
+        private void dadoProximos(Ticket... tickets) {
+            when(ticketRepository.findProximosSinNotificar(any(String[].class), eq(3), eq("totem_proximo_turno")))
+                .thenReturn(List.of(tickets));
+        }
+
+        @Test
+        @DisplayName("con tickets próximos sin notificar → debe solicitar notificaciones al despachador")
+        void revisarColas_conTicketsProximos_debeSolicitarNotificaciones() {
+            // Given
+            Ticket ticket1 = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").positionInQueue(2).build();
+            Ticket ticket2 = ticketWaiting().id(2L).numero("C002").telefono("+56987654321").positionInQueue(3).build();
+            dadoProximos(ticket1, ticket2);
+            when(telegramService.obtenerTextoMensaje(eq("totem_proximo_turno"), anyString(), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn("Mensaje de prueba");
+
+            // When
+            proximoTurnoNotifier.revisarColas();
+
+            // Then
+            ArgumentCaptor<TelegramNotificationRequestedEvent> captor = ArgumentCaptor.forClass(TelegramNotificationRequestedEvent.class);
+            verify(eventPublisher, times(2)).publishEvent(captor.capture());
+            assertThat(captor.getAllValues())
+                .extracting(TelegramNotificationRequestedEvent::ticketId, TelegramNotificationRequestedEvent::telefono,
+                    TelegramNotificationRequestedEvent::plantilla)
+                .containsExactly(
+                    tuple(1L, "+56912345678", "totem_proximo_turno"),
+                    tuple(2L, "+56987654321", "totem_proximo_turno"));
+            verify(telegramService, never()).enviarMensaje(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("debe consultar todas las colas en una sola consulta")
+        void revisarColas_debeConsultarTodasLasColasUnaVez() {
+            // Given
+            dadoProximos();
+
+            // When
+            proximoTurnoNotifier.revisarColas();
+
+            // Then
+            verify(ticketRepository, times(1)).findProximosSinNotificar(
+                argThat((String[] colas) -> Arrays.asList(colas).containsAll(Arrays.stream(QueueType.values()).map(QueueType::name).toList())),
+                eq(3), eq("totem_proximo_turno"));
+            verifyNoInteractions(mensajeRepository, eventPublisher);
+        }
+
+        @Test
+        @DisplayName("con solicitud aún en curso → no debe solicitar duplicados")
+        void revisarColas_conSolicitudEnCurso_noDebeDuplicar() {
+            // Given
+            Ticket ticket = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").build();
+            dadoProximos(ticket);
+            when(telegramService.obtenerTextoMensaje(anyString(), anyString(), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn("Mensaje");
+
+            // When: el mensaje aún no se registra, el ticket sigue apareciendo en la consulta
+            proximoTurnoNotifier.revisarColas();
+            proximoTurnoNotifier.revisarColas();
+
+            // Then
+            verify(eventPublisher, times(1)).publishEvent(any(TelegramNotificationRequestedEvent.class));
+        }
+
+        @Test
+        @DisplayName("con error al preparar un ticket → debe continuar con otros tickets")
+        void revisarColas_conErrorEnTicket_debeContinuar() {
+            // Given
+            Ticket ticket1 = ticketWaiting().id(1L).numero("C001").telefono("+56912345678").build();
+            Ticket ticket2 = ticketWaiting().id(2L).numero("C002").telefono("+56987654321").build();
+            dadoProximos(ticket1, ticket2);
+            when(telegramService.obtenerTextoMensaje(anyString(), eq("C001"), isNull(), isNull(), isNull(), isNull()))
+                .thenThrow(new RuntimeException("Error de plantilla"));
+            when(telegramService.obtenerTextoMensaje(anyString(), eq("C002"), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn("Mensaje");
+
+            // When
+            proximoTurnoNotifier.revisarColas();
+
+            // Then
+            verify(eventPublisher, times(1)).publishEvent(argThat((Object evento) ->
+                evento instanceof TelegramNotificationRequestedEvent solicitud && solicitud.ticketId() == 2L));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.TicketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.example.ticketero.testutil.TestDataBuilder.ticketWaiting;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueuePositionIndex - Unit Tests")
+class QueuePositionIndexTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private QueuePositionIndex queuePositionIndex;
+
+    private static Ticket ticket(long id, QueueType queueType) {
+        return ticketWaiting().id(id).queueType(queueType).build();
+    }
+
+    @Nested
+    @DisplayName("registrar() / retirar()")
+    class RegistrarRetirar {
+
+        @Test
+        @DisplayName("debe asignar posiciones por orden de llegada")
+        void registrar_debeAsignarPosicionesPorOrdenDeLlegada() {
+            // Given
+            Ticket t1 = ticket(1L, QueueType.CAJA);
+            Ticket t2 = ticket(2L, QueueType.CAJA);
+            Ticket t3 = ticket(3L, QueueType.CAJA);
+
+            // When
+            queuePositionIndex.registrar(t1);
+            queuePositionIndex.registrar(t2);
+            queuePositionIndex.registrar(t3);
+
+            // Then
+            assertThat(queuePositionIndex.obtenerPosicion(t1)).hasValue(1);
+            assertThat(queuePositionIndex.obtenerPosicion(t2)).hasValue(2);
+            assertThat(queuePositionIndex.obtenerPosicion(t3)).hasValue(3);
+            assertThat(queuePositionIndex.contarEnEspera(QueueType.CAJA)).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("al retirar un ticket → los siguientes avanzan una posición")
+        void retirar_debeAvanzarTicketsSiguientes() {
+            // Given
+            Ticket t1 = ticket(1L, QueueType.CAJA);
+            Ticket t2 = ticket(2L, QueueType.CAJA);
+            Ticket t3 = ticket(3L, QueueType.CAJA);
+            queuePositionIndex.registrar(t1);
+            queuePositionIndex.registrar(t2);
+            queuePositionIndex.registrar(t3);
+
+            // When
+            queuePositionIndex.retirar(t2);
+
+            // Then
+            assertThat(queuePositionIndex.obtenerPosicion(t1)).hasValue(1);
+            assertThat(queuePositionIndex.obtenerPosicion(t2)).isEmpty();
+            assertThat(queuePositionIndex.obtenerPosicion(t3)).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("las colas son independientes entre sí")
+        void registrar_colasIndependientes() {
+            // Given
+            Ticket caja = ticket(1L, QueueType.CAJA);
+            Ticket gerencia = ticket(2L, QueueType.GERENCIA);
+
+            // When
+            queuePositionIndex.registrar(caja);
+            queuePositionIndex.registrar(gerencia);
+
+            // Then
+            assertThat(queuePositionIndex.obtenerPosicion(caja)).hasValue(1);
+            assertThat(queuePositionIndex.obtenerPosicion(gerencia)).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("con más llegadas que la capacidad inicial → debe compactar sin perder el orden")
+        void registrar_masAllaDeCapacidad_debeCompactar() {
+            // Given: 500 llegadas, se atienden las primeras 450
+            for (long id = 1; id <= 500; id++) {
+                queuePositionIndex.registrar(ticket(id, QueueType.CAJA));
+                if (id > 50) {
+                    queuePositionIndex.retirar(ticket(id - 50, QueueType.CAJA));
+                }
+            }
+
+            // Then
+            assertThat(queuePositionIndex.contarEnEspera(QueueType.CAJA)).isEqualTo(50);
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(451L, QueueType.CAJA))).hasValue(1);
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(500L, QueueType.CAJA))).hasValue(50);
+        }
+    }
+
+    @Nested
+    @DisplayName("reconstruir()")
+    class Reconstruir {
+
+        @Test
+        @DisplayName("debe cargar las filas desde los tickets en espera")
+        void reconstruir_debeCargarFilasDesdeBaseDeDatos() {
+            // Given
+            when(ticketRepository.findByStatusOrderByCreatedAtAsc(TicketStatus.EN_ESPERA))
+                .thenReturn(List.of(
+                    ticket(10L, QueueType.CAJA),
+                    ticket(11L, QueueType.EMPRESAS),
+                    ticket(12L, QueueType.CAJA)
+                ));
+
+            // When
+            queuePositionIndex.reconstruir();
+
+            // Then
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(12L, QueueType.CAJA))).hasValue(2);
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(11L, QueueType.EMPRESAS))).hasValue(1);
+            assertThat(queuePositionIndex.contarEnEspera(QueueType.GERENCIA)).isZero();
+        }
+
+        @Test
+        @DisplayName("por cola → debe reemplazar el contenido de esa fila")
+        void reconstruirCola_debeReemplazarFila() {
+            // Given
+            LongStream.rangeClosed(1, 3).forEach(id -> queuePositionIndex.registrar(ticket(id, QueueType.CAJA)));
+            when(ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(QueueType.CAJA, List.of(TicketStatus.EN_ESPERA)))
+                .thenReturn(List.of(ticket(3L, QueueType.CAJA), ticket(7L, QueueType.CAJA)));
+
+            // When
+            queuePositionIndex.reconstruir(QueueType.CAJA);
+
+            // Then
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(1L, QueueType.CAJA))).isEmpty();
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(3L, QueueType.CAJA))).hasValue(1);
+            assertThat(queuePositionIndex.obtenerPosicion(ticket(7L, QueueType.CAJA))).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("obtenerTicketEnPosicion()")
+    class ObtenerTicketEnPosicion {
+
+        @Test
+        @DisplayName("debe retornar el ticket que ocupa cada posición tras retiros")
+        void obtenerTicketEnPosicion_trasRetiros_debeRetornarTicketCorrecto() {
+            // Given
+            LongStream.rangeClosed(1, 200).forEach(id -> queuePositionIndex.registrar(ticket(id, QueueType.CAJA)));
+            LongStream.rangeClosed(1, 100).filter(id -> id % 2 == 0)
+                .forEach(id -> queuePositionIndex.retirar(ticket(id, QueueType.CAJA)));
+
+            // When + Then: quedan 1, 3, 5, ..., 99, 101, 102, ..., 200
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 1)).hasValue(1L);
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 3)).hasValue(5L);
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 50)).hasValue(99L);
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 51)).hasValue(101L);
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 150)).hasValue(200L);
+        }
+
+        @Test
+        @DisplayName("posición fuera de la fila → debe retornar vacío")
+        void obtenerTicketEnPosicion_fueraDeFila_debeRetornarVacio() {
+            // Given
+            queuePositionIndex.registrar(ticket(1L, QueueType.CAJA));
+
+            // When + Then
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 2)).isEmpty();
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.CAJA, 0)).isEmpty();
+            assertThat(queuePositionIndex.obtenerTicketEnPosicion(QueueType.GERENCIA, 1)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("obtenerPrimero()")
+    class ObtenerPrimero {
+
+        @Test
+        @DisplayName("debe retornar el primero de la fila con su hora de llegada, también tras compactar")
+        void obtenerPrimero_trasCompactar_debeConservarLlegada() {
+            // Given: llegadas a un minuto de distancia; se atienden las primeras 70 y luego se llena la capacidad
+            LocalDateTime inicio = LocalDateTime.of(2026, 10, 1, 9, 0);
+            for (long id = 1; id <= 100; id++) {
+                queuePositionIndex.registrar(ticketWaiting().id(id).queueType(QueueType.CAJA)
+                    .createdAt(inicio.plusMinutes(id)).build());
+            }
+            LongStream.rangeClosed(1, 70).forEach(id -> queuePositionIndex.retirar(QueueType.CAJA, id));
+            for (long id = 101; id <= 140; id++) {
+                queuePositionIndex.registrar(ticketWaiting().id(id).queueType(QueueType.CAJA)
+                    .createdAt(inicio.plusMinutes(id)).build());
+            }
+
+            // When
+            QueuePositionIndex.TicketEnEspera primero = queuePositionIndex.obtenerPrimero(QueueType.CAJA).orElseThrow();
+
+            // Then
+            assertThat(primero.ticketId()).isEqualTo(71L);
+            assertThat(primero.llegadaMillis())
+                .isEqualTo(inicio.plusMinutes(71).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            assertThat(queuePositionIndex.obtenerPrimero(QueueType.GERENCIA)).isEmpty();
+        }
+    }
+}
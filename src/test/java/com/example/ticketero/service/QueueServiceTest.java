@@ -4,6 +4,7 @@ import com.example.ticketero.model.dto.QueueStatusResponse;
 import com.example.ticketero.model.entity.Ticket;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.TicketRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
@@ -29,6 +31,9 @@ class QueueServiceTest {
     @Mock
     private TicketRepository ticketRepository;
 
+    @Spy
+    private WaitTimeEstimator waitTimeEstimator = new WaitTimeEstimator(mock(AdvisorRepository.class), 0.1);
+
     @InjectMocks
     private QueueService queueService;
 
@@ -0,0 +1,155 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.model.dto.QueueStatusResponse;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueueStatusBroadcaster - Unit Tests")
+class QueueStatusBroadcasterTest {
+
+    @Mock
+    private QueueService queueService;
+
+    @Mock
+    private PanelSnapshotService panelSnapshotService;
+
+    private QueueStatusBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new QueueStatusBroadcaster(queueService, panelSnapshotService, new SimpleMeterRegistry(), 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.cerrar();
+    }
+
+    private static QueueStatusResponse estado(QueueType queueType, int waiting) {
+        return new QueueStatusResponse(queueType, queueType.getDisplayName(), queueType.getAvgTimeMinutes(),
+            queueType.getPriority(), String.valueOf(queueType.getPrefix()), waiting, waiting, 0,
+            waiting * queueType.getAvgTimeMinutes(), LocalDateTime.now(), List.of());
+    }
+
+    private static TicketStatusChangedEvent cambio(QueueType queueType) {
+        return new TicketStatusChangedEvent(1L, queueType, null, TicketStatus.EN_ESPERA);
+    }
+
+    @Nested
+    @DisplayName("registrar()")
+    class Registrar {
+
+        @Test
+        @DisplayName("debe enviar el snapshot completo al conectar")
+        void registrar_debeEnviarSnapshotInicial() {
+            // Given
+            List<QueueStatusResponse> snapshot = List.of(estado(QueueType.CAJA, 2));
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(snapshot);
+            PantallaDePrueba pantalla = new PantallaDePrueba();
+
+            // When
+            broadcaster.registrar(pantalla);
+
+            // Then
+            await().atMost(Duration.ofSeconds(5)).until(() -> pantalla.datos.contains(snapshot));
+            assertThat(broadcaster.contarSuscriptores()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("difundirCambios()")
+    class DifundirCambios {
+
+        @Test
+        @DisplayName("debe calcular cada cola una sola vez para todas las pantallas")
+        void difundirCambios_debeCalcularColaUnaVez() {
+            // Given
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(List.of());
+            QueueStatusResponse caja = estado(QueueType.CAJA, 3);
+            when(queueService.obtenerEstadoCola(QueueType.CAJA)).thenReturn(caja);
+            List<PantallaDePrueba> pantallas = List.of(new PantallaDePrueba(), new PantallaDePrueba(), new PantallaDePrueba());
+            pantallas.forEach(broadcaster::registrar);
+
+            // When
+            broadcaster.alCambiarEstadoTicket(cambio(QueueType.CAJA));
+            broadcaster.alCambiarEstadoTicket(cambio(QueueType.CAJA));
+            broadcaster.difundirCambios();
+
+            // Then
+            for (PantallaDePrueba pantalla : pantallas) {
+                await().atMost(Duration.ofSeconds(5)).until(() -> pantalla.datos.contains(caja));
+            }
+            verify(queueService, times(1)).obtenerEstadoCola(QueueType.CAJA);
+            verify(queueService, never()).obtenerEstadoCola(QueueType.GERENCIA);
+        }
+
+        @Test
+        @DisplayName("sin cambios pendientes → no debe consultar")
+        void difundirCambios_sinCambios_noDebeConsultar() {
+            // Given
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(List.of());
+            broadcaster.registrar(new PantallaDePrueba());
+
+            // When
+            broadcaster.difundirCambios();
+
+            // Then
+            verify(queueService, never()).obtenerEstadoCola(any());
+        }
+
+        @Test
+        @DisplayName("pantalla desconectada → debe retirarla de los suscriptores")
+        void difundirCambios_pantallaDesconectada_debeRetirarla() {
+            // Given
+            when(panelSnapshotService.obtenerEstadoColas()).thenReturn(List.of());
+            PantallaDePrueba pantalla = new PantallaDePrueba();
+            pantalla.desconectada = true;
+
+            // When
+            broadcaster.registrar(pantalla);
+
+            // Then
+            await().atMost(Duration.ofSeconds(5)).until(() -> broadcaster.contarSuscriptores() == 0);
+        }
+    }
+
+    /**
+     * Emitter que registra los datos enviados en lugar de escribir en una respuesta HTTP
+     */
+    private static class PantallaDePrueba extends SseEmitter {
+
+        private final List<Object> datos = new CopyOnWriteArrayList<>();
+        private volatile boolean desconectada;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (desconectada) {
+                throw new IOException("Broken pipe");
+            }
+            builder.build().forEach(dato -> datos.add(dato.getData()));
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
 import com.example.ticketero.repository.RecoveryEventRepository;
 import com.example.ticketero.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -15,8 +16,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
@@ -45,6 +48,15 @@ class RecoveryServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private QueuePositionIndex queuePositionIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private RecoveryService recoveryService;
 
@@ -74,10 +86,12 @@ class RecoveryServiceTest {
             assertThat(advisorMuerto.getStatus()).isEqualTo(AdvisorStatus.AVAILABLE);
             assertThat(ticketEnProgreso.getStatus()).isEqualTo(TicketStatus.EN_ESPERA);
             
-            verify(advisorRepository).incrementRecoveryCount(any());
+            verify(advisorRepository).incrementarTicketsAsignados(any());
             verify(advisorRepository).save(advisorMuerto);
             verify(ticketRepository).save(ticketEnProgreso);
             verify(rabbitTemplate).convertAndSend(eq("ticketero-exchange"), eq("caja-queue"), any(Object.class));
+            assertThat(meterRegistry.get("ticketero.recovery.events")
+                .tags("type", "DEAD_WORKER", "requeued", "true").counter().count()).isEqualTo(1);
         }
 
         @Test
@@ -194,6 +208,8 @@ class RecoveryServiceTest {
             ArgumentCaptor<RecoveryEvent> captor = ArgumentCaptor.forClass(RecoveryEvent.class);
             verify(recoveryEventRepository).save(captor.capture());
             assertThat(captor.getValue().getRecoveryType()).isEqualTo("MANUAL");
+            assertThat(meterRegistry.get("ticketero.recovery.events")
+                .tags("type", "MANUAL", "requeued", "false").counter().count()).isEqualTo(1);
         }
 
         @Test
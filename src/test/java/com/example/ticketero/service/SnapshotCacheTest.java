@@ -0,0 +1,167 @@
+package com.example.ticketero.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SnapshotCache - Unit Tests")
+class SnapshotCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cargas = new AtomicInteger();
+    }
+
+    private double solicitudes(String resultado) {
+        return meterRegistry.get("ticketero.snapshot.cache.requests")
+            .tag("cache", "test").tag("result", resultado).counter().count();
+    }
+
+    @Nested
+    @DisplayName("obtener()")
+    class Obtener {
+
+        @Test
+        @DisplayName("dentro del TTL → debe reutilizar el snapshot")
+        void obtener_dentroDelTtl_debeReutilizarSnapshot() {
+            // Given
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", cargas::incrementAndGet, 60_000, 0, meterRegistry);
+
+            // When
+            Integer primero = cache.obtener();
+            Integer segundo = cache.obtener();
+
+            // Then
+            assertThat(primero).isEqualTo(1);
+            assertThat(segundo).isEqualTo(1);
+            assertThat(solicitudes("miss")).isEqualTo(1);
+            assertThat(solicitudes("hit")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("con TTL expirado → debe recalcular")
+        void obtener_ttlExpirado_debeRecalcular() {
+            // Given
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", cargas::incrementAndGet, 0, 0, meterRegistry);
+
+            // When
+            cache.obtener();
+            Integer segundo = cache.obtener();
+
+            // Then
+            assertThat(segundo).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("solicitudes concurrentes → deben compartir un único cálculo")
+        void obtener_concurrente_debeCompartirUnCalculo() throws Exception {
+            // Given
+            CountDownLatch cargaIniciada = new CountDownLatch(1);
+            CountDownLatch liberarCarga = new CountDownLatch(1);
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", () -> {
+                cargaIniciada.countDown();
+                await(liberarCarga);
+                return cargas.incrementAndGet();
+            }, 60_000, 0, meterRegistry);
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Integer>> resultados = new ArrayList<>();
+                resultados.add(executor.submit(cache::obtener));
+                assertThat(cargaIniciada.await(5, TimeUnit.SECONDS)).isTrue();
+                for (int i = 0; i < 7; i++) {
+                    resultados.add(executor.submit(cache::obtener));
+                }
+
+                // When
+                Thread.sleep(50);
+                liberarCarga.countDown();
+
+                // Then
+                for (Future<Integer> resultado : resultados) {
+                    assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+                }
+                assertThat(cargas.get()).isEqualTo(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("si la carga falla → debe propagar el error y reintentar en la siguiente solicitud")
+        void obtener_cargaFalla_debePropagarYReintentar() {
+            // Given
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", () -> {
+                if (cargas.incrementAndGet() == 1) {
+                    throw new IllegalStateException("Base de datos no disponible");
+                }
+                return cargas.get();
+            }, 60_000, 0, meterRegistry);
+
+            // When & Then
+            assertThatThrownBy(cache::obtener).isInstanceOf(IllegalStateException.class);
+            assertThat(cache.obtener()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("invalidar()")
+    class Invalidar {
+
+        @Test
+        @DisplayName("debe forzar el recálculo antes del TTL")
+        void invalidar_debeForzarRecalculo() {
+            // Given
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", cargas::incrementAndGet, 60_000, 0, meterRegistry);
+            cache.obtener();
+
+            // When
+            cache.invalidar();
+
+            // Then
+            assertThat(cache.obtener()).isEqualTo(2);
+            assertThat(meterRegistry.get("ticketero.snapshot.cache.invalidations").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("dentro del intervalo mínimo → debe seguir sirviendo el snapshot actual")
+        void invalidar_dentroDelIntervaloMinimo_debeServirSnapshotActual() {
+            // Given
+            SnapshotCache<Integer> cache = new SnapshotCache<>("test", cargas::incrementAndGet, 60_000, 60_000, meterRegistry);
+            cache.obtener();
+
+            // When
+            cache.invalidar();
+
+            // Then
+            assertThat(cache.obtener()).isEqualTo(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
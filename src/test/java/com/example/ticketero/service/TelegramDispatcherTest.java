@@ -0,0 +1,210 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.model.entity.Mensaje;
+import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.ticketero.testutil.TestDataBuilder.ticketWaiting;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TelegramDispatcher - Unit Tests")
+class TelegramDispatcherTest {
+
+    @Mock
+    private TelegramService telegramService;
+
+    @Mock
+    private MensajeRepository mensajeRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    private TelegramDispatcher dispatcher;
+
+    private final Ticket ticket = ticketWaiting().build();
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new TelegramDispatcher(telegramService, mensajeRepository, ticketRepository,
+            new SimpleMeterRegistry(), 2, 1, 20);
+    }
+
+    private static TelegramNotificationRequestedEvent solicitud() {
+        return new TelegramNotificationRequestedEvent(1L, "C001", "+56912345678", "totem_ticket_creado", "Ticket creado");
+    }
+
+    private static TelegramService.Notificacion notificacion() {
+        return new TelegramService.Notificacion("+56912345678", "Ticket creado");
+    }
+
+    private Mensaje mensajeGuardado() {
+        ArgumentCaptor<Mensaje> captor = ArgumentCaptor.forClass(Mensaje.class);
+        verify(mensajeRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Mensaje> loteGuardado() {
+        ArgumentCaptor<List<Mensaje>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mensajeRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Nested
+    @DisplayName("enviar()")
+    class Enviar {
+
+        @Test
+        @DisplayName("envío exitoso → debe registrar mensaje ENVIADO")
+        void enviar_exitoso_debeRegistrarEnviado() {
+            // Given
+            when(telegramService.enviarAgrupados(List.of(notificacion()))).thenReturn(List.of("msg_123"));
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+
+            // When
+            dispatcher.enviar(List.of(solicitud()));
+
+            // Then
+            Mensaje mensaje = loteGuardado().get(0);
+            assertThat(mensaje.getEstadoEnvio()).isEqualTo("ENVIADO");
+            assertThat(mensaje.getTelegramMessageId()).isEqualTo("msg_123");
+            assertThat(mensaje.getPlantilla()).isEqualTo("totem_ticket_creado");
+            assertThat(mensaje.getTicket()).isSameAs(ticket);
+            assertThat(mensaje.getFechaEnvio()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("envío fallido → debe dejar mensaje PENDIENTE para reintento")
+        void enviar_fallido_debeDejarPendiente() {
+            // Given
+            when(telegramService.enviarAgrupados(any())).thenThrow(new RuntimeException("Timeout"));
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+
+            // When
+            dispatcher.enviar(List.of(solicitud()));
+
+            // Then
+            Mensaje mensaje = loteGuardado().get(0);
+            assertThat(mensaje.getEstadoEnvio()).isEqualTo("PENDIENTE");
+            assertThat(mensaje.getIntentos()).isEqualTo(1);
+            assertThat(mensaje.getTelegramMessageId()).isNull();
+        }
+
+        @Test
+        @DisplayName("lote parcialmente enviado → debe registrar cada mensaje según su resultado")
+        void enviar_loteParcial_debeRegistrarCadaResultado() {
+            // Given
+            List<String> messageIds = new ArrayList<>();
+            messageIds.add("msg_1");
+            messageIds.add(null);
+            when(telegramService.enviarAgrupados(any())).thenReturn(messageIds);
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+
+            // When
+            dispatcher.enviar(List.of(solicitud(), solicitud()));
+
+            // Then
+            assertThat(loteGuardado())
+                .extracting(Mensaje::getEstadoEnvio)
+                .containsExactly("ENVIADO", "PENDIENTE");
+        }
+
+        @Test
+        @DisplayName("registro del lote fallido → debe registrar los mensajes uno a uno")
+        void enviar_registroLoteFallido_debeRegistrarUnoAUno() {
+            // Given: el lote falla por una fila y esa misma fila falla sola
+            when(telegramService.enviarAgrupados(any())).thenReturn(List.of("msg_1", "msg_2"));
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+            when(mensajeRepository.saveAll(anyList())).thenThrow(new RuntimeException("FK violada"));
+            when(mensajeRepository.save(any(Mensaje.class)))
+                .thenThrow(new RuntimeException("FK violada"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            dispatcher.enviar(List.of(solicitud(), solicitud()));
+
+            // Then
+            ArgumentCaptor<Mensaje> captor = ArgumentCaptor.forClass(Mensaje.class);
+            verify(mensajeRepository, times(2)).save(captor.capture());
+            assertThat(captor.getAllValues())
+                .extracting(Mensaje::getTelegramMessageId)
+                .containsExactly("msg_1", "msg_2");
+        }
+    }
+
+    @Nested
+    @DisplayName("alSolicitarNotificacion()")
+    class AlSolicitarNotificacion {
+
+        @Test
+        @DisplayName("debe encolar sin llamar a Telegram en el hilo del llamador")
+        void alSolicitarNotificacion_debeEncolar() {
+            // When
+            dispatcher.alSolicitarNotificacion(solicitud());
+
+            // Then
+            assertThat(dispatcher.pendientesEnCola()).isEqualTo(1);
+            verifyNoInteractions(telegramService, mensajeRepository);
+        }
+
+        @Test
+        @DisplayName("con cola llena → debe dejar mensaje PENDIENTE")
+        void alSolicitarNotificacion_colaLlena_debeDejarPendiente() {
+            // Given
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+            dispatcher.alSolicitarNotificacion(solicitud());
+            dispatcher.alSolicitarNotificacion(solicitud());
+
+            // When
+            dispatcher.alSolicitarNotificacion(solicitud());
+
+            // Then
+            assertThat(dispatcher.pendientesEnCola()).isEqualTo(2);
+            assertThat(mensajeGuardado().getEstadoEnvio()).isEqualTo("PENDIENTE");
+            verifyNoInteractions(telegramService);
+        }
+
+        @Test
+        @DisplayName("con workers iniciados → debe enviar en segundo plano")
+        void alSolicitarNotificacion_conWorkers_debeEnviarEnSegundoPlano() {
+            // Given
+            when(telegramService.enviarAgrupados(any())).thenAnswer(invocation ->
+                Collections.nCopies(invocation.<List<?>>getArgument(0).size(), "msg_789"));
+            when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+            dispatcher.iniciar();
+
+            try {
+                // When
+                dispatcher.alSolicitarNotificacion(solicitud());
+
+                // Then
+                await().atMost(Duration.ofSeconds(5))
+                    .untilAsserted(() -> verify(mensajeRepository).saveAll(anyList()));
+                verify(telegramService).enviarAgrupados(List.of(notificacion()));
+            } finally {
+                dispatcher.detener();
+            }
+        }
+    }
+}
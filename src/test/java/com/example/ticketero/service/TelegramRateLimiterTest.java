@@ -0,0 +1,131 @@
+package com.example.ticketero.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TelegramRateLimiter - Unit Tests")
+class TelegramRateLimiterTest {
+
+    private static long medirMillis(Accion accion) throws InterruptedException {
+        long inicio = System.nanoTime();
+        accion.ejecutar();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+    }
+
+    @Nested
+    @DisplayName("adquirir()")
+    class Adquirir {
+
+        @Test
+        @DisplayName("dentro de la ráfaga → no debe esperar")
+        void adquirir_dentroDeRafaga_noDebeEsperar() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 100, 10, 5);
+
+            // When
+            long millis = medirMillis(() -> {
+                for (int i = 0; i < 5; i++) {
+                    limiter.adquirir("chat");
+                }
+            });
+
+            // Then
+            assertThat(millis).isLessThan(50);
+        }
+
+        @Test
+        @DisplayName("sobre el límite por chat → debe esperar su turno en lugar de fallar")
+        void adquirir_sobreLimitePorChat_debeEsperar() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 100, 10, 1);
+
+            // When
+            long millis = medirMillis(() -> {
+                for (int i = 0; i < 4; i++) {
+                    limiter.adquirir("chat");
+                }
+            });
+
+            // Then: 1 inmediato + 3 a 10/s
+            assertThat(millis).isGreaterThanOrEqualTo(280);
+        }
+
+        @Test
+        @DisplayName("chats distintos → no deben compartir el límite por chat")
+        void adquirir_chatsDistintos_noDebenCompartirLimite() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 100, 1, 1);
+
+            // When
+            long millis = medirMillis(() -> {
+                for (int i = 0; i < 5; i++) {
+                    limiter.adquirir("chat-" + i);
+                }
+            });
+
+            // Then
+            assertThat(millis).isLessThan(500);
+        }
+
+        @Test
+        @DisplayName("sobre el límite global → debe esperar aunque los chats sean distintos")
+        void adquirir_sobreLimiteGlobal_debeEsperar() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 10, 100, 1);
+
+            // When: la cubeta global admite una ráfaga de 10
+            long millis = medirMillis(() -> {
+                for (int i = 0; i < 13; i++) {
+                    limiter.adquirir("chat-" + i);
+                }
+            });
+
+            // Then
+            assertThat(millis).isGreaterThanOrEqualTo(280);
+        }
+    }
+
+    @Nested
+    @DisplayName("penalizar()")
+    class Penalizar {
+
+        @Test
+        @DisplayName("con retry_after → debe suspender los envíos del chat")
+        void penalizar_debeSuspenderChat() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 100, 100, 10);
+            limiter.penalizar("chat", 1);
+
+            // When
+            long millis = medirMillis(() -> limiter.adquirir("chat"));
+
+            // Then
+            assertThat(millis).isGreaterThanOrEqualTo(900);
+        }
+
+        @Test
+        @DisplayName("no debe afectar a otros chats")
+        void penalizar_noDebeAfectarOtrosChats() throws InterruptedException {
+            // Given
+            TelegramRateLimiter limiter = new TelegramRateLimiter(new SimpleMeterRegistry(), 100, 100, 10);
+            limiter.penalizar("chat", 5);
+
+            // When
+            long millis = medirMillis(() -> limiter.adquirir("otro-chat"));
+
+            // Then
+            assertThat(millis).isLessThan(50);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Accion {
+        void ejecutar() throws InterruptedException;
+    }
+}
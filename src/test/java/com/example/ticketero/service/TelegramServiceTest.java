@@ -1,18 +1,24 @@
 package com.example.ticketero.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
@@ -28,9 +34,18 @@ class TelegramServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
+    @Mock
+    private TelegramRateLimiter rateLimiter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private TelegramService telegramService;
 
+    @BeforeEach
+    void setUp() {
+        telegramService = new TelegramService(restTemplate, rateLimiter, meterRegistry);
+    }
+
     // ============================================================
     // ENVIAR MENSAJE
     // ============================================================
@@ -97,6 +112,33 @@ class TelegramServiceTest {
             assertThatThrownBy(() -> telegramService.enviarMensaje("+56912345678", "Test"))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Error enviando mensaje a Telegram");
+            assertThat(meterRegistry.get("ticketero.telegram.send").tag("result", "error").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("con 429 de Telegram → debe penalizar el chat y reintentar")
+        void enviarMensaje_con429_debePenalizarYReintentar() throws Exception {
+            // Given
+            configurarToken();
+            HttpClientErrorException limitado = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+                "Too Many Requests", HttpHeaders.EMPTY,
+                "{\"ok\":false,\"error_code\":429,\"parameters\":{\"retry_after\":7}}".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+            ResponseEntity<Map> response = new ResponseEntity<>(
+                Map.of("ok", true, "result", Map.of("message_id", 99)), HttpStatus.OK);
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
+                .thenThrow(limitado)
+                .thenReturn(response);
+
+            // When
+            String resultado = telegramService.enviarMensaje("+56912345678", "Test");
+
+            // Then
+            assertThat(resultado).isEqualTo("99");
+            verify(rateLimiter).penalizar("12345", 7);
+            verify(rateLimiter, times(2)).adquirir("12345");
+            assertThat(meterRegistry.get("ticketero.telegram.send").tag("result", "rate_limited").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("ticketero.telegram.send").tag("result", "success").timer().count()).isEqualTo(1);
         }
 
         @Test
@@ -118,6 +160,64 @@ class TelegramServiceTest {
         }
     }
 
+    // ============================================================
+    // ENVIAR AGRUPADOS
+    // ============================================================
+
+    @Nested
+    @DisplayName("enviarAgrupados()")
+    class EnviarAgrupados {
+
+        @Test
+        @DisplayName("varias notificaciones → debe combinarlas en un solo mensaje")
+        void enviarAgrupados_variasNotificaciones_debeCombinarlas() throws Exception {
+            // Given
+            configurarToken();
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
+                .thenReturn(new ResponseEntity<>(Map.of("ok", true, "result", Map.of("message_id", 10)), HttpStatus.OK));
+
+            // When
+            List<String> resultado = telegramService.enviarAgrupados(List.of(
+                new TelegramService.Notificacion("+56911111111", "Primero"),
+                new TelegramService.Notificacion("+56922222222", "Segundo"),
+                new TelegramService.Notificacion("+56933333333", "Tercero")));
+
+            // Then
+            assertThat(resultado).containsExactly("10", "10", "10");
+            ArgumentCaptor<HttpEntity> captor = ArgumentCaptor.forClass(HttpEntity.class);
+            verify(restTemplate, times(1)).postForEntity(anyString(), captor.capture(), eq(Map.class));
+            assertThat(((Map<?, ?>) captor.getValue().getBody()).get("text").toString())
+                .contains("+56911111111", "Primero", "+56922222222", "Segundo", "+56933333333", "Tercero");
+            verify(rateLimiter, times(1)).adquirir("12345");
+        }
+
+        @Test
+        @DisplayName("texto combinado mayor al máximo de Telegram → debe dividirlo y marcar fallos por mensaje")
+        void enviarAgrupados_textoExcedeMaximo_debeDividir() {
+            // Given
+            configurarToken();
+            when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Map.class)))
+                .thenReturn(new ResponseEntity<>(Map.of("ok", true, "result", Map.of("message_id", 10)), HttpStatus.OK))
+                .thenThrow(new RuntimeException("Network error"));
+            String largo = "x".repeat(3000);
+
+            // When
+            List<String> resultado = telegramService.enviarAgrupados(List.of(
+                new TelegramService.Notificacion("+56911111111", largo),
+                new TelegramService.Notificacion("+56922222222", largo)));
+
+            // Then
+            assertThat(resultado).containsExactly("10", null);
+            verify(restTemplate, times(2)).postForEntity(anyString(), any(HttpEntity.class), eq(Map.class));
+        }
+    }
+
+    private void configurarToken() {
+        ReflectionTestUtils.setField(telegramService, "botToken", "123456:ABC-DEF");
+        ReflectionTestUtils.setField(telegramService, "apiUrl", "https://api.telegram.org/bot");
+        ReflectionTestUtils.setField(telegramService, "chatId", "12345");
+    }
+
     // ============================================================
     // OBTENER TEXTO MENSAJE
     // ============================================================
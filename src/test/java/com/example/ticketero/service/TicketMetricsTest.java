@@ -0,0 +1,141 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.service.QueuePositionIndex.TicketEnEspera;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketMetrics - Unit Tests")
+class TicketMetricsTest {
+
+    @Mock
+    private QueuePositionIndex queuePositionIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TicketMetrics ticketMetrics;
+
+    @BeforeEach
+    void setUp() {
+        ticketMetrics = new TicketMetrics(meterRegistry, queuePositionIndex);
+    }
+
+    private Timer operacion(String operacion, String resultado) {
+        return meterRegistry.get("ticketero.ticket.operation")
+            .tags("operation", operacion, "result", resultado)
+            .timer();
+    }
+
+    @Nested
+    @DisplayName("medir()")
+    class Medir {
+
+        @Test
+        @DisplayName("operación exitosa → debe registrar success y retornar el valor")
+        void medir_exitosa_debeRegistrarSuccess() {
+            // When
+            String resultado = ticketMetrics.medir(TicketMetrics.CREAR, () -> "C001");
+
+            // Then
+            assertThat(resultado).isEqualTo("C001");
+            assertThat(operacion(TicketMetrics.CREAR, "success").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("transición rechazada → debe registrar rejected y propagar la excepción")
+        void medir_rechazada_debeRegistrarRejected() {
+            // When + Then
+            assertThatThrownBy(() -> ticketMetrics.medir(TicketMetrics.FINALIZAR, (Runnable) () -> {
+                throw new IllegalStateException("El ticket no está en atención");
+            })).isInstanceOf(IllegalStateException.class);
+            assertThat(operacion(TicketMetrics.FINALIZAR, "rejected").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("falla inesperada → debe registrar error")
+        void medir_falla_debeRegistrarError() {
+            // When + Then
+            assertThatThrownBy(() -> ticketMetrics.medir(TicketMetrics.LLAMAR, (Runnable) () -> {
+                throw new RuntimeException("Conexión cerrada");
+            })).isInstanceOf(RuntimeException.class);
+            assertThat(operacion(TicketMetrics.LLAMAR, "error").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("dentro de una transacción → debe registrar al completarla y como error si no se confirmó")
+        void medir_enTransaccion_debeRegistrarAlCompletar() {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                // When
+                ticketMetrics.medir(TicketMetrics.FINALIZAR, () -> { });
+
+                // Then: nada registrado antes del commit; el rollback la convierte en error
+                assertThat(meterRegistry.find("ticketero.ticket.operation").timers()).isEmpty();
+                TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+                assertThat(operacion(TicketMetrics.FINALIZAR, "error").count()).isEqualTo(1);
+                assertThat(meterRegistry.find("ticketero.ticket.operation").tag("result", "success").timers()).isEmpty();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("colas")
+    class Colas {
+
+        @Test
+        @DisplayName("gauges por cola → deben leer el largo y el primero del índice")
+        void gauges_debenLeerIndice() {
+            // Given
+            when(queuePositionIndex.contarEnEspera(QueueType.CAJA)).thenReturn(7);
+            when(queuePositionIndex.obtenerPrimero(QueueType.CAJA)).thenReturn(Optional.of(
+                new TicketEnEspera(1L, QueueType.CAJA, System.currentTimeMillis() - 120_000)));
+            when(queuePositionIndex.obtenerPrimero(QueueType.GERENCIA)).thenReturn(Optional.empty());
+
+            // When
+            double enEspera = meterRegistry.get("ticketero.queue.waiting").tag("queue", "CAJA").gauge().value();
+            double esperaCaja = meterRegistry.get("ticketero.queue.oldest.wait").tag("queue", "CAJA")
+                .timeGauge().value(TimeUnit.SECONDS);
+            double esperaGerencia = meterRegistry.get("ticketero.queue.oldest.wait").tag("queue", "GERENCIA")
+                .timeGauge().value(TimeUnit.SECONDS);
+
+            // Then
+            assertThat(enEspera).isEqualTo(7);
+            assertThat(esperaCaja).isCloseTo(120, within(5.0));
+            assertThat(esperaGerencia).isZero();
+        }
+
+        @Test
+        @DisplayName("registrarEspera → debe registrar el tiempo desde la creación en la cola del ticket")
+        void registrarEspera_debeRegistrarPorCola() {
+            // When
+            ticketMetrics.registrarEspera(QueueType.EMPRESAS, LocalDateTime.now().minusMinutes(10));
+            ticketMetrics.registrarEspera(QueueType.EMPRESAS, null);
+
+            // Then
+            Timer espera = meterRegistry.get("ticketero.ticket.wait").tag("queue", "EMPRESAS").timer();
+            assertThat(espera.count()).isEqualTo(1);
+            assertThat(espera.totalTime(TimeUnit.MINUTES)).isCloseTo(10, within(0.5));
+            assertThat(meterRegistry.get("ticketero.ticket.wait").tag("queue", "CAJA").timer().count()).isZero();
+        }
+    }
+}
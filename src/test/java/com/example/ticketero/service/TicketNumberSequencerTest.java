@@ -0,0 +1,146 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.repository.TicketSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketNumberSequencer - Unit Tests")
+class TicketNumberSequencerTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private TicketSequenceRepository ticketSequenceRepository;
+
+    @InjectMocks
+    private TicketNumberSequencer ticketNumberSequencer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ticketNumberSequencer, "tamanoBloque", 3);
+    }
+
+    @Test
+    @DisplayName("debe entregar números consecutivos reservando un bloque cada N tickets")
+    void siguienteNumero_debeReservarPorBloques() {
+        // Given
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), eq("Centro"), eq("CAJA"), eq(3)))
+            .thenReturn(3L, 6L);
+
+        // When
+        List<String> numeros = IntStream.range(0, 5)
+            .mapToObj(i -> ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY))
+            .toList();
+
+        // Then
+        assertThat(numeros).containsExactly("C001", "C002", "C003", "C004", "C005");
+        verify(ticketSequenceRepository, times(2)).reservarBloque(any(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("cada sucursal y cola tiene su propia secuencia")
+    void siguienteNumero_secuenciasIndependientes() {
+        // Given
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), anyString(), anyString(), anyInt()))
+            .thenReturn(3L);
+
+        // When + Then
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY)).isEqualTo("C001");
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.GERENCIA, "Centro", HOY)).isEqualTo("G001");
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Norte", HOY)).isEqualTo("C001");
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY)).isEqualTo("C002");
+    }
+
+    @Test
+    @DisplayName("cada día de creación tiene su propia secuencia, reservada en ese día")
+    void siguienteNumero_porDiaDeCreacion() {
+        // Given
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), anyString(), anyString(), anyInt()))
+            .thenReturn(3L);
+
+        // When + Then: un ticket creado a las 23:59:59 se numera en su día aunque se guarde pasada la medianoche
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY)).isEqualTo("C001");
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY.plusDays(1))).isEqualTo("C001");
+        verify(ticketSequenceRepository).reservarBloque(HOY, "Centro", "CAJA", 3);
+        verify(ticketSequenceRepository).reservarBloque(HOY.plusDays(1), "Centro", "CAJA", 3);
+    }
+
+    @Test
+    @DisplayName("con bloque reservado por otra instancia → debe continuar desde el valor retornado")
+    void siguienteNumero_conBloqueDeOtraInstancia_debeSaltarNumeros() {
+        // Given: otra instancia ya tomó 1-3
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), anyString(), anyString(), anyInt()))
+            .thenReturn(6L);
+
+        // When + Then
+        assertThat(ticketNumberSequencer.siguienteNumero(QueueType.EMPRESAS, "Centro", HOY)).isEqualTo("E004");
+    }
+
+    @Test
+    @DisplayName("con llamadas concurrentes → no debe repetir números")
+    void siguienteNumero_concurrente_noDebeRepetirNumeros() throws Exception {
+        // Given
+        AtomicLong ultimoReservado = new AtomicLong();
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), anyString(), anyString(), anyInt()))
+            .thenAnswer(invocation -> ultimoReservado.addAndGet(invocation.<Integer>getArgument(3)));
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+        Callable<Void> tarea = () -> {
+            for (int i = 0; i < 250; i++) {
+                numeros.add(ticketNumberSequencer.siguienteNumero(QueueType.CAJA, "Centro", HOY));
+            }
+            return null;
+        };
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Void>> resultados = executor.invokeAll(List.of(tarea, tarea, tarea, tarea, tarea, tarea, tarea, tarea));
+            for (Future<Void> resultado : resultados) {
+                resultado.get();
+            }
+        }
+
+        // Then
+        assertThat(numeros).hasSize(2000);
+    }
+
+    @Test
+    @DisplayName("lote → debe reservar el rango completo en una sola operación")
+    void siguientesNumeros_debeReservarRangoCompleto() {
+        // Given: otra instancia ya reservó hasta el 20
+        when(ticketSequenceRepository.reservarBloque(any(LocalDate.class), eq("Centro"), eq("CAJA"), eq(4)))
+            .thenReturn(24L);
+
+        // When
+        List<String> numeros = ticketNumberSequencer.siguientesNumeros(QueueType.CAJA, "Centro", HOY, 4);
+
+        // Then
+        assertThat(numeros).containsExactly("C021", "C022", "C023", "C024");
+        verify(ticketSequenceRepository, times(1)).reservarBloque(any(), anyString(), anyString(), anyInt());
+    }
+}
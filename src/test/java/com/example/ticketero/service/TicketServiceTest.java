@@ -1,15 +1,25 @@
 package com.example.ticketero.service;
 
+import com.example.ticketero.event.TelegramNotificationRequestedEvent;
+import com.example.ticketero.event.TicketNearTurnEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.exception.DuplicateActiveTicketException;
+import com.example.ticketero.model.dto.TicketBatchItemResult;
+import com.example.ticketero.model.dto.TicketBatchResponse;
 import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.dto.TicketResponse;
 import com.example.ticketero.model.entity.Advisor;
-import com.example.ticketero.model.entity.Mensaje;
 import com.example.ticketero.model.entity.Ticket;
+import com.example.ticketero.model.entity.TicketHistory;
+import com.example.ticketero.model.enums.AdvisorStatus;
 import com.example.ticketero.model.enums.QueueType;
 import com.example.ticketero.model.enums.TicketStatus;
 import com.example.ticketero.repository.AdvisorRepository;
-import com.example.ticketero.repository.MensajeRepository;
+import com.example.ticketero.repository.TicketHistoryRepository;
 import com.example.ticketero.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -17,15 +27,33 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.example.ticketero.testutil.TestDataBuilder.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,14 +67,59 @@ class TicketServiceTest {
     private AdvisorRepository advisorRepository;
 
     @Mock
-    private MensajeRepository mensajeRepository;
+    private TelegramService telegramService;
 
     @Mock
-    private TelegramService telegramService;
+    private QueuePositionIndex queuePositionIndex;
+
+    @Mock
+    private TicketNumberSequencer ticketNumberSequencer;
+
+    @Mock
+    private ActiveNationalIdCache activeNationalIdCache;
+
+    @Mock
+    private NextTicketScheduler nextTicketScheduler;
+
+    @Mock
+    private TicketHistoryRepository ticketHistoryRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TicketMetrics ticketMetrics = new TicketMetrics(new SimpleMeterRegistry(), mock(QueuePositionIndex.class));
+
+    @Spy
+    private WaitTimeEstimator waitTimeEstimator = new WaitTimeEstimator(mock(AdvisorRepository.class), 0.1);
 
     @InjectMocks
     private TicketService ticketService;
 
+    /**
+     * Simula el UPDATE ... RETURNING de la toma: la base devuelve el ticket ya en atención con el asesor asignado
+     */
+    private Ticket dadoTomado(Ticket ticket, Advisor advisor) {
+        ticket.setStatus(TicketStatus.ATENDIENDO);
+        ticket.setAssignedAdvisor(advisor);
+        ticket.setAssignedModuleNumber(advisor.getModuleNumber());
+        when(ticketRepository.tomarParaAtencion(eq(ticket.getId()), eq(advisor.getId()), eq(advisor.getModuleNumber()), any()))
+            .thenReturn(List.of(ticket));
+        return ticket;
+    }
+
+    /**
+     * Simula el UPDATE ... RETURNING de la finalización
+     */
+    private Ticket dadoCompletado(Ticket ticket) {
+        ticket.setStatus(TicketStatus.COMPLETADO);
+        when(ticketRepository.completarAtencion(eq(ticket.getId()), any())).thenReturn(List.of(ticket));
+        return ticket;
+    }
+
     // ============================================================
     // CREAR TICKET
     // ============================================================
@@ -66,14 +139,10 @@ class TicketServiceTest {
                 .estimatedWaitMinutes(5)
                 .build();
 
-            when(ticketRepository.findByNationalIdAndStatusIn(anyString(), any()))
-                .thenReturn(Optional.empty());
-            when(ticketRepository.countByQueueTypeAndStatus(QueueType.CAJA, TicketStatus.EN_ESPERA))
-                .thenReturn(0L);
+            when(queuePositionIndex.contarEnEspera(QueueType.CAJA)).thenReturn(0);
             when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketGuardado);
             when(telegramService.obtenerTextoMensaje(anyString(), anyString(), any(), any(), any(), any()))
                 .thenReturn("Ticket creado: C001");
-            when(telegramService.enviarMensaje(anyString(), anyString())).thenReturn("msg_123");
 
             // When
             TicketResponse response = ticketService.crearTicket(request);
@@ -86,8 +155,14 @@ class TicketServiceTest {
             assertThat(response.status()).isEqualTo(TicketStatus.EN_ESPERA);
 
             verify(ticketRepository).save(any(Ticket.class));
-            verify(telegramService).enviarMensaje(eq("+56912345678"), anyString());
-            verify(mensajeRepository).save(any(Mensaje.class));
+            verify(queuePositionIndex).registrar(ticketGuardado);
+
+            ArgumentCaptor<TelegramNotificationRequestedEvent> captor =
+                ArgumentCaptor.forClass(TelegramNotificationRequestedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertThat(captor.getValue().telefono()).isEqualTo("+56912345678");
+            assertThat(captor.getValue().plantilla()).isEqualTo("totem_ticket_creado");
+            assertThat(captor.getValue().texto()).isEqualTo("Ticket creado: C001");
         }
 
         @Test
@@ -97,16 +172,84 @@ class TicketServiceTest {
             TicketCreateRequest request = validTicketRequest();
             Ticket ticketExistente = ticketWaiting().numero("C002").build();
             
-            when(ticketRepository.findByNationalIdAndStatusIn(anyString(), any()))
+            when(activeNationalIdCache.numeroActivo("12345678")).thenReturn(Optional.of("C002"));
+            when(ticketRepository.findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(eq("12345678"), any()))
                 .thenReturn(Optional.of(ticketExistente));
 
             // When + Then
             assertThatThrownBy(() -> ticketService.crearTicket(request))
-                .isInstanceOf(IllegalStateException.class)
+                .isInstanceOf(DuplicateActiveTicketException.class)
                 .hasMessageContaining("Ya existe un ticket activo")
                 .hasMessageContaining("C002");
 
             verify(ticketRepository, never()).save(any());
+            verify(ticketNumberSequencer, never()).siguienteNumero(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("RUT no conocido como activo → no debe consultar antes de insertar")
+        void crearTicket_rutNoActivo_noDebeConsultarAntesDeInsertar() {
+            // Given
+            TicketCreateRequest request = validTicketRequest();
+            Ticket ticketGuardado = ticketWaiting().numero("C001").build();
+            when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketGuardado);
+
+            // When
+            ticketService.crearTicket(request);
+
+            // Then
+            verify(ticketRepository, never()).findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(any(), any());
+            verify(activeNationalIdCache).registrar("12345678", "C001");
+        }
+
+        @Test
+        @DisplayName("caché desactualizado → debe confirmar en la base, liberar y crear")
+        void crearTicket_cacheDesactualizado_debeCrear() {
+            // Given: el ticket conocido ya fue finalizado por otra instancia
+            TicketCreateRequest request = validTicketRequest();
+            when(activeNationalIdCache.numeroActivo("12345678")).thenReturn(Optional.of("C002"));
+            when(ticketRepository.findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(eq("12345678"), any()))
+                .thenReturn(Optional.empty());
+            when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketWaiting().build());
+
+            // When
+            TicketResponse response = ticketService.crearTicket(request);
+
+            // Then
+            assertThat(response).isNotNull();
+            verify(activeNationalIdCache).liberar("12345678");
+        }
+
+        @Test
+        @DisplayName("insert concurrente rechazado por el índice único → debe lanzar DuplicateActiveTicketException")
+        void crearTicket_violacionIndiceUnico_debeLanzarDuplicado() {
+            // Given
+            TicketCreateRequest request = validTicketRequest();
+            when(ticketRepository.save(any(Ticket.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"),
+                    TicketService.INDICE_TICKET_ACTIVO)));
+            when(ticketRepository.findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(eq("12345678"), any()))
+                .thenReturn(Optional.of(ticketWaiting().numero("C009").build()));
+
+            // When + Then
+            assertThatThrownBy(() -> ticketService.crearTicket(request))
+                .isInstanceOf(DuplicateActiveTicketException.class)
+                .hasMessageContaining("C009");
+            verify(activeNationalIdCache).registrar("12345678", "C009");
+            verify(queuePositionIndex, never()).registrar(any());
+        }
+
+        @Test
+        @DisplayName("otra violación de integridad → debe propagarse sin traducir")
+        void crearTicket_otraViolacion_debePropagar() {
+            // Given
+            TicketCreateRequest request = validTicketRequest();
+            DataIntegrityViolationException violacion = new DataIntegrityViolationException("numero duplicado",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), "ticket_numero_key"));
+            when(ticketRepository.save(any(Ticket.class))).thenThrow(violacion);
+
+            // When + Then
+            assertThatThrownBy(() -> ticketService.crearTicket(request)).isSameAs(violacion);
         }
 
         @Test
@@ -116,9 +259,7 @@ class TicketServiceTest {
             TicketCreateRequest request = ticketRequestSinTelefono();
             Ticket ticketGuardado = ticketWaiting().telefono(null).build();
 
-            when(ticketRepository.findByNationalIdAndStatusIn(anyString(), any()))
-                .thenReturn(Optional.empty());
-            when(ticketRepository.countByQueueTypeAndStatus(any(), any())).thenReturn(0L);
+            when(queuePositionIndex.contarEnEspera(any())).thenReturn(0);
             when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketGuardado);
 
             // When
@@ -127,7 +268,7 @@ class TicketServiceTest {
             // Then
             assertThat(response).isNotNull();
             verify(telegramService, never()).enviarMensaje(any(), any());
-            verify(mensajeRepository, never()).save(any());
+            verify(eventPublisher, never()).publishEvent(any(TelegramNotificationRequestedEvent.class));
         }
 
         @Test
@@ -146,10 +287,8 @@ class TicketServiceTest {
             TicketCreateRequest request = validTicketRequest();
             Ticket ticketGuardado = ticketWaiting().build();
 
-            when(ticketRepository.findByNationalIdAndStatusIn(anyString(), any()))
-                .thenReturn(Optional.empty());
-            when(ticketRepository.countByQueueTypeAndStatus(QueueType.CAJA, TicketStatus.EN_ESPERA))
-                .thenReturn(3L); // 3 tickets en espera
+            when(queuePositionIndex.contarEnEspera(QueueType.CAJA)).thenReturn(3); // 3 tickets en espera
+            when(ticketNumberSequencer.siguienteNumero(eq(QueueType.CAJA), eq("Sucursal Centro"), any(LocalDate.class))).thenReturn("C017");
             when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketGuardado);
 
             // When
@@ -162,6 +301,156 @@ class TicketServiceTest {
             Ticket ticket = captor.getValue();
             assertThat(ticket.getPositionInQueue()).isEqualTo(4); // 3 + 1
             assertThat(ticket.getEstimatedWaitMinutes()).isEqualTo(20); // 5 * 4
+            assertThat(ticket.getNumero()).isEqualTo("C017"); // Independiente de la posición
+            verify(ticketNumberSequencer).siguienteNumero(QueueType.CAJA, "Sucursal Centro",
+                ticket.getCreatedAt().toLocalDate()); // Numerado en el día de su created_at
+        }
+    }
+
+    // ============================================================
+    // CREAR TICKETS POR LOTE
+    // ============================================================
+
+    @Nested
+    @DisplayName("crearTicketsLote()")
+    class CrearTicketsLote {
+
+        private TicketCreateRequest request(String nationalId, QueueType queueType) {
+            return new TicketCreateRequest(nationalId, "+56912345678", "Sucursal Centro", queueType);
+        }
+
+        private void dadoGuardadoEnBatch() {
+            when(ticketRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        }
+
+        @Test
+        @DisplayName("con lote válido → debe calcular posiciones y números una vez por cola e insertar en batch")
+        void crearTicketsLote_conLoteValido_debeInsertarEnBatch() {
+            // Given
+            List<TicketCreateRequest> requests = List.of(
+                request("11111111", QueueType.CAJA),
+                request("22222222", QueueType.EMPRESAS),
+                request("33333333", QueueType.CAJA));
+            when(queuePositionIndex.contarEnEspera(QueueType.CAJA)).thenReturn(2);
+            when(queuePositionIndex.contarEnEspera(QueueType.EMPRESAS)).thenReturn(0);
+            when(ticketNumberSequencer.siguientesNumeros(eq(QueueType.CAJA), eq("Sucursal Centro"), any(LocalDate.class), eq(2)))
+                .thenReturn(List.of("C010", "C011"));
+            when(ticketNumberSequencer.siguientesNumeros(eq(QueueType.EMPRESAS), eq("Sucursal Centro"), any(LocalDate.class), eq(1)))
+                .thenReturn(List.of("E004"));
+            dadoGuardadoEnBatch();
+
+            // When
+            TicketBatchResponse response = ticketService.crearTicketsLote(requests);
+
+            // Then
+            assertThat(response.creados()).isEqualTo(3);
+            assertThat(response.resultados()).extracting(r -> r.ticket().numero())
+                .containsExactly("C010", "E004", "C011");
+            assertThat(response.resultados()).extracting(r -> r.ticket().positionInQueue())
+                .containsExactly(3, 1, 4);
+
+            verify(queuePositionIndex, times(1)).contarEnEspera(QueueType.CAJA);
+            verify(ticketRepository, times(1)).saveAll(anyList());
+            verify(ticketRepository, never()).save(any(Ticket.class));
+            verify(queuePositionIndex, times(3)).registrar(any(Ticket.class));
+            verify(activeNationalIdCache).registrar("33333333", "C011");
+            verify(eventPublisher, times(3)).publishEvent(any(TelegramNotificationRequestedEvent.class));
+            verify(eventPublisher, times(2)).publishEvent(any(TicketNearTurnEvent.class));  // posiciones 3 y 1
+        }
+
+        @Test
+        @DisplayName("con ticket inválido o RUT repetido → debe rechazarlos y crear el resto")
+        void crearTicketsLote_conRechazos_debeCrearElResto() {
+            // Given
+            TicketCreateRequest invalido = request("", QueueType.CAJA);
+            @SuppressWarnings("unchecked")
+            ConstraintViolation<TicketCreateRequest> violacion = mock(ConstraintViolation.class);
+            when(violacion.getMessage()).thenReturn("El RUT/ID es obligatorio");
+            when(validator.validate(any(TicketCreateRequest.class)))
+                .thenAnswer(inv -> inv.getArgument(0) == invalido ? Set.of(violacion) : Set.of());
+            when(ticketNumberSequencer.siguientesNumeros(eq(QueueType.CAJA), eq("Sucursal Centro"), any(LocalDate.class), eq(1)))
+                .thenReturn(List.of("C001"));
+            dadoGuardadoEnBatch();
+
+            // When
+            TicketBatchResponse response = ticketService.crearTicketsLote(Arrays.asList(
+                request("11111111", QueueType.CAJA), invalido, request("11111111", QueueType.CAJA), null));
+
+            // Then
+            assertThat(response.resultados()).extracting(TicketBatchItemResult::resultado).containsExactly(
+                TicketBatchItemResult.Resultado.CREADO,
+                TicketBatchItemResult.Resultado.INVALIDO,
+                TicketBatchItemResult.Resultado.DUPLICADO,
+                TicketBatchItemResult.Resultado.INVALIDO);
+            assertThat(response.resultados().get(1).error()).isEqualTo("El RUT/ID es obligatorio");
+            assertThat(response.rechazados()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("con RUT activo según caché → debe confirmarlos en una sola consulta")
+        void crearTicketsLote_conRutsEnCache_debeConfirmarEnUnaConsulta() {
+            // Given: uno sigue activo y el otro ya fue atendido (caché desactualizado)
+            when(activeNationalIdCache.numeroActivo("11111111")).thenReturn(Optional.of("C003"));
+            when(activeNationalIdCache.numeroActivo("22222222")).thenReturn(Optional.of("C004"));
+            when(ticketRepository.findByNationalIdInAndStatusIn(anyCollection(), anyList()))
+                .thenReturn(List.of(ticketWaiting().nationalId("11111111").numero("C003").build()));
+            when(ticketNumberSequencer.siguientesNumeros(eq(QueueType.CAJA), eq("Sucursal Centro"), any(LocalDate.class), eq(1)))
+                .thenReturn(List.of("C020"));
+            dadoGuardadoEnBatch();
+
+            // When
+            TicketBatchResponse response = ticketService.crearTicketsLote(List.of(
+                request("11111111", QueueType.CAJA), request("22222222", QueueType.CAJA)));
+
+            // Then
+            assertThat(response.resultados().get(0).resultado()).isEqualTo(TicketBatchItemResult.Resultado.DUPLICADO);
+            assertThat(response.resultados().get(0).error()).contains("C003");
+            assertThat(response.resultados().get(1).ticket().numero()).isEqualTo("C020");
+            verify(ticketRepository, times(1)).findByNationalIdInAndStatusIn(anyCollection(), anyList());
+            verify(activeNationalIdCache).liberar("22222222");
+        }
+
+        @Test
+        @DisplayName("lote rechazado por el índice único → debe reintentar ticket a ticket")
+        void crearTicketsLote_violacionIndiceUnico_debeReintentarUnoAUno() {
+            // Given
+            when(ticketNumberSequencer.siguientesNumeros(eq(QueueType.CAJA), anyString(), any(LocalDate.class), anyInt()))
+                .thenReturn(List.of("C001", "C002"));
+            when(ticketRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"),
+                    TicketService.INDICE_TICKET_ACTIVO)));
+            when(ticketNumberSequencer.siguienteNumero(eq(QueueType.CAJA), eq("Sucursal Centro"), any(LocalDate.class))).thenReturn("C003", "C004");
+            when(ticketRepository.save(any(Ticket.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key",
+                    new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"),
+                        TicketService.INDICE_TICKET_ACTIVO)))
+                .thenAnswer(inv -> inv.getArgument(0));
+            when(ticketRepository.findFirstByNationalIdAndStatusInOrderByCreatedAtAsc(eq("11111111"), any()))
+                .thenReturn(Optional.of(ticketWaiting().numero("C099").build()));
+
+            // When
+            TicketBatchResponse response = ticketService.crearTicketsLote(List.of(
+                request("11111111", QueueType.CAJA), request("22222222", QueueType.CAJA)));
+
+            // Then
+            assertThat(response.resultados()).extracting(TicketBatchItemResult::resultado).containsExactly(
+                TicketBatchItemResult.Resultado.DUPLICADO, TicketBatchItemResult.Resultado.CREADO);
+            assertThat(response.resultados().get(1).ticket().numero()).isEqualTo("C004");
+            verify(ticketRepository, times(2)).save(any(Ticket.class));
+            verify(ticketMetrics, never()).medir(eq(TicketMetrics.CREAR), any(Supplier.class));
+        }
+
+        @Test
+        @DisplayName("con lote vacío o mayor al máximo → debe lanzar IllegalArgumentException")
+        void crearTicketsLote_conLoteFueraDeRango_debeLanzarExcepcion() {
+            List<TicketCreateRequest> excedido = Collections.nCopies(TicketService.MAXIMO_LOTE + 1, validTicketRequest());
+
+            assertThatThrownBy(() -> ticketService.crearTicketsLote(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> ticketService.crearTicketsLote(excedido))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("máximo");
+            verifyNoInteractions(ticketRepository);
         }
     }
 
@@ -180,13 +469,10 @@ class TicketServiceTest {
             Ticket ticket = ticketWaiting().build();
             Advisor advisor = advisorAvailable().build();
 
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
             when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
-            when(ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(any(), any()))
-                .thenReturn(List.of());
+            dadoTomado(ticket, advisor);
             when(telegramService.obtenerTextoMensaje(anyString(), anyString(), any(), any(), anyString(), any()))
                 .thenReturn("Es tu turno");
-            when(telegramService.enviarMensaje(anyString(), anyString())).thenReturn("msg_456");
 
             // When
             ticketService.llamarTicket(1L, 1L);
@@ -196,21 +482,87 @@ class TicketServiceTest {
             assertThat(ticket.getAssignedAdvisor()).isEqualTo(advisor);
             assertThat(ticket.getAssignedModuleNumber()).isEqualTo(advisor.getModuleNumber());
 
-            verify(ticketRepository).save(ticket);
-            verify(telegramService).enviarMensaje(eq("+56912345678"), anyString());
+            verify(ticketRepository, never()).save(any(Ticket.class));
+            verify(ticketRepository, never()).findById(any());
+
+            ArgumentCaptor<TelegramNotificationRequestedEvent> captor =
+                ArgumentCaptor.forClass(TelegramNotificationRequestedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertThat(captor.getValue().plantilla()).isEqualTo("totem_es_tu_turno");
+            assertThat(captor.getValue().texto()).isEqualTo("Es tu turno");
+        }
+
+        @Test
+        @DisplayName("ticket entre los primeros → debe avisar al nuevo tercero de la fila")
+        void llamarTicket_entreLosPrimeros_debePublicarProximoTurno() {
+            // Given
+            Ticket ticket = ticketWaiting().telefono(null).build();
+            Advisor advisor = advisorAvailable().build();
+
+            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
+            dadoTomado(ticket, advisor);
+            when(queuePositionIndex.obtenerPosicion(ticket)).thenReturn(OptionalInt.of(1));
+            when(queuePositionIndex.obtenerTicketEnPosicion(ticket.getQueueType(), 3)).thenReturn(OptionalLong.of(9L));
+
+            // When
+            ticketService.llamarTicket(1L, 1L);
+
+            // Then
+            ArgumentCaptor<TicketNearTurnEvent> captor = ArgumentCaptor.forClass(TicketNearTurnEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            assertThat(captor.getValue()).isEqualTo(new TicketNearTurnEvent(9L, ticket.getQueueType(), 3));
+        }
+
+        @Test
+        @DisplayName("ticket más atrás de la tercera posición → no debe avisar próximo turno")
+        void llamarTicket_masAtras_noDebePublicarProximoTurno() {
+            // Given
+            Ticket ticket = ticketWaiting().telefono(null).build();
+            Advisor advisor = advisorAvailable().build();
+
+            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
+            dadoTomado(ticket, advisor);
+            when(queuePositionIndex.obtenerPosicion(ticket)).thenReturn(OptionalInt.of(5));
+
+            // When
+            ticketService.llamarTicket(1L, 1L);
+
+            // Then
+            verify(eventPublisher, never()).publishEvent(any(TicketNearTurnEvent.class));
+            verify(queuePositionIndex, never()).obtenerTicketEnPosicion(any(), anyInt());
         }
 
         @Test
         @DisplayName("con ticket no en espera → debe lanzar IllegalStateException")
         void llamarTicket_ticketNoEnEspera_debeLanzarExcepcion() {
-            // Given
+            // Given: el UPDATE condicional no encuentra el ticket en espera
             Ticket ticket = ticketCompleted().build();
+            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisorAvailable().build()));
+            when(ticketRepository.tomarParaAtencion(eq(1L), eq(1L), eq(1), any())).thenReturn(List.of());
             when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
 
             // When + Then
             assertThatThrownBy(() -> ticketService.llamarTicket(1L, 1L))
                 .isInstanceOf(IllegalStateException.class)
-                .hasMessageContaining("no está en espera");
+                .hasMessageContaining("no está en espera")
+                .hasMessageContaining("COMPLETADO");
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("llamado concurrente ya tomado por otro asesor → debe rechazar sin notificar ni retirar de la fila")
+        void llamarTicket_yaTomadoPorOtroAsesor_debeRechazar() {
+            // Given: otro asesor ganó el UPDATE condicional
+            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisorAvailable().build()));
+            when(ticketRepository.tomarParaAtencion(eq(1L), eq(1L), eq(1), any())).thenReturn(List.of());
+            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticketAttending().build()));
+
+            // When + Then
+            assertThatThrownBy(() -> ticketService.llamarTicket(1L, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ATENDIENDO");
+            verify(queuePositionIndex, never()).retirar(any(Ticket.class));
+            verifyNoInteractions(eventPublisher);
         }
 
         @Test
@@ -227,6 +579,98 @@ class TicketServiceTest {
         }
     }
 
+    // ============================================================
+    // LLAMAR SIGUIENTE
+    // ============================================================
+
+    @Nested
+    @DisplayName("llamarSiguiente()")
+    class LlamarSiguiente {
+
+        @SuppressWarnings("unchecked")
+        private void dadoCandidato(long ticketId, QueueType queueType) {
+            when(nextTicketScheduler.tomarSiguiente(any())).thenAnswer(inv -> inv
+                .<Function<QueuePositionIndex.TicketEnEspera, Optional<Ticket>>>getArgument(0)
+                .apply(new QueuePositionIndex.TicketEnEspera(ticketId, queueType, 0L)));
+        }
+
+        @Test
+        @DisplayName("con ticket en espera → debe tomarlo con UPDATE condicional, retirarlo de la fila y notificar")
+        void llamarSiguiente_conTicketEnEspera_debeTomarYNotificar() {
+            // Given
+            Advisor advisor = advisorAvailable().build();
+            Ticket tomado = ticketWaiting().id(7L).numero("G002").queueType(QueueType.GERENCIA)
+                .status(TicketStatus.ATENDIENDO).assignedAdvisor(advisor).assignedModuleNumber(1).build();
+            when(advisorRepository.findByIdParaLlamado(1L)).thenReturn(Optional.of(advisor));
+            dadoCandidato(7L, QueueType.GERENCIA);
+            when(ticketRepository.tomarParaAtencion(eq(7L), eq(1L), eq(1), any())).thenReturn(List.of(tomado));
+            when(telegramService.obtenerTextoMensaje(anyString(), anyString(), any(), any(), anyString(), any()))
+                .thenReturn("Es tu turno");
+
+            // When
+            Optional<TicketResponse> response = ticketService.llamarSiguiente(1L);
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().id()).isEqualTo(7L);
+            assertThat(response.get().numero()).isEqualTo("G002");
+            assertThat(response.get().status()).isEqualTo(TicketStatus.ATENDIENDO);
+            assertThat(response.get().assignedAdvisor()).isEqualTo("María López");
+            verify(queuePositionIndex).retirar(tomado);
+            verify(ticketRepository, never()).save(any(Ticket.class));
+            verify(eventPublisher).publishEvent(any(TelegramNotificationRequestedEvent.class));
+        }
+
+        @Test
+        @DisplayName("sin tickets en espera → debe retornar vacío")
+        void llamarSiguiente_sinTickets_debeRetornarVacio() {
+            // Given
+            when(advisorRepository.findByIdParaLlamado(1L)).thenReturn(Optional.of(advisorAvailable().build()));
+            when(nextTicketScheduler.tomarSiguiente(any())).thenReturn(Optional.empty());
+
+            // When + Then
+            assertThat(ticketService.llamarSiguiente(1L)).isEmpty();
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("con asesor OFFLINE → debe lanzar IllegalStateException sin tomar tickets")
+        void llamarSiguiente_asesorOffline_debeLanzarExcepcion() {
+            // Given
+            when(advisorRepository.findByIdParaLlamado(1L))
+                .thenReturn(Optional.of(advisorAvailable().status(AdvisorStatus.OFFLINE).build()));
+
+            // When + Then
+            assertThatThrownBy(() -> ticketService.llamarSiguiente(1L))
+                .isInstanceOf(IllegalStateException.class);
+            verifyNoInteractions(nextTicketScheduler);
+        }
+
+        @Test
+        @DisplayName("con asesor que ya atiende un ticket → debe lanzar IllegalStateException sin tomar otro")
+        void llamarSiguiente_asesorAtendiendo_debeLanzarExcepcion() {
+            // Given: un doble clic o un asesor BUSY que no finalizó su ticket
+            when(advisorRepository.findByIdParaLlamado(1L))
+                .thenReturn(Optional.of(advisorAvailable().status(AdvisorStatus.BUSY).build()));
+            when(ticketRepository.tieneTicketEnAtencion(1L)).thenReturn(true);
+
+            // When + Then
+            assertThatThrownBy(() -> ticketService.llamarSiguiente(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ya tiene un ticket en atención");
+            verifyNoInteractions(nextTicketScheduler);
+            verify(ticketRepository, never()).tomarParaAtencion(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("con asesor inexistente → debe lanzar IllegalArgumentException")
+        void llamarSiguiente_asesorInexistente_debeLanzarExcepcion() {
+            assertThatThrownBy(() -> ticketService.llamarSiguiente(99L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("99");
+        }
+    }
+
     // ============================================================
     // FINALIZAR TICKET
     // ============================================================
@@ -239,15 +683,16 @@ class TicketServiceTest {
         @DisplayName("con ticket atendiendo → debe finalizar correctamente")
         void finalizarTicket_conTicketAtendiendo_debeFinalizarCorrectamente() {
             // Given
-            Ticket ticket = ticketAttending().build();
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
+            Ticket ticket = dadoCompletado(ticketAttending().build());
 
             // When
             ticketService.finalizarTicket(1L);
 
             // Then
-            assertThat(ticket.getStatus()).isEqualTo(TicketStatus.COMPLETADO);
-            verify(ticketRepository).save(ticket);
+            verify(ticketRepository, never()).save(any(Ticket.class));
+            verify(activeNationalIdCache).liberar(ticket.getNationalId());
+            verify(eventPublisher).publishEvent(new TicketStatusChangedEvent(
+                ticket.getId(), ticket.getQueueType(), TicketStatus.ATENDIENDO, TicketStatus.COMPLETADO));
         }
 
         @Test
@@ -255,12 +700,14 @@ class TicketServiceTest {
         void finalizarTicket_ticketNoAtendiendo_debeLanzarExcepcion() {
             // Given
             Ticket ticket = ticketWaiting().build();
+            when(ticketRepository.completarAtencion(eq(1L), any())).thenReturn(List.of());
             when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
 
             // When + Then
             assertThatThrownBy(() -> ticketService.finalizarTicket(1L))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("not being attended");
+            verify(activeNationalIdCache, never()).liberar(any());
         }
 
         @Test
@@ -276,6 +723,7 @@ class TicketServiceTest {
         @DisplayName("con ticket inexistente → debe lanzar IllegalArgumentException")
         void finalizarTicket_conTicketInexistente_debeLanzarExcepcion() {
             // Given
+            when(ticketRepository.completarAtencion(eq(999L), any())).thenReturn(List.of());
             when(ticketRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When + Then
@@ -341,7 +789,7 @@ class TicketServiceTest {
         void obtenerTicket_conNumeroExistente_debeRetornarTicket() {
             // Given
             Ticket ticket = ticketWaiting().numero("C001").build();
-            when(ticketRepository.findByNumero("C001")).thenReturn(Optional.of(ticket));
+            when(ticketRepository.findFirstByNumeroOrderByCreatedAtDesc("C001")).thenReturn(Optional.of(ticket));
 
             // When
             Optional<TicketResponse> response = ticketService.obtenerTicketPorNumero("C001");
@@ -349,19 +797,53 @@ class TicketServiceTest {
             // Then
             assertThat(response).isPresent();
             assertThat(response.get().numero()).isEqualTo("C001");
+            verifyNoInteractions(ticketHistoryRepository);
         }
 
         @Test
         @DisplayName("con número inexistente → debe retornar Optional.empty()")
         void obtenerTicket_conNumeroInexistente_debeRetornarEmpty() {
             // Given
-            when(ticketRepository.findByNumero("C999")).thenReturn(Optional.empty());
+            when(ticketRepository.findFirstByNumeroOrderByCreatedAtDesc("C999")).thenReturn(Optional.empty());
 
             // When
             Optional<TicketResponse> response = ticketService.obtenerTicketPorNumero("C999");
 
             // Then
             assertThat(response).isEmpty();
+            verify(ticketHistoryRepository).findFirstByNumeroOrderByCreatedAtDesc("C999");
+        }
+
+        @Test
+        @DisplayName("con ticket ya archivado → debe retornarlo desde el historial")
+        void obtenerTicket_archivado_debeBuscarEnHistorial() {
+            // Given
+            TicketHistory archivado = TicketHistory.builder()
+                .id(7L)
+                .numero("C001")
+                .nationalId("12345678-9")
+                .branchOffice("Sucursal Centro")
+                .queueType(QueueType.CAJA)
+                .status(TicketStatus.COMPLETADO)
+                .positionInQueue(4)
+                .estimatedWaitMinutes(20)
+                .assignedAdvisor(advisorAvailable().build())
+                .assignedModuleNumber(1)
+                .createdAt(LocalDateTime.now().minusDays(3))
+                .updatedAt(LocalDateTime.now().minusDays(3))
+                .build();
+            when(ticketRepository.findFirstByNumeroOrderByCreatedAtDesc("C001")).thenReturn(Optional.empty());
+            when(ticketHistoryRepository.findFirstByNumeroOrderByCreatedAtDesc("C001")).thenReturn(Optional.of(archivado));
+
+            // When
+            Optional<TicketResponse> response = ticketService.obtenerTicketPorNumero("c001");
+
+            // Then
+            assertThat(response).isPresent();
+            assertThat(response.get().status()).isEqualTo(TicketStatus.COMPLETADO);
+            assertThat(response.get().positionInQueue()).isEqualTo(4);
+            assertThat(response.get().assignedAdvisor()).isEqualTo("María López");
+            verifyNoInteractions(queuePositionIndex);
         }
 
         @Test
@@ -387,13 +869,13 @@ class TicketServiceTest {
         void obtenerTicket_debeNormalizarNumeroTicket() {
             // Given
             Ticket ticket = ticketWaiting().numero("C001").build();
-            when(ticketRepository.findByNumero("C001")).thenReturn(Optional.of(ticket));
+            when(ticketRepository.findFirstByNumeroOrderByCreatedAtDesc("C001")).thenReturn(Optional.of(ticket));
 
             // When
             ticketService.obtenerTicketPorNumero(" c001 ");
 
             // Then
-            verify(ticketRepository).findByNumero("C001");
+            verify(ticketRepository).findFirstByNumeroOrderByCreatedAtDesc("C001");
         }
     }
 
@@ -406,20 +888,16 @@ class TicketServiceTest {
     class CasosEdge {
 
         @Test
-        @DisplayName("crearTicket con error en notificación → debe crear ticket sin fallar")
-        void crearTicket_conErrorEnNotificacion_debeCrearTicket() {
+        @DisplayName("crearTicket → no debe llamar a Telegram dentro de la transacción")
+        void crearTicket_noDebeLlamarTelegramEnTransaccion() {
             // Given
             TicketCreateRequest request = validTicketRequest();
             Ticket ticketGuardado = ticketWaiting().build();
 
-            when(ticketRepository.findByNationalIdAndStatusIn(anyString(), any()))
-                .thenReturn(Optional.empty());
-            when(ticketRepository.countByQueueTypeAndStatus(any(), any())).thenReturn(0L);
+            when(queuePositionIndex.contarEnEspera(any())).thenReturn(0);
             when(ticketRepository.save(any(Ticket.class))).thenReturn(ticketGuardado);
             when(telegramService.obtenerTextoMensaje(anyString(), anyString(), any(), any(), any(), any()))
                 .thenReturn("Mensaje");
-            when(telegramService.enviarMensaje(anyString(), anyString()))
-                .thenThrow(new RuntimeException("Error Telegram"));
 
             // When
             TicketResponse response = ticketService.crearTicket(request);
@@ -427,8 +905,8 @@ class TicketServiceTest {
             // Then
             assertThat(response).isNotNull();
             verify(ticketRepository).save(any(Ticket.class));
-            // No debe guardar mensaje si falla el envío
-            verify(mensajeRepository, never()).save(any(Mensaje.class));
+            // El envío lo realiza TelegramDispatcher después del commit
+            verify(telegramService, never()).enviarMensaje(any(), any());
         }
 
         @Test
@@ -438,10 +916,8 @@ class TicketServiceTest {
             Ticket ticket = ticketWaiting().telefono(null).build();
             Advisor advisor = advisorAvailable().build();
 
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
             when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
-            when(ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(any(), any()))
-                .thenReturn(List.of());
+            dadoTomado(ticket, advisor);
 
             // When
             ticketService.llamarTicket(1L, 1L);
@@ -452,70 +928,64 @@ class TicketServiceTest {
         }
 
         @Test
-        @DisplayName("llamarTicket con error en notificación → debe asignar sin fallar")
-        void llamarTicket_conErrorEnNotificacion_debeAsignar() {
+        @DisplayName("llamarTicket → no debe llamar a Telegram dentro de la transacción")
+        void llamarTicket_noDebeLlamarTelegramEnTransaccion() {
             // Given
             Ticket ticket = ticketWaiting().build();
             Advisor advisor = advisorAvailable().build();
 
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
             when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
-            when(ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(any(), any()))
-                .thenReturn(List.of());
+            dadoTomado(ticket, advisor);
             when(telegramService.obtenerTextoMensaje(anyString(), anyString(), any(), any(), anyString(), any()))
                 .thenReturn("Mensaje");
-            when(telegramService.enviarMensaje(anyString(), anyString()))
-                .thenThrow(new RuntimeException("Error Telegram"));
 
             // When
             ticketService.llamarTicket(1L, 1L);
 
             // Then
             assertThat(ticket.getStatus()).isEqualTo(TicketStatus.ATENDIENDO);
-            verify(ticketRepository).save(ticket);
+            verify(telegramService, never()).enviarMensaje(any(), any());
         }
 
         @Test
-        @DisplayName("llamarTicket debe actualizar posiciones de tickets restantes")
-        void llamarTicket_debeActualizarPosicionesTicketsRestantes() {
+        @DisplayName("llamarTicket debe retirar el ticket del índice sin reescribir la cola")
+        void llamarTicket_debeRetirarDelIndiceSinReescribirCola() {
             // Given
             Ticket ticketLlamado = ticketWaiting().positionInQueue(1).build();
-            Ticket ticket2 = ticketWaiting().positionInQueue(2).build();
-            Ticket ticket3 = ticketWaiting().positionInQueue(3).build();
             Advisor advisor = advisorAvailable().build();
 
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticketLlamado));
             when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisor));
-            when(ticketRepository.findByQueueTypeAndStatusInOrderByCreatedAtAsc(any(), any()))
-                .thenReturn(List.of(ticket2, ticket3));
+            dadoTomado(ticketLlamado, advisor);
 
             // When
             ticketService.llamarTicket(1L, 1L);
 
             // Then
-            assertThat(ticket2.getPositionInQueue()).isEqualTo(1); // Bajó de 2 a 1
-            assertThat(ticket3.getPositionInQueue()).isEqualTo(2); // Bajó de 3 a 2
-            verify(ticketRepository, times(1)).save(any(Ticket.class)); // Solo ticketLlamado
+            verify(queuePositionIndex).retirar(ticketLlamado);
+            verify(ticketRepository, never()).save(any(Ticket.class));
+            verify(ticketRepository, never()).saveAll(any());
+            verify(ticketRepository, never()).findByQueueTypeAndStatusInOrderByCreatedAtAsc(any(), any());
         }
 
         @Test
         @DisplayName("llamarTicket con advisor inexistente → debe lanzar excepción")
         void llamarTicket_conAdvisorInexistente_debeLanzarExcepcion() {
             // Given
-            Ticket ticket = ticketWaiting().build();
-            when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
             when(advisorRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When + Then
             assertThatThrownBy(() -> ticketService.llamarTicket(1L, 999L))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Asesor no encontrado con ID: 999");
+            verify(ticketRepository, never()).tomarParaAtencion(any(), any(), any(), any());
         }
 
         @Test
         @DisplayName("llamarTicket con ticket inexistente → debe lanzar excepción")
         void llamarTicket_conTicketInexistente_debeLanzarExcepcion() {
             // Given
+            when(advisorRepository.findById(1L)).thenReturn(Optional.of(advisorAvailable().build()));
+            when(ticketRepository.tomarParaAtencion(eq(999L), eq(1L), eq(1), any())).thenReturn(List.of());
             when(ticketRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When + Then
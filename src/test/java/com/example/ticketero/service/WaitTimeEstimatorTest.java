@@ -0,0 +1,275 @@
+package com.example.ticketero.service;
+
+import com.example.ticketero.event.AdvisorStatusChangedEvent;
+import com.example.ticketero.event.TicketStatusChangedEvent;
+import com.example.ticketero.model.dto.AdvisorStatusCount;
+import com.example.ticketero.model.enums.AdvisorStatus;
+import com.example.ticketero.model.enums.QueueType;
+import com.example.ticketero.model.enums.TicketStatus;
+import com.example.ticketero.repository.AdvisorRepository;
+import com.example.ticketero.service.WaitTimeEstimator.CuantilP2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitTimeEstimator - Unit Tests")
+class WaitTimeEstimatorTest {
+
+    @Mock
+    private AdvisorRepository advisorRepository;
+
+    private WaitTimeEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        estimator = new WaitTimeEstimator(advisorRepository, 0.5);
+    }
+
+    private void dadoAsesoresActivos(int cantidad) {
+        when(advisorRepository.countGroupedByStatus()).thenReturn(List.of(
+            new AdvisorStatusCount(AdvisorStatus.AVAILABLE, (long) cantidad),
+            new AdvisorStatusCount(AdvisorStatus.OFFLINE, 7L)));
+        estimator.reconstruir();
+    }
+
+    @Nested
+    @DisplayName("estimarEsperaMinutos()")
+    class EstimarEspera {
+
+        @Test
+        @DisplayName("sin atenciones observadas → debe usar el tiempo promedio de la cola")
+        void estimar_sinObservaciones_debeUsarPromedioDeLaCola() {
+            assertThat(estimator.estimarEsperaMinutos(QueueType.EMPRESAS, 3))
+                .isEqualTo(3 * QueueType.EMPRESAS.getAvgTimeMinutes());
+            assertThat(estimator.tiempoAtencionMinutos(QueueType.EMPRESAS))
+                .isEqualTo(QueueType.EMPRESAS.getAvgTimeMinutes());
+        }
+
+        @Test
+        @DisplayName("atenciones observadas → debe usar su EWMA y repartir entre asesores activos")
+        void estimar_conObservaciones_debeUsarEwmaYAsesores() {
+            // Given: EWMA con alpha 0.5 de 600 s y 1200 s = 900 s
+            dadoAsesoresActivos(3);
+            estimator.registrarAtencion(QueueType.CAJA, 3, 600);
+            estimator.registrarAtencion(QueueType.CAJA, 3, 1200);
+
+            // When
+            int espera = estimator.estimarEsperaMinutos(QueueType.CAJA, 6);
+
+            // Then: 6 × 15 min / 3 asesores
+            assertThat(espera).isEqualTo(30);
+            assertThat(estimator.tiempoAtencionMinutos(QueueType.CAJA)).isEqualTo(15);
+        }
+
+        @Test
+        @DisplayName("hora con suficientes atenciones → debe preferir el EWMA de esa hora")
+        void estimar_horaConMuestras_debePreferirEwmaDeLaHora() {
+            // Given
+            int horaActual = LocalDateTime.now().getHour();
+            int otraHora = (horaActual + 12) % 24;
+            for (int i = 0; i < WaitTimeEstimator.MUESTRAS_MINIMAS_POR_HORA; i++) {
+                estimator.registrarAtencion(QueueType.PERSONAL_BANKER, horaActual, 120);
+            }
+            estimator.registrarAtencion(QueueType.PERSONAL_BANKER, otraHora, 3600);
+
+            // When + Then: la hora actual (2 min) pesa sobre el EWMA global, arrastrado por la otra hora
+            assertThat(estimator.estimarEsperaMinutos(QueueType.PERSONAL_BANKER, 1)).isEqualTo(2);
+            assertThat(estimator.tiempoAtencionMinutos(QueueType.PERSONAL_BANKER)).isEqualTo(31);
+        }
+
+        @Test
+        @DisplayName("espera máxima → debe usar el percentil 90 observado")
+        void estimarMaxima_debeUsarPercentil90() {
+            // Given: 100 atenciones de 1 a 100 minutos
+            List<Integer> minutos = new ArrayList<>();
+            for (int m = 1; m <= 100; m++) {
+                minutos.add(m);
+            }
+            Collections.shuffle(minutos, new Random(3));
+            minutos.forEach(m -> estimator.registrarAtencion(QueueType.GERENCIA, 10, m * 60.0));
+
+            // When
+            int espera = estimator.estimarEsperaMaximaMinutos(QueueType.GERENCIA, 1);
+
+            // Then
+            assertThat(espera).isBetween(85, 95);
+        }
+    }
+
+    @Nested
+    @DisplayName("eventos")
+    class Eventos {
+
+        @Test
+        @DisplayName("creación, llamado y finalización → debe registrar espera y atención")
+        void alCambiarEstadoTicket_cicloCompleto_debeRegistrarMediciones() {
+            // When
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, null, TicketStatus.EN_ESPERA));
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, TicketStatus.EN_ESPERA, TicketStatus.ATENDIENDO));
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, TicketStatus.ATENDIENDO, TicketStatus.COMPLETADO));
+
+            // Then: atención de milisegundos en lugar de los 30 min configurados
+            assertThat(estimator.tiempoAtencionMinutos(QueueType.GERENCIA)).isEqualTo(1);
+            assertThat(estimator.esperaPromedioMinutos()).isZero();
+            assertThat(estimator.horaPico()).isNotEqualTo(WaitTimeEstimator.SIN_DATOS);
+        }
+
+        @Test
+        @DisplayName("ticket reencolado durante la atención → no debe registrar atención")
+        void alCambiarEstadoTicket_reencolado_noDebeRegistrarAtencion() {
+            // When
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, TicketStatus.EN_ESPERA, TicketStatus.ATENDIENDO));
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, TicketStatus.ATENDIENDO, TicketStatus.EN_ESPERA));
+            estimator.alCambiarEstadoTicket(new TicketStatusChangedEvent(1L, QueueType.GERENCIA, TicketStatus.ATENDIENDO, TicketStatus.COMPLETADO));
+
+            // Then
+            assertThat(estimator.tiempoAtencionMinutos(QueueType.GERENCIA))
+                .isEqualTo(QueueType.GERENCIA.getAvgTimeMinutes());
+        }
+
+        @Test
+        @DisplayName("asesor que se conecta o desconecta → debe ajustar los asesores activos")
+        void alCambiarEstadoAsesor_debeAjustarActivos() {
+            // Given
+            dadoAsesoresActivos(2);
+
+            // When
+            estimator.alCambiarEstadoAsesor(new AdvisorStatusChangedEvent(1L, AdvisorStatus.OFFLINE, AdvisorStatus.AVAILABLE));
+            estimator.alCambiarEstadoAsesor(new AdvisorStatusChangedEvent(2L, AdvisorStatus.AVAILABLE, AdvisorStatus.BUSY));
+            estimator.alCambiarEstadoAsesor(new AdvisorStatusChangedEvent(3L, AdvisorStatus.BUSY, AdvisorStatus.OFFLINE));
+            estimator.alCambiarEstadoAsesor(new AdvisorStatusChangedEvent(4L, AdvisorStatus.AVAILABLE, AdvisorStatus.OFFLINE));
+
+            // Then
+            assertThat(estimator.asesoresActivos()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("refresco periódico → debe corregir los asesores activos con la base")
+        void refrescarAsesoresActivos_debeTomarElConteoDeLaBase() {
+            // Given: otra instancia conectó asesores sin que llegara el evento a esta
+            dadoAsesoresActivos(2);
+            when(advisorRepository.countGroupedByStatus()).thenReturn(List.of(
+                new AdvisorStatusCount(AdvisorStatus.AVAILABLE, 3L),
+                new AdvisorStatusCount(AdvisorStatus.BUSY, 2L),
+                new AdvisorStatusCount(AdvisorStatus.OFFLINE, 1L)));
+
+            // When
+            estimator.refrescarAsesoresActivos();
+
+            // Then
+            assertThat(estimator.asesoresActivos()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("refresco con la base caída → debe conservar el último conteo")
+        void refrescarAsesoresActivos_fallaBase_debeConservarConteo() {
+            // Given
+            dadoAsesoresActivos(2);
+            when(advisorRepository.countGroupedByStatus()).thenThrow(new RuntimeException("Conexión cerrada"));
+
+            // When
+            estimator.refrescarAsesoresActivos();
+
+            // Then
+            assertThat(estimator.asesoresActivos()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("dashboard")
+    class Dashboard {
+
+        @Test
+        @DisplayName("sin llegadas → hora pico sin datos y espera promedio cero")
+        void sinDatos_debeInformarSinDatos() {
+            assertThat(estimator.horaPico()).isEqualTo(WaitTimeEstimator.SIN_DATOS);
+            assertThat(estimator.esperaPromedioMinutos()).isZero();
+        }
+
+        @Test
+        @DisplayName("llegadas del día → hora pico es la hora con más llegadas")
+        void horaPico_debeSerLaHoraConMasLlegadas() {
+            // Given
+            LocalDateTime hoy = LocalDateTime.of(2026, 10, 18, 0, 0);
+            estimator.registrarLlegada(hoy.withHour(9));
+            estimator.registrarLlegada(hoy.withHour(12));
+            estimator.registrarLlegada(hoy.withHour(12).withMinute(40));
+            estimator.registrarLlegada(hoy.withHour(16));
+
+            // When + Then
+            assertThat(estimator.horaPico()).isEqualTo("12:00-13:00");
+        }
+
+        @Test
+        @DisplayName("primera llegada de un nuevo día → debe reiniciar el conteo por hora")
+        void horaPico_nuevoDia_debeReiniciarConteo() {
+            // Given
+            LocalDateTime ayer = LocalDateTime.of(2026, 10, 17, 11, 0);
+            estimator.registrarLlegada(ayer);
+            estimator.registrarLlegada(ayer);
+
+            // When
+            estimator.registrarLlegada(ayer.plusDays(1).withHour(15));
+
+            // Then
+            assertThat(estimator.horaPico()).isEqualTo("15:00-16:00");
+        }
+    }
+
+    @Nested
+    @DisplayName("CuantilP2")
+    class Cuantil {
+
+        @Test
+        @DisplayName("100.000 muestras uniformes → p90 cercano al exacto")
+        void cuantilP2_muestrasUniformes_debeAproximarPercentil() {
+            // Given
+            CuantilP2 p90 = new CuantilP2(0.9);
+            Random random = new Random(11);
+
+            // When
+            for (int i = 0; i < 100_000; i++) {
+                p90.agregar(random.nextDouble() * 1000);
+            }
+
+            // Then
+            assertThat(p90.valor()).isCloseTo(900, within(10.0));
+            assertThat(p90.muestras()).isEqualTo(100_000);
+        }
+
+        @Test
+        @DisplayName("menos de cinco muestras → percentil por rango más cercano")
+        void cuantilP2_pocasMuestras_debeUsarRangoMasCercano() {
+            // Given
+            CuantilP2 mediana = new CuantilP2(0.5);
+            mediana.agregar(30);
+            mediana.agregar(10);
+            mediana.agregar(20);
+
+            // When + Then
+            assertThat(mediana.valor()).isEqualTo(20);
+        }
+    }
+
+    @Test
+    @DisplayName("factor EWMA fuera de (0, 1] → debe lanzar excepción")
+    void constructor_alphaInvalido_debeLanzarExcepcion() {
+        assertThatThrownBy(() -> new WaitTimeEstimator(advisorRepository, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("EWMA");
+    }
+}
@@ -4,6 +4,7 @@ import com.example.ticketero.model.dto.TicketCreateRequest;
 import com.example.ticketero.model.entity.*;
 import com.example.ticketero.model.enums.*;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -102,7 +103,9 @@ public class TestDataBuilder {
             .aggregateType("TICKET")
             .aggregateId(1L)
             .eventType("TICKET_CREATED")
-            .payload("{\"ticketId\":1,\"numero\":\"C001\",\"queueType\":\"CAJA\",\"telefono\":\"+56912345678\"}")
+            .payload("{\"ticketId\":1,\"numero\":\"C001\",\"queueType\":\"CAJA\",\"telefono\":\"+56912345678\"}"
+                .getBytes(StandardCharsets.UTF_8))
+            .contentType("application/json")
             .routingKey("caja-queue")
             .status("PENDING")
             .retryCount(0)